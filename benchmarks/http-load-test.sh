@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Load test for the HTTP API (Main --server). Needs bash, curl, xargs and awk.
+#
+#   benchmarks/http-load-test.sh [base-url] [requests] [concurrency]
+#
+# Defaults: http://localhost:8080, 2000 requests, 16 at a time. The mix is 20% order adds,
+# 40% reads of one date, 20% product list, 10% customer search and 10% revenue reports.
+# The adds are real orders, so point the server at a scratch folder, e.g.
+#
+#   java -Dorders.folder=/tmp/flooring-load -cp target/classes:<deps> org.example.Main --server
+set -euo pipefail
+
+BASE=${1:-http://localhost:8080}
+REQUESTS=${2:-2000}
+CONCURRENCY=${3:-16}
+#GNU date first, then BSD/macOS
+DATE=$(date -d "+30 days" +%F 2>/dev/null || date -v+30d +%F)
+YEAR=${DATE%%-*}
+export BASE DATE YEAR
+
+one_request() {
+    local i=$1 url method=GET body=""
+    case $((i % 10)) in
+        0|1) method=POST; url="$BASE/orders"
+             body="{\"orderDate\":\"$DATE\",\"customerName\":\"Load Test $i\",\"state\":\"TX\",\"productType\":\"Tile\",\"area\":\"150\"}" ;;
+        2|3|4|5) url="$BASE/orders?date=$DATE" ;;
+        6|7) url="$BASE/products" ;;
+        8) url="$BASE/orders?customer=load+test" ;;
+        9) url="$BASE/reports/revenue?from=$YEAR-01-01&to=$YEAR-12-31" ;;
+    esac
+    if [ "$method" = POST ]; then
+        curl -s -o /dev/null -w "%{http_code} %{time_total}\n" -X POST -H "Content-Type: application/json" -d "$body" "$url"
+    else
+        curl -s -o /dev/null -w "%{http_code} %{time_total}\n" "$url"
+    fi
+}
+export -f one_request
+
+curl -sf -o /dev/null "$BASE/products" || { echo "No server at $BASE" >&2; exit 1; }
+
+RESULTS=$(mktemp)
+trap 'rm -f "$RESULTS"' EXIT
+START=$(date +%s.%N)
+seq 1 "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} bash -c 'one_request {}' >> "$RESULTS"
+END=$(date +%s.%N)
+
+sort -k2 -n "$RESULTS" | awk -v start="$START" -v end="$END" -v conc="$CONCURRENCY" '
+    { code[NR] = $1; t[NR] = $2; if ($1 < 200 || $1 >= 300) errors++ }
+    END {
+        wall = end - start
+        printf "%d requests, %d concurrent, %.2f s: %.0f req/s, %d errors\n", NR, conc, wall, NR / wall, errors
+        printf "latency ms  p50 %.1f  p95 %.1f  p99 %.1f  max %.1f\n",
+            t[int(NR * 0.50) + 1] * 1000, t[int(NR * 0.95) + 1] * 1000, t[int(NR * 0.99) + 1] * 1000, t[NR] * 1000
+    }'
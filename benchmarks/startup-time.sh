@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Start up time of the packaged app, with and without the class data sharing archive.
+# Needs bash, date and sort. Build first:
+#
+#   mvn -P cds package -DskipTests
+#   benchmarks/startup-time.sh [runs]
+#
+# Times whole runs of the "products" command (JVM launch to exit) and of the menu quitting
+# straight away, which is the time to the first prompt plus the shutdown. Every run uses a
+# scratch orders folder, so nothing under src/main/resources changes.
+set -euo pipefail
+
+RUNS=${1:-10}
+TARGET=$(dirname "$0")/../target
+JAR=$(ls "$TARGET"/flooring-mastery-*.jar 2>/dev/null | head -n 1)
+ARCHIVE=$TARGET/flooring.jsa
+[ -n "$JAR" ] || { echo "No jar under $TARGET, run mvn -P cds package -DskipTests" >&2; exit 1; }
+
+SCRATCH=$(mktemp -d)
+trap 'rm -rf "$SCRATCH"' EXIT
+PROPS="-Dorders.folder=$SCRATCH/Orders -Dmetrics.dump.intervalSeconds=0"
+
+#median wall time in ms of RUNS runs of: java <args>, stdin from $INPUT
+median() {
+    local times=() start end
+    for _ in $(seq 1 "$RUNS"); do
+        start=$(date +%s%N)
+        java "$@" < "$INPUT" > /dev/null
+        end=$(date +%s%N)
+        times+=($(( (end - start) / 1000000 )))
+    done
+    printf "%s\n" "${times[@]}" | sort -n | awk '{ t[NR] = $1 } END { print t[int((NR + 1) / 2)] }'
+}
+
+#10 is Quit in the main menu
+INPUT=$SCRATCH/quit.txt
+echo 10 > "$INPUT"
+
+printf "%-28s %10s %10s\n" "" "products" "menu"
+printf "%-28s %7s ms %7s ms\n" "jar" "$(median $PROPS -jar "$JAR" products)" "$(median $PROPS -jar "$JAR")"
+if [ -f "$ARCHIVE" ]; then
+    CDS="-XX:SharedArchiveFile=$ARCHIVE"
+    printf "%-28s %7s ms %7s ms\n" "jar + CDS archive" "$(median $CDS $PROPS -jar "$JAR" products)" "$(median $CDS $PROPS -jar "$JAR")"
+else
+    echo "No $ARCHIVE, only the plain jar was timed" >&2
+fi
@@ -0,0 +1,86 @@
+package org.example.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Compares two JMH CSV result files (see benchmarks/README.md) row by row.
+ * Rows are matched on benchmark name plus parameter values, so files from runs with
+ * different benchmark subsets can still be compared. Exits with 1 when any benchmark got
+ * slower than the threshold, so it can gate a release build.
+ *
+ * Usage: BaselineDiff baseline.csv current.csv [thresholdPercent, default 10]
+ */
+public final class BaselineDiff {
+
+    private BaselineDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineDiff <baseline.csv> <current.csv> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, String[]> baseline = read(args[0]);
+        Map<String, String[]> current = read(args[1]);
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %-6s %9s%n", "Benchmark", "Baseline", "Current", "Unit", "Change");
+        for (Map.Entry<String, String[]> e : current.entrySet()) {
+            String[] now = e.getValue();
+            String[] before = baseline.get(e.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %-6s %9s%n", e.getKey(), "-", Double.parseDouble(now[4]), now[6], "new");
+                continue;
+            }
+            double old = Double.parseDouble(before[4]);
+            double score = Double.parseDouble(now[4]);
+            double change = (score - old) / old * 100;
+            //average time: higher is worse, throughput: lower is worse
+            boolean worse = "thrpt".equals(now[1]) ? change < -threshold : change > threshold;
+            if (worse) regressions++;
+            System.out.printf("%-70s %14.3f %14.3f %-6s %+8.1f%%%s%n", e.getKey(), old, score, now[6], change, worse ? "  <-- slower" : "");
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) System.out.printf("%-70s %s%n", missing, "(not in current run)");
+        }
+        System.out.println(regressions + " regression(s) over " + threshold + "%");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    //benchmark name plus "name=value" for every parameter the row has, to the full row
+    private static Map<String, String[]> read(String file) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(file));
+        if (lines.isEmpty()) return Map.of();
+        String[] header = split(lines.get(0));
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) continue;
+            String[] row = split(line);
+            StringBuilder key = new StringBuilder(row[0].replace("org.example.", ""));
+            for (int i = 7; i < row.length && i < header.length; i++) {
+                if (!row[i].isEmpty()) key.append(' ').append(header[i].replace("Param: ", "")).append('=').append(row[i]);
+            }
+            rows.put(key.toString(), row);
+        }
+        return rows;
+    }
+
+    private static String[] split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (char c : line.toCharArray()) {
+            if (c == '"') quoted = !quoted;
+            else if (c == ',' && !quoted) {
+                values.add(current.toString());
+                current.setLength(0);
+            } else current.append(c);
+        }
+        values.add(current.toString());
+        return values.toArray(new String[0]);
+    }
+}
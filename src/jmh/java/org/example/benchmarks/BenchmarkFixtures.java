@@ -0,0 +1,118 @@
+package org.example.benchmarks;
+
+import org.example.model.Order;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic, seeded data for the benchmarks, so every run (and every release) measures the same rows.
+ * Prices and rates mirror the shipped Products.txt and Taxes.txt.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String[] STATES = {"TX", "WA", "KY", "CA", "NY"};
+    public static final String[] TAX_RATES = {"4.45", "9.25", "6.00", "25.00", "14.00"};
+    public static final String[] PRODUCTS = {"Carpet", "Laminate", "Tile", "Wood"};
+    public static final String[][] PRODUCT_PRICES = {{"2.25", "2.10"}, {"1.75", "2.10"}, {"3.50", "4.15"}, {"5.15", "4.75"}};
+
+    private static final String[] FIRST_NAMES = {"Tony", "Carmela", "Paulie", "Silvio", "Christopher", "Adriana", "Bobby", "Janice"};
+    private static final String[] LAST_NAMES = {"Soprano", "Walnuts", "Dante", "Moltisanti", "La Cerva", "Bacala", "Baccalieri"};
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Fully priced orders numbered 1..count, the same for a given seed.
+     */
+    public static List<Order> orders(int count, long seed) {
+        Random random = new Random(seed);
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Order order = unpricedOrder(random);
+            int state = random.nextInt(STATES.length);
+            int product = random.nextInt(PRODUCTS.length);
+            BigDecimal cost = new BigDecimal(PRODUCT_PRICES[product][0]);
+            BigDecimal labor = new BigDecimal(PRODUCT_PRICES[product][1]);
+            BigDecimal rate = new BigDecimal(TAX_RATES[state]);
+            BigDecimal material = order.getArea().multiply(cost);
+            BigDecimal laborCost = order.getArea().multiply(labor);
+            BigDecimal tax = material.add(laborCost).multiply(rate).movePointLeft(2).setScale(2, RoundingMode.HALF_UP);
+
+            order.setOrderNumber(i);
+            order.setState(STATES[state]);
+            order.setTaxRate(rate);
+            order.setProductType(PRODUCTS[product]);
+            order.setCostPerSquareFoot(cost);
+            order.setLaborCostPerSquareFoot(labor);
+            order.setMaterialCost(material);
+            order.setLaborCost(laborCost);
+            order.setTax(tax);
+            order.setTotal(material.add(laborCost).add(tax).setScale(2, RoundingMode.HALF_UP));
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    /**
+     * An order as a clerk would enter it: name, state, product and area, nothing priced yet.
+     */
+    public static Order unpricedOrder(Random random) {
+        Order order = new Order();
+        order.setCustomerName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        order.setState(STATES[random.nextInt(STATES.length)]);
+        order.setProductType(PRODUCTS[random.nextInt(PRODUCTS.length)]);
+        order.setArea(BigDecimal.valueOf(10_000 + random.nextInt(90_000), 2)); // 100.00 .. 999.99
+        return order;
+    }
+
+    public static Path writeProducts(Path dir) {
+        StringBuilder sb = new StringBuilder("ProductType,CostPerSquareFoot,LaborCostPerSquareFoot\n");
+        for (int i = 0; i < PRODUCTS.length; i++) {
+            sb.append(PRODUCTS[i]).append(',').append(PRODUCT_PRICES[i][0]).append(',').append(PRODUCT_PRICES[i][1]).append('\n');
+        }
+        return write(dir.resolve("Products.txt"), sb.toString());
+    }
+
+    public static Path writeTaxes(Path dir) {
+        StringBuilder sb = new StringBuilder("State,StateName,TaxRate\n");
+        for (int i = 0; i < STATES.length; i++) {
+            sb.append(STATES[i]).append(",State ").append(STATES[i]).append(',').append(TAX_RATES[i]).append('\n');
+        }
+        return write(dir.resolve("Taxes.txt"), sb.toString());
+    }
+
+    public static Path tempDir(String prefix) {
+        try {
+            return Files.createTempDirectory(prefix);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void deleteRecursively(Path dir) {
+        if (dir == null || !Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path write(Path file, String content) {
+        try {
+            return Files.writeString(file, content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
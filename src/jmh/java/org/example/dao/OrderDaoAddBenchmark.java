@@ -0,0 +1,63 @@
+package org.example.dao;
+
+import org.example.benchmarks.BenchmarkFixtures;
+import org.example.model.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One addOrder into a date that already holds rowsPerDay orders. The added order is removed
+ * again outside the measurement, so the date keeps its size for the whole run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderDaoAddBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int rowsPerDay;
+
+    @Param({"false", "true"})
+    boolean journal;
+
+    private Path dir;
+    private OrderDaoFileImpl dao;
+    private Order template;
+    private Order added;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dir = BenchmarkFixtures.tempDir("orders-bench");
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setJournalEnabled(journal);
+        settings.setJournalCompactionThreshold(Integer.MAX_VALUE); // keep compaction out of the numbers
+        dao = new OrderDaoFileImpl(settings);
+        List<Order> orders = BenchmarkFixtures.orders(rowsPerDay + 1, 7);
+        template = orders.remove(orders.size() - 1);
+        dao.addOrders(OrderDaoBenchmark.DAY, orders);
+    }
+
+    @TearDown(Level.Invocation)
+    public void removeAdded() {
+        dao.removeOrder(OrderDaoBenchmark.DAY, added.getOrderNumber());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dao.close();
+        BenchmarkFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Order addOrder() {
+        added = dao.addOrder(OrderDaoBenchmark.DAY, new Order(template));
+        return added;
+    }
+}
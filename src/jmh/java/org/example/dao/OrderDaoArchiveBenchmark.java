@@ -0,0 +1,65 @@
+package org.example.dao;
+
+import org.example.benchmarks.BenchmarkFixtures;
+import org.example.model.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getOrdersByDate on a past year of rowsPerDay orders a day with the order cache off, so every
+ * call goes to storage. tier: hot = plain date files; archive = the yearly zip with the default
+ * 4 MB block cache, which holds the whole year once it is warm; archiveNoBlockCache = every call
+ * inflates its day from the zip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderDaoArchiveBenchmark {
+
+    private static final LocalDate FIRST = LocalDate.of(2020, 1, 1);
+
+    @Param({"hot", "archive", "archiveNoBlockCache"})
+    String tier;
+
+    @Param({"20"})
+    int rowsPerDay;
+
+    private Path dir;
+    private OrderDaoFileImpl dao;
+    private int day;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dir = BenchmarkFixtures.tempDir("orders-bench");
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setFsyncPolicy(FsyncPolicy.NONE);
+        settings.setCacheMaxDates(0);
+        settings.setArchiveAfterDays(tier.equals("hot") ? -1 : 0);
+        settings.setArchiveIntervalMinutes(24 * 60);
+        if (tier.equals("archiveNoBlockCache")) settings.setArchiveBlockCacheBytes(0);
+        dao = new OrderDaoFileImpl(settings);
+        for (LocalDate date = FIRST; date.getYear() == FIRST.getYear(); date = date.plusDays(1)) {
+            dao.addOrders(date, BenchmarkFixtures.orders(rowsPerDay, date.getDayOfYear()));
+        }
+        dao.archivePastDates();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dao.close();
+        BenchmarkFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public List<Order> getOrdersByDate() {
+        return dao.getOrdersByDate(FIRST.plusDays(day++ % 366));
+    }
+}
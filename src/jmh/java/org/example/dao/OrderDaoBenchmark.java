@@ -0,0 +1,72 @@
+package org.example.dao;
+
+import org.example.benchmarks.BenchmarkFixtures;
+import org.example.model.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads of one date holding rowsPerDay orders, through the cache and straight from the file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderDaoBenchmark {
+
+    static final LocalDate DAY = LocalDate.of(2030, 1, 1);
+
+    @Param({"10", "1000", "100000"})
+    int rowsPerDay;
+
+    @Param({"TEXT", "BINARY"})
+    StorageFormat format;
+
+    private Path dir;
+    private OrderDaoFileImpl cached;
+    private OrderDaoFileImpl uncached;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dir = BenchmarkFixtures.tempDir("orders-bench");
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setStorageFormat(format);
+        cached = new OrderDaoFileImpl(settings);
+        cached.addOrders(DAY, BenchmarkFixtures.orders(rowsPerDay, 42));
+
+        StorageSettings noCache = new StorageSettings();
+        noCache.setOrdersFolder(dir.toString());
+        noCache.setStorageFormat(format);
+        noCache.setCacheMaxDates(0);
+        uncached = new OrderDaoFileImpl(noCache);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cached.close();
+        uncached.close();
+        BenchmarkFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public List<Order> getOrdersByDateCached() {
+        return cached.getOrdersByDate(DAY);
+    }
+
+    @Benchmark
+    public List<Order> getOrdersByDateFromFile() {
+        return uncached.getOrdersByDate(DAY);
+    }
+
+    @Benchmark
+    public Order getOrderByNumber() {
+        return cached.getOrder(rowsPerDay / 2 + 1);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.dao;
+
+import org.example.benchmarks.BenchmarkFixtures;
+import org.example.model.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What each durability setting costs an addOrder into a date of rowsPerDay orders, from one
+ * thread (every add is its own batch, so its own fsync) and from 16 (group commit shares
+ * one fsync between the adds of a batch). Throughput, higher is better.
+ *
+ * mode: inplace = truncate and rewrite, no fsync (the old behaviour); atomic = temp file and
+ * rename, no fsync; batch = atomic plus an fsync per batch; interval = atomic plus a
+ * background fsync every 100 ms.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderDaoDurabilityBenchmark {
+
+    @Param({"inplace", "atomic", "batch", "interval"})
+    String mode;
+
+    @Param({"1000"})
+    int rowsPerDay;
+
+    private Path dir;
+    private OrderDaoFileImpl dao;
+    private Order template;
+
+    //a fresh date per iteration, otherwise the adds of earlier iterations make every write bigger
+    @Setup(Level.Iteration)
+    public void setup() {
+        dir = BenchmarkFixtures.tempDir("orders-bench");
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setAtomicWrites(!mode.equals("inplace"));
+        settings.setFsyncPolicy(mode.equals("batch") ? FsyncPolicy.BATCH
+                : mode.equals("interval") ? FsyncPolicy.INTERVAL : FsyncPolicy.NONE);
+        settings.setFsyncIntervalMillis(100);
+        dao = new OrderDaoFileImpl(settings);
+        List<Order> orders = BenchmarkFixtures.orders(rowsPerDay + 1, 7);
+        template = orders.remove(orders.size() - 1);
+        dao.addOrders(OrderDaoBenchmark.DAY, orders);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        dao.close();
+        BenchmarkFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Order addOrder() {
+        return dao.addOrder(OrderDaoBenchmark.DAY, new Order(template));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Order addOrderConcurrently() {
+        return dao.addOrder(OrderDaoBenchmark.DAY, new Order(template));
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.dao;
+
+import org.example.benchmarks.BenchmarkFixtures;
+import org.example.model.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 16 threads adding orders to the same date, which starts every iteration with rowsPerDay
+ * orders. maxBatch=1 writes the date once per add, larger batches let one write carry every
+ * add that queued up meanwhile. Throughput, higher is better.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(16)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderDaoGroupCommitBenchmark {
+
+    @Param({"1", "16", "256"})
+    int maxBatch;
+
+    @Param({"1000"})
+    int rowsPerDay;
+
+    private Path dir;
+    private OrderDaoFileImpl dao;
+    private Order template;
+
+    //a fresh date per iteration, otherwise the adds of earlier iterations make every write bigger
+    @Setup(Level.Iteration)
+    public void setup() {
+        dir = BenchmarkFixtures.tempDir("orders-bench");
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setWriterMaxBatch(maxBatch);
+        dao = new OrderDaoFileImpl(settings);
+        List<Order> orders = BenchmarkFixtures.orders(rowsPerDay + 1, 7);
+        template = orders.remove(orders.size() - 1);
+        dao.addOrders(OrderDaoBenchmark.DAY, orders);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        dao.close();
+        BenchmarkFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Order addOrder() {
+        return dao.addOrder(OrderDaoBenchmark.DAY, new Order(template));
+    }
+}
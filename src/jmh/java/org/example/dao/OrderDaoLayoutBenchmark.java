@@ -0,0 +1,71 @@
+package org.example.dao;
+
+import org.example.benchmarks.BenchmarkFixtures;
+import org.example.model.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A year of history (rowsPerDay orders every day) in the daily and the monthly layout.
+ * scanMonth loads one month through OrderRangeLoader, cycling through the twelve months
+ * with a cache that only holds one month, so every scan comes from disk. orderDates is the
+ * listing every range query and report starts with.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderDaoLayoutBenchmark {
+
+    private static final LocalDate FIRST = LocalDate.of(2030, 1, 1);
+
+    @Param({"daily", "monthly"})
+    String layout;
+
+    @Param({"50"})
+    int rowsPerDay;
+
+    private Path dir;
+    private OrderDaoFileImpl dao;
+    private OrderRangeLoader loader;
+    private int month;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dir = BenchmarkFixtures.tempDir("orders-bench");
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setStorageLayout(StorageLayout.valueOf(layout.toUpperCase()));
+        settings.setFsyncPolicy(FsyncPolicy.NONE);
+        settings.setCacheMaxDates(31);
+        dao = new OrderDaoFileImpl(settings);
+        for (LocalDate date = FIRST; date.getYear() == FIRST.getYear(); date = date.plusDays(1)) {
+            dao.addOrders(date, BenchmarkFixtures.orders(rowsPerDay, date.getDayOfYear()));
+        }
+        loader = new OrderRangeLoader(dao);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dao.close();
+        BenchmarkFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public List<Order> scanMonth() {
+        YearMonth m = YearMonth.of(FIRST.getYear(), 1 + month++ % 12);
+        return loader.load(m.atDay(1), m.atEndOfMonth());
+    }
+
+    @Benchmark
+    public List<LocalDate> orderDates() {
+        return dao.getOrderDates();
+    }
+}
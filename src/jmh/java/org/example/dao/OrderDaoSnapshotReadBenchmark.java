@@ -0,0 +1,76 @@
+package org.example.dao;
+
+import org.example.benchmarks.BenchmarkFixtures;
+import org.example.model.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads of one date of rowsPerDay orders while a clerk keeps editing it: three threads call
+ * getOrdersByDate, one runs the revenue report for the date and one edits orders. With the
+ * order cache on (cacheMaxDates=256) reads are served from the published versions, with it off
+ * every read goes to disk. Throughput per method, higher is better.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Group)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderDaoSnapshotReadBenchmark {
+
+    @Param({"256", "0"})
+    int cacheMaxDates;
+
+    @Param({"1000"})
+    int rowsPerDay;
+
+    private Path dir;
+    private OrderDaoFileImpl dao;
+    private List<Order> orders;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dir = BenchmarkFixtures.tempDir("orders-bench");
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setFsyncPolicy(FsyncPolicy.NONE);
+        settings.setCacheMaxDates(cacheMaxDates);
+        dao = new OrderDaoFileImpl(settings);
+        orders = dao.addOrders(OrderDaoBenchmark.DAY, BenchmarkFixtures.orders(rowsPerDay, 7));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dao.close();
+        BenchmarkFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(3)
+    public List<Order> getOrdersByDate() {
+        return dao.getOrdersByDate(OrderDaoBenchmark.DAY);
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public List<DailyRevenue> getDailyRevenue() {
+        return dao.getDailyRevenue(OrderDaoBenchmark.DAY, OrderDaoBenchmark.DAY);
+    }
+
+    //only this thread touches next
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public Order editOrder() {
+        Order order = new Order(orders.get(next++ % orders.size()));
+        order.setCustomerName("Edited " + next);
+        return dao.editOrder(OrderDaoBenchmark.DAY, order);
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.dao;
+
+import org.example.benchmarks.BenchmarkFixtures;
+import org.example.model.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The first parse of a date file of rowsPerDay orders in a fresh JVM, nothing warmed up: one
+ * call per fork, so the score includes class loading and the interpreter. parser: scanner = the
+ * old Scanner + String.split reader, tokenizer = OrderLineParser.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class OrderFileColdParseBenchmark {
+
+    @Param({"scanner", "tokenizer"})
+    String parser;
+
+    @Param({"1000", "100000"})
+    int rowsPerDay;
+
+    private Path dir;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = BenchmarkFixtures.tempDir("orders-bench");
+        file = dir.resolve("Orders_01012020.txt");
+        try (var out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(OrderDaoFileImpl.HEADER);
+            out.newLine();
+            for (Order order : BenchmarkFixtures.orders(rowsPerDay, 11)) {
+                out.write(OrderDaoFileImpl.marshallOrder(order));
+                out.newLine();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public List<Order> parseFile() throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parser.equals("scanner") ? scan(in) : new OrderLineParser().parseAll(in);
+        }
+    }
+
+    //the reader OrderDaoFileImpl had before OrderLineParser
+    private static List<Order> scan(BufferedReader in) {
+        List<Order> orders = new ArrayList<>();
+        Scanner scanner = new Scanner(in);
+        if (scanner.hasNextLine()) scanner.nextLine();
+        while (scanner.hasNextLine()) {
+            String[] tokens = scanner.nextLine().split(",");
+            Order o = new Order();
+            o.setOrderNumber(Integer.parseInt(tokens[0]));
+            o.setCustomerName(tokens[1]);
+            o.setState(tokens[2]);
+            o.setTaxRate(new BigDecimal(tokens[3]));
+            o.setProductType(tokens[4]);
+            o.setArea(new BigDecimal(tokens[5]));
+            o.setCostPerSquareFoot(new BigDecimal(tokens[6]));
+            o.setLaborCostPerSquareFoot(new BigDecimal(tokens[7]));
+            o.setMaterialCost(new BigDecimal(tokens[8]));
+            o.setLaborCost(new BigDecimal(tokens[9]));
+            o.setTax(new BigDecimal(tokens[10]));
+            o.setTotal(new BigDecimal(tokens[11]));
+            orders.add(o);
+        }
+        if (scanner.ioException() != null) throw new UncheckedIOException(scanner.ioException());
+        return orders;
+    }
+}
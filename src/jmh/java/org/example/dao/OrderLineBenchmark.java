@@ -0,0 +1,72 @@
+package org.example.dao;
+
+import org.example.benchmarks.BenchmarkFixtures;
+import org.example.model.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of single order lines, with the old String.split decoder as a reference.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderLineBenchmark {
+
+    private Order order;
+    private String line;
+    private String thousandLines;
+    private final OrderLineParser parser = new OrderLineParser();
+
+    @Setup
+    public void setup() {
+        List<Order> orders = BenchmarkFixtures.orders(1_000, 3);
+        order = orders.get(0);
+        line = OrderDaoFileImpl.marshallOrder(order);
+        StringBuilder sb = new StringBuilder(OrderDaoFileImpl.HEADER).append('\n');
+        for (Order o : orders) sb.append(OrderDaoFileImpl.marshallOrder(o)).append('\n');
+        thousandLines = sb.toString();
+    }
+
+    @Benchmark
+    public String marshallOrder() {
+        return OrderDaoFileImpl.marshallOrder(order);
+    }
+
+    @Benchmark
+    public Order unmarshallOrder() {
+        return parser.parseLine(line);
+    }
+
+    @Benchmark
+    public Order unmarshallOrderWithSplit() {
+        String[] tokens = line.split(",");
+        Order o = new Order();
+        o.setOrderNumber(Integer.parseInt(tokens[0]));
+        o.setCustomerName(tokens[1]);
+        o.setState(tokens[2]);
+        o.setTaxRate(new BigDecimal(tokens[3]));
+        o.setProductType(tokens[4]);
+        o.setArea(new BigDecimal(tokens[5]));
+        o.setCostPerSquareFoot(new BigDecimal(tokens[6]));
+        o.setLaborCostPerSquareFoot(new BigDecimal(tokens[7]));
+        o.setMaterialCost(new BigDecimal(tokens[8]));
+        o.setLaborCost(new BigDecimal(tokens[9]));
+        o.setTax(new BigDecimal(tokens[10]));
+        o.setTotal(new BigDecimal(tokens[11]));
+        return o;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Order> parseThousandLines() throws Exception {
+        return new OrderLineParser().parseAll(new StringReader(thousandLines));
+    }
+}
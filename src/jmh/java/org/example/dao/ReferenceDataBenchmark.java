@@ -0,0 +1,47 @@
+package org.example.dao;
+
+import org.example.benchmarks.BenchmarkFixtures;
+import org.example.model.Product;
+import org.example.model.Tax;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product and tax lookups, each one checks the file stamp before using the parsed snapshot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ReferenceDataBenchmark {
+
+    private Path dir;
+    private ProductDaoFileImpl products;
+    private TaxDaoFileImpl taxes;
+
+    @Setup
+    public void setup() {
+        dir = BenchmarkFixtures.tempDir("reference-bench");
+        products = new ProductDaoFileImpl(BenchmarkFixtures.writeProducts(dir).toString());
+        taxes = new TaxDaoFileImpl(BenchmarkFixtures.writeTaxes(dir).toString());
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Product getProduct() {
+        return products.getProduct("Tile");
+    }
+
+    @Benchmark
+    public Tax getTax() {
+        return taxes.getTax("CA");
+    }
+}
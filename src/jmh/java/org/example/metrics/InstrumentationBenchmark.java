@@ -0,0 +1,101 @@
+package org.example.metrics;
+
+import org.example.benchmarks.BenchmarkFixtures;
+import org.example.dao.OrderDaoFileImpl;
+import org.example.dao.ProductDao;
+import org.example.dao.ProductDaoFileImpl;
+import org.example.dao.StorageSettings;
+import org.example.dao.TaxDaoFileImpl;
+import org.example.model.Order;
+import org.example.model.Product;
+import org.example.service.FlooringService;
+import org.example.service.FlooringServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the metrics layer: a bare histogram record, and the cheapest service and DAO
+ * calls with and without their timing decorator. Run with -prof gc to see that the
+ * instrumented calls allocate nothing beyond the plain ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InstrumentationBenchmark {
+
+    private Path dir;
+    private LatencyHistogram histogram;
+    private ProductDao plainProducts;
+    private ProductDao instrumentedProducts;
+    private FlooringService plainService;
+    private FlooringService instrumentedService;
+    private final Order[] orders = new Order[1024];
+    private int next;
+
+    @Setup
+    public void setup() {
+        dir = BenchmarkFixtures.tempDir("metrics-bench");
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.resolve("Orders").toString());
+        MetricsRegistry metrics = new MetricsRegistry();
+        histogram = metrics.timer("bench.record");
+
+        ProductDaoFileImpl products = new ProductDaoFileImpl(BenchmarkFixtures.writeProducts(dir).toString());
+        TaxDaoFileImpl taxes = new TaxDaoFileImpl(BenchmarkFixtures.writeTaxes(dir).toString());
+        OrderDaoFileImpl orderDao = new OrderDaoFileImpl(settings);
+        plainProducts = products;
+        instrumentedProducts = new InstrumentedProductDao(products, metrics);
+        plainService = new FlooringServiceImpl(orderDao, products, taxes);
+        //instrumented all the way down, like the Spring wiring
+        instrumentedService = new InstrumentedFlooringService(new FlooringServiceImpl(
+                new InstrumentedOrderDao(orderDao, metrics), instrumentedProducts,
+                new InstrumentedTaxDao(taxes, metrics)), metrics);
+
+        Random random = new Random(5);
+        for (int i = 0; i < orders.length; i++) orders[i] = BenchmarkFixtures.unpricedOrder(random);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkFixtures.deleteRecursively(dir);
+    }
+
+    private Order nextOrder() {
+        return orders[next++ & (orders.length - 1)];
+    }
+
+    @Benchmark
+    public void histogramRecord() {
+        histogram.record(next++ & 0xFFFFF);
+    }
+
+    @Benchmark
+    public Product getProductPlain() {
+        return plainProducts.getProduct("Tile");
+    }
+
+    @Benchmark
+    public Product getProductInstrumented() {
+        return instrumentedProducts.getProduct("Tile");
+    }
+
+    @Benchmark
+    public Order calculateCostsPlain() {
+        Order order = nextOrder();
+        plainService.calculateCosts(order);
+        return order;
+    }
+
+    @Benchmark
+    public Order calculateCostsInstrumented() {
+        Order order = nextOrder();
+        instrumentedService.calculateCosts(order);
+        return order;
+    }
+}
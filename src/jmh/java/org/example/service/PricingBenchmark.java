@@ -0,0 +1,79 @@
+package org.example.service;
+
+import org.example.benchmarks.BenchmarkFixtures;
+import org.example.dao.OrderDaoFileImpl;
+import org.example.dao.ProductDaoFileImpl;
+import org.example.dao.StorageSettings;
+import org.example.dao.TaxDaoFileImpl;
+import org.example.model.Order;
+import org.example.model.Product;
+import org.example.model.Tax;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order pricing: the service call (with its product and tax lookups) and the two formulas on their own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PricingBenchmark {
+
+    private Path dir;
+    private FlooringServiceImpl service;
+    private Product product;
+    private Tax tax;
+    private final Order[] orders = new Order[1024];
+    private int next;
+
+    @Setup
+    public void setup() {
+        dir = BenchmarkFixtures.tempDir("pricing-bench");
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.resolve("Orders").toString());
+        ProductDaoFileImpl products = new ProductDaoFileImpl(BenchmarkFixtures.writeProducts(dir).toString());
+        TaxDaoFileImpl taxes = new TaxDaoFileImpl(BenchmarkFixtures.writeTaxes(dir).toString());
+        service = new FlooringServiceImpl(new OrderDaoFileImpl(settings), products, taxes);
+        product = products.getProduct("Tile");
+        tax = taxes.getTax("CA");
+
+        Random random = new Random(5);
+        for (int i = 0; i < orders.length; i++) orders[i] = BenchmarkFixtures.unpricedOrder(random);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkFixtures.deleteRecursively(dir);
+    }
+
+    private Order nextOrder() {
+        return orders[next++ & (orders.length - 1)];
+    }
+
+    @Benchmark
+    public Order calculateOrderCosts() {
+        Order order = nextOrder();
+        service.calculateOrderCosts(order);
+        return order;
+    }
+
+    @Benchmark
+    public Order fixedPointFormula() {
+        Order order = nextOrder();
+        OrderPricing.priceFixedPoint(order, product, tax);
+        return order;
+    }
+
+    @Benchmark
+    public Order bigDecimalFormula() {
+        Order order = nextOrder();
+        OrderPricing.priceBigDecimal(order, product, tax);
+        return order;
+    }
+}
@@ -1,9 +1,130 @@
 package org.example;
 
-import org.springframework.context.annotation.ComponentScan;
+import org.example.controller.FlooringCommandLine;
+import org.example.controller.FlooringController;
+import org.example.controller.FlooringHttpServer;
+import org.example.dao.FsyncPolicy;
+import org.example.dao.OrderDao;
+import org.example.dao.OrderDaoFileImpl;
+import org.example.dao.ProductDao;
+import org.example.dao.ProductDaoFileImpl;
+import org.example.dao.StorageFormat;
+import org.example.dao.StorageLayout;
+import org.example.dao.StorageSettings;
+import org.example.dao.TaxDao;
+import org.example.dao.TaxDaoFileImpl;
+import org.example.metrics.InstrumentationPostProcessor;
+import org.example.metrics.MetricsDump;
+import org.example.metrics.MetricsRegistry;
+import org.example.service.FlooringService;
+import org.example.service.FlooringServiceImpl;
+import org.example.view.FlooringView;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
 
-@Configuration
-@ComponentScan("org.example")
+import java.nio.file.Paths;
+
+/**
+ * Every bean is declared here instead of found by a component scan: scanning org.example
+ * read each class file on the classpath at every start, which the command line mode pays
+ * for on every invocation. A new component needs a @Bean method below.
+ *
+ * The three front ends are lazy, Main asks for the one it runs and the others are never built.
+ */
+@Configuration(proxyBeanMethods = false)
+@PropertySource(value = "classpath:flooring.properties", ignoreResourceNotFound = true)
 public class AppConfig {
+
+    //static: post processors are created before the configuration instance itself
+    @Bean
+    public static InstrumentationPostProcessor instrumentationPostProcessor(ObjectProvider<MetricsRegistry> metrics, Environment env) {
+        return new InstrumentationPostProcessor(metrics, env);
+    }
+
+    @Bean
+    public MetricsRegistry metricsRegistry() {
+        return new MetricsRegistry();
+    }
+
+    //storage tunables, anything missing from flooring.properties keeps its default
+    @Bean
+    public StorageSettings storageSettings(Environment env) {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(env.getProperty("orders.folder", settings.getOrdersFolder()));
+        settings.setStorageFormat(StorageFormat.valueOf(env.getProperty("orders.format", settings.getStorageFormat().name()).trim().toUpperCase()));
+        settings.setStorageLayout(StorageLayout.valueOf(env.getProperty("orders.layout", settings.getStorageLayout().name()).trim().toUpperCase()));
+        settings.setJournalEnabled(env.getProperty("orders.journal.enabled", Boolean.class, settings.isJournalEnabled()));
+        settings.setJournalCompactionThreshold(env.getProperty("orders.journal.compactionThreshold", Integer.class, settings.getJournalCompactionThreshold()));
+        settings.setJournalCompactionIntervalSeconds(env.getProperty("orders.journal.compactionIntervalSeconds", Long.class, settings.getJournalCompactionIntervalSeconds()));
+        settings.setCacheMaxDates(env.getProperty("orders.cache.maxDates", Integer.class, settings.getCacheMaxDates()));
+        settings.setCacheMaxBytes(env.getProperty("orders.cache.maxBytes", Long.class, settings.getCacheMaxBytes()));
+        settings.setMmapThresholdBytes(env.getProperty("orders.read.mmapThresholdBytes", Long.class, settings.getMmapThresholdBytes()));
+        settings.setAtomicWrites(env.getProperty("orders.write.atomic", Boolean.class, settings.isAtomicWrites()));
+        settings.setFsyncPolicy(FsyncPolicy.valueOf(env.getProperty("orders.write.fsync", settings.getFsyncPolicy().name()).trim().toUpperCase()));
+        settings.setFsyncIntervalMillis(env.getProperty("orders.write.fsyncIntervalMillis", Long.class, settings.getFsyncIntervalMillis()));
+        settings.setWriterThreads(env.getProperty("orders.writer.threads", Integer.class, settings.getWriterThreads()));
+        settings.setWriterQueueCapacity(env.getProperty("orders.writer.queueCapacity", Integer.class, settings.getWriterQueueCapacity()));
+        settings.setWriterMaxBatch(env.getProperty("orders.writer.maxBatch", Integer.class, settings.getWriterMaxBatch()));
+        settings.setArchiveAfterDays(env.getProperty("orders.archive.afterDays", Integer.class, settings.getArchiveAfterDays()));
+        settings.setArchiveIntervalMinutes(env.getProperty("orders.archive.intervalMinutes", Long.class, settings.getArchiveIntervalMinutes()));
+        settings.setArchiveBlockCacheBytes(env.getProperty("orders.archive.blockCacheBytes", Long.class, settings.getArchiveBlockCacheBytes()));
+        return settings;
+    }
+
+    //closed with the context (AutoCloseable), which flushes the journal and stops its threads
+    @Bean
+    public OrderDao orderDao(StorageSettings settings) {
+        return new OrderDaoFileImpl(settings);
+    }
+
+    @Bean
+    public ProductDao productDao() {
+        return new ProductDaoFileImpl();
+    }
+
+    @Bean
+    public TaxDao taxDao() {
+        return new TaxDaoFileImpl();
+    }
+
+    @Bean
+    public FlooringService flooringService(OrderDao orderDao, ProductDao productDao, TaxDao taxDao) {
+        return new FlooringServiceImpl(orderDao, productDao, taxDao);
+    }
+
+    //periodic copy of the Diagnostics report, closed (and written a last time) with the context
+    @Bean
+    public MetricsDump metricsDump(MetricsRegistry metrics, Environment env) {
+        return new MetricsDump(metrics,
+                Paths.get(env.getProperty("metrics.dump.file", "metrics/flooring-metrics.txt")),
+                env.getProperty("metrics.dump.intervalSeconds", Long.class, 60L));
+    }
+
+    @Bean
+    @Lazy
+    public FlooringView flooringView() {
+        return new FlooringView();
+    }
+
+    @Bean
+    @Lazy
+    public FlooringController flooringController(FlooringService service, FlooringView view, MetricsRegistry metrics) {
+        return new FlooringController(service, view, metrics);
+    }
+
+    @Bean
+    @Lazy
+    public FlooringHttpServer flooringHttpServer(FlooringService service, MetricsRegistry metrics) {
+        return new FlooringHttpServer(service, metrics);
+    }
+
+    @Bean
+    @Lazy
+    public FlooringCommandLine flooringCommandLine(FlooringService service, MetricsRegistry metrics) {
+        return new FlooringCommandLine(service, metrics);
+    }
 }
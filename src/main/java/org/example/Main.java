@@ -1,22 +1,75 @@
 package org.example;
 
+import org.example.controller.FlooringCommandLine;
 import org.example.controller.FlooringController;
+import org.example.controller.FlooringHttpServer;
 import org.example.dao.*;
+import org.example.metrics.MetricsRegistry;
 
-import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            runServer(args);
+            return;
+        }
+        if (args.length > 0) {
+            System.exit(runCommand(args));
+        }
+
         // Initialize Spring application context using the AppConfig configuration
-        ApplicationContext context = new AnnotationConfigApplicationContext(AppConfig.class);
+        // (closing it lets the DAOs flush background work such as journal compaction)
+        try (AnnotationConfigApplicationContext context = startContext()) {
 
-        // Retrieve the main controller bean from Spring
-        FlooringController controller = context.getBean(FlooringController.class);
+            // Retrieve the main controller bean from Spring
+            FlooringController controller = context.getBean(FlooringController.class);
 
-        // Start the main program loop
-        controller.run();
+            // Start the main program loop
+            controller.run();
+        }
 
         //final commit
     }
+
+    //one command or script, JSON lines on stdout, see FlooringCommandLine
+    private static int runCommand(String[] args) {
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8);
+        try (AnnotationConfigApplicationContext context = startContext()) {
+            return context.getBean(FlooringCommandLine.class).run(args, out);
+        }
+    }
+
+    //--server [port]: JSON over HTTP instead of the menu, runs until the JVM is stopped (Ctrl-C)
+    private static void runServer(String[] args) throws IOException {
+        AnnotationConfigApplicationContext context = startContext();
+        //on shutdown the server is closed first, then the DAOs flush as usual
+        context.registerShutdownHook();
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : context.getEnvironment().getProperty("server.port", Integer.class, 8080);
+        FlooringHttpServer server = context.getBean(FlooringHttpServer.class);
+        String bindAddress = context.getEnvironment().getProperty("server.bindAddress", "127.0.0.1");
+        server.start(bindAddress, port);
+        System.out.println("Flooring API listening on http://" + bindAddress + ":" + server.getPort() + "/ (Ctrl-C to stop)");
+    }
+
+    //builds the context and records how long that and the JVM launch before it took,
+    //shown as the "startup" gauge under Diagnostics, the metrics command and GET /metrics
+    private static AnnotationConfigApplicationContext startContext() {
+        long refreshStart = System.nanoTime();
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(AppConfig.class);
+        long readyAt = System.currentTimeMillis();
+        long contextMillis = (System.nanoTime() - refreshStart) / 1_000_000;
+        //the JVM start time is only looked up when the report is read, loading the management
+        //classes costs about 30 ms that a short command should not pay
+        context.getBean(MetricsRegistry.class).gauge("startup", () -> String.format("ready %d ms after JVM start, context %d ms",
+                readyAt - ManagementFactory.getRuntimeMXBean().getStartTime(), contextMillis));
+        return context;
+    }
 }
@@ -0,0 +1,288 @@
+package org.example.controller;
+
+import org.example.dao.FlooringException;
+import org.example.metrics.MetricsRegistry;
+import org.example.model.Order;
+import org.example.service.FlooringService;
+import org.example.service.ImportFormat;
+import org.example.service.ImportResult;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Non-interactive entry point: Main [command] runs one command, "script --file F" (or
+ * --file - for stdin) runs one command per line, then the program exits.
+ *
+ * Every command prints exactly one line of JSON to stdout:
+ *   {"command":"list","ok":true,"micros":412,"result":[...]}
+ *   {"command":"add","ok":false,"micros":95,"error":"Invalid product type: Marble"}
+ * where micros is the time spent in the service call. A script stops at the first failed
+ * command. The exit code is 0 when everything succeeded, 1 when a command failed and 2 for
+ * a command line that could not be understood.
+ */
+public class FlooringCommandLine {
+
+    public static final int OK = 0;
+    public static final int FAILED = 1;
+    public static final int USAGE = 2;
+
+    static final String USAGE_TEXT = String.join(System.lineSeparator(),
+            "Commands (dates are YYYY-MM-DD, values with spaces go in double quotes):",
+            "  list --date D | --from D --to D | --customer TEXT",
+            "  get --number N",
+            "  add --date D --name NAME --state ST --product TYPE --area SQFT",
+            "  add --file ORDERS.csv|ORDERS.ndjson [--format csv|ndjson]",
+            "  edit --number N [--name NAME] [--state ST] [--product TYPE] [--area SQFT]",
+            "  remove --number N",
+            "  export | reprice | products | taxes | metrics",
+            "  revenue --from D --to D",
+            "  script --file FILE|-    one command per line, # starts a comment",
+            "  --server [port]         HTTP API instead (see FlooringHttpServer)");
+
+    private static final Map<String, Set<String>> OPTIONS = Map.ofEntries(
+            Map.entry("list", Set.of("date", "from", "to", "customer")),
+            Map.entry("get", Set.of("number")),
+            Map.entry("add", Set.of("date", "name", "state", "product", "area", "file", "format")),
+            Map.entry("edit", Set.of("number", "name", "state", "product", "area")),
+            Map.entry("remove", Set.of("number")),
+            Map.entry("export", Set.of()),
+            Map.entry("reprice", Set.of()),
+            Map.entry("products", Set.of()),
+            Map.entry("taxes", Set.of()),
+            Map.entry("metrics", Set.of()),
+            Map.entry("revenue", Set.of("from", "to")),
+            Map.entry("script", Set.of("file")));
+
+    private final FlooringService service;
+    private final MetricsRegistry metrics;
+
+    public FlooringCommandLine(FlooringService service, MetricsRegistry metrics) {
+        this.service = service;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Runs the command given as program arguments and returns the exit code.
+     */
+    public int run(String[] args, PrintStream out) {
+        if (args.length == 0 || args[0].equals("help") || args[0].equals("--help")) {
+            out.println(USAGE_TEXT);
+            return args.length == 0 ? USAGE : OK;
+        }
+        if (!args[0].equals("script")) return execute(Arrays.asList(args), out);
+
+        Map<String, String> options;
+        try {
+            options = parseOptions(Arrays.asList(args));
+        } catch (IllegalArgumentException e) {
+            return report(out, "script", USAGE, 0, e.getMessage(), null);
+        }
+        String file = options.get("file");
+        if (file == null) return report(out, "script", USAGE, 0, "Missing --file", null);
+        try (Reader script = file.equals("-")
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            return runScript(script, out);
+        } catch (IOException e) {
+            return report(out, "script", FAILED, 0, "Could not read " + file + ": " + e.getMessage(), null);
+        }
+    }
+
+    /**
+     * One command per line, blank lines and lines starting with # are skipped.
+     * Stops at the first command that does not succeed and returns its exit code.
+     */
+    public int runScript(Reader script, PrintStream out) throws IOException {
+        BufferedReader in = new BufferedReader(script);
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+            List<String> words;
+            try {
+                words = split(trimmed);
+            } catch (IllegalArgumentException e) {
+                return report(out, "line " + lineNumber, USAGE, 0, e.getMessage(), null);
+            }
+            if (words.get(0).equals("script")) {
+                return report(out, "script", USAGE, 0, "Scripts cannot run other scripts (line " + lineNumber + ")", null);
+            }
+            int code = execute(words, out);
+            if (code != OK) return code;
+        }
+        return OK;
+    }
+
+    private int execute(List<String> words, PrintStream out) {
+        String command = words.get(0);
+        Map<String, String> options;
+        try {
+            options = parseOptions(words);
+        } catch (IllegalArgumentException e) {
+            return report(out, command, USAGE, 0, e.getMessage(), null);
+        }
+
+        long start = System.nanoTime();
+        try {
+            JsonWriter result = call(command, options);
+            return report(out, command, OK, System.nanoTime() - start, null, result);
+        } catch (FlooringException | DateTimeParseException | IllegalArgumentException e) {
+            //NumberFormatException is an IllegalArgumentException, so are bad --format values
+            return report(out, command, FAILED, System.nanoTime() - start, e.getMessage(), null);
+        }
+    }
+
+    private JsonWriter call(String command, Map<String, String> options) throws FlooringException {
+        JsonWriter json = new JsonWriter();
+        switch (command) {
+            case "list" -> {
+                if (options.containsKey("date")) {
+                    FlooringJson.orders(json, service.getOrdersByDate(date(options, "date")));
+                } else if (options.containsKey("customer")) {
+                    FlooringJson.orders(json, service.findOrdersByCustomer(options.get("customer")));
+                } else if (options.containsKey("from")) {
+                    FlooringJson.orders(json, service.getOrdersBetween(date(options, "from"), date(options, "to")));
+                } else {
+                    throw new FlooringException("Give --date, --from and --to, or --customer.");
+                }
+            }
+            case "get" -> {
+                int number = Integer.parseInt(required(options, "number"));
+                Order order = service.getOrder(number);
+                if (order == null) throw new FlooringException("Order #" + number + " not found");
+                FlooringJson.order(json, order);
+            }
+            case "add" -> {
+                if (options.containsKey("file")) FlooringJson.importResult(json, importFile(options));
+                else FlooringJson.order(json, addOrder(options));
+            }
+            case "edit" -> FlooringJson.order(json, editOrder(options));
+            case "remove" -> {
+                int number = Integer.parseInt(required(options, "number"));
+                Order order = service.getOrder(number);
+                if (order == null) throw new FlooringException("Order #" + number + " not found");
+                FlooringJson.order(json, service.removeOrder(order.getOrderDate(), number));
+            }
+            case "export" -> FlooringJson.export(json, service.exportAllData());
+            case "reprice" -> FlooringJson.repricing(json, service.repriceFutureOrders());
+            case "revenue" -> FlooringJson.revenue(json, service.getRevenueReport(date(options, "from"), date(options, "to")));
+            case "products" -> FlooringJson.products(json, service.getAllProducts());
+            case "taxes" -> FlooringJson.taxes(json, service.getAllTaxes());
+            case "metrics" -> json.value(metrics.report());
+            default -> throw new IllegalStateException("Unhandled command " + command);
+        }
+        return json;
+    }
+
+    private Order addOrder(Map<String, String> options) throws FlooringException {
+        Order order = new Order();
+        order.setCustomerName(required(options, "name"));
+        order.setState(required(options, "state"));
+        order.setProductType(required(options, "product"));
+        order.setArea(new BigDecimal(required(options, "area")));
+        return service.addOrder(date(options, "date"), order);
+    }
+
+    private Order editOrder(Map<String, String> options) throws FlooringException {
+        int number = Integer.parseInt(required(options, "number"));
+        Order order = service.getOrder(number);
+        if (order == null) throw new FlooringException("Order #" + number + " not found");
+        //same rules as the console edit: anything not given keeps its value, the date cannot change
+        if (options.containsKey("name")) order.setCustomerName(options.get("name"));
+        if (options.containsKey("state")) order.setState(options.get("state"));
+        if (options.containsKey("product")) order.setProductType(options.get("product"));
+        if (options.containsKey("area")) order.setArea(new BigDecimal(options.get("area")));
+        return service.editOrder(order.getOrderDate(), order);
+    }
+
+    private ImportResult importFile(Map<String, String> options) throws FlooringException {
+        String file = options.get("file");
+        ImportFormat format = options.containsKey("format")
+                ? ImportFormat.valueOf(options.get("format").trim().toUpperCase())
+                : ImportFormat.fromFileName(file);
+        try (Reader in = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            return service.importOrders(in, format);
+        } catch (IOException e) {
+            throw new FlooringException("Could not read " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static int report(PrintStream out, String command, int code, long nanos, String error, JsonWriter result) {
+        JsonWriter line = new JsonWriter().beginObject()
+                .field("command", command)
+                .field("ok", code == OK)
+                .field("micros", nanos / 1_000);
+        if (code == OK) line.name("result").raw(result.toString());
+        else line.field("error", error);
+        out.println(line.endObject());
+        return code;
+    }
+
+    //"--name value" pairs after the command word
+    static Map<String, String> parseOptions(List<String> words) {
+        Set<String> allowed = OPTIONS.get(words.get(0));
+        if (allowed == null) throw new IllegalArgumentException("Unknown command '" + words.get(0) + "', try help");
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < words.size(); i += 2) {
+            String word = words.get(i);
+            if (!word.startsWith("--")) throw new IllegalArgumentException("Expected an option, got '" + word + "'");
+            String name = word.substring(2);
+            if (!allowed.contains(name)) throw new IllegalArgumentException("Unknown option --" + name + " for " + words.get(0));
+            if (i + 1 >= words.size()) throw new IllegalArgumentException("Missing value for --" + name);
+            options.put(name, words.get(i + 1));
+        }
+        return options;
+    }
+
+    //whitespace separated words, double quotes keep spaces together ("Tony Soprano")
+    static List<String> split(String line) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        boolean quoted = false;
+        boolean inWord = false;
+        for (char c : line.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+                inWord = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (inWord) words.add(word.toString());
+                word.setLength(0);
+                inWord = false;
+            } else {
+                word.append(c);
+                inWord = true;
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unterminated quote");
+        if (inWord) words.add(word.toString());
+        return words;
+    }
+
+    private static String required(Map<String, String> options, String name) throws FlooringException {
+        String value = options.get(name);
+        if (value == null || value.isBlank()) throw new FlooringException("Missing --" + name);
+        return value.trim();
+    }
+
+    private static LocalDate date(Map<String, String> options, String name) throws FlooringException {
+        return LocalDate.parse(required(options, name));
+    }
+}
@@ -1,29 +1,30 @@
 package org.example.controller;
 
+import org.example.dao.ExportSummary;
 import org.example.dao.FlooringException;
+import org.example.metrics.MetricsRegistry;
 import org.example.model.Order;
 import org.example.model.Product;
 import org.example.model.Tax;
 import org.example.service.FlooringService;
+import org.example.service.RepricingReport;
 import org.example.view.FlooringView;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Controller;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
 
-@Controller
 public class FlooringController {
 
     private final FlooringService service;
     private final FlooringView view;
+    private final MetricsRegistry metrics;
 
-    @Autowired
-    public FlooringController(FlooringService service, FlooringView view) {
+    public FlooringController(FlooringService service, FlooringView view, MetricsRegistry metrics) {
         this.service = service;
         this.view = view;
+        this.metrics = metrics;
     }
 
     public void run() {
@@ -37,7 +38,11 @@ public class FlooringController {
                     case 3 -> editOrder();
                     case 4 -> removeOrder();
                     case 5 -> exportAllData();
-                    case 6 -> {
+                    case 6 -> repriceFutureOrders();
+                    case 7 -> revenueReport();
+                    case 8 -> findOrdersByCustomer();
+                    case 9 -> view.displayMessage(metrics.report());
+                    case 10 -> {
                         view.displayMessage("Exiting Flooring Program. Goodbye!");
                         keepRunning = false;
                     }
@@ -61,6 +66,18 @@ public class FlooringController {
         }
     }
 
+    private void findOrdersByCustomer() throws FlooringException {
+        //any part of the name works as long as words start right, e.g. "sop" or "tony s"
+        String query = view.promptSearchText("Enter customer name or the start of it: ");
+        List<Order> orders = service.findOrdersByCustomer(query);
+        if (orders.isEmpty()) {
+            view.displayMessage("No orders found for \"" + query + "\"");
+        }
+        else {
+            view.displayOrders(orders);
+        }
+    }
+
     // adding a new order
     private void addOrder() {
         try {
@@ -208,7 +225,33 @@ public class FlooringController {
             view.displayMessage("No order found with that number.");
     }
 
-    private void exportAllData() {
-        view.displayMessage("Not Implemented ");
+    private void exportAllData() throws FlooringException {
+        //writing all orders to the backup file
+        ExportSummary summary = service.exportAllData();
+        view.displayMessage(summary.toString());
+    }
+
+    private void repriceFutureOrders() throws FlooringException {
+        //bringing future orders in line with edited Products.txt / Taxes.txt
+        String confirm = view.promptConfirmation("Reprice all future orders with the current product and tax rates? (Y/N): ");
+        if (!confirm.equalsIgnoreCase("Y")) {
+            view.displayMessage("Repricing cancelled.");
+            return;
+        }
+        RepricingReport report = service.repriceFutureOrders();
+        view.displayMessage(report.toString());
+    }
+
+    private void revenueReport() throws FlooringException {
+        //a whole year, or one month of it
+        int year = view.promptInt("Enter year: ");
+        int month = view.promptInt("Enter month (1-12, 0 for the whole year): ");
+        if (year < 1 || year > 9999 || month < 0 || month > 12) {
+            view.displayMessage("Year must be between 1 and 9999 and month between 0 and 12.");
+            return;
+        }
+        LocalDate from = month == 0 ? LocalDate.of(year, 1, 1) : LocalDate.of(year, month, 1);
+        LocalDate to = month == 0 ? from.withDayOfYear(from.lengthOfYear()) : from.withDayOfMonth(from.lengthOfMonth());
+        view.displayMessage(service.getRevenueReport(from, to).toString());
     }
 }
@@ -0,0 +1,311 @@
+package org.example.controller;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.dao.FlooringException;
+import org.example.dao.TaskExecutors;
+import org.example.metrics.MetricsRegistry;
+import org.example.model.Order;
+import org.example.service.FlatJson;
+import org.example.service.FlooringService;
+import org.example.service.ImportFormat;
+import org.example.service.ImportResult;
+import org.example.service.RevenueReport;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Optional HTTP front end (Main --server) exposing the FlooringService operations as JSON,
+ * built on the JDK's com.sun.net.httpserver:
+ *
+ *   GET    /orders?date=YYYY-MM-DD          orders of one date
+ *   GET    /orders?from=..&to=..            orders of a date range, streamed in date order
+ *   GET    /orders?customer=tony+sop        customer name search
+ *   POST   /orders                          add, body {"orderDate","customerName","state","productType","area"}
+ *   GET    /orders/{number}                 one order, with its date
+ *   PUT    /orders/{number}                 edit, same body as add, missing fields keep their value
+ *   DELETE /orders/{number}                 remove
+ *   POST   /orders/import?format=csv|ndjson bulk import of the request body
+ *   POST   /export                          Export All Data
+ *   POST   /reprice                         Reprice Future Orders
+ *   GET    /reports/revenue?from=..&to=..   revenue report
+ *   GET    /products, /taxes                reference data
+ *   GET    /metrics                         the Diagnostics report, as text
+ *
+ * Each request runs on its own virtual thread when the JDK has them, otherwise on a fixed
+ * pool. The service and the file DAOs under it are already safe for concurrent callers
+ * (per-date locks, atomic snapshots), so requests are not serialized here. Service errors
+ * come back as {"error": message}: 400 for invalid input, 500 when the order files could not
+ * be read or written. It listens on the loopback interface unless given another address.
+ */
+public class FlooringHttpServer implements AutoCloseable {
+
+    private static final int MAX_JSON_BODY = 64 * 1024;
+    //used when the JDK has no virtual threads
+    static final int FALLBACK_THREADS = 64;
+
+    private final FlooringService service;
+    private final MetricsRegistry metrics;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public FlooringHttpServer(FlooringService service, MetricsRegistry metrics) {
+        this.service = service;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts listening on the loopback interface only, port 0 picks a free one (see getPort).
+     */
+    public void start(int port) throws IOException {
+        start(InetAddress.getLoopbackAddress().getHostAddress(), port);
+    }
+
+    /**
+     * Starts listening on the given address ("0.0.0.0" for every interface), port 0 picks a free one.
+     */
+    public synchronized void start(String bindAddress, int port) throws IOException {
+        if (server != null) throw new IllegalStateException("Already started");
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getByName(bindAddress), port);
+        executor = TaskExecutors.newBlockingTaskExecutor("http-request", FALLBACK_THREADS);
+        server = HttpServer.create(address, 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public synchronized int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public synchronized InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    //lets requests in flight finish for up to a second, closed by Spring before the DAOs
+    @Override
+    public synchronized void close() {
+        if (server == null) return;
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            route(exchange);
+        } catch (FlooringException e) {
+            //the order files could not be read or written: not something the client can fix
+            if (exchange.getResponseCode() == -1) sendError(exchange, isIoFailure(e) ? 500 : 400, e.getMessage());
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            //NumberFormatException is an IllegalArgumentException, bad numbers are the client's too
+            if (exchange.getResponseCode() == -1) sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            //once a streamed response has started the client only sees it end early
+            if (exchange.getResponseCode() == -1) sendError(exchange, 500, "Internal error: " + e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        if (path.equals("/orders")) {
+            if (method.equals("GET")) listOrders(exchange, query);
+            else if (method.equals("POST")) addOrder(exchange);
+            else sendError(exchange, 405, method + " not allowed on " + path);
+        } else if (path.equals("/orders/import")) {
+            if (!method.equals("POST")) sendError(exchange, 405, method + " not allowed on " + path);
+            else importOrders(exchange, query);
+        } else if (path.startsWith("/orders/")) {
+            int orderNumber = Integer.parseInt(path.substring("/orders/".length()));
+            switch (method) {
+                case "GET" -> getOrder(exchange, orderNumber);
+                case "PUT" -> editOrder(exchange, orderNumber);
+                case "DELETE" -> removeOrder(exchange, orderNumber);
+                default -> sendError(exchange, 405, method + " not allowed on " + path);
+            }
+        } else if (path.equals("/export") && method.equals("POST")) {
+            sendJson(exchange, 200, FlooringJson.export(new JsonWriter(), service.exportAllData()).toString());
+        } else if (path.equals("/reprice") && method.equals("POST")) {
+            sendJson(exchange, 200, FlooringJson.repricing(new JsonWriter(), service.repriceFutureOrders()).toString());
+        } else if (path.equals("/reports/revenue") && method.equals("GET")) {
+            RevenueReport report = service.getRevenueReport(LocalDate.parse(required(query, "from")), LocalDate.parse(required(query, "to")));
+            sendJson(exchange, 200, FlooringJson.revenue(new JsonWriter(), report).toString());
+        } else if (path.equals("/products") && method.equals("GET")) {
+            sendJson(exchange, 200, FlooringJson.products(new JsonWriter(), service.getAllProducts()).toString());
+        } else if (path.equals("/taxes") && method.equals("GET")) {
+            sendJson(exchange, 200, FlooringJson.taxes(new JsonWriter(), service.getAllTaxes()).toString());
+        } else if (path.equals("/metrics") && method.equals("GET")) {
+            send(exchange, 200, "text/plain; charset=utf-8", metrics.report());
+        } else {
+            sendError(exchange, 404, "No such resource: " + method + " " + path);
+        }
+    }
+
+    private void listOrders(HttpExchange exchange, Map<String, String> query) throws IOException {
+        if (query.containsKey("date")) {
+            sendJson(exchange, 200, FlooringJson.orders(new JsonWriter(), service.getOrdersByDate(LocalDate.parse(query.get("date")))).toString());
+        } else if (query.containsKey("customer")) {
+            sendJson(exchange, 200, FlooringJson.orders(new JsonWriter(), service.findOrdersByCustomer(query.get("customer"))).toString());
+        } else if (query.containsKey("from")) {
+            streamOrders(exchange, LocalDate.parse(query.get("from")), LocalDate.parse(required(query, "to")));
+        } else {
+            throw new FlooringException("Give date, from and to, or customer.");
+        }
+    }
+
+    //a quarter can be large, so orders are written as they are loaded instead of building the whole array first
+    private void streamOrders(HttpExchange exchange, LocalDate from, LocalDate to) throws IOException {
+        try (Stream<Order> orders = service.streamOrdersBetween(from, to)) {
+            Iterator<Order> it = orders.iterator();
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            //chunked; a failure past this point can only cut the response short
+            exchange.sendResponseHeaders(200, 0);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+                out.write('[');
+                boolean first = true;
+                while (it.hasNext()) {
+                    if (!first) out.write(',');
+                    out.write(FlooringJson.order(new JsonWriter(), it.next()).toString());
+                    first = false;
+                }
+                out.write(']');
+            }
+        }
+    }
+
+    private void getOrder(HttpExchange exchange, int orderNumber) throws IOException {
+        Order order = service.getOrder(orderNumber);
+        if (order == null) sendError(exchange, 404, "Order #" + orderNumber + " not found");
+        else sendJson(exchange, 200, FlooringJson.order(new JsonWriter(), order).toString());
+    }
+
+    private void addOrder(HttpExchange exchange) throws IOException {
+        Map<String, String> body = FlatJson.parseObject(readBody(exchange));
+        Order order = new Order();
+        order.setCustomerName(body.get("customerName"));
+        order.setState(body.get("state"));
+        order.setProductType(body.get("productType"));
+        if (body.get("area") != null) order.setArea(new BigDecimal(body.get("area")));
+        Order saved = service.addOrder(LocalDate.parse(required(body, "orderDate")), order);
+        sendJson(exchange, 201, FlooringJson.order(new JsonWriter(), saved).toString());
+    }
+
+    private void editOrder(HttpExchange exchange, int orderNumber) throws IOException {
+        Map<String, String> body = FlatJson.parseObject(readBody(exchange));
+        Order order = service.getOrder(orderNumber);
+        if (order == null) {
+            sendError(exchange, 404, "Order #" + orderNumber + " not found");
+            return;
+        }
+        //same rules as the console edit: anything not given keeps its value, the date cannot change
+        if (body.get("customerName") != null) order.setCustomerName(body.get("customerName"));
+        if (body.get("state") != null) order.setState(body.get("state"));
+        if (body.get("productType") != null) order.setProductType(body.get("productType"));
+        if (body.get("area") != null) order.setArea(new BigDecimal(body.get("area")));
+        Order saved = service.editOrder(order.getOrderDate(), order);
+        sendJson(exchange, 200, FlooringJson.order(new JsonWriter(), saved).toString());
+    }
+
+    private void removeOrder(HttpExchange exchange, int orderNumber) throws IOException {
+        Order order = service.getOrder(orderNumber);
+        if (order == null) {
+            sendError(exchange, 404, "Order #" + orderNumber + " not found");
+            return;
+        }
+        Order removed = service.removeOrder(order.getOrderDate(), orderNumber);
+        sendJson(exchange, 200, FlooringJson.order(new JsonWriter(), removed).toString());
+    }
+
+    private void importOrders(HttpExchange exchange, Map<String, String> query) throws IOException {
+        ImportFormat format = ImportFormat.valueOf(query.getOrDefault("format", "csv").trim().toUpperCase());
+        //the body is read as it is imported, it is never held in memory as a whole
+        ImportResult result;
+        try (Reader body = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            result = service.importOrders(body, format);
+        }
+        sendJson(exchange, 200, FlooringJson.importResult(new JsonWriter(), result).toString());
+    }
+
+    // ---------- Plumbing ----------
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static boolean isIoFailure(Throwable e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof UncheckedIOException) return true;
+        }
+        return false;
+    }
+
+    private static String required(Map<String, String> params, String name) throws FlooringException {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) throw new FlooringException("Missing " + name);
+        return value.trim();
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_JSON_BODY + 1);
+            if (body.length > MAX_JSON_BODY) throw new FlooringException("Request body too large.");
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        send(exchange, status, "application/json; charset=utf-8", json);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, FlooringJson.error(new JsonWriter(), message).toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.controller;
+
+import org.example.dao.DailyRevenue;
+import org.example.dao.ExportSummary;
+import org.example.dao.Revenue;
+import org.example.model.Order;
+import org.example.model.Product;
+import org.example.model.Tax;
+import org.example.service.ImportResult;
+import org.example.service.RepricingReport;
+import org.example.service.RevenueReport;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON shapes of the service results, shared by the HTTP API and the command line so both
+ * print the same documents. Each method appends one value to the writer and returns it.
+ */
+final class FlooringJson {
+
+    private FlooringJson() {
+    }
+
+    static JsonWriter orders(JsonWriter json, List<Order> orders) {
+        json.beginArray();
+        for (Order order : orders) order(json, order);
+        return json.endArray();
+    }
+
+    static JsonWriter order(JsonWriter json, Order o) {
+        return json.beginObject()
+                .field("orderNumber", o.getOrderNumber())
+                .field("orderDate", o.getOrderDate())
+                .field("customerName", o.getCustomerName())
+                .field("state", o.getState())
+                .field("taxRate", o.getTaxRate())
+                .field("productType", o.getProductType())
+                .field("area", o.getArea())
+                .field("costPerSquareFoot", o.getCostPerSquareFoot())
+                .field("laborCostPerSquareFoot", o.getLaborCostPerSquareFoot())
+                .field("materialCost", o.getMaterialCost())
+                .field("laborCost", o.getLaborCost())
+                .field("tax", o.getTax())
+                .field("total", o.getTotal())
+                .endObject();
+    }
+
+    static JsonWriter products(JsonWriter json, List<Product> products) {
+        json.beginArray();
+        for (Product p : products) {
+            json.beginObject().field("productType", p.getProductType())
+                    .field("costPerSquareFoot", p.getCostPerSquareFoot())
+                    .field("laborCostPerSquareFoot", p.getLaborCostPerSquareFoot()).endObject();
+        }
+        return json.endArray();
+    }
+
+    static JsonWriter taxes(JsonWriter json, List<Tax> taxes) {
+        json.beginArray();
+        for (Tax t : taxes) {
+            json.beginObject().field("stateAbbreviation", t.getStateAbbreviation())
+                    .field("stateName", t.getStateName()).field("taxRate", t.getTaxRate()).endObject();
+        }
+        return json.endArray();
+    }
+
+    static JsonWriter importResult(JsonWriter json, ImportResult result) {
+        json.beginObject()
+                .field("imported", result.getImported())
+                .field("dates", result.getDates())
+                .field("elapsedMillis", result.getElapsedMillis())
+                .name("errors").beginArray();
+        for (ImportResult.RowError error : result.getErrors()) {
+            json.beginObject().field("line", error.getLineNumber()).field("message", error.getMessage()).endObject();
+        }
+        return json.endArray().endObject();
+    }
+
+    static JsonWriter export(JsonWriter json, ExportSummary summary) {
+        return json.beginObject()
+                .field("file", summary.getFile())
+                .field("dates", summary.getDates())
+                .field("rows", summary.getRows())
+                .field("elapsedMillis", summary.getElapsedMillis())
+                .endObject();
+    }
+
+    static JsonWriter repricing(JsonWriter json, RepricingReport report) {
+        json.beginObject()
+                .field("file", report.getFile())
+                .field("datesScanned", report.getDatesScanned())
+                .field("datesRewritten", report.getDatesRewritten())
+                .field("ordersScanned", report.getOrdersScanned())
+                .field("elapsedMillis", report.getElapsedMillis())
+                .name("changes").beginArray();
+        for (RepricingReport.Change change : report.getChanges()) {
+            json.beginObject().field("orderDate", change.getDate()).field("orderNumber", change.getOrderNumber())
+                    .field("customerName", change.getCustomerName())
+                    .field("oldTotal", change.getOldTotal()).field("newTotal", change.getNewTotal()).endObject();
+        }
+        json.endArray().name("skipped").beginArray();
+        for (String skipped : report.getSkipped()) json.value(skipped);
+        return json.endArray().endObject();
+    }
+
+    static JsonWriter revenue(JsonWriter json, RevenueReport report) {
+        json.beginObject()
+                .field("from", report.getFrom())
+                .field("to", report.getTo())
+                .field("orderDates", report.getDays().size())
+                .name("total");
+        revenue(json, report.getTotal());
+        json.name("byMonth").beginObject();
+        for (Map.Entry<YearMonth, Revenue> month : report.getByMonth().entrySet()) revenue(json.name(month.getKey().toString()), month.getValue());
+        json.endObject().name("byState").beginObject();
+        for (Map.Entry<String, Revenue> state : report.getByState().entrySet()) revenue(json.name(state.getKey()), state.getValue());
+        json.endObject().name("byProduct").beginObject();
+        for (Map.Entry<String, Revenue> product : report.getByProduct().entrySet()) revenue(json.name(product.getKey()), product.getValue());
+        json.endObject().name("days").beginArray();
+        for (DailyRevenue day : report.getDays()) {
+            json.beginObject().field("date", day.getDate()).name("total");
+            revenue(json, day.getTotal()).endObject();
+        }
+        return json.endArray().endObject();
+    }
+
+    static JsonWriter revenue(JsonWriter json, Revenue revenue) {
+        return json.beginObject()
+                .field("orders", revenue.getOrders())
+                .field("materialCost", revenue.getMaterialCost())
+                .field("laborCost", revenue.getLaborCost())
+                .field("tax", revenue.getTax())
+                .field("total", revenue.getTotal())
+                .endObject();
+    }
+
+    static JsonWriter error(JsonWriter json, String message) {
+        return json.beginObject().field("error", message).endObject();
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.controller;
+
+import java.math.BigDecimal;
+
+/**
+ * Builds the JSON responses of the HTTP API. Commas are placed automatically: a value or
+ * name gets one unless it directly follows an opening bracket or a name.
+ */
+final class JsonWriter {
+
+    private final StringBuilder out = new StringBuilder();
+
+    JsonWriter beginObject() {
+        separate();
+        out.append('{');
+        return this;
+    }
+
+    JsonWriter endObject() {
+        out.append('}');
+        return this;
+    }
+
+    JsonWriter beginArray() {
+        separate();
+        out.append('[');
+        return this;
+    }
+
+    JsonWriter endArray() {
+        out.append(']');
+        return this;
+    }
+
+    JsonWriter name(String name) {
+        separate();
+        string(name);
+        out.append(':');
+        return this;
+    }
+
+    JsonWriter value(String value) {
+        separate();
+        if (value == null) out.append("null");
+        else string(value);
+        return this;
+    }
+
+    //amounts are written as plain numbers, never in exponent form
+    JsonWriter value(BigDecimal value) {
+        separate();
+        out.append(value == null ? "null" : value.toPlainString());
+        return this;
+    }
+
+    JsonWriter value(long value) {
+        separate();
+        out.append(value);
+        return this;
+    }
+
+    JsonWriter value(double value) {
+        separate();
+        out.append(Double.isFinite(value) ? String.valueOf(value) : "null");
+        return this;
+    }
+
+    JsonWriter value(boolean value) {
+        separate();
+        out.append(value);
+        return this;
+    }
+
+    //an already rendered JSON value, e.g. the result inside a command line envelope
+    JsonWriter raw(String json) {
+        separate();
+        out.append(json);
+        return this;
+    }
+
+    JsonWriter field(String name, String value) {
+        return name(name).value(value);
+    }
+
+    JsonWriter field(String name, BigDecimal value) {
+        return name(name).value(value);
+    }
+
+    JsonWriter field(String name, long value) {
+        return name(name).value(value);
+    }
+
+    JsonWriter field(String name, boolean value) {
+        return name(name).value(value);
+    }
+
+    JsonWriter field(String name, Object value) {
+        return name(name).value(value == null ? null : value.toString());
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void separate() {
+        if (out.length() == 0) return;
+        char last = out.charAt(out.length() - 1);
+        if (last != '{' && last != '[' && last != ':') out.append(',');
+    }
+
+    private void string(String s) {
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+                }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,389 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Columnar binary segment, one per date (Orders_MMddyyyy.ord).
+ *
+ * Layout, all fixed ints big endian:
+ * <pre>
+ *   int magic "FLRC", byte version, int rowCount, int maxOrderNumber, byte columnCount
+ *   then per column (in HEADER order): int byteLength, column data
+ * </pre>
+ * Column data:
+ * <ul>
+ *   <li>OrderNumber: zigzag varint delta from the previous row</li>
+ *   <li>CustomerName: varint length + UTF-8 bytes per row</li>
+ *   <li>State, ProductType: varint dictionary size, the dictionary strings, then a varint code per row</li>
+ *   <li>money and rates: a tag byte, then either one shared scale and a zigzag varint unscaled value
+ *       per row, a scale and an unscaled value per row, or the decimal text per row when a value
+ *       does not fit a long</li>
+ * </ul>
+ * Every BigDecimal keeps its exact unscaled value and scale, so text -> binary -> text is lossless.
+ * The column lengths let a scan (e.g. the index rebuild) read only the columns it needs.
+ * Positions are not supported, write and scanOffsets return UNKNOWN_OFFSET.
+ */
+final class BinaryOrderFormat implements OrderFileFormat {
+
+    static final int MAGIC = 0x464C5243; // "FLRC"
+    static final byte VERSION = 1;
+    private static final int COLUMNS = 12;
+
+    private static final byte FIXED_SCALE = 0;
+    private static final byte ROW_SCALE = 1;
+    private static final byte DECIMAL_TEXT = 2;
+
+    private final long mmapThresholdBytes;
+
+    BinaryOrderFormat(long mmapThresholdBytes) {
+        this.mmapThresholdBytes = mmapThresholdBytes;
+    }
+
+    @Override
+    public String extension() {
+        return StorageFormat.BINARY.getExtension();
+    }
+
+    @Override
+    public List<Order> read(Path file) throws IOException {
+        return read(load(file), file);
+    }
+
+    @Override
+    public List<Order> read(ByteBuffer bytes) throws IOException {
+        return read(bytes.slice(), "order bytes");
+    }
+
+    private List<Order> read(ByteBuffer in, Object source) throws IOException {
+        int rows = readHeader(in, source);
+        Order[] orders = new Order[rows];
+        for (int i = 0; i < rows; i++) orders[i] = new Order();
+
+        try {
+            Decoder column = new Decoder(in);
+            column.next();
+            int number = 0;
+            for (Order o : orders) o.setOrderNumber(number += (int) column.readZigZag());
+            column.next();
+            for (Order o : orders) o.setCustomerName(column.readString());
+            column.next();
+            String[] states = column.readDictionary();
+            for (Order o : orders) o.setState(states[column.readCode(states.length)]);
+            column.next();
+            readDecimals(column, orders, Order::setTaxRate);
+            column.next();
+            String[] products = column.readDictionary();
+            for (Order o : orders) o.setProductType(products[column.readCode(products.length)]);
+            column.next();
+            readDecimals(column, orders, Order::setArea);
+            column.next();
+            readDecimals(column, orders, Order::setCostPerSquareFoot);
+            column.next();
+            readDecimals(column, orders, Order::setLaborCostPerSquareFoot);
+            column.next();
+            readDecimals(column, orders, Order::setMaterialCost);
+            column.next();
+            readDecimals(column, orders, Order::setLaborCost);
+            column.next();
+            readDecimals(column, orders, Order::setTax);
+            column.next();
+            readDecimals(column, orders, Order::setTotal);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NumberFormatException e) {
+            throw new IOException("Corrupt order segment " + source, e);
+        }
+        return new ArrayList<>(Arrays.asList(orders));
+    }
+
+    @Override
+    public Map<Integer, Long> write(Path file, List<Order> orders) throws IOException {
+        return write(Files.newOutputStream(file), orders);
+    }
+
+    @Override
+    public Map<Integer, Long> write(OutputStream target, List<Order> orders) throws IOException {
+        int maxOrderNumber = 0;
+        for (Order o : orders) maxOrderNumber = Math.max(maxOrderNumber, o.getOrderNumber());
+
+        List<Encoder> columns = new ArrayList<>(COLUMNS);
+        Encoder numbers = new Encoder();
+        int previous = 0;
+        for (Order o : orders) {
+            numbers.writeZigZag((long) o.getOrderNumber() - previous);
+            previous = o.getOrderNumber();
+        }
+        columns.add(numbers);
+        Encoder names = new Encoder();
+        for (Order o : orders) names.writeString(o.getCustomerName());
+        columns.add(names);
+        columns.add(dictionaryColumn(orders, Order::getState));
+        columns.add(decimalColumn(orders, Order::getTaxRate));
+        columns.add(dictionaryColumn(orders, Order::getProductType));
+        columns.add(decimalColumn(orders, Order::getArea));
+        columns.add(decimalColumn(orders, Order::getCostPerSquareFoot));
+        columns.add(decimalColumn(orders, Order::getLaborCostPerSquareFoot));
+        columns.add(decimalColumn(orders, Order::getMaterialCost));
+        columns.add(decimalColumn(orders, Order::getLaborCost));
+        columns.add(decimalColumn(orders, Order::getTax));
+        columns.add(decimalColumn(orders, Order::getTotal));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(target, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(orders.size());
+            out.writeInt(maxOrderNumber);
+            out.writeByte(COLUMNS);
+            for (Encoder column : columns) {
+                out.writeInt(column.size());
+                column.writeTo(out);
+            }
+        }
+
+        Map<Integer, Long> offsets = new LinkedHashMap<>();
+        for (Order o : orders) offsets.put(o.getOrderNumber(), OrderNumberIndex.UNKNOWN_OFFSET);
+        return offsets;
+    }
+
+    @Override
+    public Order readAt(Path file, long offset) {
+        return null; // rows have no position of their own, callers fall back to reading the date
+    }
+
+    //only the header and the order number column are decoded
+    @Override
+    public Map<Integer, Long> scanOffsets(Path file) throws IOException {
+        return scanOffsets(load(file), file);
+    }
+
+    @Override
+    public Map<Integer, Long> scanOffsets(ByteBuffer bytes) throws IOException {
+        return scanOffsets(bytes.slice(), "order bytes");
+    }
+
+    private Map<Integer, Long> scanOffsets(ByteBuffer in, Object source) throws IOException {
+        int rows = readHeader(in, source);
+        Map<Integer, Long> offsets = new LinkedHashMap<>();
+        try {
+            Decoder column = new Decoder(in);
+            column.next();
+            int number = 0;
+            for (int i = 0; i < rows; i++) {
+                number += (int) column.readZigZag();
+                offsets.put(number, OrderNumberIndex.UNKNOWN_OFFSET);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt order segment " + source, e);
+        }
+        return offsets;
+    }
+
+    private ByteBuffer load(Path file) throws IOException {
+        long size = Files.size(file);
+        if (mmapThresholdBytes >= 0 && size >= mmapThresholdBytes && size <= Integer.MAX_VALUE) {
+            //OrderDaoFileImpl only maps where a file is replaced, never cut short under the mapping
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(file));
+    }
+
+    private static int readHeader(ByteBuffer in, Object file) throws IOException {
+        try {
+            if (in.getInt() != MAGIC) throw new IOException(file + " is not an order segment");
+            byte version = in.get();
+            if (version != VERSION) throw new IOException("Unsupported order segment version " + version + " in " + file);
+            int rows = in.getInt();
+            in.getInt(); // max order number
+            if (in.get() != COLUMNS || rows < 0) throw new IOException("Corrupt order segment " + file);
+            return rows;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated order segment " + file, e);
+        }
+    }
+
+    private interface DecimalSetter {
+        void set(Order order, BigDecimal value);
+    }
+
+    private interface DecimalGetter {
+        BigDecimal get(Order order);
+    }
+
+    private interface StringGetter {
+        String get(Order order);
+    }
+
+    private static void readDecimals(Decoder column, Order[] orders, DecimalSetter setter) throws IOException {
+        byte tag = column.in.get();
+        switch (tag) {
+            case FIXED_SCALE -> {
+                int scale = (int) column.readZigZag();
+                //rates and unit prices repeat a lot, share the instance with the previous row when equal
+                BigDecimal last = null;
+                long lastUnscaled = 0;
+                for (Order o : orders) {
+                    long unscaled = column.readZigZag();
+                    if (last == null || lastUnscaled != unscaled) {
+                        last = BigDecimal.valueOf(unscaled, scale);
+                        lastUnscaled = unscaled;
+                    }
+                    setter.set(o, last);
+                }
+            }
+            case ROW_SCALE -> {
+                for (Order o : orders) {
+                    int scale = (int) column.readZigZag();
+                    setter.set(o, BigDecimal.valueOf(column.readZigZag(), scale));
+                }
+            }
+            case DECIMAL_TEXT -> {
+                for (Order o : orders) setter.set(o, new BigDecimal(column.readString()));
+            }
+            default -> throw new IOException("Unknown decimal column encoding " + tag);
+        }
+    }
+
+    private static Encoder decimalColumn(List<Order> orders, DecimalGetter getter) {
+        boolean fitsLong = true;
+        boolean sameScale = true;
+        int scale = orders.isEmpty() ? 0 : getter.get(orders.get(0)).scale();
+        for (Order o : orders) {
+            BigDecimal value = getter.get(o);
+            if (value.unscaledValue().bitLength() > 63) fitsLong = false;
+            if (value.scale() != scale) sameScale = false;
+        }
+
+        Encoder column = new Encoder();
+        if (!fitsLong) {
+            column.write(DECIMAL_TEXT);
+            for (Order o : orders) column.writeString(getter.get(o).toString());
+        } else if (sameScale) {
+            column.write(FIXED_SCALE);
+            column.writeZigZag(scale);
+            for (Order o : orders) column.writeZigZag(getter.get(o).unscaledValue().longValue());
+        } else {
+            column.write(ROW_SCALE);
+            for (Order o : orders) {
+                BigDecimal value = getter.get(o);
+                column.writeZigZag(value.scale());
+                column.writeZigZag(value.unscaledValue().longValue());
+            }
+        }
+        return column;
+    }
+
+    private static Encoder dictionaryColumn(List<Order> orders, StringGetter getter) {
+        Map<String, Integer> codes = new LinkedHashMap<>();
+        for (Order o : orders) codes.putIfAbsent(getter.get(o), codes.size());
+
+        Encoder column = new Encoder();
+        column.writeVarLong(codes.size());
+        for (String value : codes.keySet()) column.writeString(value);
+        for (Order o : orders) column.writeVarLong(codes.get(getter.get(o)));
+        return column;
+    }
+
+    //growable byte buffer with varint helpers
+    private static final class Encoder extends ByteArrayOutputStream {
+
+        Encoder() {
+            super(256);
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static final class Decoder {
+        private final ByteBuffer in;
+        private int columnEnd;
+        private byte[] scratch = new byte[64];
+
+        Decoder(ByteBuffer in) {
+            this.in = in;
+            this.columnEnd = in.position();
+        }
+
+        //moves to the start of the next column, whatever was left of the current one is skipped
+        void next() {
+            in.position(columnEnd);
+            int length = in.getInt();
+            columnEnd = in.position() + length;
+            if (length < 0 || columnEnd > in.limit()) throw new BufferUnderflowException();
+        }
+
+        //every read stays inside the current column, a corrupt length or code underflows
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (in.position() >= columnEnd) throw new BufferUnderflowException();
+                byte b = in.get();
+                result |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return result;
+            }
+            throw new BufferUnderflowException();
+        }
+
+        long readZigZag() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String readString() {
+            int length = readCount();
+            if (in.hasArray()) {
+                String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+                in.position(in.position() + length);
+                return value;
+            }
+            if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+            in.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        //every value takes at least one byte, so a size is never more than the bytes left in the column
+        String[] readDictionary() {
+            String[] values = new String[readCount()];
+            for (int i = 0; i < values.length; i++) values[i] = readString();
+            return values;
+        }
+
+        int readCode(int dictionarySize) {
+            long code = readVarLong();
+            if (code < 0 || code >= dictionarySize) throw new BufferUnderflowException();
+            return (int) code;
+        }
+
+        private int readCount() {
+            long count = readVarLong();
+            if (count < 0 || count > columnEnd - in.position()) throw new BufferUnderflowException();
+            return (int) count;
+        }
+    }
+}
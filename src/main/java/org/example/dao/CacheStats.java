@@ -0,0 +1,41 @@
+package org.example.dao;
+
+/**
+ * Point in time counters of the per-date order cache, used to size it.
+ */
+public class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+    private final int entries;
+    private final long estimatedBytes;
+
+    public CacheStats(long hits, long misses, long evictions, long invalidations, int entries, long estimatedBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.entries = entries;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    //entries dropped because the file changed behind our back
+    public long getInvalidations() { return invalidations; }
+    public int getEntries() { return entries; }
+    public long getEstimatedBytes() { return estimatedBytes; }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d hitRatio=%.2f evictions=%d invalidations=%d entries=%d bytes~%d",
+                hits, misses, getHitRatio(), evictions, invalidations, entries, estimatedBytes);
+    }
+}
@@ -0,0 +1,227 @@
+package org.example.dao;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index from the words of customer names to order numbers, for prefix
+ * search over the whole order history.
+ *
+ * Names are split into words the same way the name validation reads them: letters and
+ * digits make up words, case is ignored, apostrophes are dropped ("O'Neil" is "oneil") and
+ * the other accepted characters (space . , -) separate words. Anything else, e.g. from a
+ * hand edited file, also separates words. A search matches every order whose name has,
+ * for each word of the query, a word starting with it; so "tony sop" finds "Tony Soprano".
+ * The words sit in a sorted map, which makes a prefix one range lookup however many
+ * orders there are. Not persisted, the DAO rebuilds it from the date files on startup.
+ * Orders are keyed by number alone: numbers are unique across dates, and the DAO refuses to
+ * start on a folder where they are not (see OrderNumberIndex and OrderRenumberer).
+ */
+final class CustomerNameIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    //word -> numbers of the orders whose name contains it
+    private final NavigableMap<String, Postings> postingsByWord = new TreeMap<>();
+    private final Map<Integer, Entry> orders = new HashMap<>();
+
+    static final class Entry {
+        final int orderNumber;
+        final LocalDate date;
+        //the words of the name, the same String instances as the map keys
+        final String[] words;
+
+        Entry(int orderNumber, LocalDate date, String[] words) {
+            this.orderNumber = orderNumber;
+            this.date = date;
+            this.words = words;
+        }
+    }
+
+    //sorted growable int array: numbers mostly arrive in ascending order, so an add is usually an
+    //append, and a removal is a binary search and one shift instead of a scan
+    private static final class Postings {
+        final String word;
+        int[] numbers = new int[2];
+        int size;
+
+        Postings(String word) {
+            this.word = word;
+        }
+
+        void add(int number) {
+            int at = Arrays.binarySearch(numbers, 0, size, number);
+            if (at >= 0) return;
+            at = -at - 1;
+            if (size == numbers.length) numbers = Arrays.copyOf(numbers, size * 2);
+            System.arraycopy(numbers, at, numbers, at + 1, size - at);
+            numbers[at] = number;
+            size++;
+        }
+
+        void remove(int number) {
+            int at = Arrays.binarySearch(numbers, 0, size, number);
+            if (at < 0) return;
+            System.arraycopy(numbers, at + 1, numbers, at, size - at - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Adds an order or moves it to a new name or date; indexing the same order twice is harmless.
+     */
+    void put(int orderNumber, LocalDate date, String name) {
+        lock.writeLock().lock();
+        try {
+            List<String> nameWords = words(name);
+            Entry previous = orders.get(orderNumber);
+            if (previous != null) {
+                if (previous.date.equals(date) && nameWords.equals(Arrays.asList(previous.words))) return;
+                unlink(previous);
+            }
+            String[] shared = new String[nameWords.size()];
+            for (int i = 0; i < shared.length; i++) {
+                Postings postings = postingsByWord.computeIfAbsent(nameWords.get(i), Postings::new);
+                postings.add(orderNumber);
+                shared[i] = postings.word;
+            }
+            orders.put(orderNumber, new Entry(orderNumber, date, shared));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(int orderNumber) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = orders.remove(orderNumber);
+            if (previous != null) unlink(previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return orders.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Orders whose name matches every word of the query as a prefix, at most limit of them,
+     * in the order of the matching words and by order number within a word. An empty list if the query has no letters or digits.
+     */
+    List<Entry> search(String query, int limit) {
+        List<String> prefixes = words(query);
+        List<Entry> matches = new ArrayList<>();
+        if (prefixes.isEmpty() || limit <= 0) return matches;
+
+        lock.readLock().lock();
+        try {
+            //candidates come from the prefix with the fewest orders, the other words are checked per candidate
+            String driver = prefixes.get(0);
+            if (prefixes.size() > 1) {
+                long fewest = Long.MAX_VALUE;
+                for (String prefix : prefixes) {
+                    long count = countUpTo(prefix, fewest);
+                    if (count < fewest) {
+                        fewest = count;
+                        driver = prefix;
+                    }
+                }
+            }
+            Set<Integer> seen = new HashSet<>();
+            for (Postings postings : range(driver).values()) {
+                for (int i = 0; i < postings.size; i++) {
+                    int number = postings.numbers[i];
+                    Entry entry = orders.get(number);
+                    //a name can have two words with the same prefix
+                    if (entry == null || !seen.add(number)) continue;
+                    if (prefixes.size() > 1 && !matchesAll(entry.words, prefixes)) continue;
+                    matches.add(entry);
+                    if (matches.size() == limit) return matches;
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower case words of a name, see the class comment for what counts as a word.
+     */
+    static List<String> words(String name) {
+        List<String> result = new ArrayList<>(4);
+        if (name == null) return result;
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                word.append(c);
+            } else if (c >= 'A' && c <= 'Z') {
+                word.append(Character.toLowerCase(c));
+            } else if (c != '\'') {
+                addWord(result, word);
+            }
+        }
+        addWord(result, word);
+        return result;
+    }
+
+    private static void addWord(List<String> result, StringBuilder word) {
+        if (word.length() == 0) return;
+        String w = word.toString();
+        if (!result.contains(w)) result.add(w);
+        word.setLength(0);
+    }
+
+    private NavigableMap<String, Postings> range(String prefix) {
+        return postingsByWord.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    //orders under a prefix, stops counting once it is past limit
+    private long countUpTo(String prefix, long limit) {
+        long count = 0;
+        for (Postings postings : range(prefix).values()) {
+            count += postings.size;
+            if (count >= limit) break;
+        }
+        return count;
+    }
+
+    private static boolean matchesAll(String[] nameWords, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            boolean found = false;
+            for (String word : nameWords) {
+                if (word.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    private void unlink(Entry entry) {
+        for (String word : entry.words) {
+            Postings postings = postingsByWord.get(word);
+            if (postings == null) continue;
+            postings.remove(entry.orderNumber);
+            if (postings.size == 0) postingsByWord.remove(word);
+        }
+    }
+}
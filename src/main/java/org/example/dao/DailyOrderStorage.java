@@ -0,0 +1,115 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The original layout: one Orders_MMddyyyy file per date, stamped by its modification time and size.
+ */
+final class DailyOrderStorage implements OrderStorage {
+
+    static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("MMddyyyy");
+
+    private final Path folder;
+    private final OrderFileFormat format;
+    private final DurableFiles files;
+    private final IoStats ioStats;
+
+    DailyOrderStorage(Path folder, OrderFileFormat format, DurableFiles files, IoStats ioStats) {
+        this.folder = folder;
+        this.format = format;
+        this.files = files;
+        this.ioStats = ioStats;
+    }
+
+    @Override
+    public Path fileOf(LocalDate date) {
+        //building file name in the orders folder, using the date format
+        return folder.resolve("Orders_" + date.format(FILE_DATE_FORMAT) + format.extension());
+    }
+
+    @Override
+    public List<LocalDate> dates() throws IOException {
+        List<LocalDate> dates = new ArrayList<>();
+        try (DirectoryStream<Path> dateFiles = Files.newDirectoryStream(folder, "Orders_*" + format.extension())) {
+            for (Path file : dateFiles) {
+                String name = file.getFileName().toString();
+                try {
+                    dates.add(LocalDate.parse(name.substring("Orders_".length(), name.length() - format.extension().length()), FILE_DATE_FORMAT));
+                } catch (DateTimeParseException e) {
+                    // not one of ours, ignore it
+                }
+            }
+        }
+        Collections.sort(dates);
+        return dates;
+    }
+
+    @Override
+    public FileStamp stamp(LocalDate date) throws IOException {
+        return FileStamp.ofNullable(fileOf(date));
+    }
+
+    @Override
+    public List<Order> read(LocalDate date) throws IOException {
+        Path file = fileOf(date);
+        if (!Files.exists(file)) return new ArrayList<>(); // no orders for that date yet
+
+        long start = System.nanoTime();
+        try {
+            List<Order> orders = format.read(file);
+            ioStats.recordRead(file.toFile().length(), System.nanoTime() - start);
+            return orders;
+        } catch (NoSuchFileException e) {
+            return new ArrayList<>(); // archived or deleted since the check
+        }
+    }
+
+    //a date file holds just the one date; stamped before reading, so a change during the read shows up next time
+    @Override
+    public Map<LocalDate, StoredDay> readAround(LocalDate date) throws IOException {
+        FileStamp stamp = stamp(date);
+        if (stamp.equals(FileStamp.MISSING)) return Map.of();
+        List<Order> orders = read(date);
+        //deleted (archived) in between
+        if (orders.isEmpty() && stamp(date).equals(FileStamp.MISSING)) return Map.of();
+        return Map.of(date, new StoredDay(orders, stamp));
+    }
+
+    @Override
+    public Map<Integer, Long> write(LocalDate date, List<Order> orders) throws IOException {
+        Path file = fileOf(date);
+        long start = System.nanoTime();
+        Map<Integer, Long> offsets = files.replace(file, target -> format.write(target, orders));
+        ioStats.recordWrite(Files.size(file), System.nanoTime() - start);
+        return offsets;
+    }
+
+    @Override
+    public void delete(LocalDate date) throws IOException {
+        Files.deleteIfExists(fileOf(date));
+    }
+
+    @Override
+    public Order readAt(LocalDate date, long position) throws IOException {
+        return format.readAt(fileOf(date), position);
+    }
+
+    @Override
+    public Map<Integer, Long> scanOffsets(LocalDate date) throws IOException {
+        Path file = fileOf(date);
+        return Files.exists(file) ? format.scanOffsets(file) : Map.of();
+    }
+}
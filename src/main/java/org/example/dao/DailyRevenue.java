@@ -0,0 +1,88 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Revenue of one order date, broken down by state and product. The state x product
+ * cells are what is stored; the day, state and product totals are sums of them.
+ */
+public class DailyRevenue {
+
+    private final LocalDate date;
+    //state -> product -> revenue, sorted, never holds empty cells
+    private final Map<String, Map<String, Revenue>> cells;
+
+    DailyRevenue(LocalDate date, Map<String, Map<String, Revenue>> cells) {
+        this.date = date;
+        this.cells = cells;
+    }
+
+    static DailyRevenue of(LocalDate date, List<Order> orders) {
+        return new DailyRevenue(date, new TreeMap<>()).with(List.of(), orders);
+    }
+
+    /**
+     * Same day with the removed orders taken out and the added ones put in.
+     */
+    DailyRevenue with(List<Order> removed, List<Order> added) {
+        Map<String, Map<String, Revenue>> copy = new TreeMap<>();
+        for (Map.Entry<String, Map<String, Revenue>> state : cells.entrySet()) {
+            copy.put(state.getKey(), new TreeMap<>(state.getValue()));
+        }
+        for (Order order : removed) {
+            Map<String, Revenue> products = copy.computeIfAbsent(order.getState(), s -> new TreeMap<>());
+            Revenue left = products.getOrDefault(order.getProductType(), Revenue.ZERO).minus(Revenue.of(order));
+            if (left.getOrders() == 0) products.remove(order.getProductType());
+            else products.put(order.getProductType(), left);
+            if (products.isEmpty()) copy.remove(order.getState());
+        }
+        for (Order order : added) {
+            copy.computeIfAbsent(order.getState(), s -> new TreeMap<>())
+                    .merge(order.getProductType(), Revenue.of(order), Revenue::plus);
+        }
+        return new DailyRevenue(date, copy);
+    }
+
+    public LocalDate getDate() { return date; }
+
+    public Map<String, Map<String, Revenue>> getCells() {
+        return Collections.unmodifiableMap(cells);
+    }
+
+    public Revenue getTotal() {
+        Revenue sum = Revenue.ZERO;
+        for (Map<String, Revenue> products : cells.values()) {
+            for (Revenue revenue : products.values()) sum = sum.plus(revenue);
+        }
+        return sum;
+    }
+
+    public Map<String, Revenue> getByState() {
+        Map<String, Revenue> byState = new TreeMap<>();
+        for (Map.Entry<String, Map<String, Revenue>> state : cells.entrySet()) {
+            for (Revenue revenue : state.getValue().values()) byState.merge(state.getKey(), revenue, Revenue::plus);
+        }
+        return byState;
+    }
+
+    public Map<String, Revenue> getByProduct() {
+        Map<String, Revenue> byProduct = new TreeMap<>();
+        for (Map<String, Revenue> products : cells.values()) {
+            for (Map.Entry<String, Revenue> product : products.entrySet()) {
+                byProduct.merge(product.getKey(), product.getValue(), Revenue::plus);
+            }
+        }
+        return byProduct;
+    }
+
+    @Override
+    public String toString() {
+        return date + " " + getTotal();
+    }
+}
@@ -0,0 +1,230 @@
+package org.example.dao;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes the order files of one folder so a crash never leaves half a day behind.
+ *
+ * In atomic mode a date file is written to Orders_MMddyyyy.txt.tmp next to it and renamed over
+ * the old one, so a reader or a restart sees either the old day or the new day. A crash can only
+ * leave the .tmp file behind, recover() deletes those on startup. Without atomic mode the file is
+ * truncated and rewritten in place, as the application always did.
+ *
+ * The FsyncPolicy decides when written files (and the folder, which holds the rename) are forced
+ * to disk. Journal appends follow the same policy. The derived logs (orders.idx, orders.agg) do not
+ * go through here: they record the stamps of the date files they were built from, and a date whose
+ * files no longer match is rescanned on startup (OrderNumberIndex) or recounted when asked for
+ * (RevenueStore), so losing their tail in a crash costs a rescan, not data.
+ */
+final class DurableFiles implements AutoCloseable {
+
+    static final String TEMP_SUFFIX = ".tmp";
+
+    //writes a complete file at the given path, e.g. OrderFileFormat.write
+    interface FileWrite<T> {
+        T write(Path file) throws IOException;
+    }
+
+    private final Path folder;
+    private final boolean atomic;
+    private final FsyncPolicy policy;
+    //files written since the last interval sync
+    private final Set<Path> unsynced = ConcurrentHashMap.newKeySet();
+    //a rename since the last interval sync, the renamed file itself was forced before it
+    private volatile boolean folderUnsynced;
+    private final ScheduledExecutorService syncer;
+    //some platforms (Windows) cannot open a directory to force it, tried once
+    private volatile boolean folderSyncSupported = true;
+
+    private volatile int recovered;
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder syncNanos = new LongAdder();
+
+    DurableFiles(Path folder, boolean atomic, FsyncPolicy policy, long intervalMillis) {
+        this.folder = folder;
+        this.atomic = atomic;
+        this.policy = policy;
+        if (policy == FsyncPolicy.INTERVAL) {
+            syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "order-file-sync");
+                t.setDaemon(true);
+                return t;
+            });
+            syncer.scheduleWithFixedDelay(this::syncQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            syncer = null;
+        }
+    }
+
+    /**
+     * Deletes temp files left by writes that never finished, the date files they were meant
+     * to replace are still intact.
+     *
+     * @return the files that were deleted
+     */
+    List<Path> recover() throws IOException {
+        List<Path> deleted = new ArrayList<>();
+        try (DirectoryStream<Path> temps = Files.newDirectoryStream(folder, "Orders_*" + TEMP_SUFFIX)) {
+            for (Path temp : temps) {
+                if (Files.deleteIfExists(temp)) deleted.add(temp);
+            }
+        }
+        recovered += deleted.size();
+        return deleted;
+    }
+
+    /**
+     * Replaces target with whatever write produces, returns what write returned.
+     * Callers serialize writes to the same target (the date lock does).
+     */
+    <T> T replace(Path target, FileWrite<T> write) throws IOException {
+        if (!atomic) {
+            T result = write.write(target);
+            written(target, false);
+            return result;
+        }
+        return replaceAtomically(target, write);
+    }
+
+    /**
+     * Replaces target through a temp file and a rename whatever the atomic setting, for files a
+     * torn write would cost too much of (a year archive) or that write reads from while it runs.
+     */
+    <T> T replaceAtomically(Path target, FileWrite<T> write) throws IOException {
+        return replaceAtomically(target, write, false);
+    }
+
+    /**
+     * Replaces target through a temp file and a rename, both on disk before it returns whatever
+     * the policy, for a file whose writer deletes the only other copy of its data afterwards.
+     */
+    <T> T replaceDurably(Path target, FileWrite<T> write) throws IOException {
+        return replaceAtomically(target, write, true);
+    }
+
+    private <T> T replaceAtomically(Path target, FileWrite<T> write, boolean durable) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try {
+            T result = write.write(temp);
+            //the data has to be on disk before the rename can be, or a power cut could leave an empty
+            //file; the interval policy only puts off the folder
+            if (durable || policy != FsyncPolicy.NONE) force(temp);
+            move(temp, target);
+            if (durable) forceFolder();
+            else written(target, true);
+            return result;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Called after appending to a file through channel (still open), created if the append made the file.
+     */
+    void appended(Path file, FileChannel channel, boolean created) throws IOException {
+        if (policy == FsyncPolicy.BATCH) {
+            timedForce(channel);
+            if (created) forceFolder();
+        } else if (policy == FsyncPolicy.INTERVAL) {
+            unsynced.add(file);
+        }
+    }
+
+    //fsync calls and the time spent in them, and temp files removed on startup, for diagnostics
+    String stats() {
+        long n = syncs.sum();
+        return String.format("policy=%s atomic=%s fsyncs=%d avgFsyncMs=%.3f recoveredTempFiles=%d",
+                policy, atomic, n, n == 0 ? 0.0 : syncNanos.sum() / 1e6 / n, recovered);
+    }
+
+    /**
+     * Forces whatever the interval policy has not synced yet.
+     */
+    void sync() throws IOException {
+        if (unsynced.isEmpty() && !folderUnsynced) return;
+        folderUnsynced = false;
+        List<Path> files = new ArrayList<>(unsynced);
+        unsynced.removeAll(files);
+        for (Path file : files) {
+            try {
+                force(file);
+            } catch (NoSuchFileException e) {
+                // replaced or compacted away since, the newer file is in the set if it needs a sync
+            }
+        }
+        forceFolder();
+    }
+
+    @Override
+    public void close() {
+        if (syncer == null) return;
+        syncer.shutdownNow();
+        syncQuietly();
+    }
+
+    private void written(Path file, boolean renamed) throws IOException {
+        if (policy == FsyncPolicy.BATCH) {
+            if (!atomic) force(file);
+            if (renamed) forceFolder();
+        } else if (policy == FsyncPolicy.INTERVAL) {
+            if (renamed) folderUnsynced = true;
+            else unsynced.add(file);
+        }
+    }
+
+    private static void move(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            //only on file systems without an atomic rename, still never a truncated file in place
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            timedForce(channel);
+        }
+    }
+
+    private void timedForce(FileChannel channel) throws IOException {
+        long start = System.nanoTime();
+        channel.force(true);
+        syncs.increment();
+        syncNanos.add(System.nanoTime() - start);
+    }
+
+    //a rename or a new file is only durable once the directory entry is
+    private void forceFolder() {
+        if (!folderSyncSupported) return;
+        try {
+            force(folder);
+        } catch (IOException e) {
+            folderSyncSupported = false;
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            // the next round tries again with whatever was written since
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.dao;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of an export run, shown to the user after Export All Data.
+ */
+public class ExportSummary {
+    private final Path file;
+    private final int dates;
+    private final long rows;
+    private final long elapsedNanos;
+
+    public ExportSummary(Path file, int dates, long rows, long elapsedNanos) {
+        this.file = file;
+        this.dates = dates;
+        this.rows = rows;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Path getFile() { return file; }
+    public int getDates() { return dates; }
+    public long getRows() { return rows; }
+    public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Exported %d orders from %d dates to %s in %d ms (%.0f rows/sec)",
+                rows, dates, file, getElapsedMillis(), getRowsPerSecond());
+    }
+}
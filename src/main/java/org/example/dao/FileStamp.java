@@ -0,0 +1,68 @@
+package org.example.dao;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * Cheap identity of a file on disk (last modified time and size).
+ * Two equal stamps mean the file has very likely not been touched in between,
+ * so callers can skip re-reading it.
+ */
+final class FileStamp {
+
+    //stamp used for files that do not exist (yet)
+    static final FileStamp MISSING = new FileStamp(-1L, -1L);
+
+    private final long lastModified;
+    private final long size;
+
+    private FileStamp(long lastModified, long size) {
+        this.lastModified = lastModified;
+        this.size = size;
+    }
+
+    static FileStamp of(Path file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        return new FileStamp(attrs.lastModifiedTime().toMillis(), attrs.size());
+    }
+
+    //same as of() but maps a missing file to MISSING instead of throwing
+    static FileStamp ofNullable(Path file) throws IOException {
+        if (!Files.exists(file)) return MISSING;
+        return of(file);
+    }
+
+    //the two numbers, for stores that keep stamps on disk
+    long lastModified() {
+        return lastModified;
+    }
+
+    long size() {
+        return size;
+    }
+
+    static FileStamp of(long lastModified, long size) {
+        return lastModified == MISSING.lastModified && size == MISSING.size ? MISSING : new FileStamp(lastModified, size);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FileStamp)) return false;
+        FileStamp other = (FileStamp) o;
+        return lastModified == other.lastModified && size == other.size;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lastModified, size);
+    }
+
+    @Override
+    public String toString() {
+        return "FileStamp[modified=" + lastModified + ", size=" + size + "]";
+    }
+}
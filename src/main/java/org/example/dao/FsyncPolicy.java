@@ -0,0 +1,19 @@
+package org.example.dao;
+
+/**
+ * When order files are forced to disk (fsync). Replacing a date file through a temp file and a
+ * rename already survives the program dying mid-write; fsync is what makes a finished write
+ * survive a power cut or an OS crash.
+ */
+public enum FsyncPolicy {
+
+    //leave it to the OS, it usually writes back within about 30 seconds
+    NONE,
+    //every date file write and journal append is on disk before the callers are told it is saved,
+    //with group commit that is one fsync per batch rather than per order
+    BATCH,
+    //files written since the last sync are forced every orders.write.fsyncIntervalMillis,
+    //a power cut loses at most that much; a file replaced through a rename is forced before the
+    //rename as with BATCH, only the folder waits for the sync
+    INTERVAL
+}
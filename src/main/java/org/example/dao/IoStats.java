@@ -0,0 +1,45 @@
+package org.example.dao;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of the file reads and writes a DAO does, for diagnostics. Recording is a
+ * couple of LongAdder increments, so it is cheap enough to leave on all the time.
+ */
+public class IoStats {
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder readNanos = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+
+    void recordRead(long bytes, long nanos) {
+        reads.increment();
+        bytesRead.add(bytes);
+        readNanos.add(nanos);
+    }
+
+    void recordWrite(long bytes, long nanos) {
+        writes.increment();
+        bytesWritten.add(bytes);
+        writeNanos.add(nanos);
+    }
+
+    public long getReads() { return reads.sum(); }
+    public long getBytesRead() { return bytesRead.sum(); }
+    //time spent reading and parsing, in nanoseconds
+    public long getReadNanos() { return readNanos.sum(); }
+    public long getWrites() { return writes.sum(); }
+    public long getBytesWritten() { return bytesWritten.sum(); }
+    public long getWriteNanos() { return writeNanos.sum(); }
+
+    @Override
+    public String toString() {
+        long r = getReads();
+        long w = getWrites();
+        return String.format("reads=%d bytesRead=%d avgReadMs=%.3f writes=%d bytesWritten=%d avgWriteMs=%.3f",
+                r, getBytesRead(), r == 0 ? 0.0 : getReadNanos() / 1e6 / r,
+                w, getBytesWritten(), w == 0 ? 0.0 : getWriteNanos() / 1e6 / w);
+    }
+}
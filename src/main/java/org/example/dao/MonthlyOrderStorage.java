@@ -0,0 +1,436 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * One Orders_yyyyMM.seg file per month instead of one file per day. A segment starts with
+ * an index of the days in it, followed by each day's orders exactly as the OrderFileFormat
+ * would write a date file:
+ *
+ *   int magic "FSEG", byte version, byte format (0 text, 1 binary), byte day count
+ *   per day: byte day of month, int offset, int length, int crc32 of the day's bytes
+ *   the day blobs, in day order
+ *
+ * A day is stamped by its crc and length rather than the file's, so writing one day does not
+ * make the cache or the revenue rollup throw away the other days of the month. Reading a
+ * month is one sequential read (readAround), a single day is the index plus one positioned read.
+ *
+ * Writing a day rewrites the whole segment, copying the other days' bytes without decoding
+ * them, always through a temp file and a rename: a torn segment would lose the whole month.
+ */
+final class MonthlyOrderStorage implements OrderStorage {
+
+    static final String EXTENSION = ".seg";
+    static final DateTimeFormatter FILE_MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    static final int MAGIC = 0x46534547; // "FSEG"
+    static final byte VERSION = 1;
+    //magic, version, format, day count
+    private static final int FIXED_HEADER = 7;
+    //day of month, offset, length, crc
+    private static final int DAY_ENTRY = 13;
+
+    private final Path folder;
+    private final OrderFileFormat format;
+    private final byte formatCode;
+    private final DurableFiles files;
+    private final IoStats ioStats;
+
+    //day index per month, checked against the segment's stamp before use
+    private final Map<YearMonth, Header> headers = new ConcurrentHashMap<>();
+    //writers of different dates in one month take turns here, the date lock is not enough
+    private final Map<YearMonth, ReentrantLock> monthLocks = new ConcurrentHashMap<>();
+    //segment reads in flight, the dates of one month loaded side by side share a single read
+    private final Map<YearMonth, CompletableFuture<Map<LocalDate, StoredDay>>> loading = new ConcurrentHashMap<>();
+
+    MonthlyOrderStorage(Path folder, OrderFileFormat format, DurableFiles files, IoStats ioStats) {
+        this.folder = folder;
+        this.format = format;
+        this.formatCode = (byte) (format instanceof BinaryOrderFormat ? 1 : 0);
+        this.files = files;
+        this.ioStats = ioStats;
+    }
+
+    Path fileOf(YearMonth month) {
+        return folder.resolve("Orders_" + month.format(FILE_MONTH_FORMAT) + EXTENSION);
+    }
+
+    @Override
+    public Path fileOf(LocalDate date) {
+        return fileOf(YearMonth.from(date));
+    }
+
+    //months that have a segment, oldest first
+    List<YearMonth> months() throws IOException {
+        List<YearMonth> months = new ArrayList<>();
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(folder, "Orders_*" + EXTENSION)) {
+            for (Path file : segments) {
+                String name = file.getFileName().toString();
+                try {
+                    months.add(YearMonth.parse(name.substring("Orders_".length(), name.length() - EXTENSION.length()), FILE_MONTH_FORMAT));
+                } catch (DateTimeParseException e) {
+                    // not one of ours, ignore it
+                }
+            }
+        }
+        Collections.sort(months);
+        return months;
+    }
+
+    @Override
+    public List<LocalDate> dates() throws IOException {
+        List<LocalDate> dates = new ArrayList<>();
+        for (YearMonth month : months()) {
+            Header header = header(month);
+            if (header == null) continue; // deleted since the listing
+            for (int day : header.days.keySet()) dates.add(month.atDay(day));
+        }
+        return dates;
+    }
+
+    @Override
+    public FileStamp stamp(LocalDate date) throws IOException {
+        Header header = header(YearMonth.from(date));
+        Day day = header == null ? null : header.days.get(date.getDayOfMonth());
+        return day == null ? FileStamp.MISSING : day.stamp();
+    }
+
+    @Override
+    public List<Order> read(LocalDate date) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer bytes = dayBytes(date);
+        if (bytes == null) return new ArrayList<>(); // no orders for that date yet
+        List<Order> orders = format.read(bytes);
+        ioStats.recordRead(bytes.capacity(), System.nanoTime() - start);
+        return orders;
+    }
+
+    @Override
+    public Map<LocalDate, StoredDay> readAround(LocalDate date) throws IOException {
+        YearMonth month = YearMonth.from(date);
+        CompletableFuture<Map<LocalDate, StoredDay>> mine = new CompletableFuture<>();
+        CompletableFuture<Map<LocalDate, StoredDay>> running = loading.putIfAbsent(month, mine);
+        if (running != null) {
+            //may have started before the caller's last write, callers compare the stamp they expect
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+                throw e;
+            }
+        }
+        try {
+            Map<LocalDate, StoredDay> days = readMonth(month);
+            mine.complete(days);
+            return days;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(month, mine);
+        }
+    }
+
+    @Override
+    public Map<Integer, Long> write(LocalDate date, List<Order> orders) throws IOException {
+        ByteArrayOutputStream day = new ByteArrayOutputStream();
+        Map<Integer, Long> offsets = format.write(day, orders);
+        rewrite(date, ByteBuffer.wrap(day.toByteArray()));
+        return offsets;
+    }
+
+    @Override
+    public void delete(LocalDate date) throws IOException {
+        rewrite(date, null);
+    }
+
+    //replaces one day's bytes (null drops the day), the other days are copied over as they are
+    private void rewrite(LocalDate date, ByteBuffer day) throws IOException {
+        YearMonth month = YearMonth.from(date);
+        ReentrantLock lock = monthLocks.computeIfAbsent(month, m -> new ReentrantLock());
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            Path file = fileOf(month);
+            Map<Integer, ByteBuffer> blobs = new TreeMap<>();
+            if (Files.exists(file)) {
+                ByteBuffer segment = ByteBuffer.wrap(Files.readAllBytes(file));
+                for (Map.Entry<Integer, Day> d : parseHeader(segment, file).entrySet()) {
+                    blobs.put(d.getKey(), segment.duplicate().position(d.getValue().offset).limit(d.getValue().offset + d.getValue().length));
+                }
+            }
+            if (day != null) {
+                blobs.put(date.getDayOfMonth(), day);
+            } else if (blobs.remove(date.getDayOfMonth()) == null) {
+                return;
+            } else if (blobs.isEmpty()) {
+                Files.delete(file);
+                headers.remove(month);
+                return;
+            }
+
+            Map<Integer, Day> days = files.replace(file, target -> writeSegment(target, blobs));
+            headers.put(month, new Header(FileStamp.of(file), days));
+            ioStats.recordWrite(Files.size(file), System.nanoTime() - start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a whole month in one go, e.g. for the layout migration. Every day in it replaces
+     * what the segment held for that day, other days are kept.
+     */
+    void writeMonth(YearMonth month, Map<LocalDate, List<Order>> orders) throws IOException {
+        ReentrantLock lock = monthLocks.computeIfAbsent(month, m -> new ReentrantLock());
+        lock.lock();
+        try {
+            Path file = fileOf(month);
+            Map<Integer, ByteBuffer> blobs = new TreeMap<>();
+            if (Files.exists(file)) {
+                for (Map.Entry<LocalDate, StoredDay> d : readMonth(month).entrySet()) {
+                    blobs.put(d.getKey().getDayOfMonth(), encode(d.getValue().orders));
+                }
+            }
+            for (Map.Entry<LocalDate, List<Order>> d : orders.entrySet()) {
+                if (!YearMonth.from(d.getKey()).equals(month)) throw new IllegalArgumentException(d.getKey() + " is not in " + month);
+                blobs.put(d.getKey().getDayOfMonth(), encode(d.getValue()));
+            }
+            long start = System.nanoTime();
+            Map<Integer, Day> days = files.replace(file, target -> writeSegment(target, blobs));
+            headers.put(month, new Header(FileStamp.of(file), days));
+            ioStats.recordWrite(Files.size(file), System.nanoTime() - start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Order readAt(LocalDate date, long position) throws IOException {
+        Path file = fileOf(YearMonth.from(date));
+        Header header = header(YearMonth.from(date));
+        Day day = header == null ? null : header.days.get(date.getDayOfMonth());
+        if (day == null || position < 0 || position >= day.length) return null;
+        //the caller checks the order number, a segment replaced since the header was read just misses
+        return format.readAt(file, day.offset + position);
+    }
+
+    @Override
+    public Map<Integer, Long> scanOffsets(LocalDate date) throws IOException {
+        ByteBuffer bytes = dayBytes(date);
+        return bytes == null ? Map.of() : format.scanOffsets(bytes);
+    }
+
+    //the stored bytes of one day, null if there are none
+    private ByteBuffer dayBytes(LocalDate date) throws IOException {
+        Path file = fileOf(YearMonth.from(date));
+        //index and day from one open file, a rename in between cannot mix two versions
+        try (FileChannel channel = FileChannel.open(file)) {
+            Day day = readHeader(channel, file).get(date.getDayOfMonth());
+            if (day == null) return null;
+            ByteBuffer bytes = ByteBuffer.allocate(day.length);
+            readFully(channel, bytes, day.offset, file);
+            bytes.flip();
+            check(day, bytes, date, file);
+            return bytes;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    //every day of the month with one read of the whole segment
+    private Map<LocalDate, StoredDay> readMonth(YearMonth month) throws IOException {
+        Path file = fileOf(month);
+        long start = System.nanoTime();
+        ByteBuffer segment;
+        try {
+            segment = ByteBuffer.wrap(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return Map.of();
+        }
+        Map<LocalDate, StoredDay> days = new TreeMap<>();
+        for (Map.Entry<Integer, Day> d : parseHeader(segment, file).entrySet()) {
+            Day day = d.getValue();
+            LocalDate date = month.atDay(d.getKey());
+            ByteBuffer bytes = segment.duplicate().position(day.offset).limit(day.offset + day.length);
+            check(day, bytes, date, file);
+            days.put(date, new StoredDay(format.read(bytes), day.stamp()));
+        }
+        ioStats.recordRead(segment.capacity(), System.nanoTime() - start);
+        return days;
+    }
+
+    //cached index of the month's segment, null if there is none
+    private Header header(YearMonth month) throws IOException {
+        Path file = fileOf(month);
+        FileStamp stamp = FileStamp.ofNullable(file);
+        if (stamp.equals(FileStamp.MISSING)) {
+            headers.remove(month);
+            return null;
+        }
+        Header cached = headers.get(month);
+        if (cached != null && cached.fileStamp.equals(stamp)) return cached;
+        try (FileChannel channel = FileChannel.open(file)) {
+            //a segment replaced after the stamp was taken gets an older stamp and is read again next time
+            Header header = new Header(stamp, readHeader(channel, file));
+            headers.put(month, header);
+            return header;
+        } catch (NoSuchFileException e) {
+            headers.remove(month);
+            return null;
+        }
+    }
+
+    private Map<Integer, Day> readHeader(FileChannel channel, Path file) throws IOException {
+        ByteBuffer fixed = ByteBuffer.allocate(FIXED_HEADER);
+        readFully(channel, fixed, 0, file);
+        fixed.flip();
+        int dayCount = checkFixedHeader(fixed, file);
+        ByteBuffer header = ByteBuffer.allocate(FIXED_HEADER + dayCount * DAY_ENTRY);
+        readFully(channel, header, 0, file);
+        header.flip();
+        return parseHeader(header, file);
+    }
+
+    private Map<Integer, Day> parseHeader(ByteBuffer segment, Path file) throws IOException {
+        try {
+            ByteBuffer in = segment.duplicate();
+            int dayCount = checkFixedHeader(in, file);
+            Map<Integer, Day> days = new TreeMap<>();
+            for (int i = 0; i < dayCount; i++) {
+                int dayOfMonth = in.get();
+                Day day = new Day(in.getInt(), in.getInt(), in.getInt());
+                if (dayOfMonth < 1 || dayOfMonth > 31 || day.offset < 0 || day.length < 0) {
+                    throw new IOException("Corrupt order segment " + file);
+                }
+                days.put(dayOfMonth, day);
+            }
+            return days;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt order segment " + file, e);
+        }
+    }
+
+    private int checkFixedHeader(ByteBuffer in, Path file) throws IOException {
+        if (in.getInt() != MAGIC) throw new IOException(file + " is not an order segment");
+        byte version = in.get();
+        if (version != VERSION) throw new IOException("Unsupported order segment version " + version + " in " + file);
+        byte code = in.get();
+        if (code != formatCode) {
+            throw new IOException(file + " holds " + (code == 1 ? "binary" : "text") + " orders, the storage format is "
+                    + (formatCode == 1 ? "binary" : "text"));
+        }
+        return Byte.toUnsignedInt(in.get());
+    }
+
+    private static void check(Day day, ByteBuffer bytes, LocalDate date, Path file) throws IOException {
+        if (bytes.remaining() != day.length || crc(bytes) != day.crc) {
+            throw new IOException("Corrupt orders for " + date + " in " + file);
+        }
+    }
+
+    private Map<Integer, Day> writeSegment(Path target, Map<Integer, ByteBuffer> blobs) throws IOException {
+        Map<Integer, Day> days = new TreeMap<>();
+        int offset = FIXED_HEADER + blobs.size() * DAY_ENTRY;
+        for (Map.Entry<Integer, ByteBuffer> blob : blobs.entrySet()) {
+            int length = blob.getValue().remaining();
+            days.put(blob.getKey(), new Day(offset, length, crc(blob.getValue())));
+            offset += length;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(formatCode);
+            out.writeByte(days.size());
+            for (Map.Entry<Integer, Day> d : days.entrySet()) {
+                out.writeByte(d.getKey());
+                out.writeInt(d.getValue().offset);
+                out.writeInt(d.getValue().length);
+                out.writeInt(d.getValue().crc);
+            }
+            for (ByteBuffer blob : blobs.values()) {
+                ByteBuffer b = blob.duplicate();
+                if (b.hasArray()) {
+                    out.write(b.array(), b.arrayOffset() + b.position(), b.remaining());
+                } else {
+                    byte[] copy = new byte[b.remaining()];
+                    b.get(copy);
+                    out.write(copy);
+                }
+            }
+        }
+        return days;
+    }
+
+    private ByteBuffer encode(List<Order> orders) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        format.write(bytes, orders);
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer into, long position, Path file) throws IOException {
+        while (into.hasRemaining()) {
+            int read = channel.read(into, position + into.position());
+            if (read < 0) throw new IOException("Truncated order segment " + file);
+        }
+    }
+
+    private static int crc(ByteBuffer bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static final class Header {
+        final FileStamp fileStamp;
+        //by day of month
+        final Map<Integer, Day> days;
+
+        Header(FileStamp fileStamp, Map<Integer, Day> days) {
+            this.fileStamp = fileStamp;
+            this.days = Collections.unmodifiableMap(days);
+        }
+    }
+
+    private static final class Day {
+        final int offset;
+        final int length;
+        final int crc;
+
+        Day(int offset, int length, int crc) {
+            this.offset = offset;
+            this.length = length;
+            this.crc = crc;
+        }
+
+        //what the day holds, independent of when the segment around it was written
+        FileStamp stamp() {
+            return FileStamp.of(Integer.toUnsignedLong(crc), length);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package org.example.dao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Compressed copies of past dates, one Orders_yyyy.zip per year. Every entry is named like the
+ * date file it replaces (Orders_MMddyyyy.txt) and holds the same bytes, so unzipping an archive
+ * by hand gives the original files back. Entries of the other OrderFileFormat are ignored.
+ *
+ * A day is inflated as a stream straight out of the zip. The days read last are kept inflated
+ * in a small block cache bounded in bytes, for the readers that go around the order cache
+ * (revenue recounts, index rebuilds, the customer name scan). Like a day in a month segment,
+ * an archived day is stamped by the crc32 and size of its bytes.
+ */
+final class OrderArchive implements AutoCloseable {
+
+    static final String EXTENSION = ".zip";
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("MMddyyyy");
+
+    private final Path folder;
+    //entry names end with it, e.g. ".txt"
+    private final String dayExtension;
+    private final DurableFiles files;
+    private final IoStats ioStats;
+    private final BlockCache blocks;
+
+    //open zip per year, reopened when the file on disk changes
+    private final Map<Integer, Archive> archives = new ConcurrentHashMap<>();
+
+    OrderArchive(Path folder, String dayExtension, DurableFiles files, IoStats ioStats, long blockCacheBytes) {
+        this.folder = folder;
+        this.dayExtension = dayExtension;
+        this.files = files;
+        this.ioStats = ioStats;
+        this.blocks = new BlockCache(blockCacheBytes);
+    }
+
+    Path fileOf(int year) {
+        return folder.resolve("Orders_" + year + EXTENSION);
+    }
+
+    //every archived date, oldest first
+    List<LocalDate> dates() throws IOException {
+        List<LocalDate> dates = new ArrayList<>();
+        for (int year : years()) {
+            Archive archive = archive(year);
+            if (archive != null) dates.addAll(archive.entries.keySet());
+        }
+        return dates;
+    }
+
+    //crc and size of the archived day, MISSING if it is not archived
+    FileStamp stamp(LocalDate date) throws IOException {
+        Archive archive = archive(date.getYear());
+        ZipEntry entry = archive == null ? null : archive.entries.get(date);
+        return entry == null ? FileStamp.MISSING : stampOf(entry);
+    }
+
+    /**
+     * The archived bytes of the day, as the date file held them, or null if it is not archived.
+     */
+    ByteBuffer read(LocalDate date) throws IOException {
+        while (true) {
+            Archive archive = archive(date.getYear());
+            ZipEntry entry = archive == null ? null : archive.entries.get(date);
+            if (entry == null) return null;
+            FileStamp stamp = stampOf(entry);
+            byte[] bytes = blocks.get(date, stamp);
+            if (bytes != null) return ByteBuffer.wrap(bytes);
+
+            long start = System.nanoTime();
+            bytes = archive.inflate(entry);
+            if (bytes == null) continue; // replaced by a newer archive meanwhile, look again
+            ioStats.recordRead(entry.getCompressedSize(), System.nanoTime() - start);
+            blocks.put(date, stamp, bytes);
+            return ByteBuffer.wrap(bytes);
+        }
+    }
+
+    /**
+     * Writes the year's archive again with the given days added, replacing any archived copy of
+     * them. The days it already holds are copied still compressed, only the new ones are deflated.
+     * On disk when it returns whatever the fsync policy, the caller deletes the hot copies next.
+     * Only one caller at a time (the archiver).
+     */
+    void add(int year, Map<LocalDate, byte[]> days) throws IOException {
+        Map<LocalDate, byte[]> added = new TreeMap<>(days);
+        Set<String> replaced = new HashSet<>();
+        for (LocalDate date : added.keySet()) {
+            if (date.getYear() != year) throw new IllegalArgumentException(date + " is not in " + year);
+            replaced.add(entryName(date));
+        }
+
+        Path file = fileOf(year);
+        boolean exists = Files.exists(file);
+        long start = System.nanoTime();
+        //the old archive is read while the new one is written, never in place
+        files.replaceDurably(file, target -> {
+            try (RawZipWriter out = new RawZipWriter(Files.newOutputStream(target))) {
+                if (exists) out.copyFrom(file, replaced);
+                for (Map.Entry<LocalDate, byte[]> day : added.entrySet()) out.deflate(entryName(day.getKey()), day.getValue());
+            }
+            return null;
+        });
+        ioStats.recordWrite(Files.size(file), System.nanoTime() - start);
+    }
+
+    //archives, days in them, compressed against inflated size, and block cache use, for diagnostics
+    String stats() {
+        long days = 0;
+        long compressed = 0;
+        long inflated = 0;
+        for (Archive archive : archives.values()) {
+            days += archive.entries.size();
+            for (ZipEntry entry : archive.entries.values()) {
+                compressed += entry.getCompressedSize();
+                inflated += entry.getSize();
+            }
+        }
+        return String.format("archives=%d days=%d bytes=%d inflatedBytes=%d %s",
+                archives.size(), days, compressed, inflated, blocks.stats());
+    }
+
+    @Override
+    public void close() {
+        for (Archive archive : archives.values()) archive.close();
+        archives.clear();
+    }
+
+    private List<Integer> years() throws IOException {
+        List<Integer> years = new ArrayList<>();
+        try (DirectoryStream<Path> zips = Files.newDirectoryStream(folder, "Orders_*" + EXTENSION)) {
+            for (Path file : zips) {
+                String name = file.getFileName().toString();
+                String year = name.substring("Orders_".length(), name.length() - EXTENSION.length());
+                if (year.length() == 4 && year.chars().allMatch(Character::isDigit)) years.add(Integer.parseInt(year));
+            }
+        }
+        Collections.sort(years);
+        return years;
+    }
+
+    //the open archive of the year, null if there is none
+    private Archive archive(int year) throws IOException {
+        FileStamp stamp = FileStamp.ofNullable(fileOf(year));
+        Archive current = archives.get(year);
+        if (current != null && current.stamp.equals(stamp)) return current;
+        synchronized (this) {
+            current = archives.get(year);
+            if (current != null && current.stamp.equals(stamp)) return current;
+            Archive opened = stamp.equals(FileStamp.MISSING) ? null : open(year, stamp);
+            if (opened == null) archives.remove(year);
+            else archives.put(year, opened);
+            //readers still inflating from it finish first, see Archive.close
+            if (current != null) current.close();
+            return opened;
+        }
+    }
+
+    private Archive open(int year, FileStamp stamp) throws IOException {
+        ZipFile zip = new ZipFile(fileOf(year).toFile());
+        Map<LocalDate, ZipEntry> entries = new TreeMap<>();
+        Enumeration<? extends ZipEntry> all = zip.entries();
+        while (all.hasMoreElements()) {
+            ZipEntry entry = all.nextElement();
+            String name = entry.getName();
+            if (!name.startsWith("Orders_") || !name.endsWith(dayExtension)) continue;
+            try {
+                entries.put(LocalDate.parse(name.substring("Orders_".length(), name.length() - dayExtension.length()), FILE_DATE_FORMAT), entry);
+            } catch (DateTimeParseException e) {
+                // not one of ours, ignore it
+            }
+        }
+        return new Archive(stamp, zip, entries);
+    }
+
+    private String entryName(LocalDate date) {
+        return "Orders_" + date.format(FILE_DATE_FORMAT) + dayExtension;
+    }
+
+    private static FileStamp stampOf(ZipEntry entry) {
+        return FileStamp.of(entry.getCrc(), entry.getSize());
+    }
+
+    private static final class Archive {
+        final FileStamp stamp;
+        final ZipFile zip;
+        final Map<LocalDate, ZipEntry> entries;
+        private boolean closed;
+
+        Archive(FileStamp stamp, ZipFile zip, Map<LocalDate, ZipEntry> entries) {
+            this.stamp = stamp;
+            this.zip = zip;
+            this.entries = Collections.unmodifiableMap(entries);
+        }
+
+        //null once closed
+        synchronized byte[] inflate(ZipEntry entry) throws IOException {
+            if (closed) return null;
+            try (InputStream in = zip.getInputStream(entry)) {
+                return in.readAllBytes();
+            }
+        }
+
+        synchronized void close() {
+            closed = true;
+            try {
+                zip.close();
+            } catch (IOException e) {
+                // only a file handle
+            }
+        }
+    }
+
+    //inflated days, least recently used out first
+    private static final class BlockCache {
+        private final long maxBytes;
+        private final LinkedHashMap<LocalDate, Block> blocks = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+        private long hits;
+        private long misses;
+
+        BlockCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized byte[] get(LocalDate date, FileStamp stamp) {
+            Block block = blocks.get(date);
+            if (block == null || !block.stamp.equals(stamp)) {
+                misses++;
+                return null;
+            }
+            hits++;
+            return block.bytes;
+        }
+
+        synchronized void put(LocalDate date, FileStamp stamp, byte[] data) {
+            if (data.length > maxBytes) return;
+            Block old = blocks.put(date, new Block(stamp, data));
+            if (old != null) bytes -= old.bytes.length;
+            bytes += data.length;
+            Iterator<Block> it = blocks.values().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                bytes -= it.next().bytes.length;
+                it.remove();
+            }
+        }
+
+        synchronized String stats() {
+            return String.format("blockHits=%d blockMisses=%d blockBytes=%d", hits, misses, bytes);
+        }
+    }
+
+    private static final class Block {
+        final FileStamp stamp;
+        final byte[] bytes;
+
+        Block(FileStamp stamp, byte[] bytes) {
+            this.stamp = stamp;
+            this.bytes = bytes;
+        }
+    }
+}
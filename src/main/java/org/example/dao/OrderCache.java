@@ -0,0 +1,143 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of parsed order lists keyed by date, bounded by number of dates and by an
+ * estimate of the memory they hold. Every entry remembers the stamps of the files it was
+ * built from, a lookup with different stamps means the files were changed outside this
+ * DAO and the entry is dropped.
+ *
+ * Lookups take no lock, entries are immutable versions of a date (see OrderVersions) and a
+ * put replaces one as a whole, so a reader keeps the list it got even if a newer version is
+ * published right after. A put never replaces a newer version with an older one. Puts and
+ * evictions are serialized among themselves; recency is a timestamp per entry, so the order
+ * of eviction is approximate.
+ *
+ * A resident entry (a date with a pending journal) is never evicted and is kept even with the
+ * cache disabled, so journal mode mutations never re-read and replay the date. It counts
+ * towards the bounds, compaction turns it back into a normal entry.
+ *
+ * Cached lists are never handed out directly, callers copy what they return.
+ */
+final class OrderCache {
+
+    //rough heap cost of one parsed Order (object, two strings, eight BigDecimals)
+    static final long ESTIMATED_BYTES_PER_ORDER = 512;
+
+    private final int maxDates;
+    private final long maxBytes;
+    private final Map<LocalDate, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final Object putLock = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    OrderCache(int maxDates, long maxBytes) {
+        this.maxDates = maxDates;
+        this.maxBytes = maxBytes;
+    }
+
+    private static final class Entry {
+        final List<Order> orders;
+        final FileStamp dataStamp;
+        final FileStamp journalStamp;
+        final long version;
+        final boolean resident;
+        final long bytes;
+        volatile long lastUsed;
+
+        Entry(List<Order> orders, FileStamp dataStamp, FileStamp journalStamp, long version, boolean resident) {
+            this.orders = orders;
+            this.dataStamp = dataStamp;
+            this.journalStamp = journalStamp;
+            this.version = version;
+            this.resident = resident;
+            this.bytes = orders.size() * ESTIMATED_BYTES_PER_ORDER;
+        }
+    }
+
+    /**
+     * @return the cached orders (read only), or null when missing or stale
+     */
+    List<Order> get(LocalDate date, FileStamp dataStamp, FileStamp journalStamp) {
+        Entry entry = entries.get(date);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (!entry.dataStamp.equals(dataStamp) || !entry.journalStamp.equals(journalStamp)) {
+            //file changed outside of this DAO
+            if (remove(date, entry)) invalidations.increment();
+            misses.increment();
+            return null;
+        }
+        entry.lastUsed = System.nanoTime();
+        hits.increment();
+        return entry.orders;
+    }
+
+    /**
+     * Stores the given orders as the given version of the date, unless a newer version is
+     * cached already. The cache takes ownership of the list and its orders.
+     */
+    void put(LocalDate date, List<Order> orders, FileStamp dataStamp, FileStamp journalStamp, long version,
+             boolean resident) {
+        if (maxDates <= 0 && !resident && !entries.containsKey(date)) return;
+        Entry entry = new Entry(Collections.unmodifiableList(orders), dataStamp, journalStamp, version, resident);
+        synchronized (putLock) {
+            Entry old = entries.get(date);
+            if (old != null && old.version > version) return;
+            if (old != null) remove(date, old);
+            //a single huge day would just flush everything else
+            if (!resident && (maxDates <= 0 || entry.bytes > maxBytes)) return;
+
+            entry.lastUsed = System.nanoTime();
+            entries.put(date, entry);
+            bytes.addAndGet(entry.bytes);
+
+            //evicting least recently used dates until we are back under both bounds
+            while (entries.size() > maxDates || bytes.get() > maxBytes) {
+                Map.Entry<LocalDate, Entry> eldest = null;
+                for (Map.Entry<LocalDate, Entry> e : entries.entrySet()) {
+                    if (e.getValue().resident) continue;
+                    if (eldest == null || e.getValue().lastUsed < eldest.getValue().lastUsed) eldest = e;
+                }
+                if (eldest == null) break;
+                if (remove(eldest.getKey(), eldest.getValue())) evictions.increment();
+            }
+        }
+    }
+
+    //whether the date has an entry, fresh or not, without counting a hit or a miss
+    boolean contains(LocalDate date) {
+        return entries.containsKey(date);
+    }
+
+    void invalidate(LocalDate date) {
+        Entry old = entries.get(date);
+        if (old != null) remove(date, old);
+    }
+
+    CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), entries.size(), bytes.get());
+    }
+
+    //only if the date still holds that entry, a lookup may have dropped it already
+    private boolean remove(LocalDate date, Entry entry) {
+        if (!entries.remove(date, entry)) return false;
+        bytes.addAndGet(-entry.bytes);
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Everything one writer batch did to the orders of a date, so the whole batch is persisted
+ * with one file write (or one journal append) and one update of the number index, the
+ * customer name index and the revenue rollup.
+ *
+ * An order added or edited earlier in the same batch and then edited or removed again is
+ * taken back out of the added list instead of being counted as removed, so the revenue
+ * change of the batch is the same as applying its mutations one by one.
+ */
+final class OrderChanges {
+
+    //journal records in the order they happened, marshalled only in journal mode
+    private final List<Character> ops = new ArrayList<>();
+    private final List<Order> records = new ArrayList<>();
+    //new rows and the new versions of edited ones
+    private final List<Order> added = new ArrayList<>();
+    //removed rows and the old versions of edited ones, as they are in the stored day
+    private final List<Order> removed = new ArrayList<>();
+    private final Set<Integer> removedNumbers = new LinkedHashSet<>();
+
+    void add(Order order) {
+        record(OrderJournal.ADD, order);
+        added.add(order);
+    }
+
+    void edit(Order previous, Order order) {
+        record(OrderJournal.EDIT, order);
+        takeBack(previous);
+        added.add(order);
+    }
+
+    void remove(Order order) {
+        record(OrderJournal.REMOVE, order);
+        takeBack(order);
+        removedNumbers.add(order.getOrderNumber());
+    }
+
+    boolean isEmpty() {
+        return ops.isEmpty();
+    }
+
+    int size() {
+        return ops.size();
+    }
+
+    List<Order> added() {
+        return added;
+    }
+
+    List<Order> removed() {
+        return removed;
+    }
+
+    Set<Integer> removedNumbers() {
+        return removedNumbers;
+    }
+
+    //journal lines for the batch: the marshalled order, or just the number for a removal
+    List<OrderJournal.Entry> journalEntries() {
+        List<OrderJournal.Entry> entries = new ArrayList<>(ops.size());
+        for (int i = 0; i < ops.size(); i++) {
+            char op = ops.get(i);
+            Order order = records.get(i);
+            entries.add(new OrderJournal.Entry(op, op == OrderJournal.REMOVE
+                    ? String.valueOf(order.getOrderNumber())
+                    : OrderDaoFileImpl.marshallOrder(order)));
+        }
+        return entries;
+    }
+
+    private void record(char op, Order order) {
+        ops.add(op);
+        records.add(order);
+    }
+
+    //by identity, the batch works on one list and an order is replaced rather than changed
+    private void takeBack(Order old) {
+        if (!added.removeIf(order -> order == old)) removed.add(old);
+    }
+}
@@ -4,11 +4,31 @@ import org.example.model.Order;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 public interface OrderDao {
     List<Order> getOrdersByDate(LocalDate date) throws FlooringException;
     Order addOrder(LocalDate date, Order order) throws FlooringException;
+    //adds many orders to one date with a single write, numbers are assigned in list order
+    List<Order> addOrders(LocalDate date, List<Order> orders) throws FlooringException;
     Order editOrder(LocalDate date, Order order) throws FlooringException;
+    //runs update on a copy of every order of the date under the date lock; update returns the
+    //replacement or null to keep the order. All replacements are written at once, they are returned
+    List<Order> updateOrders(LocalDate date, Function<Order, Order> update) throws FlooringException;
     Order removeOrder(LocalDate date, int orderNumber) throws FlooringException;
+    //queue the mutation and return at once, the future completes with the saved order once it is
+    //written and fails with the FlooringException the synchronous call would have thrown
+    CompletableFuture<Order> addOrderAsync(LocalDate date, Order order) throws FlooringException;
+    CompletableFuture<Order> editOrderAsync(LocalDate date, Order order) throws FlooringException;
+    CompletableFuture<Order> removeOrderAsync(LocalDate date, int orderNumber) throws FlooringException;
     Order getOrder(LocalDate date, int orderNumber) throws FlooringException;
+    //order numbers are unique across dates, the returned order carries its date
+    Order getOrder(int orderNumber) throws FlooringException;
+    //orders whose customer name has a word starting with each word of query, at most limit, oldest date first
+    List<Order> findOrdersByCustomer(String query, int limit) throws FlooringException;
+    //every date that has orders on disk, oldest first
+    List<LocalDate> getOrderDates() throws FlooringException;
+    //revenue rollups of every date in [from, to] that has orders, oldest first
+    List<DailyRevenue> getDailyRevenue(LocalDate from, LocalDate to) throws FlooringException;
 }
\ No newline at end of file
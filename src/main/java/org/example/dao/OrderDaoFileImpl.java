@@ -1,181 +1,878 @@
 package org.example.dao;
 
 import org.example.model.Order;
-import org.springframework.stereotype.Repository;
 
 import java.io.*;
-import java.math.BigDecimal;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-@Repository
-public class OrderDaoFileImpl implements OrderDao {
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+public class OrderDaoFileImpl implements OrderDao, AutoCloseable {
 
-    //Providing File Path for orders
-    private static final String ORDERS_FOLDER = "src/main/resources/Orders";
     private static final String DELIMITER = ",";
-    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("MMddyyyy");
+    static final String HEADER = "OrderNumber,CustomerName,State,TaxRate,ProductType,Area,CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total";
+    private static final String INDEX_FILE = "orders.idx";
+    private static final String REVENUE_FILE = "orders.agg";
+
+    private final StorageSettings settings;
+    //text or binary date files
+    private final OrderFileFormat format;
+    //Providing File Path for orders
+    private final String ordersFolder;
+
+    //temp file and rename writes, fsync policy
+    private final DurableFiles files;
+    //one file per date or per month, past dates in yearly zip archives behind them
+    private final TieredOrderStorage storage;
+    private final OrderArchive archive;
+    //only set up when archiving is on
+    private final ScheduledExecutorService archiver;
+
+    //only set up when journal mode is on
+    private final OrderJournal journal;
+    private final ScheduledExecutorService compactor;
+
+    //parsed orders per date, write-through on every mutation
+    private final OrderCache cache;
+    //what lets reads go without the date lock, see OrderVersions
+    private final OrderVersions versions = new OrderVersions();
+
+    //one lock per date: writers (and journal compaction) on the same date are serialized,
+    //writers on different dates never wait for each other, reads and reports never take it
+    private final Map<LocalDate, ReentrantLock> dateLocks = new ConcurrentHashMap<>();
+    private final IoStats ioStats = new IoStats();
+    //order number -> (date, byte offset), also the source of the highest number in use
+    private final OrderNumberIndex index;
+    //per-day revenue rollups, kept up to date by every mutation
+    private final RevenueStore revenue;
+    //last order number handed out, numbers are unique across all dates
+    private final AtomicInteger orderSequence;
+    //customer name words -> orders, filled in the background on startup and kept current by every mutation
+    private final CustomerNameIndex customerNames = new CustomerNameIndex();
+    private final CompletableFuture<Void> customerNamesLoaded;
+    //every mutation goes through it, see OrderWriter
+    private final OrderWriter writer;
+
+    //a mapping is only unmapped by the garbage collector: on Windows the mapped file can not be
+    //replaced or deleted until then, and a file truncated under a mapping faults the reader
+    private static long mmapThreshold(StorageSettings settings) {
+        boolean windows = System.getProperty("os.name", "").startsWith("Windows");
+        boolean replacedOnly = settings.isAtomicWrites() || settings.getStorageLayout() == StorageLayout.MONTHLY;
+        return windows || !replacedOnly ? -1 : settings.getMmapThresholdBytes();
+    }
 
     public OrderDaoFileImpl() {
-        File folder = new File(ORDERS_FOLDER);
+        this(new StorageSettings());
+    }
+
+    public OrderDaoFileImpl(StorageSettings settings) {
+        this.settings = settings;
+        this.ordersFolder = settings.getOrdersFolder();
+        this.format = settings.getStorageFormat().newFormat(mmapThreshold(settings));
+        this.cache = new OrderCache(settings.getCacheMaxDates(), settings.getCacheMaxBytes());
+        File folder = new File(ordersFolder);
         //making sure file exists
         if (!folder.exists()) {
             folder.mkdirs();
         }
-    }
-
-    @Override
-    public List<Order> getOrdersByDate(LocalDate date) throws FlooringException {
-
-        String fileName = buildFileName(date);
-        File file = new File(fileName);
 
-        if (!file.exists()) {
-            return new ArrayList<>();
+        //a month segment is never rewritten in place, a torn write would lose the whole month
+        boolean atomic = settings.isAtomicWrites() || settings.getStorageLayout() == StorageLayout.MONTHLY;
+        files = new DurableFiles(Paths.get(ordersFolder), atomic, settings.getFsyncPolicy(), settings.getFsyncIntervalMillis());
+        archive = new OrderArchive(Paths.get(ordersFolder), format.extension(), files, ioStats, settings.getArchiveBlockCacheBytes());
+        storage = new TieredOrderStorage(settings.getStorageLayout().newStorage(Paths.get(ordersFolder), format, files, ioStats), archive, format);
+        try {
+            //before anything reads the folder: a write that was cut off left its date file as it was before
+            files.recover();
+        } catch (IOException e) {
+            throw new FlooringException("Could not clean up " + ordersFolder, e);
         }
 
-        List<Order> orders = new ArrayList<>();
+        if (settings.isJournalEnabled()) {
+            journal = new OrderJournal(Paths.get(ordersFolder), files);
+            //an append a crash cut short would otherwise run into the first append of this run
+            for (LocalDate date : journal.journaledDates()) journal.dropTornTail(date);
+            compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "order-journal-compactor");
+                t.setDaemon(true);
+                return t;
+            });
+            //periodic sweep also picks up journals left behind by a previous run
+            long interval = settings.getJournalCompactionIntervalSeconds();
+            compactor.scheduleWithFixedDelay(this::compactQuietly, interval, interval, TimeUnit.SECONDS);
+        } else {
+            journal = null;
+            compactor = null;
+        }
 
-        try (Scanner sc = new Scanner(new BufferedReader(new FileReader(file)))) {
-            //skipping the first row due to headings
-            if (sc.hasNextLine()) sc.nextLine();
-            while (sc.hasNextLine()) {
-                String line = sc.nextLine();
-                Order order = unmarshallOrder(line);//Unmarshalling the order
-                orders.add(order);
-            }
-        } catch (IOException e) {
-            throw new FlooringException("Could not load orders for " + date, e);
+        index = new OrderNumberIndex(Paths.get(ordersFolder, INDEX_FILE));
+        if (index.exists()) index.load();
+        //the index is not fsynced and files may have been restored by hand, numbers are only handed out
+        //once every date it describes has been checked against its files
+        reconcileIndex();
+        orderSequence = new AtomicInteger(index.maxOrderNumber());
+
+        //no rebuild here: missing or stale days are recounted in parallel by the first report that needs them
+        revenue = new RevenueStore(Paths.get(ordersFolder, REVENUE_FILE));
+        revenue.load();
+
+        //startup does not wait for it, only the first search does
+        customerNamesLoaded = CompletableFuture.runAsync(this::loadCustomerNames);
+
+        writer = new OrderWriter(this::writeBatch, settings.getWriterThreads(),
+                settings.getWriterQueueCapacity(), settings.getWriterMaxBatch());
+
+        if (settings.getArchiveAfterDays() >= 0) {
+            archiver = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "order-archiver");
+                t.setDaemon(true);
+                return t;
+            });
+            long interval = settings.getArchiveIntervalMinutes();
+            archiver.scheduleWithFixedDelay(this::archiveQuietly, interval, interval, TimeUnit.MINUTES);
+        } else {
+            archiver = null;
         }
+    }
 
-        return orders;
+    @Override
+    public List<Order> getOrdersByDate(LocalDate date) throws FlooringException {
+        //handing out copies so callers can change them without touching the cache
+        return copyOf(currentOrders(date));
     }
 
     @Override
     public Order getOrder(LocalDate date, int orderNumber) throws FlooringException {
         //getting a specific order by date and given order number
-        List<Order> orders = loadOrdersForDate(date);
-        for (Order o : orders) {
+        for (Order o : currentOrders(date)) {
             if (o.getOrderNumber() == orderNumber) {
-                return o;
+                return new Order(o);
             }
         }
         return null; // order not found
     }
 
     @Override
-    public Order addOrder(LocalDate date, Order order) throws FlooringException {
-        List<Order> orders = getOrdersByDate(date);
+    public Order getOrder(int orderNumber) throws FlooringException {
+        OrderNumberIndex.Location location = index.get(orderNumber);
+        if (location == null) return null; // order not found
+
+        if (location.offset != OrderNumberIndex.UNKNOWN_OFFSET) {
+            //one seek and one line decode, checked in case the file was changed by hand, and only
+            //trusted if the date was not rewritten around it
+            Order order = unlessWritten(location.date, versions.current(location.date),
+                    () -> readOrderAt(location.date, location.offset));
+            if (order != null && order.getOrderNumber() == orderNumber) {
+                order.setOrderDate(location.date);
+                return order;
+            }
+        }
+        return getOrder(location.date, orderNumber);
+    }
 
-        // Assigning order number automatically (next available)
-        int maxOrderNum = orders.stream()
-                .mapToInt(Order::getOrderNumber)
-                .max()
-                .orElse(0);
-        order.setOrderNumber(maxOrderNum + 1);
+    @Override
+    public Order addOrder(LocalDate date, Order order) throws FlooringException {
+        return await(addOrderAsync(date, order));
+    }
 
-        orders.add(order);
-        writeOrders(date, orders);
+    @Override
+    public CompletableFuture<Order> addOrderAsync(LocalDate date, Order order) throws FlooringException {
+        return writer.submit(date, (orders, changes) -> {
+            // Assigning order number automatically (next available)
+            order.setOrderNumber(orderSequence.incrementAndGet());
+            order.setOrderDate(date);
+
+            //the list only ever holds our own copies, the caller keeps theirs
+            Order stored = new Order(order);
+            orders.add(stored);
+            changes.add(stored);
+            return order;
+        });
+    }
 
-        return order;
+    @Override
+    public List<Order> addOrders(LocalDate date, List<Order> newOrders) throws FlooringException {
+        if (newOrders.isEmpty()) return newOrders;
+        //one mutation, so the whole list is numbered in order and written together
+        return await(writer.submit(date, (orders, changes) -> {
+            for (Order order : newOrders) {
+                order.setOrderNumber(orderSequence.incrementAndGet());
+                order.setOrderDate(date);
+                Order stored = new Order(order);
+                orders.add(stored);
+                changes.add(stored);
+            }
+            return newOrders;
+        }));
     }
 
     @Override
     public Order editOrder(LocalDate date, Order updatedOrder) throws FlooringException {
-        List<Order> orders = getOrdersByDate(date);
-        boolean found = false;
+        return await(editOrderAsync(date, updatedOrder));
+    }
 
-        //Finding the right order using if by the getOrder function
-        for (int i = 0; i < orders.size(); i++) {
-            if (orders.get(i).getOrderNumber() == updatedOrder.getOrderNumber()) {
-                orders.set(i, updatedOrder);
-                found = true;
-                break;
+    @Override
+    public CompletableFuture<Order> editOrderAsync(LocalDate date, Order updatedOrder) throws FlooringException {
+        return writer.submit(date, (orders, changes) -> {
+            //Finding the right order using if by the getOrder function
+            for (int i = 0; i < orders.size(); i++) {
+                if (orders.get(i).getOrderNumber() == updatedOrder.getOrderNumber()) {
+                    updatedOrder.setOrderDate(date);
+                    Order stored = new Order(updatedOrder);
+                    changes.edit(orders.set(i, stored), stored);
+                    return updatedOrder;
+                }
             }
-        }
-
-        if (!found) {
             //not found
             throw new FlooringException("Order #" + updatedOrder.getOrderNumber() + " not found for " + date);
-        }
+        });
+    }
 
-        //writing the order to file
-        writeOrders(date, orders);
-        return updatedOrder;
+    @Override
+    public List<Order> updateOrders(LocalDate date, Function<Order, Order> update) throws FlooringException {
+        return await(writer.submit(date, (orders, changes) -> {
+            //every replacement is worked out before the list changes, update may throw half way
+            Map<Integer, Order> replacements = new LinkedHashMap<>();
+            for (int i = 0; i < orders.size(); i++) {
+                Order current = orders.get(i);
+                Order replacement = update.apply(new Order(current));
+                if (replacement == null) continue;
+                //numbers and dates are not the caller's to change here
+                replacement.setOrderNumber(current.getOrderNumber());
+                replacement.setOrderDate(date);
+                replacements.put(i, replacement);
+            }
+            for (Map.Entry<Integer, Order> e : replacements.entrySet()) {
+                Order stored = new Order(e.getValue());
+                changes.edit(orders.set(e.getKey(), stored), stored);
+            }
+            return new ArrayList<>(replacements.values());
+        }));
     }
 
     @Override
     public Order removeOrder(LocalDate date, int orderNumber) throws FlooringException {
-        List<Order> orders = getOrdersByDate(date);
-        Order removed = null;
+        return await(removeOrderAsync(date, orderNumber));
+    }
 
-        //matching order and removing it
-        Iterator<Order> it = orders.iterator();
-        while (it.hasNext()) {
-            Order o = it.next();
-            if (o.getOrderNumber() == orderNumber) {
-                removed = o;
-                it.remove();
-                break;
+    @Override
+    public CompletableFuture<Order> removeOrderAsync(LocalDate date, int orderNumber) throws FlooringException {
+        return writer.submit(date, (orders, changes) -> {
+            //matching order and removing it
+            Iterator<Order> it = orders.iterator();
+            while (it.hasNext()) {
+                Order o = it.next();
+                if (o.getOrderNumber() == orderNumber) {
+                    it.remove();
+                    changes.remove(o);
+                    return o;
+                }
             }
+            throw new FlooringException("Order #" + orderNumber + " not found for " + date);
+        });
+    }
+
+    @Override
+    public List<Order> findOrdersByCustomer(String query, int limit) throws FlooringException {
+        try {
+            customerNamesLoaded.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof FlooringException) throw (FlooringException) e.getCause();
+            throw new FlooringException("Could not index customer names.", e.getCause());
+        }
+        List<Order> found = new ArrayList<>();
+        for (CustomerNameIndex.Entry entry : customerNames.search(query, limit)) {
+            //null if it was removed since the search, the index is updated after the file write
+            Order order = getOrder(entry.date, entry.orderNumber);
+            if (order != null) found.add(order);
         }
+        found.sort(Comparator.comparing(Order::getOrderDate).thenComparingInt(Order::getOrderNumber));
+        return found;
+    }
 
-        if (removed != null) {
-            writeOrders(date, orders);
-        } else {
-            throw new FlooringException("Order #" + orderNumber + " not found for " + date);
+    @Override
+    public List<LocalDate> getOrderDates() throws FlooringException {
+        Set<LocalDate> dates = new TreeSet<>(orderFileDates());
+        if (journal != null) dates.addAll(journal.journaledDates());
+        return new ArrayList<>(dates);
+    }
+
+    @Override
+    public List<DailyRevenue> getDailyRevenue(LocalDate from, LocalDate to) throws FlooringException {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date : getOrderDates()) {
+            if (!date.isBefore(from) && !date.isAfter(to)) dates.add(date);
+        }
+        //stored days cost two stats each; missing or stale ones (all of them without orders.agg) are recounted in parallel
+        return dates.parallelStream().map(this::dailyRevenue).collect(Collectors.toList());
+    }
+
+    /**
+     * Folds every pending journal back into its date file and deletes the journal.
+     * Runs in the background in journal mode, but can be called directly (e.g. before a backup).
+     */
+    public void compactJournals() throws FlooringException {
+        if (journal == null) return;
+        for (LocalDate date : journal.journaledDates()) {
+            compact(date);
+        }
+    }
+
+    /**
+     * Moves every date older than orders.archive.afterDays into its year's zip archive and drops
+     * the hot copy, reads of those dates are served from the archive from then on. Runs in the
+     * background when archiving is on, but can be called directly (e.g. before a backup).
+     *
+     * @return number of dates archived
+     */
+    public synchronized int archivePastDates() throws FlooringException {
+        int afterDays = settings.getArchiveAfterDays();
+        if (afterDays < 0) return 0;
+        LocalDate cutoff = LocalDate.now().minusDays(afterDays);
+        Map<Integer, List<LocalDate>> years = new TreeMap<>();
+        try {
+            for (LocalDate date : storage.hotDates()) {
+                if (date.isBefore(cutoff)) years.computeIfAbsent(date.getYear(), y -> new ArrayList<>()).add(date);
+            }
+        } catch (IOException e) {
+            throw new FlooringException("Could not list orders in " + ordersFolder, e);
+        }
+        int archived = 0;
+        for (Map.Entry<Integer, List<LocalDate>> year : years.entrySet()) {
+            archived += archiveYear(year.getKey(), year.getValue());
         }
+        return archived;
+    }
+
+    /**
+     * Hit, miss and eviction counters of the per-date order cache.
+     */
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Date file loads (cache misses) and writes, journal appends count as writes.
+     */
+    public IoStats getIoStats() {
+        return ioStats;
+    }
+
+    /**
+     * Batches and mutations written by the group commit writer, and how many are queued.
+     */
+    public String getWriterStats() {
+        return writer.stats();
+    }
+
+    /**
+     * Fsync policy and counters of the order file writes.
+     */
+    public String getDurabilityStats() {
+        return files.stats();
+    }
+
+    /**
+     * Archived days, their compressed and inflated size, and the block cache counters.
+     */
+    public String getArchiveStats() {
+        return archive.stats();
+    }
 
-        return removed;
+    @Override
+    public void close() {
+        //queued mutations are written before anything else shuts down
+        writer.close();
+        if (archiver != null) {
+            archiver.shutdown();
+            try {
+                archiver.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (compactor != null) {
+            compactor.shutdown();
+            try {
+                compactor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            compactJournals(); // leave only plain date files behind on a clean shutdown
+        }
+        index.close();
+        revenue.close();
+        archive.close();
+        files.close();
     }
 
     // ---------- Helper Methods ----------
 
-    private String buildFileName(LocalDate date) {
-        //building file name in the orders folder, using the date format
-        return ORDERS_FOLDER + "/Orders_" + date.format(FILE_DATE_FORMAT) + ".txt";
+    //writes the date and returns where every order ended up, for the number index
+    private Map<Integer, Long> writeOrders(LocalDate date, List<Order> orders) throws FlooringException {
+        try {
+            return storage.write(date, orders);
+        } catch (IOException e) {
+            throw new FlooringException("Error writing orders for " + date, e);
+        }
     }
 
-    private void writeOrders(LocalDate date, List<Order> orders) throws FlooringException {
-        String fileName = buildFileName(date);
+    //decodes the single order at an indexed position, null if there is no such order
+    private Order readOrderAt(LocalDate date, long offset) {
+        try {
+            return storage.readAt(date, offset);
+        } catch (IOException | RuntimeException e) {
+            //a stale offset can land mid-line, the caller falls back to a date lookup
+            return null;
+        }
+    }
 
-        try (PrintWriter out = new PrintWriter(new FileWriter(fileName))) {
-            //writing the header first and order next
-            out.println("OrderNumber,CustomerName,State,TaxRate,ProductType,Area,CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total");
+    //read only view of the orders for a date, served from the cache while the files are unchanged. No lock:
+    //while a write of the date is in flight this is the version it started from, see OrderVersions
+    private List<Order> currentOrders(LocalDate date) throws FlooringException {
+        while (true) {
+            //the number first, a write that starts or ends after this is caught by unlessWritten
+            long version = versions.current(date);
+            List<Order> pinned = versions.pinned(date);
+            if (pinned != null) return pinned;
+
+            FileStamp dataStamp = dataStamp(date);
+            FileStamp journalStamp = journalStamp(date);
+            List<Order> cached = cache.get(date, dataStamp, journalStamp);
+            if (cached != null) return cached;
+
+            Map<LocalDate, OrderStorage.StoredDay> around = new HashMap<>();
+            List<Order> orders = unlessWritten(date, version, () -> {
+                //without a cache the rest of a month would be read for nothing
+                if (settings.getCacheMaxDates() > 0) around.putAll(readAround(date));
+                OrderStorage.StoredDay stored = around.get(date);
+                List<Order> read;
+                if (stored != null && stored.stamp.equals(dataStamp)) {
+                    read = stored.orders;
+                } else if (dataStamp.equals(FileStamp.MISSING)) {
+                    read = new ArrayList<>(); // no orders for that date yet
+                } else {
+                    //a shared month read that started before our last write
+                    read = loadOrdersForDate(date);
+                }
+                return journal != null ? replayJournal(date, read) : read;
+            });
+            if (orders == null) continue; // written meanwhile, its pinned or published version is there now
+
+            //the dates that came with the same read, e.g. the rest of a month segment, unless already cached
+            for (Map.Entry<LocalDate, OrderStorage.StoredDay> other : around.entrySet()) {
+                LocalDate otherDate = other.getKey();
+                if (otherDate.equals(date) || cache.contains(otherDate)) continue;
+                long otherVersion = versions.current(otherDate);
+                FileStamp otherJournalStamp = journalStamp(otherDate);
+                List<Order> otherOrders = unlessWritten(otherDate, otherVersion, () -> journal != null
+                        ? replayJournal(otherDate, other.getValue().orders) : other.getValue().orders);
+                if (otherOrders != null) {
+                    cacheLoaded(otherDate, otherOrders, other.getValue().stamp, otherJournalStamp, otherVersion);
+                }
+            }
+            return cacheLoaded(date, orders, dataStamp, journalStamp, version);
+        }
+    }
+
+    //stamps are taken before reading (the journal's before it is replayed), so a change during the read
+    //just invalidates next time
+    private List<Order> cacheLoaded(LocalDate date, List<Order> orders, FileStamp dataStamp, FileStamp journalStamp,
+                                    long version) {
+        int maxOrderNum = 0;
+        for (Order o : orders) {
+            o.setOrderDate(date);
+            maxOrderNum = Math.max(maxOrderNum, o.getOrderNumber());
+        }
+        //the file may have been changed by hand, never hand out a number that is already used
+        orderSequence.accumulateAndGet(maxOrderNum, Math::max);
+        orders = Collections.unmodifiableList(orders);
+        cache.put(date, orders, dataStamp, journalStamp, version, !journalStamp.equals(FileStamp.MISSING));
+        return orders;
+    }
+
+    //runs a read of the date's files without the date lock. The result only counts if no write of the date
+    //began or ended around it, otherwise it is null and the caller looks again; a read that failed because
+    //it met a file cut off mid rewrite is dropped the same way
+    private <T> T unlessWritten(LocalDate date, long version, Supplier<T> read) throws FlooringException {
+        if (OrderVersions.isWriting(version)) return null;
+        T result;
+        try {
+            result = read.get();
+        } catch (RuntimeException e) {
+            if (versions.current(date) != version) return null;
+            throw e;
+        }
+        return versions.current(date) == version ? result : null;
+    }
+
+    //one writer batch for a date: runs its mutations on one copy of the list under the date lock, persists
+    //all of them with a single write and only then completes the callers' futures. The orders in the list
+    //are shared with the published version and never changed, mutations replace them with their own copies
+    private void writeBatch(LocalDate date, List<OrderWriter.Request<?>> requests) {
+        ReentrantLock lock = lockFor(date);
+        lock.lock();
+        try {
+            //readers keep the published version until persist has replaced it
+            List<Order> published = currentOrders(date);
+            List<Order> orders = new ArrayList<>(published);
+            OrderChanges changes = new OrderChanges();
+            List<OrderWriter.Request<?>> applied = new ArrayList<>(requests.size());
+            for (OrderWriter.Request<?> request : requests) {
+                if (request.apply(orders, changes)) applied.add(request);
+            }
+            if (!changes.isEmpty()) persist(date, published, orders, changes);
+            for (OrderWriter.Request<?> request : applied) request.complete();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //writes a mutated list (or journal records for the changes), then refreshes the cache, the number index,
+    //the customer name index and the revenue rollup
+    private void persist(LocalDate date, List<Order> published, List<Order> orders, OrderChanges changes)
+            throws FlooringException {
+        FileStamp oldDataStamp = dataStamp(date);
+        FileStamp oldJournalStamp = journalStamp(date);
+        long version = versions.beginWrite(date, published);
+        Map<Integer, Long> offsets;
+        FileStamp newDataStamp;
+        FileStamp newJournalStamp;
+        try {
+            if (journal != null) {
+                offsets = new HashMap<>();
+                //the rows only live in the journal until the next compaction
+                for (Order o : changes.added()) offsets.put(o.getOrderNumber(), OrderNumberIndex.UNKNOWN_OFFSET);
+                appendToJournal(date, changes.journalEntries());
+            } else {
+                offsets = writeOrders(date, orders);
+            }
+            newDataStamp = dataStamp(date);
+            newJournalStamp = journalStamp(date);
+            cache.put(date, orders, newDataStamp, newJournalStamp, version, journal != null);
+        } finally {
+            versions.endWrite(date);
+        }
+        index.update(date, offsets, changes.removedNumbers(), newDataStamp, newJournalStamp);
+        for (Order o : changes.added()) customerNames.put(o.getOrderNumber(), date, o.getCustomerName());
+        for (int number : changes.removedNumbers()) customerNames.remove(number);
+        updateRevenue(date, oldDataStamp, oldJournalStamp, changes.removed(), changes.added(), orders, newDataStamp, newJournalStamp);
+    }
+
+    //applies the change to the stored day if it still describes the files we just replaced, otherwise recounts the day
+    private void updateRevenue(LocalDate date, FileStamp oldDataStamp, FileStamp oldJournalStamp, List<Order> removed,
+                               List<Order> added, List<Order> orders, FileStamp newDataStamp, FileStamp newJournalStamp) {
+        DailyRevenue stored = revenue.get(date, oldDataStamp, oldJournalStamp);
+        DailyRevenue updated = stored != null ? stored.with(removed, added) : DailyRevenue.of(date, orders);
+        try {
+            revenue.put(updated, newDataStamp, newJournalStamp);
+        } catch (FlooringException e) {
+            //the orders are saved; without the log line the day just looks stale and is recounted later
+        }
+    }
+
+    private DailyRevenue dailyRevenue(LocalDate date) throws FlooringException {
+        DailyRevenue stored = revenue.get(date, dataStamp(date), journalStamp(date));
+        if (stored != null) return stored;
+
+        //no date lock, a report never holds up the clerks: like currentOrders it counts a date being
+        //written at the version that write started from
+        while (true) {
+            long version = versions.current(date);
+            List<Order> pinned = versions.pinned(date);
+            if (pinned != null) return DailyRevenue.of(date, pinned); // the write stores the new rollup itself
+
+            //stamps before reading, a change during the read only leaves the day stale
+            FileStamp dataStamp = dataStamp(date);
+            FileStamp journalStamp = journalStamp(date);
+            //read around the cache, a rebuild over the whole history would just evict everything useful
+            List<Order> orders = unlessWritten(date, version, () -> {
+                List<Order> read = loadOrdersForDate(date);
+                return journal != null ? replayJournal(date, read) : read;
+            });
+            if (orders == null) continue;
+            DailyRevenue counted = DailyRevenue.of(date, orders);
+            try {
+                revenue.put(counted, dataStamp, journalStamp);
+            } catch (FlooringException e) {
+                // still a correct answer, the day is recounted next time
+            }
+            return counted;
+        }
+    }
+
+    private ReentrantLock lockFor(LocalDate date) {
+        return dateLocks.computeIfAbsent(date, d -> new ReentrantLock());
+    }
 
-            for (Order o : orders) {
-                out.println(marshallOrder(o));
+    //dates that have orders on disk, journals aside
+    private List<LocalDate> orderFileDates() throws FlooringException {
+        try {
+            return storage.dates();
+        } catch (IOException e) {
+            throw new FlooringException("Could not list orders in " + ordersFolder, e);
+        }
+    }
+
+    //reads every date in parallel; each date is read under its lock, so a mutation made meanwhile is either
+    //already in the file or indexed after the read, and indexing an order twice is harmless
+    private void loadCustomerNames() throws FlooringException {
+        getOrderDates().parallelStream().forEach(date -> {
+            ReentrantLock lock = lockFor(date);
+            lock.lock();
+            try {
+                //read around the cache like the revenue recount, the whole history would only evict useful dates
+                List<Order> orders = loadOrdersForDate(date);
+                if (journal != null) orders = replayJournal(date, orders);
+                for (Order o : orders) customerNames.put(o.getOrderNumber(), date, o.getCustomerName());
+            } finally {
+                lock.unlock();
             }
+        });
+    }
+
+    //stats every date and rescans, in parallel, the ones whose files the index does not describe (all of them
+    //without an index); only the order number and line offset are decoded
+    private void reconcileIndex() throws FlooringException {
+        List<LocalDate> dates = getOrderDates();
+        Map<LocalDate, Map<Integer, Long>> scanned = new ConcurrentHashMap<>();
+        Map<LocalDate, FileStamp[]> stamps = new ConcurrentHashMap<>();
+        dates.parallelStream().forEach(date -> {
+            //stamps before the scan, a change during it is caught on the next start
+            FileStamp dataStamp = dataStamp(date);
+            FileStamp journalStamp = journalStamp(date);
+            if (index.isCurrent(date, dataStamp, journalStamp)) return;
+            scanned.put(date, scanOffsets(date));
+            stamps.put(date, new FileStamp[]{dataStamp, journalStamp});
+        });
+        Set<LocalDate> current = new HashSet<>(dates);
+        //nothing to do when every date matched and no date went away
+        if (scanned.isEmpty() && index.isUpToDateWith(current)) return;
+        index.replaceDates(scanned, stamps, current);
+    }
+
+    private Map<Integer, Long> scanOffsets(LocalDate date) throws FlooringException {
+        Map<Integer, Long> offsets = new LinkedHashMap<>();
+        try {
+            offsets.putAll(storage.scanOffsets(date));
         } catch (IOException e) {
-            throw new FlooringException("Error writing to file: " + fileName, e);
+            throw new FlooringException("Could not read orders for " + date, e);
+        }
+        if (journal != null) {
+            for (OrderJournal.Entry entry : journal.read(date)) {
+                if (entry.op == OrderJournal.REMOVE) offsets.remove(entry.orderNumber);
+                else offsets.put(entry.orderNumber, OrderNumberIndex.UNKNOWN_OFFSET);
+            }
         }
+        return offsets;
     }
 
-    private List<Order> loadOrdersForDate(LocalDate date) throws FlooringException {
+    private FileStamp dataStamp(LocalDate date) throws FlooringException {
+        try {
+            return storage.stamp(date);
+        } catch (IOException e) {
+            throw new FlooringException("Could not read orders for " + date, e);
+        }
+    }
 
+    private FileStamp journalStamp(LocalDate date) throws FlooringException {
+        if (journal == null) return FileStamp.MISSING;
+        try {
+            return journal.stamp(date);
+        } catch (IOException e) {
+            throw new FlooringException("Could not read journal for " + date, e);
+        }
+    }
+
+    //the synchronous mutations wait for their batch, failures come out as they were thrown
+    private static <T> T await(CompletableFuture<T> result) throws FlooringException {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new FlooringException("Could not save orders.", e.getCause());
+        }
+    }
+
+    private static List<Order> copyOf(List<Order> orders) {
+        List<Order> copies = new ArrayList<>(orders.size());
+        for (Order o : orders) copies.add(new Order(o));
+        return copies;
+    }
+
+    private List<Order> loadOrdersForDate(LocalDate date) throws FlooringException {
         //loading all orders for the date
-        String fileName = getFileName(date);
-        File file = new File(fileName);
-        List<Order> orders = new ArrayList<>();
+        try {
+            return storage.read(date);
+        } catch (IOException e) {
+            throw new FlooringException("Could not read orders for " + date, e);
+        }
+    }
+
+    private Map<LocalDate, OrderStorage.StoredDay> readAround(LocalDate date) throws FlooringException {
+        try {
+            return storage.readAround(date);
+        } catch (IOException e) {
+            throw new FlooringException("Could not read orders for " + date, e);
+        }
+    }
 
-        if (!file.exists()) return orders; // no orders for that date yet
+    private List<Order> replayJournal(LocalDate date, List<Order> base) throws FlooringException {
+        List<OrderJournal.Entry> entries = journal.read(date);
+        if (entries.isEmpty()) return base;
 
-        try (Scanner scanner = new Scanner(new BufferedReader(new FileReader(file)))) {
-            if (scanner.hasNextLine()) scanner.nextLine(); // skip header
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                Order order = unmarshallOrder(line);
-                orders.add(order);
+        //keyed by order number so every entry is an upsert or a delete (last write wins)
+        Map<Integer, Order> byNumber = new LinkedHashMap<>();
+        for (Order o : base) byNumber.put(o.getOrderNumber(), o);
+
+        for (OrderJournal.Entry entry : entries) {
+            switch (entry.op) {
+                case OrderJournal.ADD, OrderJournal.EDIT -> byNumber.put(entry.orderNumber, entry.order);
+                case OrderJournal.REMOVE -> byNumber.remove(entry.orderNumber);
+                default -> throw new FlooringException("Unknown journal entry '" + entry.op + "' for " + date);
             }
+        }
+        return new ArrayList<>(byNumber.values());
+    }
+
+    private void appendToJournal(LocalDate date, List<OrderJournal.Entry> entries) throws FlooringException {
+        long start = System.nanoTime();
+        int pendingEntries = journal.append(date, entries);
+        long bytes = 0;
+        for (OrderJournal.Entry entry : entries) bytes += TextOrderFormat.utf8Length(entry.payload) + 3; // op, comma, new line
+        ioStats.recordWrite(bytes, System.nanoTime() - start);
+        int threshold = settings.getJournalCompactionThreshold();
+        //only the append that crosses the threshold schedules a compaction
+        if (pendingEntries >= threshold && pendingEntries - entries.size() < threshold) {
+            compactor.execute(() -> {
+                try {
+                    compact(date);
+                } catch (FlooringException e) {
+                    // the journal stays in place and the periodic sweep will try again
+                }
+            });
+        }
+    }
+
+    private void compact(LocalDate date) throws FlooringException {
+        ReentrantLock lock = lockFor(date);
+        lock.lock();
+        try {
+            if (!journal.exists(date)) return;
+            FileStamp oldDataStamp = dataStamp(date);
+            FileStamp oldJournalStamp = journalStamp(date);
+            //the same orders go into the date file, readers keep them throughout
+            List<Order> orders = currentOrders(date);
+            long version = versions.beginWrite(date, orders);
+            Map<Integer, Long> offsets;
+            FileStamp newDataStamp;
+            try {
+                offsets = writeOrders(date, orders);
+                journal.delete(date);
+                newDataStamp = dataStamp(date);
+                cache.put(date, orders, newDataStamp, FileStamp.MISSING, version, false);
+            } finally {
+                versions.endWrite(date);
+            }
+            index.update(date, offsets, List.of(), newDataStamp, FileStamp.MISSING);
+            //same orders in a different file, only the stamps move
+            updateRevenue(date, oldDataStamp, oldJournalStamp, List.of(), List.of(), orders, newDataStamp, FileStamp.MISSING);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //copies are taken date by date under the date lock, and a hot date is only dropped once the archive
+    //holding it is forced to disk (whatever the fsync policy) and if it did not change in between. A date that did stays hot for the next run.
+    private int archiveYear(int year, List<LocalDate> dates) throws FlooringException {
+        Map<LocalDate, byte[]> days = new TreeMap<>();
+        Map<LocalDate, FileStamp> stamps = new HashMap<>();
+        for (LocalDate date : dates) {
+            ReentrantLock lock = lockFor(date);
+            lock.lock();
+            try {
+                if (journal != null && journal.exists(date)) continue; // archived once it is compacted
+                stamps.put(date, storage.hotStamp(date));
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                format.write(bytes, storage.readHot(date));
+                days.put(date, bytes.toByteArray());
+            } catch (IOException e) {
+                throw new FlooringException("Could not read orders for " + date, e);
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (days.isEmpty()) return 0;
+        try {
+            archive.add(year, days);
         } catch (IOException e) {
-            throw new FlooringException("Could not read orders for " + date, e);
+            throw new FlooringException("Could not archive orders for " + year, e);
+        }
+
+        int archived = 0;
+        for (LocalDate date : days.keySet()) {
+            ReentrantLock lock = lockFor(date);
+            lock.lock();
+            try {
+                FileStamp hotStamp = storage.hotStamp(date);
+                if (!hotStamp.equals(stamps.get(date)) || (journal != null && journal.exists(date))) continue;
+                //no new version to publish: the archive holds the same bytes and reads that meet the hot copy
+                //gone fall back to it (TieredOrderStorage)
+                storage.delete(date);
+                cache.invalidate(date);
+                archived++;
+                //same orders in a different place (at the same offsets in the same bytes), only the stamps
+                //of the stored rollup and of the index entries move
+                FileStamp archivedStamp = dataStamp(date);
+                try {
+                    index.update(date, Map.of(), List.of(), archivedStamp, FileStamp.MISSING);
+                } catch (FlooringException e) {
+                    // the date is rescanned on the next start
+                }
+                DailyRevenue stored = revenue.get(date, hotStamp, FileStamp.MISSING);
+                if (stored != null) {
+                    try {
+                        revenue.put(stored, archivedStamp, FileStamp.MISSING);
+                    } catch (FlooringException e) {
+                        // the day is recounted when it is next needed
+                    }
+                }
+            } catch (IOException e) {
+                throw new FlooringException("Could not remove archived orders for " + date, e);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return archived;
+    }
+
+    private void archiveQuietly() {
+        try {
+            archivePastDates();
+        } catch (FlooringException e) {
+            // the hot files stay in place and the next run tries again
         }
-        return orders;
     }
 
-    private String marshallOrder(Order order) {
+    private void compactQuietly() {
+        try {
+            compactJournals();
+        } catch (FlooringException e) {
+            // retried on the next sweep
+        }
+    }
+
+    static String marshallOrder(Order order) {
         //getting the order ready for writing
         return String.join(DELIMITER,
                 String.valueOf(order.getOrderNumber()),
@@ -193,29 +890,4 @@ public class OrderDaoFileImpl implements OrderDao {
         );
     }
 
-    private Order unmarshallOrder(String line) {
-        //getting the order ready for reading
-        String[] tokens = line.split(DELIMITER);
-        Order order = new Order();
-        order.setOrderNumber(Integer.parseInt(tokens[0]));
-        order.setCustomerName(tokens[1]);
-        order.setState(tokens[2]);
-        order.setTaxRate(new BigDecimal(tokens[3]));
-        order.setProductType(tokens[4]);
-        order.setArea(new BigDecimal(tokens[5]));
-        order.setCostPerSquareFoot(new BigDecimal(tokens[6]));
-        order.setLaborCostPerSquareFoot(new BigDecimal(tokens[7]));
-        order.setMaterialCost(new BigDecimal(tokens[8]));
-        order.setLaborCost(new BigDecimal(tokens[9]));
-        order.setTax(new BigDecimal(tokens[10]));
-        order.setTotal(new BigDecimal(tokens[11]));
-        return order;
-    }
-
-    private String getFileName(LocalDate date) {
-        //getting file name by date
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMddyyyy");
-        return "src/main/resources/Orders/Orders_" + date.format(formatter) + ".txt";
-    }
-
 }
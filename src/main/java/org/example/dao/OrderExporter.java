@@ -0,0 +1,99 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Writes every order of every date into one file (the DataExport.txt format, which adds an
+ * OrderDate column). Dates are loaded in parallel on a fork-join pool but only a small window
+ * of them is in memory at a time, and rows are written in date order by a single writer,
+ * so the export works for any amount of history.
+ */
+public class OrderExporter {
+
+    private static final DateTimeFormatter EXPORT_DATE_FORMAT = DateTimeFormatter.ofPattern("MM-dd-yyyy");
+
+    private final OrderDao orderDao;
+    private final ForkJoinPool pool;
+
+    public OrderExporter(OrderDao orderDao) {
+        this(orderDao, ForkJoinPool.commonPool());
+    }
+
+    public OrderExporter(OrderDao orderDao, ForkJoinPool pool) {
+        this.orderDao = orderDao;
+        this.pool = pool;
+    }
+
+    //one export at a time, concurrent runs to the same target would share its .tmp file
+    public synchronized ExportSummary export(Path target) throws FlooringException {
+        long start = System.nanoTime();
+        List<LocalDate> dates = orderDao.getOrderDates();
+
+        //writing next to the target and moving it in place, so a failed export keeps the old file
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        int window = Math.max(2, pool.getParallelism() * 2);
+        Deque<CompletableFuture<List<Order>>> inFlight = new ArrayDeque<>(window);
+        long rows = 0;
+
+        try {
+            if (target.getParent() != null) Files.createDirectories(target.getParent());
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                out.write(OrderDaoFileImpl.HEADER + ",OrderDate");
+                out.newLine();
+
+                int next = 0;
+                for (LocalDate date : dates) {
+                    //keeping at most `window` dates loading or loaded ahead of the writer
+                    while (next < dates.size() && inFlight.size() < window) {
+                        LocalDate ahead = dates.get(next++);
+                        inFlight.add(CompletableFuture.supplyAsync(() -> orderDao.getOrdersByDate(ahead), pool));
+                    }
+
+                    String dateColumn = "," + date.format(EXPORT_DATE_FORMAT);
+                    for (Order o : join(inFlight.poll())) {
+                        out.write(OrderDaoFileImpl.marshallOrder(o));
+                        out.write(dateColumn);
+                        out.newLine();
+                        rows++;
+                    }
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new FlooringException("Could not export orders to " + target, e);
+        } finally {
+            inFlight.forEach(f -> f.cancel(true));
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException e) {
+                // only a leftover temp file
+            }
+        }
+
+        return new ExportSummary(target, dates.size(), rows, System.nanoTime() - start);
+    }
+
+    private static List<Order> join(CompletableFuture<List<Order>> future) throws FlooringException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof FlooringException) throw (FlooringException) e.getCause();
+            throw new FlooringException("Could not export orders.", e.getCause());
+        }
+    }
+}
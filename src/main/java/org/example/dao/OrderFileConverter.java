@@ -0,0 +1,121 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts every date file in an orders folder from one StorageFormat to the other.
+ * Each converted file is read back and compared row by row before the source file is
+ * removed, so a conversion either round trips exactly or stops with the source intact.
+ * Run it while the application is stopped; journals are left alone since they are
+ * format independent. Only date files are converted, move a monthly layout back to daily
+ * with OrderLayoutMigrator first. Usage: OrderFileConverter &lt;ordersFolder&gt; &lt;text|binary&gt; &lt;text|binary&gt;
+ */
+public final class OrderFileConverter {
+
+    private static final String INDEX_FILE = "orders.idx";
+    private static final String REVENUE_FILE = "orders.agg";
+
+    private final Path folder;
+
+    public OrderFileConverter(Path folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * @return number of date files converted
+     */
+    public int convert(StorageFormat from, StorageFormat to) throws FlooringException {
+        if (from == to) return 0;
+        OrderFileFormat source = from.newFormat(-1);
+        OrderFileFormat target = to.newFormat(-1);
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(folder, "Orders_*" + source.extension());
+             DirectoryStream<Path> archives = Files.newDirectoryStream(folder, "Orders_*" + OrderArchive.EXTENSION);
+             DirectoryStream<Path> segments = Files.newDirectoryStream(folder, "Orders_*" + MonthlyOrderStorage.EXTENSION)) {
+            //archived days would silently drop out of sight, they are only read in the format they were written in
+            if (archives.iterator().hasNext()) {
+                throw new FlooringException("Archived dates in " + folder + " cannot be converted, unzip them first");
+            }
+            //and so would the days in month segments
+            if (segments.iterator().hasNext()) {
+                throw new FlooringException("Monthly segments in " + folder + " cannot be converted, "
+                        + "move them back to daily files with OrderLayoutMigrator first");
+            }
+            dir.forEach(files::add);
+        } catch (IOException e) {
+            throw new FlooringException("Could not list orders in " + folder, e);
+        }
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            Path converted = file.resolveSibling(name.substring(0, name.length() - source.extension().length()) + target.extension());
+            if (Files.exists(converted)) {
+                throw new FlooringException(converted + " already exists, not overwriting it");
+            }
+            Path tmp = converted.resolveSibling(converted.getFileName() + ".tmp");
+            try {
+                List<Order> orders = source.read(file);
+                target.write(tmp, orders);
+                verify(orders, target.read(tmp), file);
+                Files.move(tmp, converted, StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(file);
+            } catch (IOException e) {
+                throw new FlooringException("Could not convert " + file, e);
+            } finally {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    // only a leftover temp file
+                }
+            }
+        }
+
+        //positions in the number index and the revenue stamps belong to the old files, the DAO rebuilds both
+        try {
+            if (!files.isEmpty()) {
+                Files.deleteIfExists(folder.resolve(INDEX_FILE));
+                Files.deleteIfExists(folder.resolve(REVENUE_FILE));
+            }
+        } catch (IOException e) {
+            throw new FlooringException("Could not remove the order index in " + folder, e);
+        }
+        return files.size();
+    }
+
+    private static void verify(List<Order> expected, List<Order> actual, Path file) throws FlooringException {
+        if (expected.size() != actual.size()) {
+            throw new FlooringException("Conversion of " + file + " lost rows, source left in place");
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            String before = OrderDaoFileImpl.marshallOrder(expected.get(i));
+            if (!before.equals(OrderDaoFileImpl.marshallOrder(actual.get(i)))) {
+                throw new FlooringException("Conversion of " + file + " changed row " + (i + 1) + ", source left in place");
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: OrderFileConverter <ordersFolder> <text|binary> <text|binary>");
+            System.exit(2);
+        }
+        try {
+            StorageFormat from = StorageFormat.valueOf(args[1].toUpperCase());
+            StorageFormat to = StorageFormat.valueOf(args[2].toUpperCase());
+            int converted = new OrderFileConverter(Paths.get(args[0])).convert(from, to);
+            System.out.println("Converted " + converted + " date files from " + from + " to " + to);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Format must be text or binary");
+            System.exit(2);
+        } catch (FlooringException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
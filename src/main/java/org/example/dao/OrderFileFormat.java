@@ -0,0 +1,62 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How one date's orders are laid out in its file. OrderDaoFileImpl owns naming, locking,
+ * caching and the journal, a format only turns a list of orders into a file and back.
+ */
+interface OrderFileFormat {
+
+    /**
+     * File name extension including the dot, e.g. ".txt".
+     */
+    String extension();
+
+    /**
+     * Reads every order in an existing file, in file order.
+     */
+    List<Order> read(Path file) throws IOException;
+
+    /**
+     * Replaces the file with the given orders.
+     *
+     * @return order number to a position that readAt understands, or UNKNOWN_OFFSET
+     */
+    Map<Integer, Long> write(Path file, List<Order> orders) throws IOException;
+
+    /**
+     * Writes the same bytes write(Path, ...) would put in a file to out, which is closed.
+     * Positions are relative to the first byte written.
+     */
+    Map<Integer, Long> write(OutputStream out, List<Order> orders) throws IOException;
+
+    /**
+     * Reads the orders in bytes (position to limit), laid out as write produces them.
+     */
+    List<Order> read(ByteBuffer bytes) throws IOException;
+
+    /**
+     * scanOffsets for bytes laid out as write produces them, positions relative to bytes' position.
+     */
+    Map<Integer, Long> scanOffsets(ByteBuffer bytes) throws IOException;
+
+    /**
+     * Decodes the single order at a position returned by write or scanOffsets.
+     *
+     * @return the order, or null if there is no order at that position
+     */
+    Order readAt(Path file, long offset) throws IOException;
+
+    /**
+     * Order number to position for every order in the file, decoding as little as possible.
+     */
+    Map<Integer, Long> scanOffsets(Path file) throws IOException;
+}
@@ -0,0 +1,214 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only log of order mutations, one file per date (Orders_MMddyyyy.journal).
+ * Each line is an operation code, a comma and a payload:
+ * A = added order, E = edited order (payload is the marshalled order), R = removed order number.
+ * Replaying is last-write-wins per order number, so replaying a journal on top of a base file
+ * that already contains some of its entries gives the same result.
+ */
+final class OrderJournal {
+
+    static final char ADD = 'A';
+    static final char EDIT = 'E';
+    static final char REMOVE = 'R';
+
+    private static final String EXTENSION = ".journal";
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("MMddyyyy");
+
+    private final Path folder;
+    //decides whether an append is forced to disk before it returns
+    private final DurableFiles files;
+    //entries appended since the last compaction, used to trigger compaction
+    private final Map<LocalDate, AtomicInteger> pending = new ConcurrentHashMap<>();
+
+    OrderJournal(Path folder, DurableFiles files) {
+        this.folder = folder;
+        this.files = files;
+    }
+
+    static final class Entry {
+        final char op;
+        final String payload;
+        //only on entries read back: the order of an add or edit, and every entry's order number
+        final Order order;
+        final int orderNumber;
+
+        Entry(char op, String payload) {
+            this(op, payload, null, 0);
+        }
+
+        private Entry(char op, String payload, Order order, int orderNumber) {
+            this.op = op;
+            this.payload = payload;
+            this.order = order;
+            this.orderNumber = orderNumber;
+        }
+    }
+
+    //the records of a journal file and the length in bytes of the part that holds them
+    private static final class Records {
+        final List<Entry> entries = new ArrayList<>();
+        long length;
+    }
+
+    /**
+     * Appends records to the date's journal in one write, in list order.
+     *
+     * @return number of records appended for that date since it was last compacted
+     */
+    int append(LocalDate date, List<Entry> entries) throws FlooringException {
+        Path file = journalFile(date);
+        boolean created = !Files.exists(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            BufferedWriter out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+            for (Entry entry : entries) {
+                out.write(entry.op);
+                out.write(',');
+                out.write(entry.payload);
+                out.newLine();
+            }
+            out.flush();
+            files.appended(file, channel, created);
+        } catch (IOException e) {
+            throw new FlooringException("Error appending to journal: " + file, e);
+        }
+        return pending.computeIfAbsent(date, d -> new AtomicInteger()).addAndGet(entries.size());
+    }
+
+    List<Entry> read(LocalDate date) throws FlooringException {
+        Path file = journalFile(date);
+        if (!Files.exists(file)) return new ArrayList<>();
+        try {
+            return records(file).entries;
+        } catch (IOException e) {
+            throw new FlooringException("Could not read journal for " + date, e);
+        }
+    }
+
+    /**
+     * Cuts a record torn by a crash mid-append off the end of the date's journal, so the next
+     * append starts on a line of its own. Only called before anything appends (on startup).
+     *
+     * @return true if something was cut off
+     */
+    boolean dropTornTail(LocalDate date) throws FlooringException {
+        Path file = journalFile(date);
+        if (!Files.exists(file)) return false;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            long length = records(file).length;
+            if (length == channel.size()) return false;
+            channel.truncate(length);
+            files.appended(file, channel, false);
+            return true;
+        } catch (IOException e) {
+            throw new FlooringException("Could not repair journal for " + date, e);
+        }
+    }
+
+    /*
+     * Every record ends with a new line. A last line without one, or one that does not parse, is
+     * an append a crash cut short and is left out; a bad record further up is corruption.
+     */
+    private static Records records(Path file) throws IOException, FlooringException {
+        byte[] bytes = Files.readAllBytes(file);
+        Records records = new Records();
+        OrderLineParser parser = new OrderLineParser();
+        int lineNumber = 0;
+        for (int start = 0, end; start < bytes.length && (end = indexOf(bytes, '\n', start)) >= 0; start = end + 1) {
+            lineNumber++;
+            int to = end > start && bytes[end - 1] == '\r' ? end - 1 : end;
+            String line = new String(bytes, start, to - start, StandardCharsets.UTF_8);
+            if (!line.isBlank()) {
+                Entry entry = parse(line, parser);
+                if (entry == null) {
+                    if (end + 1 < bytes.length) throw new FlooringException("Corrupt record on line " + lineNumber + " of " + file);
+                    break; // the last line: torn
+                }
+                records.entries.add(entry);
+            }
+            records.length = end + 1;
+        }
+        return records;
+    }
+
+    //null if the line is not a whole record
+    private static Entry parse(String line, OrderLineParser parser) {
+        if (line.length() < 3 || line.charAt(1) != ',') return null;
+        char op = line.charAt(0);
+        String payload = line.substring(2);
+        try {
+            if (op == REMOVE) return new Entry(op, payload, null, Integer.parseInt(payload));
+            if (op != ADD && op != EDIT) return null;
+            Order order = parser.parseLine(payload);
+            return new Entry(op, payload, order, order.getOrderNumber());
+        } catch (NumberFormatException | FlooringException e) {
+            return null;
+        }
+    }
+
+    private static int indexOf(byte[] bytes, char c, int from) {
+        for (int i = from; i < bytes.length; i++) if (bytes[i] == c) return i;
+        return -1;
+    }
+
+    FileStamp stamp(LocalDate date) throws IOException {
+        return FileStamp.ofNullable(journalFile(date));
+    }
+
+    boolean exists(LocalDate date) {
+        return Files.exists(journalFile(date));
+    }
+
+    void delete(LocalDate date) throws FlooringException {
+        try {
+            Files.deleteIfExists(journalFile(date));
+            pending.remove(date);
+        } catch (IOException e) {
+            throw new FlooringException("Could not delete journal for " + date, e);
+        }
+    }
+
+    //dates that currently have a journal on disk, including ones left over from a previous run
+    List<LocalDate> journaledDates() throws FlooringException {
+        List<LocalDate> dates = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder, "Orders_*" + EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String datePart = name.substring("Orders_".length(), name.length() - EXTENSION.length());
+                try {
+                    dates.add(LocalDate.parse(datePart, FILE_DATE_FORMAT));
+                } catch (DateTimeParseException e) {
+                    // not one of ours, ignore it
+                }
+            }
+        } catch (IOException e) {
+            throw new FlooringException("Could not list journals in " + folder, e);
+        }
+        return dates;
+    }
+
+    private Path journalFile(LocalDate date) {
+        return folder.resolve("Orders_" + date.format(FILE_DATE_FORMAT) + EXTENSION);
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Moves an orders folder from one StorageLayout to the other, a month at a time. Every month
+ * is written in the new layout and read back row by row before its old files are deleted, so
+ * the source stays intact until its copy is known to be good. The target always wins over
+ * what is already there for the same dates, so an interrupted migration can simply be run again.
+ * Run it while the application is stopped and after it shut down cleanly (no journals left).
+ * Usage: OrderLayoutMigrator &lt;ordersFolder&gt; &lt;text|binary&gt; &lt;daily|monthly&gt; &lt;daily|monthly&gt;
+ */
+public final class OrderLayoutMigrator {
+
+    private static final String INDEX_FILE = "orders.idx";
+    private static final String REVENUE_FILE = "orders.agg";
+
+    private final Path folder;
+    private final StorageFormat format;
+
+    public OrderLayoutMigrator(Path folder, StorageFormat format) {
+        this.folder = folder;
+        this.format = format;
+    }
+
+    /**
+     * @return number of dates migrated
+     */
+    public int migrate(StorageLayout from, StorageLayout to) throws FlooringException {
+        if (from == to) return 0;
+        int migrated = 0;
+        try (DurableFiles files = new DurableFiles(folder, true, FsyncPolicy.BATCH, 0)) {
+            //journal entries are keyed by date only, but are folded into whatever layout is active at the time
+            if (!new OrderJournal(folder, files).journaledDates().isEmpty()) {
+                throw new FlooringException("Journals pending in " + folder + ", start and stop the application once to compact them");
+            }
+            OrderFileFormat orderFormat = format.newFormat(-1);
+            IoStats ioStats = new IoStats();
+            OrderStorage source = from.newStorage(folder, orderFormat, files, ioStats);
+            OrderStorage target = to.newStorage(folder, orderFormat, files, ioStats);
+
+            Map<YearMonth, Map<LocalDate, List<Order>>> months = new TreeMap<>();
+            for (LocalDate date : source.dates()) {
+                months.computeIfAbsent(YearMonth.from(date), m -> new TreeMap<>()).put(date, null);
+            }
+            for (Map.Entry<YearMonth, Map<LocalDate, List<Order>>> month : months.entrySet()) {
+                Map<LocalDate, List<Order>> days = month.getValue();
+                for (LocalDate date : days.keySet()) days.put(date, source.read(date));
+
+                if (target instanceof MonthlyOrderStorage) {
+                    ((MonthlyOrderStorage) target).writeMonth(month.getKey(), days);
+                } else {
+                    for (Map.Entry<LocalDate, List<Order>> day : days.entrySet()) target.write(day.getKey(), day.getValue());
+                }
+                for (Map.Entry<LocalDate, List<Order>> day : days.entrySet()) {
+                    verify(day.getValue(), target.read(day.getKey()), day.getKey());
+                }
+
+                //one file for a month segment, one per date otherwise
+                Set<Path> sourceFiles = new LinkedHashSet<>();
+                for (LocalDate date : days.keySet()) sourceFiles.add(source.fileOf(date));
+                for (Path file : sourceFiles) Files.delete(file);
+                migrated += days.size();
+            }
+
+            //positions in the number index and the revenue stamps belong to the old files, the DAO rebuilds both
+            if (migrated > 0) {
+                Files.deleteIfExists(folder.resolve(INDEX_FILE));
+                Files.deleteIfExists(folder.resolve(REVENUE_FILE));
+            }
+        } catch (IOException e) {
+            throw new FlooringException("Could not migrate orders in " + folder + ": " + e.getMessage(), e);
+        }
+        return migrated;
+    }
+
+    private static void verify(List<Order> expected, List<Order> actual, LocalDate date) throws FlooringException {
+        if (expected.size() != actual.size()) {
+            throw new FlooringException("Migration of " + date + " lost rows, source left in place");
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            String before = OrderDaoFileImpl.marshallOrder(expected.get(i));
+            if (!before.equals(OrderDaoFileImpl.marshallOrder(actual.get(i)))) {
+                throw new FlooringException("Migration of " + date + " changed row " + (i + 1) + ", source left in place");
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 4) {
+            System.err.println("Usage: OrderLayoutMigrator <ordersFolder> <text|binary> <daily|monthly> <daily|monthly>");
+            System.exit(2);
+        }
+        try {
+            StorageFormat format = StorageFormat.valueOf(args[1].toUpperCase());
+            StorageLayout from = StorageLayout.valueOf(args[2].toUpperCase());
+            StorageLayout to = StorageLayout.valueOf(args[3].toUpperCase());
+            int migrated = new OrderLayoutMigrator(Paths.get(args[0]), format).migrate(from, to);
+            System.out.println("Migrated " + migrated + " dates from " + from + " to " + to);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Format must be text or binary, layout daily or monthly");
+            System.exit(2);
+        } catch (FlooringException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hand rolled parser for order lines, used instead of Scanner and String.split.
+ * It scans a char buffer in place: numbers are built straight from char ranges
+ * (plain decimals as a long and a scale, anything else via the char[] constructor),
+ * the few distinct states and product types share one String each, and recently
+ * seen decimals are shared as well. Only the customer name is copied per row.
+ *
+ * Fields are located from both ends of the line (order number first, the ten fields
+ * after the name from the right), so a comma inside a customer name does not shift
+ * the other columns. Not thread safe, use one instance per read.
+ */
+public final class OrderLineParser {
+
+    private static final int FIELDS = 12;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    //tiny open addressing table for State and ProductType values
+    private final String[] dictionary = new String[64];
+    //direct mapped cache of recently parsed decimals, keyed by unscaled value and scale
+    private final BigDecimal[] decimals = new BigDecimal[256];
+    private final long[] decimalKeys = new long[256];
+    //field boundaries of the current line: start of field i is bounds[2i], end is bounds[2i+1]
+    private final int[] bounds = new int[FIELDS * 2];
+
+    /**
+     * Parses every order line from the reader, skipping the header line and blank lines.
+     */
+    public List<Order> parseAll(Reader in) throws IOException, FlooringException {
+        List<Order> orders = new ArrayList<>();
+        char[] buf = new char[BUFFER_SIZE];
+        int length = 0;       // chars currently in buf
+        int lineStart = 0;    // start of the line being scanned
+        int scanFrom = 0;     // where to continue looking for a new line
+        boolean header = true;
+
+        while (true) {
+            int read = in.read(buf, length, buf.length - length);
+            if (read < 0) break;
+            length += read;
+
+            for (int i = scanFrom; i < length; i++) {
+                if (buf[i] != '\n') continue;
+                if (header) header = false;
+                else addLine(orders, buf, lineStart, i);
+                lineStart = i + 1;
+            }
+
+            //moving the unfinished line to the front, growing the buffer for very long lines
+            int remaining = length - lineStart;
+            if (lineStart == 0 && length == buf.length) {
+                char[] bigger = new char[buf.length * 2];
+                System.arraycopy(buf, 0, bigger, 0, length);
+                buf = bigger;
+            } else {
+                System.arraycopy(buf, lineStart, buf, 0, remaining);
+            }
+            length = remaining;
+            scanFrom = remaining;
+            lineStart = 0;
+        }
+        if (!header && length > 0) addLine(orders, buf, 0, length); // last line without a new line
+        return orders;
+    }
+
+    /**
+     * Parses every order line from the bytes between position and limit (e.g. a mapped file),
+     * skipping the header line and blank lines. ASCII lines are widened straight into a reused
+     * char buffer, only lines with other characters are decoded with the charset.
+     */
+    public List<Order> parseAll(ByteBuffer bytes, Charset charset) throws FlooringException {
+        List<Order> orders = new ArrayList<>();
+        char[] line = new char[256];
+        int limit = bytes.limit();
+        int pos = bytes.position();
+        boolean header = true;
+
+        while (pos < limit) {
+            int end = pos;
+            boolean ascii = true;
+            for (byte b; end < limit && (b = bytes.get(end)) != '\n'; end++) {
+                int length = end - pos;
+                if (length == line.length) line = Arrays.copyOf(line, length * 2);
+                line[length] = (char) b;
+                if (b < 0) ascii = false;
+            }
+            if (header) {
+                header = false;
+            } else if (ascii) {
+                addLine(orders, line, 0, end - pos);
+            } else {
+                char[] decoded = charset.decode(bytes.duplicate().position(pos).limit(end)).toString().toCharArray();
+                addLine(orders, decoded, 0, decoded.length);
+            }
+            pos = end + 1;
+        }
+        return orders;
+    }
+
+    public Order parseLine(String line) throws FlooringException {
+        char[] chars = line.toCharArray();
+        return parseLine(chars, 0, chars.length);
+    }
+
+    /**
+     * Parses the order in buf[from, to), a trailing '\r' is ignored.
+     */
+    public Order parseLine(char[] buf, int from, int to) throws FlooringException {
+        if (to > from && buf[to - 1] == '\r') to--;
+        if (!split(buf, from, to)) {
+            throw new FlooringException("Malformed order line: " + new String(buf, from, to - from));
+        }
+        try {
+            Order order = new Order();
+            order.setOrderNumber(parseInt(buf, bounds[0], bounds[1]));
+            order.setCustomerName(new String(buf, bounds[2], bounds[3] - bounds[2]));
+            order.setState(dictionaryString(buf, bounds[4], bounds[5]));
+            order.setTaxRate(decimal(buf, 3));
+            order.setProductType(dictionaryString(buf, bounds[8], bounds[9]));
+            order.setArea(decimal(buf, 5));
+            order.setCostPerSquareFoot(decimal(buf, 6));
+            order.setLaborCostPerSquareFoot(decimal(buf, 7));
+            order.setMaterialCost(decimal(buf, 8));
+            order.setLaborCost(decimal(buf, 9));
+            order.setTax(decimal(buf, 10));
+            order.setTotal(decimal(buf, 11));
+            return order;
+        } catch (NumberFormatException e) {
+            throw new FlooringException("Malformed order line: " + new String(buf, from, to - from), e);
+        }
+    }
+
+    private void addLine(List<Order> orders, char[] buf, int from, int to) throws FlooringException {
+        int end = to;
+        if (end > from && buf[end - 1] == '\r') end--;
+        if (isBlank(buf, from, end)) return;
+        orders.add(parseLine(buf, from, end));
+    }
+
+    //finds the field boundaries, false if the line does not have enough fields
+    private boolean split(char[] buf, int from, int to) {
+        int firstComma = indexOf(buf, from, to);
+        if (firstComma < 0) return false;
+        bounds[0] = from;
+        bounds[1] = firstComma;
+
+        //the last ten fields never contain commas, take them from the right
+        int end = to;
+        for (int field = FIELDS - 1; field >= 2; field--) {
+            int comma = lastIndexOf(buf, firstComma + 1, end);
+            if (comma < 0) return false;
+            bounds[field * 2] = comma + 1;
+            bounds[field * 2 + 1] = end;
+            end = comma;
+        }
+        //whatever is left in the middle is the customer name
+        bounds[2] = firstComma + 1;
+        bounds[3] = end;
+        return bounds[3] >= bounds[2];
+    }
+
+    private BigDecimal decimal(char[] buf, int field) {
+        int start = bounds[field * 2];
+        int end = bounds[field * 2 + 1];
+
+        //fast path for plain "123.45" values that fit a long, same value and scale as the constructor gives
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) scale++;
+                if (++digits > 18) return new BigDecimal(buf, start, end - start);
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                //signs, exponents and anything odd go through the full constructor
+                return new BigDecimal(buf, start, end - start);
+            }
+        }
+        if (digits == 0) return new BigDecimal(buf, start, end - start); // throws for "" and "."
+        return sharedDecimal(unscaled, Math.max(scale, 0));
+    }
+
+    //BigDecimal is immutable, so rates, prices and common amounts can be one instance per parser
+    private BigDecimal sharedDecimal(long unscaled, int scale) {
+        int slot = (int) ((unscaled * 31 + scale) ^ (unscaled >>> 32)) & (decimals.length - 1);
+        BigDecimal cached = decimals[slot];
+        if (cached != null && decimalKeys[slot] == unscaled && cached.scale() == scale) return cached;
+        BigDecimal value = BigDecimal.valueOf(unscaled, scale);
+        decimals[slot] = value;
+        decimalKeys[slot] = unscaled;
+        return value;
+    }
+
+    private static int parseInt(char[] buf, int from, int to) {
+        if (from == to) throw new NumberFormatException("empty order number");
+        boolean negative = buf[from] == '-';
+        int i = negative || buf[from] == '+' ? from + 1 : from;
+        if (i == to) throw new NumberFormatException("no digits in order number");
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException("bad digit in order number");
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) throw new NumberFormatException("order number too large");
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) throw new NumberFormatException("order number too large");
+        return (int) value;
+    }
+
+    //returns a shared String for values seen before (states, product types)
+    private String dictionaryString(char[] buf, int from, int to) {
+        int length = to - from;
+        int hash = 0;
+        for (int i = from; i < to; i++) hash = 31 * hash + buf[i];
+        int mask = dictionary.length - 1;
+        for (int probe = 0; probe < dictionary.length; probe++) {
+            int slot = (hash + probe) & mask;
+            String candidate = dictionary[slot];
+            if (candidate == null) {
+                String value = new String(buf, from, length);
+                dictionary[slot] = value;
+                return value;
+            }
+            if (candidate.length() == length && sameChars(candidate, buf, from)) return candidate;
+        }
+        return new String(buf, from, length); // table full, just allocate
+    }
+
+    private static boolean sameChars(String s, char[] buf, int from) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) != buf[from + i]) return false;
+        }
+        return true;
+    }
+
+    private static int indexOf(char[] buf, int from, int to) {
+        for (int i = from; i < to; i++) if (buf[i] == ',') return i;
+        return -1;
+    }
+
+    private static int lastIndexOf(char[] buf, int from, int to) {
+        for (int i = to - 1; i >= from; i--) if (buf[i] == ',') return i;
+        return -1;
+    }
+
+    private static boolean isBlank(char[] buf, int from, int to) {
+        for (int i = from; i < to; i++) if (!Character.isWhitespace(buf[i])) return false;
+        return true;
+    }
+}
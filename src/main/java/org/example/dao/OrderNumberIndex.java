@@ -0,0 +1,262 @@
+package org.example.dao;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent map of order number to the date file holding it and the byte offset of its line.
+ *
+ * On disk it is an append-only log (orders.idx) of "number,MMddyyyy,offset" lines and
+ * "number,-" removals, replayed last-write-wins on load and rewritten compactly when it has
+ * grown much larger than the live entries. An offset of -1 means the row is not at a known
+ * place in the date file (e.g. it only lives in a journal yet).
+ *
+ * Like the revenue rollups, every date also keeps the stamps of the date and journal files
+ * its entries describe ("@,MMddyyyy,dataModified,dataSize,journalModified,journalSize",
+ * appended after the entries). The log is never fsynced: a crash between a date write and its
+ * log append, or a date file restored by hand, leaves stamps that do not match and the DAO
+ * rescans those dates on startup (see replaceDates).
+ *
+ * Order numbers are unique across all dates. Folders written before that held numbers per
+ * date, replaceDates refuses them until OrderRenumberer has been run.
+ */
+final class OrderNumberIndex implements AutoCloseable {
+
+    static final long UNKNOWN_OFFSET = -1L;
+
+    private static final String REMOVED = "-";
+    private static final String STAMPS = "@";
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("MMddyyyy");
+
+    private final Path file;
+    private final Map<Integer, Location> locations = new ConcurrentHashMap<>();
+    //data and journal stamps per date
+    private final Map<LocalDate, FileStamp[]> stamps = new ConcurrentHashMap<>();
+    private BufferedWriter log;
+
+    static final class Location {
+        final LocalDate date;
+        final long offset;
+
+        Location(LocalDate date, long offset) {
+            this.date = date;
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Location)) return false;
+            Location other = (Location) o;
+            return offset == other.offset && date.equals(other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(date, offset);
+        }
+    }
+
+    OrderNumberIndex(Path file) {
+        this.file = file;
+    }
+
+    boolean exists() {
+        return Files.exists(file);
+    }
+
+    /**
+     * Replays the log from disk, compacting it if it is mostly superseded entries.
+     */
+    synchronized void load() throws FlooringException {
+        int lines = 0;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] tokens = line.split(",");
+                try {
+                    if (tokens.length == 6 && STAMPS.equals(tokens[0])) {
+                        stamps.put(LocalDate.parse(tokens[1], FILE_DATE_FORMAT), new FileStamp[]{
+                                FileStamp.of(Long.parseLong(tokens[2]), Long.parseLong(tokens[3])),
+                                FileStamp.of(Long.parseLong(tokens[4]), Long.parseLong(tokens[5]))});
+                        lines++;
+                        continue;
+                    }
+                    int number = Integer.parseInt(tokens[0]);
+                    if (tokens.length == 2 && REMOVED.equals(tokens[1])) {
+                        locations.remove(number);
+                    } else if (tokens.length == 3) {
+                        locations.put(number, new Location(LocalDate.parse(tokens[1], FILE_DATE_FORMAT), Long.parseLong(tokens[2])));
+                    }
+                    lines++;
+                } catch (RuntimeException e) {
+                    // torn line from a crash, the entries after it are still good
+                }
+            }
+        } catch (IOException e) {
+            throw new FlooringException("Could not read order index " + file, e);
+        }
+        if (lines > 2 * (locations.size() + stamps.size()) + 1024) {
+            rewrite();
+        }
+    }
+
+    //whether the date's entries were recorded for exactly these files
+    boolean isCurrent(LocalDate date, FileStamp dataStamp, FileStamp journalStamp) {
+        FileStamp[] recorded = stamps.get(date);
+        return recorded != null && recorded[0].equals(dataStamp) && recorded[1].equals(journalStamp);
+    }
+
+    //whether the index describes exactly these dates, no more
+    boolean isUpToDateWith(Set<LocalDate> current) {
+        return stamps.keySet().equals(current);
+    }
+
+    /**
+     * Replaces the entries of the given dates with freshly scanned ones and drops everything on
+     * dates that are no longer on disk, then rewrites the log. Used on startup for every date whose stamps did not
+     * match (all of them when there was no index).
+     *
+     * @param scanned number -> offset per date, with the stamps taken before the scan
+     * @param current every date on disk, the scanned ones included
+     * @throws FlooringException if a number turns up on two dates, nothing is changed then
+     */
+    synchronized void replaceDates(Map<LocalDate, Map<Integer, Long>> scanned, Map<LocalDate, FileStamp[]> scannedStamps,
+                                   Set<LocalDate> current) throws FlooringException {
+        Map<Integer, Location> merged = new HashMap<>();
+        for (Map.Entry<Integer, Location> e : locations.entrySet()) {
+            LocalDate date = e.getValue().date;
+            if (current.contains(date) && !scanned.containsKey(date)) merged.put(e.getKey(), e.getValue());
+        }
+        Map<Integer, LocalDate> duplicates = new TreeMap<>();
+        for (Map.Entry<LocalDate, Map<Integer, Long>> date : new TreeMap<>(scanned).entrySet()) {
+            for (Map.Entry<Integer, Long> e : date.getValue().entrySet()) {
+                Location other = merged.putIfAbsent(e.getKey(), new Location(date.getKey(), e.getValue()));
+                if (other != null) duplicates.put(e.getKey(), other.date);
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            StringBuilder sample = new StringBuilder();
+            int shown = 0;
+            for (Map.Entry<Integer, LocalDate> e : duplicates.entrySet()) {
+                if (shown++ == 5) break;
+                sample.append(shown == 1 ? "" : ", ").append('#').append(e.getKey()).append(" (").append(e.getValue()).append(" and later)");
+            }
+            throw new FlooringException(duplicates.size() + " order numbers are used on more than one date, e.g. " + sample
+                    + ". Order numbers are unique across dates now, renumber the folder first:"
+                    + " java -cp target/classes org.example.dao.OrderRenumberer <ordersFolder> <text|binary> <daily|monthly>");
+        }
+        locations.clear();
+        locations.putAll(merged);
+        stamps.keySet().retainAll(current);
+        stamps.putAll(scannedStamps);
+        rewrite();
+    }
+
+    Location get(int orderNumber) {
+        return locations.get(orderNumber);
+    }
+
+    int maxOrderNumber() {
+        int max = 0;
+        for (Integer number : locations.keySet()) max = Math.max(max, number);
+        return max;
+    }
+
+    /**
+     * Records new locations for a date and the stamps of its files after the write, only entries
+     * that actually moved are appended to the log.
+     */
+    synchronized void update(LocalDate date, Map<Integer, Long> offsets, Collection<Integer> removedNumbers,
+                             FileStamp dataStamp, FileStamp journalStamp) throws FlooringException {
+        StringBuilder changes = new StringBuilder();
+        for (Map.Entry<Integer, Long> e : offsets.entrySet()) {
+            Location location = new Location(date, e.getValue());
+            if (!location.equals(locations.put(e.getKey(), location))) {
+                changes.append(e.getKey()).append(',').append(date.format(FILE_DATE_FORMAT))
+                        .append(',').append(e.getValue()).append('\n');
+            }
+        }
+        for (Integer removedNumber : removedNumbers) {
+            Location current = locations.get(removedNumber);
+            if (current != null && current.date.equals(date)) {
+                locations.remove(removedNumber);
+                changes.append(removedNumber).append(',').append(REMOVED).append('\n');
+            }
+        }
+        //last, a crash before it leaves the date stale rather than half recorded
+        if (!isCurrent(date, dataStamp, journalStamp)) {
+            stamps.put(date, new FileStamp[]{dataStamp, journalStamp});
+            appendStamps(changes, date, dataStamp, journalStamp);
+        }
+        if (changes.length() > 0) append(changes);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (log == null) return;
+        try {
+            log.close();
+        } catch (IOException e) {
+            // nothing left to do on shutdown
+        }
+        log = null;
+    }
+
+    private void append(CharSequence lines) throws FlooringException {
+        try {
+            if (log == null) {
+                log = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            log.append(lines);
+            log.flush();
+        } catch (IOException e) {
+            throw new FlooringException("Could not update order index " + file, e);
+        }
+    }
+
+    private static void appendStamps(StringBuilder out, LocalDate date, FileStamp dataStamp, FileStamp journalStamp) {
+        out.append(STAMPS).append(',').append(date.format(FILE_DATE_FORMAT))
+                .append(',').append(dataStamp.lastModified()).append(',').append(dataStamp.size())
+                .append(',').append(journalStamp.lastModified()).append(',').append(journalStamp.size()).append('\n');
+    }
+
+    private void rewrite() throws FlooringException {
+        close();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<Integer, Location> e : locations.entrySet()) {
+                out.write(e.getKey() + "," + e.getValue().date.format(FILE_DATE_FORMAT) + "," + e.getValue().offset);
+                out.newLine();
+            }
+            StringBuilder dateStamps = new StringBuilder();
+            for (Map.Entry<LocalDate, FileStamp[]> e : stamps.entrySet()) {
+                appendStamps(dateStamps, e.getKey(), e.getValue()[0], e.getValue()[1]);
+            }
+            out.append(dateStamps);
+        } catch (IOException e) {
+            throw new FlooringException("Could not write order index " + tmp, e);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new FlooringException("Could not replace order index " + file, e);
+        }
+    }
+}
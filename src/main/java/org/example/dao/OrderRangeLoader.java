@@ -0,0 +1,126 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Loads the orders of a date range. Only dates that have orders on disk are read, a
+ * bounded window of them is loaded concurrently ahead of the consumer, and results always
+ * come back in date order. Loading is I/O bound, so on a JDK with virtual threads each
+ * date gets one; otherwise a small pool of daemon threads is used that winds down when idle.
+ */
+public class OrderRangeLoader {
+
+    private static final int DEFAULT_WINDOW = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    private final OrderDao orderDao;
+    private final ExecutorService executor;
+    private final int window;
+
+    public OrderRangeLoader(OrderDao orderDao) {
+        this(orderDao, TaskExecutors.newBlockingTaskExecutor("order-range-loader", DEFAULT_WINDOW), DEFAULT_WINDOW);
+    }
+
+    public OrderRangeLoader(OrderDao orderDao, ExecutorService executor, int window) {
+        this.orderDao = orderDao;
+        this.executor = executor;
+        this.window = Math.max(1, window);
+    }
+
+    /**
+     * Every order dated from..to (both included), oldest date first, file order within a date.
+     */
+    public List<Order> load(LocalDate from, LocalDate to) throws FlooringException {
+        List<Order> orders = new ArrayList<>();
+        try (DateBatches batches = new DateBatches(datesBetween(from, to))) {
+            while (batches.hasNext()) orders.addAll(batches.next());
+        }
+        return orders;
+    }
+
+    /**
+     * Same orders as load, but only the window of dates ahead of the consumer is in memory.
+     * Close the stream (try-with-resources) if it is not consumed to the end, so the
+     * loads still in flight are cancelled.
+     */
+    public Stream<Order> stream(LocalDate from, LocalDate to) throws FlooringException {
+        DateBatches batches = new DateBatches(datesBetween(from, to));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(batches::close)
+                .flatMap(List::stream);
+    }
+
+    private List<LocalDate> datesBetween(LocalDate from, LocalDate to) throws FlooringException {
+        if (to.isBefore(from)) throw new FlooringException("Range end " + to + " is before its start " + from);
+        //only dates with a file (or journal), so an empty quarter costs one directory listing
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date : orderDao.getOrderDates()) {
+            if (!date.isBefore(from) && !date.isAfter(to)) dates.add(date);
+        }
+        return dates;
+    }
+
+    //the orders of one date per element, keeping at most `window` dates loading or loaded ahead
+    private final class DateBatches implements Iterator<List<Order>>, AutoCloseable {
+        private final List<LocalDate> dates;
+        private final Deque<CompletableFuture<List<Order>>> inFlight = new ArrayDeque<>();
+        private int next;
+        private int consumed;
+
+        private DateBatches(List<LocalDate> dates) {
+            this.dates = dates;
+            fill();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return consumed < dates.size();
+        }
+
+        @Override
+        public List<Order> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            CompletableFuture<List<Order>> head = inFlight.poll();
+            consumed++;
+            fill();
+            return join(head);
+        }
+
+        private void fill() {
+            while (next < dates.size() && inFlight.size() < window) {
+                LocalDate date = dates.get(next++);
+                inFlight.add(CompletableFuture.supplyAsync(() -> orderDao.getOrdersByDate(date), executor));
+            }
+        }
+
+        @Override
+        public void close() {
+            inFlight.forEach(f -> f.cancel(true));
+            inFlight.clear();
+            next = consumed = dates.size();
+        }
+    }
+
+    private static List<Order> join(CompletableFuture<List<Order>> future) throws FlooringException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof FlooringException) throw (FlooringException) e.getCause();
+            throw new FlooringException("Could not load orders.", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Makes order numbers unique across dates. The DAO used to number every date on its own
+ * (highest number of that date plus one), so folders written back then repeat numbers
+ * across dates, and the DAO now refuses to start on them. Dates are walked oldest first:
+ * the first order holding a number keeps it, every later one gets the next number above
+ * the highest in the folder. Rows only change their number, and each date is replaced in
+ * one go, so an interrupted run can simply be run again.
+ * Run it while the application is stopped and after it shut down cleanly (no journals left).
+ * Usage: OrderRenumberer &lt;ordersFolder&gt; &lt;text|binary&gt; &lt;daily|monthly&gt;
+ */
+public final class OrderRenumberer {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    private final Path folder;
+    private final StorageFormat format;
+    private final StorageLayout layout;
+
+    public OrderRenumberer(Path folder, StorageFormat format, StorageLayout layout) {
+        this.folder = folder;
+        this.format = format;
+        this.layout = layout;
+    }
+
+    /**
+     * @return one "MM/dd/yyyy #old -> #new" line per renumbered order, empty if numbers were already unique
+     */
+    public List<String> renumber() throws FlooringException {
+        List<String> renumbered = new ArrayList<>();
+        try (DurableFiles files = new DurableFiles(folder, true, FsyncPolicy.BATCH, 0);
+             OrderArchive archive = new OrderArchive(folder, format.newFormat(-1).extension(), files, new IoStats(), 0)) {
+            if (!new OrderJournal(folder, files).journaledDates().isEmpty()) {
+                throw new FlooringException("Journals pending in " + folder + ", start and stop the application once to compact them");
+            }
+            OrderFileFormat orderFormat = format.newFormat(-1);
+            //archived dates are read from their zip, a renumbered one is written hot and replaces the
+            //archived copy on the next archiving run
+            OrderStorage storage = new TieredOrderStorage(layout.newStorage(folder, orderFormat, files, new IoStats()),
+                    archive, orderFormat);
+
+            List<LocalDate> dates = storage.dates();
+            int max = 0;
+            for (LocalDate date : dates) {
+                for (int number : storage.scanOffsets(date).keySet()) max = Math.max(max, number);
+            }
+
+            Set<Integer> seen = new HashSet<>();
+            for (LocalDate date : dates) {
+                List<Order> orders = storage.read(date);
+                boolean changed = false;
+                for (Order order : orders) {
+                    if (seen.add(order.getOrderNumber())) continue;
+                    int next = ++max;
+                    renumbered.add(date.format(DATE_FORMAT) + " #" + order.getOrderNumber() + " -> #" + next);
+                    order.setOrderNumber(next);
+                    seen.add(next);
+                    changed = true;
+                }
+                if (changed) storage.write(date, orders);
+            }
+        } catch (IOException e) {
+            throw new FlooringException("Could not renumber orders in " + folder + ": " + e.getMessage(), e);
+        }
+        return renumbered;
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: OrderRenumberer <ordersFolder> <text|binary> <daily|monthly>");
+            System.exit(2);
+        }
+        try {
+            StorageFormat format = StorageFormat.valueOf(args[1].toUpperCase());
+            StorageLayout layout = StorageLayout.valueOf(args[2].toUpperCase());
+            List<String> renumbered = new OrderRenumberer(Paths.get(args[0]), format, layout).renumber();
+            for (String line : renumbered) System.out.println(line);
+            System.out.println("Renumbered " + renumbered.size() + " orders");
+        } catch (IllegalArgumentException e) {
+            System.err.println("Format must be text or binary, layout daily or monthly");
+            System.exit(2);
+        } catch (FlooringException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
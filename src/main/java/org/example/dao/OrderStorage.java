@@ -0,0 +1,78 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where the orders of each date are kept on disk, see StorageLayout. OrderDaoFileImpl owns
+ * locking, caching, the journal and the indexes, a storage only reads and writes dates in
+ * the configured OrderFileFormat.
+ *
+ * Writes to one date are serialized by the caller (the date lock). Writes to different dates
+ * can run at the same time, a storage that keeps several dates in one file serializes those itself.
+ */
+interface OrderStorage {
+
+    /**
+     * The file that holds the date's orders, whether or not it exists.
+     */
+    Path fileOf(LocalDate date);
+
+    /**
+     * Every date with stored orders, a date whose last order was removed included, oldest first.
+     */
+    List<LocalDate> dates() throws IOException;
+
+    /**
+     * Changes whenever the stored orders of the date change, MISSING when nothing is stored.
+     */
+    FileStamp stamp(LocalDate date) throws IOException;
+
+    /**
+     * The stored orders of the date, an empty list if there are none.
+     */
+    List<Order> read(LocalDate date) throws IOException;
+
+    /**
+     * The date and every other date the same file read covers, each with the stamp of what was
+     * read. A date with nothing stored is left out.
+     */
+    Map<LocalDate, StoredDay> readAround(LocalDate date) throws IOException;
+
+    /**
+     * Replaces the stored orders of the date.
+     *
+     * @return order number to a position readAt understands, or UNKNOWN_OFFSET
+     */
+    Map<Integer, Long> write(LocalDate date, List<Order> orders) throws IOException;
+
+    /**
+     * Drops whatever is stored for the date, afterwards it has no stamp and no orders.
+     */
+    void delete(LocalDate date) throws IOException;
+
+    /**
+     * The single order at a position returned by write or scanOffsets, null if there is none.
+     */
+    Order readAt(LocalDate date, long position) throws IOException;
+
+    /**
+     * Order number to position for every stored order of the date, empty if there are none.
+     */
+    Map<Integer, Long> scanOffsets(LocalDate date) throws IOException;
+
+    final class StoredDay {
+        final List<Order> orders;
+        final FileStamp stamp;
+
+        StoredDay(List<Order> orders, FileStamp stamp) {
+            this.orders = orders;
+            this.stamp = stamp;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version numbers of the date partitions, so reads never wait for a writer and never see a
+ * date half written.
+ *
+ * A writer (holding the date lock) pins the version it starts from, bumps the date's number
+ * to odd, writes, publishes the new orders to the OrderCache under the next even number and
+ * only then bumps again and unpins. Readers take no lock: while a date is pinned they keep
+ * using the pinned orders, and a read that went to disk only counts if the number was even
+ * and did not move around it (a seqlock), so a file being rewritten is never handed out or
+ * cached. Pinned lists are read only and never change.
+ */
+final class OrderVersions {
+
+    private final Map<LocalDate, AtomicLong> numbers = new ConcurrentHashMap<>();
+    private final Map<LocalDate, List<Order>> pinned = new ConcurrentHashMap<>();
+
+    //0 for a date never written by this DAO
+    long current(LocalDate date) {
+        AtomicLong number = numbers.get(date);
+        return number == null ? 0 : number.get();
+    }
+
+    static boolean isWriting(long version) {
+        return (version & 1) == 1;
+    }
+
+    //the version readers use while a write of the date is in flight, null if there is none
+    List<Order> pinned(LocalDate date) {
+        return pinned.get(date);
+    }
+
+    /**
+     * Called with the date lock held, before any file of the date is touched.
+     *
+     * @return the number the new version is published under
+     */
+    long beginWrite(LocalDate date, List<Order> published) {
+        //pinned first: a reader that sees the odd number also finds the pin
+        pinned.put(date, published);
+        return numbers.computeIfAbsent(date, d -> new AtomicLong()).incrementAndGet() + 1;
+    }
+
+    //called once the new version is published, or the write failed and the old one still stands
+    void endWrite(LocalDate date) {
+        numbers.get(date).incrementAndGet();
+        pinned.remove(date);
+    }
+}
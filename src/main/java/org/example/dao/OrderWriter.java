@@ -0,0 +1,192 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Group commit for order mutations. Dates are spread over a fixed number of partitions, each
+ * with a bounded queue and one writer thread. The writer takes whatever is queued (up to
+ * maxBatch mutations), groups it by date and hands every date's mutations to the BatchWriter
+ * together, which applies them to one list and writes the date once. Under load a batch grows
+ * until a write covers everything that arrived while the previous one was running, so file
+ * writes per second stay flat while mutations per second go up.
+ *
+ * A full queue blocks the caller (back pressure). A mutation must not be submitted from a
+ * writer thread, i.e. from inside another mutation, it would wait for itself.
+ */
+final class OrderWriter implements AutoCloseable {
+
+    //one change to a date's orders, run on the writer thread under the date lock. It changes
+    //orders in place, records what it did in changes and returns the caller's result. It has
+    //to check everything before touching the list: a mutation that throws is left out of the
+    //batch, but anything it already changed would still be written.
+    interface Mutation<T> {
+        T apply(List<Order> orders, OrderChanges changes) throws FlooringException;
+    }
+
+    //persists a batch for one date and completes (or fails) every request in it
+    interface BatchWriter {
+        void write(LocalDate date, List<Request<?>> requests);
+    }
+
+    static final class Request<T> {
+        final LocalDate date;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        private final Mutation<T> mutation;
+        private T value;
+
+        Request(LocalDate date, Mutation<T> mutation) {
+            this.date = date;
+            this.mutation = mutation;
+        }
+
+        //false (and the future failed) if the mutation threw, e.g. an order that is not there
+        boolean apply(List<Order> orders, OrderChanges changes) {
+            try {
+                value = mutation.apply(orders, changes);
+                return true;
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return false;
+            }
+        }
+
+        //only once the batch is on disk
+        void complete() {
+            result.complete(value);
+        }
+
+        void fail(Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    //queued by close, a writer stops when it takes it
+    private static final Request<Void> STOP = new Request<>(null, null);
+
+    private final BatchWriter batchWriter;
+    private final int maxBatch;
+    private final List<BlockingQueue<Request<?>>> queues = new ArrayList<>();
+    private final List<Thread> writers = new ArrayList<>();
+    //submit holds the read side from the closed check to the enqueue, close takes the write side,
+    //so nothing can be queued behind a STOP and never be answered
+    private final ReentrantReadWriteLock closing = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder mutations = new LongAdder();
+
+    OrderWriter(BatchWriter batchWriter, int partitions, int queueCapacity, int maxBatch) {
+        if (partitions < 1 || queueCapacity < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("Writer threads, queue capacity and batch size must be at least 1");
+        }
+        this.batchWriter = batchWriter;
+        this.maxBatch = maxBatch;
+        for (int i = 0; i < partitions; i++) {
+            BlockingQueue<Request<?>> queue = new ArrayBlockingQueue<>(queueCapacity);
+            Thread writer = new Thread(() -> drain(queue), "order-writer-" + i);
+            writer.setDaemon(true);
+            queues.add(queue);
+            writers.add(writer);
+            writer.start();
+        }
+    }
+
+    /**
+     * Queues a mutation of the date, the future completes once it is written.
+     */
+    <T> CompletableFuture<T> submit(LocalDate date, Mutation<T> mutation) throws FlooringException {
+        Request<T> request = new Request<>(date, mutation);
+        closing.readLock().lock();
+        try {
+            if (closed) throw new FlooringException("Order storage is closed.");
+            queues.get(Math.floorMod(date.hashCode(), queues.size())).put(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FlooringException("Interrupted while waiting to save orders for " + date, e);
+        } finally {
+            closing.readLock().unlock();
+        }
+        return request.result;
+    }
+
+    //batches written and mutations in them since startup
+    String stats() {
+        long b = batches.sum();
+        long m = mutations.sum();
+        int queued = 0;
+        for (BlockingQueue<Request<?>> queue : queues) queued += queue.size();
+        return String.format("batches=%d mutations=%d avgBatch=%.1f queued=%d", b, m, b == 0 ? 0.0 : (double) m / b, queued);
+    }
+
+    /**
+     * Writes everything already queued, then stops the writer threads.
+     */
+    @Override
+    public void close() {
+        closing.writeLock().lock();
+        try {
+            if (closed) return;
+            closed = true;
+        } finally {
+            closing.writeLock().unlock();
+        }
+        boolean interrupted = false;
+        for (int i = 0; i < queues.size(); i++) {
+            while (true) {
+                try {
+                    queues.get(i).put(STOP);
+                    writers.get(i).join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true; // finish the shutdown, the orders are already accepted
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private void drain(BlockingQueue<Request<?>> queue) {
+        List<Request<?>> batch = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue; // only close stops a writer
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            //arrival order is kept within a date, dates are independent of each other
+            Map<LocalDate, List<Request<?>>> byDate = new LinkedHashMap<>();
+            for (Request<?> request : batch) {
+                if (request == STOP) stopping = true;
+                else byDate.computeIfAbsent(request.date, d -> new ArrayList<>()).add(request);
+            }
+            for (Map.Entry<LocalDate, List<Request<?>>> date : byDate.entrySet()) {
+                write(date.getKey(), date.getValue());
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(LocalDate date, List<Request<?>> requests) {
+        try {
+            batchWriter.write(date, requests);
+            batches.increment();
+            mutations.add(requests.size());
+        } catch (RuntimeException | Error e) {
+            //a writer thread never dies, whatever the batch writer did not answer fails
+            for (Request<?> request : requests) request.fail(e);
+        }
+    }
+}
@@ -1,54 +1,69 @@
 package org.example.dao;
 
 import org.example.model.Product;
-import org.springframework.stereotype.Repository;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Paths;
 import java.util.*;
-@Repository
+
 public class ProductDaoFileImpl implements ProductDao {
-    private final String PRODUCT_FILE = "src/main/resources/Data/Products.txt";
-    private final String DELIMITER = ",";
-    private Map<String, Product> products = new HashMap<>();
+    private static final String PRODUCT_FILE = "src/main/resources/Data/Products.txt";
+    private static final String DELIMITER = ",";
+
+    //immutable map of lowercase product type -> product, swapped atomically when the file changes
+    private final ReferenceDataFile<Map<String, Product>> products;
+
+    public ProductDaoFileImpl() {
+        this(PRODUCT_FILE);
+    }
+
+    public ProductDaoFileImpl(String productFile) {
+        this(productFile, ReferenceDataFile.DEFAULT_CHECK_INTERVAL_MILLIS);
+    }
+
+    //checkIntervalMillis: how long an edit of the file may go unnoticed, 0 looks at it on every lookup
+    public ProductDaoFileImpl(String productFile, long checkIntervalMillis) {
+        this.products = new ReferenceDataFile<>(Paths.get(productFile), "products", ProductDaoFileImpl::parseProducts, checkIntervalMillis);
+    }
 
 
     @Override
     public List<Product> getAllProducts() throws FlooringException {
-        loadProducts(); // Ensuring we have fresh data
-        return new ArrayList<>(products.values()); // Return all products from the hashmap
+        //copies, the snapshot is shared by every caller
+        List<Product> all = new ArrayList<>();
+        for (Product product : products.get().values()) all.add(new Product(product));
+        return all;
     }
 
 
     @Override
     public Product getProduct(String productType) throws FlooringException {
         if (productType == null || productType.isBlank()) return null;
-        loadProducts();
-        return products.get(productType.trim().toLowerCase()); // case insensitive and whitespace resistant
+        Product product = products.get().get(productType.trim().toLowerCase()); // case insensitive and whitespace resistant
+        return product == null ? null : new Product(product);
+    }
+
+    /**
+     * Reloads of the products file since startup.
+     */
+    public IoStats getIoStats() {
+        return products.ioStats();
     }
 
-    private void loadProducts() throws FlooringException {
-        products.clear();
-        try (Scanner scanner = new Scanner(new BufferedReader(new FileReader(PRODUCT_FILE)))) {
-            if (scanner.hasNextLine()) scanner.nextLine(); // skipping header
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                //splitting using the delimiter
-                String[] tokens = line.split(DELIMITER);
-                if (tokens.length == 3) {
-                    Product product = new Product();
-                    product.setProductType(tokens[0].trim());
-                    product.setCostPerSquareFoot(new BigDecimal(tokens[1].trim()));
-                    product.setLaborCostPerSquareFoot(new BigDecimal(tokens[2].trim()));
-                    products.put(product.getProductType().toLowerCase(), product); // storing lowercase
-                }
+    private static Map<String, Product> parseProducts(List<String> lines) {
+        Map<String, Product> parsed = new LinkedHashMap<>();
+        for (String line : lines) {
+            //splitting using the delimiter
+            String[] tokens = line.split(DELIMITER);
+            if (tokens.length == 3) {
+                Product product = new Product();
+                product.setProductType(tokens[0].trim());
+                product.setCostPerSquareFoot(new BigDecimal(tokens[1].trim()));
+                product.setLaborCostPerSquareFoot(new BigDecimal(tokens[2].trim()));
+                parsed.put(product.getProductType().toLowerCase(), product); // storing lowercase
             }
-        } catch (IOException e) {
-            throw new FlooringException("Could not load products file.", e);
         }
+        return Collections.unmodifiableMap(parsed);
     }
 
 
@@ -0,0 +1,192 @@
+package org.example.dao;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a zip whose entries are either deflated here or copied from another zip as they are,
+ * still compressed: how OrderArchive adds days to a year without inflating and deflating the
+ * days it already holds. Reads plain zips as java.util.zip and this class write them; zip64,
+ * multi-disk and encrypted archives fail with an IOException.
+ */
+final class RawZipWriter implements AutoCloseable {
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL = 0x06054b50;
+    private static final int CENTRAL_HEADER_LENGTH = 46;
+    private static final int END_LENGTH = 22;
+    private static final int VERSION = 20;
+    private static final int DEFLATED = 8;
+
+    private final OutputStream out;
+    private final ByteArrayOutputStream central = new ByteArrayOutputStream();
+    //written once and read for years, worth the slowest level
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+    private long offset;
+    private int entries;
+
+    RawZipWriter(OutputStream out) {
+        this.out = new BufferedOutputStream(out, 1 << 16);
+    }
+
+    /**
+     * Copies every entry of source whose name is not in skip, compressed bytes and all.
+     */
+    void copyFrom(Path source, Set<String> skip) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            ByteBuffer end = endOfCentral(in, source);
+            int count = Short.toUnsignedInt(end.getShort(10));
+            long centralSize = Integer.toUnsignedLong(end.getInt(12));
+            long centralOffset = Integer.toUnsignedLong(end.getInt(16));
+            if (count == 0xFFFF || centralSize == 0xFFFFFFFFL || centralOffset == 0xFFFFFFFFL) {
+                throw new IOException(source + " is a zip64 archive");
+            }
+            ByteBuffer directory = readFully(in, centralOffset, (int) centralSize, source);
+
+            List<CentralRecord> records = new ArrayList<>(count);
+            for (int at = 0, i = 0; i < count; i++) {
+                if (directory.getInt(at) != CENTRAL_HEADER) throw new IOException("Corrupt central directory in " + source);
+                int length = CENTRAL_HEADER_LENGTH + Short.toUnsignedInt(directory.getShort(at + 28))
+                        + Short.toUnsignedInt(directory.getShort(at + 30)) + Short.toUnsignedInt(directory.getShort(at + 32));
+                byte[] name = new byte[Short.toUnsignedInt(directory.getShort(at + 28))];
+                directory.get(at + CENTRAL_HEADER_LENGTH, name);
+                records.add(new CentralRecord(new String(name, StandardCharsets.UTF_8), at, length,
+                        Integer.toUnsignedLong(directory.getInt(at + 42))));
+                at += length;
+            }
+
+            //an entry (local header, data and data descriptor) runs up to the next one, the last up to the directory
+            List<CentralRecord> byOffset = new ArrayList<>(records);
+            byOffset.sort(Comparator.comparingLong(r -> r.localOffset));
+            for (int i = 0; i < byOffset.size(); i++) {
+                byOffset.get(i).localEnd = i + 1 < byOffset.size() ? byOffset.get(i + 1).localOffset : centralOffset;
+            }
+
+            for (CentralRecord record : records) {
+                if (skip.contains(record.name)) continue;
+                ByteBuffer local = readFully(in, record.localOffset, (int) (record.localEnd - record.localOffset), source);
+                if (local.getInt(0) != LOCAL_HEADER) throw new IOException("Corrupt entry " + record.name + " in " + source);
+                byte[] header = new byte[record.length];
+                directory.get(record.at, header);
+                ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN).putInt(42, (int) offset);
+                central.write(header);
+                out.write(local.array(), 0, local.limit());
+                offset += local.limit();
+                entries++;
+            }
+        }
+    }
+
+    /**
+     * Adds an entry holding data, deflated.
+     */
+    void deflate(String name, byte[] data) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 64);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) compressed.write(chunk, 0, deflater.deflate(chunk));
+
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int dosTime = dosTime(LocalDateTime.now());
+        ByteBuffer local = littleEndian(30);
+        local.putInt(LOCAL_HEADER).putShort((short) VERSION).putShort((short) 0).putShort((short) DEFLATED)
+                .putInt(dosTime).putInt((int) crc.getValue()).putInt(compressed.size()).putInt(data.length)
+                .putShort((short) nameBytes.length).putShort((short) 0);
+        ByteBuffer record = littleEndian(CENTRAL_HEADER_LENGTH);
+        record.putInt(CENTRAL_HEADER).putShort((short) VERSION).putShort((short) VERSION).putShort((short) 0)
+                .putShort((short) DEFLATED).putInt(dosTime).putInt((int) crc.getValue()).putInt(compressed.size())
+                .putInt(data.length).putShort((short) nameBytes.length).putShort((short) 0).putShort((short) 0)
+                .putShort((short) 0).putShort((short) 0).putInt(0).putInt((int) offset);
+        central.write(record.array());
+        central.write(nameBytes);
+
+        out.write(local.array());
+        out.write(nameBytes);
+        compressed.writeTo(out);
+        offset += 30 + nameBytes.length + compressed.size();
+        entries++;
+    }
+
+    //writes the central directory, then closes the stream
+    @Override
+    public void close() throws IOException {
+        try {
+            if (entries > 0xFFFF - 1 || offset > 0xFFFFFFFFL - 1) throw new IOException("Too big for a plain zip");
+            central.writeTo(out);
+            ByteBuffer end = littleEndian(END_LENGTH);
+            end.putInt(END_OF_CENTRAL).putShort((short) 0).putShort((short) 0).putShort((short) entries)
+                    .putShort((short) entries).putInt(central.size()).putInt((int) offset).putShort((short) 0);
+            out.write(end.array());
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    //the end of central directory record, found from the back since a comment may follow it
+    private static ByteBuffer endOfCentral(FileChannel in, Path source) throws IOException {
+        long size = in.size();
+        int tail = (int) Math.min(size, END_LENGTH + 0xFFFF);
+        ByteBuffer bytes = readFully(in, size - tail, tail, source);
+        for (int at = tail - END_LENGTH; at >= 0; at--) {
+            if (bytes.getInt(at) == END_OF_CENTRAL) {
+                if (bytes.getShort(at + 4) != 0 || bytes.getShort(at + 6) != 0) throw new IOException(source + " spans several disks");
+                return bytes.slice(at, END_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        throw new IOException(source + " is not a zip file");
+    }
+
+    private static ByteBuffer readFully(FileChannel in, long position, int length, Path source) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (bytes.hasRemaining()) {
+            if (in.read(bytes, position + bytes.position()) < 0) throw new IOException(source + " is truncated");
+        }
+        return bytes.flip();
+    }
+
+    private static ByteBuffer littleEndian(int length) {
+        return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int dosTime(LocalDateTime time) {
+        return (time.getYear() - 1980) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16
+                | time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+    }
+
+    private static final class CentralRecord {
+        final String name;
+        //start and length of the record in the central directory
+        final int at;
+        final int length;
+        final long localOffset;
+        long localEnd;
+
+        CentralRecord(String name, int at, int length, long localOffset) {
+            this.name = name;
+            this.at = at;
+            this.length = length;
+            this.localOffset = localOffset;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.dao;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Holds an immutable, parsed copy of a small reference data file (products, taxes)
+ * behind an atomic reference. The file is only re-read when its stamp changes, and
+ * only re-parsed when its checksum changes, so readers never see a half built map.
+ * The stamp itself is checked at most once per check interval, in between lookups are
+ * plain map hits and an edit of the file shows up within that interval.
+ */
+final class ReferenceDataFile<T> {
+
+    //how often get() looks at the file by default, pricing an order does four lookups
+    static final long DEFAULT_CHECK_INTERVAL_MILLIS = 1000;
+
+    private final Path file;
+    private final String description;
+    private final Function<List<String>, T> parser;
+    private final AtomicReference<Snapshot<T>> current = new AtomicReference<>();
+    private final IoStats ioStats = new IoStats();
+    private final long checkIntervalNanos;
+    //System.nanoTime() of the last stamp check that found the file unchanged, racy on purpose
+    private volatile long checkedAt;
+
+    /**
+     * @param file                file to watch
+     * @param description         used in error messages, e.g. "products"
+     * @param parser              turns the data rows (header already skipped) into an immutable value
+     * @param checkIntervalMillis minimum time between two looks at the file's stamp, 0 checks on every get
+     */
+    ReferenceDataFile(Path file, String description, Function<List<String>, T> parser, long checkIntervalMillis) {
+        this.file = file;
+        this.description = description;
+        this.parser = parser;
+        this.checkIntervalNanos = TimeUnit.MILLISECONDS.toNanos(checkIntervalMillis);
+    }
+
+    T get() throws FlooringException {
+        Snapshot<T> snapshot = current.get();
+        long now = System.nanoTime();
+        if (snapshot != null && checkIntervalNanos > 0 && now - checkedAt < checkIntervalNanos) {
+            return snapshot.value; // checked recently, no I/O at all
+        }
+        try {
+            FileStamp stamp = FileStamp.of(file);
+            if (snapshot != null && snapshot.stamp.equals(stamp)) {
+                checkedAt = now;
+                return snapshot.value; // nothing changed, no I/O beyond the stat
+            }
+            T value = reload(snapshot, stamp);
+            checkedAt = now;
+            return value;
+        } catch (IOException e) {
+            throw new FlooringException("Could not load " + description + " file.", e);
+        }
+    }
+
+    //reloads of this file, an unchanged file never counts as a read
+    IoStats ioStats() {
+        return ioStats;
+    }
+
+    private T reload(Snapshot<T> previous, FileStamp stamp) throws IOException {
+        //stamp is taken before reading, so a concurrent change just causes one more reload later
+        long start = System.nanoTime();
+        byte[] bytes = Files.readAllBytes(file);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        long checksum = crc.getValue();
+
+        if (previous != null && previous.checksum == checksum) {
+            //file was touched but content is the same, keep the parsed value
+            current.compareAndSet(previous, new Snapshot<>(previous.value, stamp, checksum));
+            ioStats.recordRead(bytes.length, System.nanoTime() - start);
+            return previous.value;
+        }
+
+        List<String> rows = new String(bytes, StandardCharsets.UTF_8).lines()
+                .skip(1) // skipping header
+                .collect(Collectors.toList());
+        T value = parser.apply(rows);
+        current.set(new Snapshot<>(value, stamp, checksum));
+        ioStats.recordRead(bytes.length, System.nanoTime() - start);
+        return value;
+    }
+
+    private static final class Snapshot<T> {
+        private final T value;
+        private final FileStamp stamp;
+        private final long checksum;
+
+        private Snapshot(T value, FileStamp stamp, long checksum) {
+            this.value = value;
+            this.stamp = stamp;
+            this.checksum = checksum;
+        }
+    }
+}
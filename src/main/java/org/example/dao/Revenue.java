@@ -0,0 +1,75 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.math.BigDecimal;
+
+/**
+ * Summed order count and money columns of a group of orders. Immutable, adding or
+ * subtracting gives a new value; BigDecimal sums are exact, so adding an order and
+ * subtracting it again gets back to the same totals.
+ */
+public class Revenue {
+
+    public static final Revenue ZERO = new Revenue(0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+
+    private final long orders;
+    private final BigDecimal materialCost;
+    private final BigDecimal laborCost;
+    private final BigDecimal tax;
+    private final BigDecimal total;
+
+    public Revenue(long orders, BigDecimal materialCost, BigDecimal laborCost, BigDecimal tax, BigDecimal total) {
+        this.orders = orders;
+        this.materialCost = materialCost;
+        this.laborCost = laborCost;
+        this.tax = tax;
+        this.total = total;
+    }
+
+    static Revenue of(Order order) {
+        return new Revenue(1, orZero(order.getMaterialCost()), orZero(order.getLaborCost()),
+                orZero(order.getTax()), orZero(order.getTotal()));
+    }
+
+    public long getOrders() { return orders; }
+    public BigDecimal getMaterialCost() { return materialCost; }
+    public BigDecimal getLaborCost() { return laborCost; }
+    public BigDecimal getTax() { return tax; }
+    public BigDecimal getTotal() { return total; }
+
+    public Revenue plus(Revenue other) {
+        return new Revenue(orders + other.orders, materialCost.add(other.materialCost), laborCost.add(other.laborCost),
+                tax.add(other.tax), total.add(other.total));
+    }
+
+    public Revenue minus(Revenue other) {
+        return new Revenue(orders - other.orders, materialCost.subtract(other.materialCost),
+                laborCost.subtract(other.laborCost), tax.subtract(other.tax), total.subtract(other.total));
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Revenue)) return false;
+        Revenue other = (Revenue) o;
+        //compareTo so 10.5 and 10.50 are the same amount
+        return orders == other.orders && materialCost.compareTo(other.materialCost) == 0
+                && laborCost.compareTo(other.laborCost) == 0 && tax.compareTo(other.tax) == 0
+                && total.compareTo(other.total) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(orders) * 31 + total.stripTrailingZeros().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("orders=%d material=%s labor=%s tax=%s total=%s", orders, materialCost, laborCost, tax, total);
+    }
+}
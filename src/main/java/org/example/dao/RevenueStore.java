@@ -0,0 +1,175 @@
+package org.example.dao;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent per-day revenue rollups, so reports over months or years do not have to
+ * read the order files.
+ *
+ * On disk it is an append-only log (orders.agg) with one line per day update:
+ * "MMddyyyy,dataModified,dataSize,journalModified,journalSize" followed by
+ * ",state,product,orders,material,labor,tax,total" for every cell. It is replayed
+ * last-write-wins on load and rewritten compactly when mostly superseded. Each day keeps
+ * the stamps of the date and journal files it was computed from; a day whose files have
+ * changed since (edited by hand, or a crash between the file write and the log append)
+ * is not served and has to be recomputed by the caller.
+ */
+final class RevenueStore implements AutoCloseable {
+
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("MMddyyyy");
+    private static final String DELIMITER = ",";
+    private static final int CELL_FIELDS = 7;
+
+    private final Path file;
+    private final Map<LocalDate, Entry> days = new ConcurrentHashMap<>();
+    private BufferedWriter log;
+
+    private static final class Entry {
+        final DailyRevenue revenue;
+        final FileStamp dataStamp;
+        final FileStamp journalStamp;
+
+        Entry(DailyRevenue revenue, FileStamp dataStamp, FileStamp journalStamp) {
+            this.revenue = revenue;
+            this.dataStamp = dataStamp;
+            this.journalStamp = journalStamp;
+        }
+
+        boolean matches(FileStamp data, FileStamp journal) {
+            return dataStamp.equals(data) && journalStamp.equals(journal);
+        }
+    }
+
+    RevenueStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Replays the log if there is one; without it every day starts out missing.
+     */
+    synchronized void load() throws FlooringException {
+        int lines = 0;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                try {
+                    Entry entry = parse(line);
+                    days.put(entry.revenue.getDate(), entry);
+                    lines++;
+                } catch (RuntimeException e) {
+                    // torn line from a crash, that day is simply recomputed
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            throw new FlooringException("Could not read revenue store " + file, e);
+        }
+        if (lines > 2 * days.size() + 1024) {
+            rewrite();
+        }
+    }
+
+    /**
+     * The stored rollup of a date, or null if there is none or its files have changed since.
+     */
+    DailyRevenue get(LocalDate date, FileStamp dataStamp, FileStamp journalStamp) {
+        Entry entry = days.get(date);
+        return entry != null && entry.matches(dataStamp, journalStamp) ? entry.revenue : null;
+    }
+
+    synchronized void put(DailyRevenue revenue, FileStamp dataStamp, FileStamp journalStamp) throws FlooringException {
+        Entry entry = new Entry(revenue, dataStamp, journalStamp);
+        days.put(revenue.getDate(), entry);
+        append(format(entry));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (log == null) return;
+        try {
+            log.close();
+        } catch (IOException e) {
+            // nothing left to do on shutdown
+        }
+        log = null;
+    }
+
+    private static String format(Entry entry) {
+        StringBuilder line = new StringBuilder();
+        line.append(entry.revenue.getDate().format(FILE_DATE_FORMAT))
+                .append(DELIMITER).append(entry.dataStamp.lastModified()).append(DELIMITER).append(entry.dataStamp.size())
+                .append(DELIMITER).append(entry.journalStamp.lastModified()).append(DELIMITER).append(entry.journalStamp.size());
+        for (Map.Entry<String, Map<String, Revenue>> state : entry.revenue.getCells().entrySet()) {
+            for (Map.Entry<String, Revenue> product : state.getValue().entrySet()) {
+                Revenue r = product.getValue();
+                line.append(DELIMITER).append(state.getKey()).append(DELIMITER).append(product.getKey())
+                        .append(DELIMITER).append(r.getOrders())
+                        .append(DELIMITER).append(r.getMaterialCost().toPlainString())
+                        .append(DELIMITER).append(r.getLaborCost().toPlainString())
+                        .append(DELIMITER).append(r.getTax().toPlainString())
+                        .append(DELIMITER).append(r.getTotal().toPlainString());
+            }
+        }
+        return line.append('\n').toString();
+    }
+
+    private static Entry parse(String line) {
+        String[] tokens = line.split(DELIMITER, -1);
+        if (tokens.length < 5 || (tokens.length - 5) % CELL_FIELDS != 0) {
+            throw new IllegalArgumentException("Malformed revenue line");
+        }
+        LocalDate date = LocalDate.parse(tokens[0], FILE_DATE_FORMAT);
+        FileStamp data = FileStamp.of(Long.parseLong(tokens[1]), Long.parseLong(tokens[2]));
+        FileStamp journal = FileStamp.of(Long.parseLong(tokens[3]), Long.parseLong(tokens[4]));
+        Map<String, Map<String, Revenue>> cells = new TreeMap<>();
+        for (int i = 5; i < tokens.length; i += CELL_FIELDS) {
+            Revenue revenue = new Revenue(Long.parseLong(tokens[i + 2]), new BigDecimal(tokens[i + 3]),
+                    new BigDecimal(tokens[i + 4]), new BigDecimal(tokens[i + 5]), new BigDecimal(tokens[i + 6]));
+            cells.computeIfAbsent(tokens[i], s -> new TreeMap<>()).put(tokens[i + 1], revenue);
+        }
+        return new Entry(new DailyRevenue(date, cells), data, journal);
+    }
+
+    private void append(String line) throws FlooringException {
+        try {
+            if (log == null) {
+                log = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            log.write(line);
+            log.flush();
+        } catch (IOException e) {
+            throw new FlooringException("Could not update revenue store " + file, e);
+        }
+    }
+
+    private void rewrite() throws FlooringException {
+        close();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Entry entry : days.values()) out.write(format(entry));
+        } catch (IOException e) {
+            throw new FlooringException("Could not write revenue store " + tmp, e);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new FlooringException("Could not replace revenue store " + file, e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.dao;
+
+/**
+ * On-disk format of the per-date order files.
+ */
+public enum StorageFormat {
+
+    //the original comma separated Orders_MMddyyyy.txt files
+    TEXT(".txt"),
+    //columnar Orders_MMddyyyy.ord segments, see BinaryOrderFormat
+    BINARY(".ord");
+
+    private final String extension;
+
+    StorageFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    OrderFileFormat newFormat(long mmapThresholdBytes) {
+        return this == TEXT ? new TextOrderFormat(mmapThresholdBytes) : new BinaryOrderFormat(mmapThresholdBytes);
+    }
+}
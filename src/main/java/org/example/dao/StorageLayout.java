@@ -0,0 +1,20 @@
+package org.example.dao;
+
+import java.nio.file.Path;
+
+/**
+ * How order dates are grouped into files. Switching needs a run of OrderLayoutMigrator first.
+ */
+public enum StorageLayout {
+
+    //one file per date, Orders_MMddyyyy.txt (or .ord)
+    DAILY,
+    //one file per month, Orders_yyyyMM.seg, with an index of its days, see MonthlyOrderStorage
+    MONTHLY;
+
+    OrderStorage newStorage(Path folder, OrderFileFormat format, DurableFiles files, IoStats ioStats) {
+        return this == DAILY
+                ? new DailyOrderStorage(folder, format, files, ioStats)
+                : new MonthlyOrderStorage(folder, format, files, ioStats);
+    }
+}
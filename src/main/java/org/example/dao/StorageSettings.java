@@ -0,0 +1,104 @@
+package org.example.dao;
+
+/**
+ * Tunables for the order file storage, AppConfig overrides them from flooring.properties.
+ * The defaults favour durability over the original behaviour: date files are replaced through
+ * a temp file and a rename and fsynced before a write returns (FsyncPolicy.BATCH). Concurrent
+ * callers share that fsync through group commit, but a single clerk pays one fsync, and one
+ * temp file and rename, per add; NONE with atomicWrites=false is how the application used to write.
+ */
+public class StorageSettings {
+
+    public static final String DEFAULT_ORDERS_FOLDER = "src/main/resources/Orders";
+
+    private String ordersFolder = DEFAULT_ORDERS_FOLDER;
+    //layout of the date files, switching needs a run of OrderFileConverter first
+    private StorageFormat storageFormat = StorageFormat.TEXT;
+    //one file per date or one segment per month, switching needs a run of OrderLayoutMigrator first
+    private StorageLayout storageLayout = StorageLayout.DAILY;
+
+    //journal mode appends mutations to a per-date log instead of rewriting the date file
+    private boolean journalEnabled = false;
+    private int journalCompactionThreshold = 64;
+    private long journalCompactionIntervalSeconds = 30;
+
+    //parsed orders kept in memory, bounded by number of dates and estimated heap use
+    private int cacheMaxDates = 256;
+    private long cacheMaxBytes = 32L * 1024 * 1024;
+
+    //date files at least this big are read through a memory mapping, smaller ones as a stream (-1 never maps)
+    private long mmapThresholdBytes = 1024 * 1024;
+
+    //date files are replaced through a temp file and a rename, fsync as the policy says; orders.idx and
+    //orders.agg are never fsynced, they carry the stamps of the files they describe and are checked against them
+    private boolean atomicWrites = true;
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.BATCH;
+    private long fsyncIntervalMillis = 1000;
+
+    //group commit: mutations queue per date partition, one writer thread per partition writes a batch at a time
+    private int writerThreads = 4;
+    private int writerQueueCapacity = 1024;
+    private int writerMaxBatch = 256;
+
+    //dates older than this many days move to yearly zip archives in the background (-1 never)
+    private int archiveAfterDays = -1;
+    private long archiveIntervalMinutes = 60;
+    //recently read archived days kept inflated
+    private long archiveBlockCacheBytes = 4L * 1024 * 1024;
+
+    // Getters and Setters
+
+    public String getOrdersFolder() { return ordersFolder; }
+    public void setOrdersFolder(String ordersFolder) { this.ordersFolder = ordersFolder; }
+
+    public StorageFormat getStorageFormat() { return storageFormat; }
+    public void setStorageFormat(StorageFormat storageFormat) { this.storageFormat = storageFormat; }
+
+    public StorageLayout getStorageLayout() { return storageLayout; }
+    public void setStorageLayout(StorageLayout storageLayout) { this.storageLayout = storageLayout; }
+
+    public boolean isJournalEnabled() { return journalEnabled; }
+    public void setJournalEnabled(boolean journalEnabled) { this.journalEnabled = journalEnabled; }
+
+    public int getJournalCompactionThreshold() { return journalCompactionThreshold; }
+    public void setJournalCompactionThreshold(int journalCompactionThreshold) { this.journalCompactionThreshold = journalCompactionThreshold; }
+
+    public long getJournalCompactionIntervalSeconds() { return journalCompactionIntervalSeconds; }
+    public void setJournalCompactionIntervalSeconds(long journalCompactionIntervalSeconds) { this.journalCompactionIntervalSeconds = journalCompactionIntervalSeconds; }
+
+    public int getCacheMaxDates() { return cacheMaxDates; }
+    public void setCacheMaxDates(int cacheMaxDates) { this.cacheMaxDates = cacheMaxDates; }
+
+    public long getCacheMaxBytes() { return cacheMaxBytes; }
+    public void setCacheMaxBytes(long cacheMaxBytes) { this.cacheMaxBytes = cacheMaxBytes; }
+
+    public long getMmapThresholdBytes() { return mmapThresholdBytes; }
+    public void setMmapThresholdBytes(long mmapThresholdBytes) { this.mmapThresholdBytes = mmapThresholdBytes; }
+
+    public boolean isAtomicWrites() { return atomicWrites; }
+    public void setAtomicWrites(boolean atomicWrites) { this.atomicWrites = atomicWrites; }
+
+    public FsyncPolicy getFsyncPolicy() { return fsyncPolicy; }
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy) { this.fsyncPolicy = fsyncPolicy; }
+
+    public long getFsyncIntervalMillis() { return fsyncIntervalMillis; }
+    public void setFsyncIntervalMillis(long fsyncIntervalMillis) { this.fsyncIntervalMillis = fsyncIntervalMillis; }
+
+    public int getWriterThreads() { return writerThreads; }
+    public void setWriterThreads(int writerThreads) { this.writerThreads = writerThreads; }
+
+    public int getWriterQueueCapacity() { return writerQueueCapacity; }
+    public void setWriterQueueCapacity(int writerQueueCapacity) { this.writerQueueCapacity = writerQueueCapacity; }
+
+    public int getWriterMaxBatch() { return writerMaxBatch; }
+    public void setWriterMaxBatch(int writerMaxBatch) { this.writerMaxBatch = writerMaxBatch; }
+
+    public int getArchiveAfterDays() { return archiveAfterDays; }
+    public void setArchiveAfterDays(int archiveAfterDays) { this.archiveAfterDays = archiveAfterDays; }
+
+    public long getArchiveIntervalMinutes() { return archiveIntervalMinutes; }
+    public void setArchiveIntervalMinutes(long archiveIntervalMinutes) { this.archiveIntervalMinutes = archiveIntervalMinutes; }
+
+    public long getArchiveBlockCacheBytes() { return archiveBlockCacheBytes; }
+    public void setArchiveBlockCacheBytes(long archiveBlockCacheBytes) { this.archiveBlockCacheBytes = archiveBlockCacheBytes; }
+}
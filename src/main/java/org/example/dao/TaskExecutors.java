@@ -0,0 +1,36 @@
+package org.example.dao;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executors for blocking, I/O bound tasks (date loads, HTTP requests).
+ */
+public final class TaskExecutors {
+
+    private TaskExecutors() {
+    }
+
+    /**
+     * One virtual thread per task when the running JDK has them (21+), looked up reflectively
+     * since we build for older ones. Otherwise at most fallbackThreads daemon threads named
+     * threadName, which wind down after 30 s without work.
+     */
+    public static ExecutorService newBlockingTaskExecutor(String threadName, int fallbackThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(fallbackThreads, fallbackThreads, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, threadName);
+                t.setDaemon(true);
+                return t;
+            });
+            pool.allowCoreThreadTimeOut(true); // no threads kept around between bursts
+            return pool;
+        }
+    }
+}
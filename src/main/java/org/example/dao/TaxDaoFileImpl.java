@@ -1,51 +1,66 @@
 package org.example.dao;
 
 import org.example.model.Tax;
-import org.springframework.stereotype.Repository;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Paths;
 import java.util.*;
-@Repository
+
 public class TaxDaoFileImpl implements TaxDao {
-    private final String TAX_FILE = "src/main/resources/Data/Taxes.txt";
-    private final String DELIMITER = ",";
-    private Map<String, Tax> taxes = new HashMap<>();
+    private static final String TAX_FILE = "src/main/resources/Data/Taxes.txt";
+    private static final String DELIMITER = ",";
+
+    //immutable map of lowercase state abbreviation -> tax, swapped atomically when the file changes
+    private final ReferenceDataFile<Map<String, Tax>> taxes;
+
+    public TaxDaoFileImpl() {
+        this(TAX_FILE);
+    }
+
+    public TaxDaoFileImpl(String taxFile) {
+        this(taxFile, ReferenceDataFile.DEFAULT_CHECK_INTERVAL_MILLIS);
+    }
+
+    //checkIntervalMillis: how long an edit of the file may go unnoticed, 0 looks at it on every lookup
+    public TaxDaoFileImpl(String taxFile, long checkIntervalMillis) {
+        this.taxes = new ReferenceDataFile<>(Paths.get(taxFile), "taxes", TaxDaoFileImpl::parseTaxes, checkIntervalMillis);
+    }
 
     @Override
     public List<Tax> getAllTaxes() throws FlooringException {
-        loadTaxes();
-        return new ArrayList<>(taxes.values());
+        //copies, the snapshot is shared by every caller
+        List<Tax> all = new ArrayList<>();
+        for (Tax tax : taxes.get().values()) all.add(new Tax(tax));
+        return all;
     }
 
     @Override
     public Tax getTax(String stateAbbr) throws FlooringException {
         if (stateAbbr == null || stateAbbr.isBlank()) return null;
-        loadTaxes();
-        return taxes.get(stateAbbr.trim().toLowerCase()); // Case Insensitive and whitespace resistant
+        Tax tax = taxes.get().get(stateAbbr.trim().toLowerCase()); // Case Insensitive and whitespace resistant
+        return tax == null ? null : new Tax(tax);
+    }
+
+    /**
+     * Reloads of the taxes file since startup.
+     */
+    public IoStats getIoStats() {
+        return taxes.ioStats();
     }
 
-    private void loadTaxes() throws FlooringException {
-        taxes.clear();
-        try (Scanner scanner = new Scanner(new BufferedReader(new FileReader(TAX_FILE)))) {
-            if (scanner.hasNextLine()) scanner.nextLine(); // skipping header
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                String[] tokens = line.split(DELIMITER);
-                if (tokens.length == 3) {
-                    Tax tax = new Tax();
-                    tax.setStateAbbreviation(tokens[0].trim());
-                    tax.setStateName(tokens[1].trim());
-                    tax.setTaxRate(new BigDecimal(tokens[2].trim()));
-                    taxes.put(tax.getStateAbbreviation().toLowerCase(), tax); // storing lowercase
-                }
+    private static Map<String, Tax> parseTaxes(List<String> lines) {
+        Map<String, Tax> parsed = new LinkedHashMap<>();
+        for (String line : lines) {
+            String[] tokens = line.split(DELIMITER);
+            if (tokens.length == 3) {
+                Tax tax = new Tax();
+                tax.setStateAbbreviation(tokens[0].trim());
+                tax.setStateName(tokens[1].trim());
+                tax.setTaxRate(new BigDecimal(tokens[2].trim()));
+                parsed.put(tax.getStateAbbreviation().toLowerCase(), tax); // storing lowercase
             }
-        } catch (IOException e) {
-            throw new FlooringException("Could not load taxes file.", e);
         }
+        return Collections.unmodifiableMap(parsed);
     }
 
 }
@@ -0,0 +1,151 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The original format: a header line, then one comma separated line per order, in UTF-8.
+ * Positions are byte offsets of the order's line.
+ * Files of at least mmapThresholdBytes are read through a memory mapping, -1 reads everything
+ * as a stream. The mapping is only released when the buffer is garbage collected, so it is
+ * only safe where a mapped file can still be replaced and is never cut short under the
+ * mapping; OrderDaoFileImpl passes -1 otherwise.
+ */
+final class TextOrderFormat implements OrderFileFormat {
+
+    private final long mmapThresholdBytes;
+
+    TextOrderFormat(long mmapThresholdBytes) {
+        this.mmapThresholdBytes = mmapThresholdBytes;
+    }
+
+    @Override
+    public String extension() {
+        return StorageFormat.TEXT.getExtension();
+    }
+
+    @Override
+    public List<Order> read(Path file) throws IOException {
+        if (mmapThresholdBytes >= 0) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                //decodes straight from the page cache, nothing is copied into the heap but the parsed orders
+                if (size >= mmapThresholdBytes && size <= Integer.MAX_VALUE) {
+                    return new OrderLineParser().parseAll(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), StandardCharsets.UTF_8);
+                }
+            }
+        }
+
+        //one large read buffer and an in-place tokenizer instead of Scanner and String.split
+        try (Reader in = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)) {
+            return new OrderLineParser().parseAll(in);
+        }
+    }
+
+    //writes the date file and returns the byte offset of every order's line
+    @Override
+    public Map<Integer, Long> write(Path file, List<Order> orders) throws IOException {
+        return write(new FileOutputStream(file.toFile()), orders);
+    }
+
+    @Override
+    public Map<Integer, Long> write(OutputStream target, List<Order> orders) throws IOException {
+        Map<Integer, Long> offsets = new LinkedHashMap<>();
+        int newLineLength = System.lineSeparator().length();
+
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8)))) {
+            //writing the header first and order next
+            out.println(OrderDaoFileImpl.HEADER);
+            long offset = OrderDaoFileImpl.HEADER.length() + newLineLength;
+
+            for (Order o : orders) {
+                String line = OrderDaoFileImpl.marshallOrder(o);
+                out.println(line);
+                offsets.put(o.getOrderNumber(), offset);
+                offset += utf8Length(line) + newLineLength;
+            }
+            if (out.checkError()) throw new IOException("Could not write orders");
+        }
+        return offsets;
+    }
+
+    //decodes the single order line starting at offset, null if there is no such line
+    @Override
+    public Order readAt(Path file, long offset) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            if (offset >= raf.length()) return null;
+            raf.seek(offset);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(160);
+            byte[] chunk = new byte[256];
+            int read;
+            outer:
+            while ((read = raf.read(chunk)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    if (chunk[i] == '\n') {
+                        line.write(chunk, 0, i);
+                        break outer;
+                    }
+                }
+                line.write(chunk, 0, read);
+            }
+            String text = line.toString(StandardCharsets.UTF_8).strip();
+            return text.isEmpty() ? null : new OrderLineParser().parseLine(text);
+        }
+    }
+
+    @Override
+    public List<Order> read(ByteBuffer bytes) {
+        return new OrderLineParser().parseAll(bytes, StandardCharsets.UTF_8);
+    }
+
+    //only the order number and line offset are decoded
+    @Override
+    public Map<Integer, Long> scanOffsets(Path file) throws IOException {
+        return scanOffsets(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    @Override
+    public Map<Integer, Long> scanOffsets(ByteBuffer bytes) {
+        Map<Integer, Long> offsets = new LinkedHashMap<>();
+        int start = bytes.position();
+        int limit = bytes.limit();
+        int pos = start;
+        boolean header = true;
+        while (pos < limit) {
+            int lineStart = pos;
+            int number = 0;
+            boolean digits = false;
+            while (pos < limit && bytes.get(pos) >= '0' && bytes.get(pos) <= '9') {
+                number = number * 10 + (bytes.get(pos++) - '0');
+                digits = true;
+            }
+            if (!header && digits) offsets.put(number, (long) (lineStart - start));
+            header = false;
+            while (pos < limit && bytes.get(pos) != '\n') pos++;
+            pos++; // past the new line
+        }
+        return offsets;
+    }
+
+    static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) length++;
+            else if (c < 0x800) length += 2;
+            else if (Character.isHighSurrogate(c)) { length += 4; i++; }
+            else length += 3;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The hot storage (daily or monthly files) in front of the yearly archives. A date the hot
+ * storage has is served from there, anything else from its archive. The archiver only drops
+ * a hot date once the archive holds it, and a write to an archived date goes to the hot
+ * storage, where it shadows the archived copy until the next archiving run replaces that.
+ */
+final class TieredOrderStorage implements OrderStorage {
+
+    private final OrderStorage hot;
+    private final OrderArchive archive;
+    private final OrderFileFormat format;
+
+    TieredOrderStorage(OrderStorage hot, OrderArchive archive, OrderFileFormat format) {
+        this.hot = hot;
+        this.archive = archive;
+        this.format = format;
+    }
+
+    @Override
+    public Path fileOf(LocalDate date) {
+        return hot.fileOf(date);
+    }
+
+    @Override
+    public List<LocalDate> dates() throws IOException {
+        TreeSet<LocalDate> dates = new TreeSet<>(archive.dates());
+        dates.addAll(hot.dates());
+        return new ArrayList<>(dates);
+    }
+
+    @Override
+    public FileStamp stamp(LocalDate date) throws IOException {
+        FileStamp stamp = hot.stamp(date);
+        return stamp.equals(FileStamp.MISSING) ? archive.stamp(date) : stamp;
+    }
+
+    @Override
+    public List<Order> read(LocalDate date) throws IOException {
+        List<Order> orders = hot.read(date);
+        //an empty hot read may just mean the archiver dropped the date in between
+        if (!orders.isEmpty() || !hot.stamp(date).equals(FileStamp.MISSING)) return orders;
+        ByteBuffer bytes = archive.read(date);
+        return bytes == null ? orders : format.read(bytes);
+    }
+
+    @Override
+    public Map<LocalDate, StoredDay> readAround(LocalDate date) throws IOException {
+        Map<LocalDate, StoredDay> around = hot.readAround(date);
+        if (around.containsKey(date)) return around;
+        //stamped before reading, like the hot storages
+        FileStamp stamp = archive.stamp(date);
+        if (stamp.equals(FileStamp.MISSING)) return around;
+        ByteBuffer bytes = archive.read(date);
+        return bytes == null ? around : Map.of(date, new StoredDay(format.read(bytes), stamp));
+    }
+
+    @Override
+    public Map<Integer, Long> write(LocalDate date, List<Order> orders) throws IOException {
+        return hot.write(date, orders);
+    }
+
+    @Override
+    public void delete(LocalDate date) throws IOException {
+        hot.delete(date);
+    }
+
+    //archived rows are found through their date, the caller falls back to that
+    @Override
+    public Order readAt(LocalDate date, long position) throws IOException {
+        return hot.stamp(date).equals(FileStamp.MISSING) ? null : hot.readAt(date, position);
+    }
+
+    @Override
+    public Map<Integer, Long> scanOffsets(LocalDate date) throws IOException {
+        if (!hot.stamp(date).equals(FileStamp.MISSING)) return hot.scanOffsets(date);
+        ByteBuffer bytes = archive.read(date);
+        return bytes == null ? Map.of() : format.scanOffsets(bytes);
+    }
+
+    //dates only the hot storage has, oldest first
+    List<LocalDate> hotDates() throws IOException {
+        return hot.dates();
+    }
+
+    FileStamp hotStamp(LocalDate date) throws IOException {
+        return hot.stamp(date);
+    }
+
+    List<Order> readHot(LocalDate date) throws IOException {
+        return hot.read(date);
+    }
+}
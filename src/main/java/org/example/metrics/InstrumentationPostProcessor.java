@@ -0,0 +1,58 @@
+package org.example.metrics;
+
+import org.example.dao.OrderDao;
+import org.example.dao.OrderDaoFileImpl;
+import org.example.dao.ProductDao;
+import org.example.dao.ProductDaoFileImpl;
+import org.example.dao.TaxDao;
+import org.example.dao.TaxDaoFileImpl;
+import org.example.service.FlooringService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+
+/**
+ * Wraps the FlooringService and DAO beans in timing decorators as Spring creates them,
+ * so everything that gets them injected is measured, and registers the file DAOs' cache
+ * and I/O counters as gauges. Turned off with metrics.enabled=false.
+ */
+public class InstrumentationPostProcessor implements BeanPostProcessor {
+
+    //looked up lazily: a post processor should not pull other beans in before it is registered
+    private final ObjectProvider<MetricsRegistry> metrics;
+    private final boolean enabled;
+
+    public InstrumentationPostProcessor(ObjectProvider<MetricsRegistry> metrics, Environment env) {
+        this.metrics = metrics;
+        this.enabled = env.getProperty("metrics.enabled", Boolean.class, true);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!enabled) return bean;
+
+        if (bean instanceof OrderDaoFileImpl) {
+            OrderDaoFileImpl orders = (OrderDaoFileImpl) bean;
+            metrics.getObject().gauge("orders.cache", orders::getCacheStats);
+            metrics.getObject().gauge("orders.io", orders::getIoStats);
+            metrics.getObject().gauge("orders.writer", orders::getWriterStats);
+            metrics.getObject().gauge("orders.durability", orders::getDurabilityStats);
+            metrics.getObject().gauge("orders.archive", orders::getArchiveStats);
+        } else if (bean instanceof ProductDaoFileImpl) {
+            metrics.getObject().gauge("products.io", ((ProductDaoFileImpl) bean)::getIoStats);
+        } else if (bean instanceof TaxDaoFileImpl) {
+            metrics.getObject().gauge("taxes.io", ((TaxDaoFileImpl) bean)::getIoStats);
+        }
+
+        if (bean instanceof FlooringService) {
+            return new InstrumentedFlooringService((FlooringService) bean, metrics.getObject());
+        } else if (bean instanceof OrderDao) {
+            return new InstrumentedOrderDao((OrderDao) bean, metrics.getObject());
+        } else if (bean instanceof ProductDao) {
+            return new InstrumentedProductDao((ProductDao) bean, metrics.getObject());
+        } else if (bean instanceof TaxDao) {
+            return new InstrumentedTaxDao((TaxDao) bean, metrics.getObject());
+        }
+        return bean;
+    }
+}
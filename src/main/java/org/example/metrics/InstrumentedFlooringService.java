@@ -0,0 +1,273 @@
+package org.example.metrics;
+
+import org.example.dao.ExportSummary;
+import org.example.dao.FlooringException;
+import org.example.model.Order;
+import org.example.model.Product;
+import org.example.model.Tax;
+import org.example.service.FlooringService;
+import org.example.service.ImportFormat;
+import org.example.service.ImportResult;
+import org.example.service.RepricingReport;
+import org.example.service.RevenueReport;
+
+import java.io.Reader;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Times every FlooringService call into its own histogram and counts the calls that throw.
+ */
+final class InstrumentedFlooringService implements FlooringService {
+
+    private final FlooringService delegate;
+    private final LongAdder errors;
+    private final LatencyHistogram getOrdersByDate;
+    private final LatencyHistogram getOrder;
+    private final LatencyHistogram getOrderByNumber;
+    private final LatencyHistogram getOrdersBetween;
+    private final LatencyHistogram streamOrdersBetween;
+    private final LatencyHistogram findOrdersByCustomer;
+    private final LatencyHistogram addOrder;
+    private final LatencyHistogram editOrder;
+    private final LatencyHistogram removeOrder;
+    private final LatencyHistogram exportAllData;
+    private final LatencyHistogram importOrders;
+    private final LatencyHistogram repriceFutureOrders;
+    private final LatencyHistogram getRevenueReport;
+    private final LatencyHistogram getAllProducts;
+    private final LatencyHistogram getAllTaxes;
+    private final LatencyHistogram calculateCosts;
+
+    InstrumentedFlooringService(FlooringService delegate, MetricsRegistry metrics) {
+        this.delegate = delegate;
+        this.errors = metrics.counter("service.errors");
+        this.getOrdersByDate = metrics.timer("service.getOrdersByDate");
+        this.getOrder = metrics.timer("service.getOrder");
+        this.getOrderByNumber = metrics.timer("service.getOrderByNumber");
+        this.getOrdersBetween = metrics.timer("service.getOrdersBetween");
+        this.streamOrdersBetween = metrics.timer("service.streamOrdersBetween");
+        this.findOrdersByCustomer = metrics.timer("service.findOrdersByCustomer");
+        this.addOrder = metrics.timer("service.addOrder");
+        this.editOrder = metrics.timer("service.editOrder");
+        this.removeOrder = metrics.timer("service.removeOrder");
+        this.exportAllData = metrics.timer("service.exportAllData");
+        this.importOrders = metrics.timer("service.importOrders");
+        this.repriceFutureOrders = metrics.timer("service.repriceFutureOrders");
+        this.getRevenueReport = metrics.timer("service.getRevenueReport");
+        this.getAllProducts = metrics.timer("service.getAllProducts");
+        this.getAllTaxes = metrics.timer("service.getAllTaxes");
+        this.calculateCosts = metrics.timer("service.calculateCosts");
+    }
+
+    @Override
+    public List<Order> getOrdersByDate(LocalDate date) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getOrdersByDate(date);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getOrdersByDate.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Order getOrder(LocalDate date, int orderNumber) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getOrder(date, orderNumber);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getOrder.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Order getOrder(int orderNumber) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getOrder(orderNumber);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getOrderByNumber.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Order> getOrdersBetween(LocalDate from, LocalDate to) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getOrdersBetween(from, to);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getOrdersBetween.record(System.nanoTime() - start);
+        }
+    }
+
+    //times opening the stream (listing dates, starting the first loads), not consuming it
+    @Override
+    public Stream<Order> streamOrdersBetween(LocalDate from, LocalDate to) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.streamOrdersBetween(from, to);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            streamOrdersBetween.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Order> findOrdersByCustomer(String query) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.findOrdersByCustomer(query);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            findOrdersByCustomer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Order addOrder(LocalDate date, Order order) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.addOrder(date, order);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            addOrder.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Order editOrder(LocalDate date, Order order) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.editOrder(date, order);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            editOrder.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Order removeOrder(LocalDate date, int orderNumber) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.removeOrder(date, orderNumber);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            removeOrder.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public ExportSummary exportAllData() throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.exportAllData();
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            exportAllData.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public ImportResult importOrders(Reader input, ImportFormat format) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.importOrders(input, format);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            importOrders.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public RepricingReport repriceFutureOrders() throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.repriceFutureOrders();
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            repriceFutureOrders.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public RevenueReport getRevenueReport(LocalDate from, LocalDate to) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getRevenueReport(from, to);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getRevenueReport.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Product> getAllProducts() throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllProducts();
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getAllProducts.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Tax> getAllTaxes() throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllTaxes();
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getAllTaxes.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void calculateCosts(Order order) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            delegate.calculateCosts(order);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            calculateCosts.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package org.example.metrics;
+
+import org.example.dao.DailyRevenue;
+import org.example.dao.FlooringException;
+import org.example.dao.OrderDao;
+import org.example.model.Order;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Times every OrderDao call into its own histogram and counts the calls that throw.
+ */
+final class InstrumentedOrderDao implements OrderDao {
+
+    private final OrderDao delegate;
+    private final LongAdder errors;
+    private final LatencyHistogram getOrdersByDate;
+    private final LatencyHistogram addOrder;
+    private final LatencyHistogram addOrders;
+    private final LatencyHistogram editOrder;
+    private final LatencyHistogram updateOrders;
+    private final LatencyHistogram removeOrder;
+    private final LatencyHistogram addOrderAsync;
+    private final LatencyHistogram editOrderAsync;
+    private final LatencyHistogram removeOrderAsync;
+    private final LatencyHistogram getOrder;
+    private final LatencyHistogram getOrderByNumber;
+    private final LatencyHistogram findOrdersByCustomer;
+    private final LatencyHistogram getOrderDates;
+    private final LatencyHistogram getDailyRevenue;
+
+    InstrumentedOrderDao(OrderDao delegate, MetricsRegistry metrics) {
+        this.delegate = delegate;
+        this.errors = metrics.counter("orderDao.errors");
+        this.getOrdersByDate = metrics.timer("orderDao.getOrdersByDate");
+        this.addOrder = metrics.timer("orderDao.addOrder");
+        this.addOrders = metrics.timer("orderDao.addOrders");
+        this.editOrder = metrics.timer("orderDao.editOrder");
+        this.updateOrders = metrics.timer("orderDao.updateOrders");
+        this.removeOrder = metrics.timer("orderDao.removeOrder");
+        this.addOrderAsync = metrics.timer("orderDao.addOrderAsync");
+        this.editOrderAsync = metrics.timer("orderDao.editOrderAsync");
+        this.removeOrderAsync = metrics.timer("orderDao.removeOrderAsync");
+        this.getOrder = metrics.timer("orderDao.getOrder");
+        this.getOrderByNumber = metrics.timer("orderDao.getOrderByNumber");
+        this.findOrdersByCustomer = metrics.timer("orderDao.findOrdersByCustomer");
+        this.getOrderDates = metrics.timer("orderDao.getOrderDates");
+        this.getDailyRevenue = metrics.timer("orderDao.getDailyRevenue");
+    }
+
+    @Override
+    public List<Order> getOrdersByDate(LocalDate date) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getOrdersByDate(date);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getOrdersByDate.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Order addOrder(LocalDate date, Order order) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.addOrder(date, order);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            addOrder.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Order> addOrders(LocalDate date, List<Order> orders) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.addOrders(date, orders);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            addOrders.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Order editOrder(LocalDate date, Order order) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.editOrder(date, order);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            editOrder.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Order> updateOrders(LocalDate date, Function<Order, Order> update) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.updateOrders(date, update);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            updateOrders.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Order removeOrder(LocalDate date, int orderNumber) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.removeOrder(date, orderNumber);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            removeOrder.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Order> addOrderAsync(LocalDate date, Order order) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return untilWritten(delegate.addOrderAsync(date, order), addOrderAsync, start);
+        } catch (RuntimeException e) {
+            errors.increment();
+            addOrderAsync.record(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Order> editOrderAsync(LocalDate date, Order order) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return untilWritten(delegate.editOrderAsync(date, order), editOrderAsync, start);
+        } catch (RuntimeException e) {
+            errors.increment();
+            editOrderAsync.record(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Order> removeOrderAsync(LocalDate date, int orderNumber) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return untilWritten(delegate.removeOrderAsync(date, orderNumber), removeOrderAsync, start);
+        } catch (RuntimeException e) {
+            errors.increment();
+            removeOrderAsync.record(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Order getOrder(LocalDate date, int orderNumber) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getOrder(date, orderNumber);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getOrder.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Order getOrder(int orderNumber) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getOrder(orderNumber);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getOrderByNumber.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Order> findOrdersByCustomer(String query, int limit) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.findOrdersByCustomer(query, limit);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            findOrdersByCustomer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<LocalDate> getOrderDates() throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getOrderDates();
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getOrderDates.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<DailyRevenue> getDailyRevenue(LocalDate from, LocalDate to) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getDailyRevenue(from, to);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getDailyRevenue.record(System.nanoTime() - start);
+        }
+    }
+
+    //async calls are timed from the call until the write is done, a failed write counts as an error
+    private <T> CompletableFuture<T> untilWritten(CompletableFuture<T> result, LatencyHistogram timer, long start) {
+        return result.whenComplete((value, failure) -> {
+            if (failure != null) errors.increment();
+            timer.record(System.nanoTime() - start);
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.metrics;
+
+import org.example.dao.FlooringException;
+import org.example.dao.ProductDao;
+import org.example.model.Product;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times every ProductDao call into its own histogram and counts the calls that throw.
+ */
+final class InstrumentedProductDao implements ProductDao {
+
+    private final ProductDao delegate;
+    private final LongAdder errors;
+    private final LatencyHistogram getAllProducts;
+    private final LatencyHistogram getProduct;
+
+    InstrumentedProductDao(ProductDao delegate, MetricsRegistry metrics) {
+        this.delegate = delegate;
+        this.errors = metrics.counter("productDao.errors");
+        this.getAllProducts = metrics.timer("productDao.getAllProducts");
+        this.getProduct = metrics.timer("productDao.getProduct");
+    }
+
+    @Override
+    public List<Product> getAllProducts() throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllProducts();
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getAllProducts.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Product getProduct(String productType) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getProduct(productType);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getProduct.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.metrics;
+
+import org.example.dao.FlooringException;
+import org.example.dao.TaxDao;
+import org.example.model.Tax;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times every TaxDao call into its own histogram and counts the calls that throw.
+ */
+final class InstrumentedTaxDao implements TaxDao {
+
+    private final TaxDao delegate;
+    private final LongAdder errors;
+    private final LatencyHistogram getAllTaxes;
+    private final LatencyHistogram getTax;
+
+    InstrumentedTaxDao(TaxDao delegate, MetricsRegistry metrics) {
+        this.delegate = delegate;
+        this.errors = metrics.counter("taxDao.errors");
+        this.getAllTaxes = metrics.timer("taxDao.getAllTaxes");
+        this.getTax = metrics.timer("taxDao.getTax");
+    }
+
+    @Override
+    public List<Tax> getAllTaxes() throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllTaxes();
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getAllTaxes.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Tax getTax(String stateAbbr) throws FlooringException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getTax(stateAbbr);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            getTax.record(System.nanoTime() - start);
+        }
+    }
+}
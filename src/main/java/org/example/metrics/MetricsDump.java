@@ -0,0 +1,67 @@
+package org.example.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the metrics report to a local file every few seconds and once more on shutdown,
+ * so numbers from a long session survive it. The file is replaced atomically, a reader
+ * never sees half a report.
+ */
+public class MetricsDump implements AutoCloseable {
+
+    private final MetricsRegistry metrics;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param intervalSeconds time between dumps, 0 or less turns dumping off
+     */
+    public MetricsDump(MetricsRegistry metrics, Path file, long intervalSeconds) {
+        this.metrics = metrics;
+        this.file = file;
+        if (intervalSeconds > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-dump");
+                t.setDaemon(true); // never keeps the program alive
+                return t;
+            });
+            scheduler.scheduleWithFixedDelay(this::dumpQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    public void dump() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(tmp, metrics.report(), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+        dumpQuietly();
+    }
+
+    private void dumpQuietly() {
+        try {
+            dump();
+        } catch (IOException | RuntimeException e) {
+            // diagnostics must not break the program, the next dump tries again
+        }
+    }
+}
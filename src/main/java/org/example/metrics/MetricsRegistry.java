@@ -0,0 +1,80 @@
+package org.example.metrics;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Named latency histograms, counters and gauges for the whole application. Metrics are
+ * looked up once, when the instrumented beans are built, and then recorded into directly,
+ * so the registry itself is never on the hot path.
+ */
+public class MetricsRegistry {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    //sorted by name so reports read the same every time
+    private final Map<String, LatencyHistogram> timers = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Supplier<?>> gauges = new ConcurrentSkipListMap<>();
+    private final long startNanos = System.nanoTime();
+
+    public LatencyHistogram timer(String name) {
+        return timers.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    //a value that is only computed when a report is made, e.g. cache stats
+    public void gauge(String name, Supplier<?> value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Plain text report of everything recorded so far, times in microseconds.
+     * Operations that were never called are left out.
+     */
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        Duration uptime = Duration.ofNanos(System.nanoTime() - startNanos);
+        out.append(String.format("Metrics at %s, uptime %d:%02d:%02d%n", LocalDateTime.now().format(TIMESTAMP),
+                uptime.toHours(), uptime.toMinutesPart(), uptime.toSecondsPart()));
+
+        out.append(String.format("%n%-34s %9s %10s %10s %10s %10s %10s %10s%n",
+                "operation (us)", "count", "mean", "p50", "p90", "p99", "p99.9", "max"));
+        for (Map.Entry<String, LatencyHistogram> timer : timers.entrySet()) {
+            LatencyHistogram.Snapshot s = timer.getValue().snapshot();
+            if (s.getCount() == 0) continue;
+            out.append(String.format("%-34s %9d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n", timer.getKey(), s.getCount(),
+                    s.getMean() / 1e3, s.percentile(50) / 1e3, s.percentile(90) / 1e3, s.percentile(99) / 1e3,
+                    s.percentile(99.9) / 1e3, s.getMax() / 1e3));
+        }
+
+        if (!counters.isEmpty()) {
+            out.append(String.format("%n%-34s %9s%n", "counter", "value"));
+            for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+                out.append(String.format("%-34s %9d%n", counter.getKey(), counter.getValue().sum()));
+            }
+        }
+
+        if (!gauges.isEmpty()) {
+            out.append(String.format("%n"));
+            for (Map.Entry<String, Supplier<?>> gauge : gauges.entrySet()) {
+                Object value;
+                try {
+                    value = gauge.getValue().get();
+                } catch (RuntimeException e) {
+                    value = "unavailable (" + e.getMessage() + ")"; // a report must never fail
+                }
+                out.append(String.format("%-34s %s%n", gauge.getKey(), value));
+            }
+        }
+        return out.toString();
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.model;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 public class Order {
     private int orderNumber;
@@ -15,6 +16,28 @@ public class Order {
     private BigDecimal laborCost;
     private BigDecimal tax;
     private BigDecimal total;
+    // date of the file the order lives in, filled in by the DAO (not part of the order row)
+    private LocalDate orderDate;
+
+    public Order() {
+    }
+
+    // Copy constructor, all fields are immutable so a shallow copy is enough
+    public Order(Order other) {
+        this.orderNumber = other.orderNumber;
+        this.customerName = other.customerName;
+        this.state = other.state;
+        this.taxRate = other.taxRate;
+        this.productType = other.productType;
+        this.area = other.area;
+        this.costPerSquareFoot = other.costPerSquareFoot;
+        this.laborCostPerSquareFoot = other.laborCostPerSquareFoot;
+        this.materialCost = other.materialCost;
+        this.laborCost = other.laborCost;
+        this.tax = other.tax;
+        this.total = other.total;
+        this.orderDate = other.orderDate;
+    }
 
     // Getters and Setters for all fields
 
@@ -54,6 +77,9 @@ public class Order {
     public BigDecimal getTotal() { return total; }
     public void setTotal(BigDecimal total) { this.total = total; }
 
+    public LocalDate getOrderDate() { return orderDate; }
+    public void setOrderDate(LocalDate orderDate) { this.orderDate = orderDate; }
+
     @Override
     public String toString() {
         return "Order #" + orderNumber + " for " + customerName + " (" + productType + "), Total: " + total;
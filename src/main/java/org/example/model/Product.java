@@ -7,6 +7,16 @@ public class Product {
     private BigDecimal costPerSquareFoot;
     private BigDecimal laborCostPerSquareFoot;
 
+    public Product() {
+    }
+
+    // Copy constructor, all fields are immutable so a shallow copy is enough
+    public Product(Product other) {
+        this.productType = other.productType;
+        this.costPerSquareFoot = other.costPerSquareFoot;
+        this.laborCostPerSquareFoot = other.laborCostPerSquareFoot;
+    }
+
     // Getters and Setters
     public String getProductType() {
         return productType;
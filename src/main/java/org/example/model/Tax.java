@@ -7,6 +7,16 @@ public class Tax {
     private String stateName;
     private BigDecimal taxRate;
 
+    public Tax() {
+    }
+
+    // Copy constructor, all fields are immutable so a shallow copy is enough
+    public Tax(Tax other) {
+        this.stateAbbreviation = other.stateAbbreviation;
+        this.stateName = other.stateName;
+        this.taxRate = other.taxRate;
+    }
+
     // Getters and Setters
     public String getStateAbbreviation() {
         return stateAbbreviation;
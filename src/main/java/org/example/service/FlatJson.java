@@ -0,0 +1,110 @@
+package org.example.service;
+
+import org.example.dao.FlooringException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Just enough JSON for flat objects of strings, numbers, booleans and nulls,
+ * which is all the order import (and other plain text interfaces) exchange.
+ * Nested objects and arrays are rejected.
+ */
+public final class FlatJson {
+
+    private FlatJson() {
+    }
+
+    /**
+     * Parses one flat object, values are returned as their text (null for JSON null).
+     */
+    public static Map<String, String> parseObject(String json) throws FlooringException {
+        Map<String, String> fields = new LinkedHashMap<>();
+        int[] pos = {skipWhitespace(json, 0)};
+        expect(json, pos, '{');
+        pos[0] = skipWhitespace(json, pos[0]);
+        if (peek(json, pos[0]) == '}') {
+            pos[0]++;
+        } else {
+            while (true) {
+                pos[0] = skipWhitespace(json, pos[0]);
+                String key = readString(json, pos);
+                pos[0] = skipWhitespace(json, pos[0]);
+                expect(json, pos, ':');
+                pos[0] = skipWhitespace(json, pos[0]);
+                fields.put(key, readValue(json, pos));
+                pos[0] = skipWhitespace(json, pos[0]);
+                char c = peek(json, pos[0]);
+                pos[0]++;
+                if (c == '}') break;
+                if (c != ',') throw new FlooringException("Expected ',' or '}' at position " + (pos[0] - 1));
+            }
+        }
+        if (skipWhitespace(json, pos[0]) != json.length()) {
+            throw new FlooringException("Unexpected text after JSON object.");
+        }
+        return fields;
+    }
+
+    private static String readValue(String json, int[] pos) throws FlooringException {
+        char c = peek(json, pos[0]);
+        if (c == '"') return readString(json, pos);
+        if (c == '{' || c == '[') throw new FlooringException("Nested JSON values are not supported.");
+
+        int start = pos[0];
+        while (pos[0] < json.length() && ",}] \t\r\n".indexOf(json.charAt(pos[0])) < 0) pos[0]++;
+        String literal = json.substring(start, pos[0]);
+        if (literal.isEmpty()) throw new FlooringException("Missing JSON value at position " + start);
+        return literal.equals("null") ? null : literal;
+    }
+
+    private static String readString(String json, int[] pos) throws FlooringException {
+        expect(json, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            if (pos[0] >= json.length()) throw new FlooringException("Unterminated JSON string.");
+            char c = json.charAt(pos[0]++);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char escaped = peek(json, pos[0]++);
+            switch (escaped) {
+                case '"', '\\', '/' -> sb.append(escaped);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (pos[0] + 4 > json.length()) throw new FlooringException("Bad unicode escape in JSON string.");
+                    try {
+                        sb.append((char) Integer.parseInt(json.substring(pos[0], pos[0] + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw new FlooringException("Bad unicode escape in JSON string.");
+                    }
+                    pos[0] += 4;
+                }
+                default -> throw new FlooringException("Bad escape '\\" + escaped + "' in JSON string.");
+            }
+        }
+    }
+
+    private static void expect(String json, int[] pos, char expected) throws FlooringException {
+        if (peek(json, pos[0]) != expected) {
+            throw new FlooringException("Expected '" + expected + "' at position " + pos[0]);
+        }
+        pos[0]++;
+    }
+
+    private static char peek(String json, int pos) throws FlooringException {
+        if (pos >= json.length()) throw new FlooringException("Unexpected end of JSON.");
+        return json.charAt(pos);
+    }
+
+    private static int skipWhitespace(String json, int pos) {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) pos++;
+        return pos;
+    }
+}
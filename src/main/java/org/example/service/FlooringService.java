@@ -1,21 +1,37 @@
 package org.example.service;
 
+import org.example.dao.ExportSummary;
 import org.example.dao.FlooringException;
 import org.example.model.Order;
 import org.example.model.Product;
 import org.example.model.Tax;
 
+import java.io.Reader;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface FlooringService {
 
     // Orders
     List<Order> getOrdersByDate(LocalDate date) throws FlooringException;
     Order getOrder(LocalDate date, int orderNumber) throws FlooringException;
+    Order getOrder(int orderNumber) throws FlooringException;
+    //every order dated [from, to] in date order, dates without orders are skipped
+    List<Order> getOrdersBetween(LocalDate from, LocalDate to) throws FlooringException;
+    //same orders, loaded a few dates ahead of the consumer; close the stream if not read to the end
+    Stream<Order> streamOrdersBetween(LocalDate from, LocalDate to) throws FlooringException;
+    //orders of customers whose name matches query word by word as prefixes ("tony sop"), oldest first
+    List<Order> findOrdersByCustomer(String query) throws FlooringException;
     Order addOrder(LocalDate date, Order order) throws FlooringException;
     Order editOrder(LocalDate date, Order order) throws FlooringException;
     Order removeOrder(LocalDate date, int orderNumber) throws FlooringException;
+    ExportSummary exportAllData() throws FlooringException;
+    ImportResult importOrders(Reader input, ImportFormat format) throws FlooringException;
+    //brings today's and future orders in line with the current product and tax files
+    RepricingReport repriceFutureOrders() throws FlooringException;
+    //revenue totals for [from, to] read from the daily rollups, no order files are scanned
+    RevenueReport getRevenueReport(LocalDate from, LocalDate to) throws FlooringException;
 
     // Reference Data
     List<Product> getAllProducts() throws FlooringException;
@@ -4,26 +4,46 @@ import org.example.dao.*;
 import org.example.model.Order;
 import org.example.model.Product;
 import org.example.model.Tax;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-@Service
 public class FlooringServiceImpl implements FlooringService {
 
     private final OrderDao orderDao;
     private final ProductDao productDao;
     private final TaxDao taxDao;
-    @Autowired
+    private final OrderExporter exporter;
+    private final OrderRangeLoader rangeLoader;
+    private Path repricingReportFile = Paths.get(REPRICING_REPORT_FILE);
+
+    private static final String EXPORT_FILE = "src/main/resources/Backup/DataExport.txt";
+    private static final String REPRICING_REPORT_FILE = "src/main/resources/Backup/RepricingReport.txt";
+    //most orders a customer search returns, enough for a clerk to pick from
+    static final int CUSTOMER_SEARCH_LIMIT = 100;
+    //rows held in memory at once during an import, each date is written once per batch
+    private static final int IMPORT_BATCH_SIZE = 100_000;
+
     public FlooringServiceImpl(OrderDao orderDao, ProductDao productDao, TaxDao taxDao) {
         this.orderDao = orderDao;
         this.productDao = productDao;
         this.taxDao = taxDao;
+        this.exporter = new OrderExporter(orderDao);
+        this.rangeLoader = new OrderRangeLoader(orderDao);
+    }
+
+    //tests keep their reports out of src/main/resources
+    void setRepricingReportFile(Path repricingReportFile) {
+        this.repricingReportFile = repricingReportFile;
     }
 
 
@@ -39,6 +59,30 @@ public class FlooringServiceImpl implements FlooringService {
         return orderDao.getOrder(date, orderNumber);
     }
 
+    @Override
+    public Order getOrder(int orderNumber) throws FlooringException {
+        //looking an order up by its number alone, the result carries its date
+        return orderDao.getOrder(orderNumber);
+    }
+
+    @Override
+    public List<Order> getOrdersBetween(LocalDate from, LocalDate to) throws FlooringException {
+        return rangeLoader.load(from, to);
+    }
+
+    @Override
+    public Stream<Order> streamOrdersBetween(LocalDate from, LocalDate to) throws FlooringException {
+        return rangeLoader.stream(from, to);
+    }
+
+    @Override
+    public List<Order> findOrdersByCustomer(String query) throws FlooringException {
+        //names only hold ASCII letters and digits worth searching for, see validateOrder
+        if (query == null || query.chars().noneMatch(c -> c < 128 && Character.isLetterOrDigit(c)))
+            throw new FlooringException("Search needs at least one letter or digit.");
+        return orderDao.findOrdersByCustomer(query, CUSTOMER_SEARCH_LIMIT);
+    }
+
     @Override
     public Order addOrder(LocalDate date, Order order) throws FlooringException {
 
@@ -69,6 +113,187 @@ public class FlooringServiceImpl implements FlooringService {
         return orderDao.removeOrder(date, orderNumber);
     }
 
+    @Override
+    public ExportSummary exportAllData() throws FlooringException {
+        //streaming every date into the backup file
+        return exporter.export(Paths.get(EXPORT_FILE));
+    }
+
+    /**
+     * Validates and prices the rows in parallel, then saves them grouped by date with one write
+     * per date and batch. Bad rows are reported and skipped, they never abort the import.
+     * Past dates are accepted since the import is also used to migrate order history.
+     */
+    @Override
+    public ImportResult importOrders(Reader input, ImportFormat format) throws FlooringException {
+        long start = System.nanoTime();
+        OrderImportReader reader = new OrderImportReader(input, format);
+        Queue<ImportResult.RowError> errors = new ConcurrentLinkedQueue<>();
+        Set<LocalDate> dates = new HashSet<>();
+        long imported = 0;
+
+        List<OrderImportReader.Row> batch;
+        while (!(batch = reader.nextBatch(IMPORT_BATCH_SIZE)).isEmpty()) {
+            //one look at the reference files per batch instead of several per row
+            Map<String, Product> products = byKey(productDao.getAllProducts(), Product::getProductType);
+            Map<String, Tax> taxes = byKey(taxDao.getAllTaxes(), Tax::getStateAbbreviation);
+
+            Map<LocalDate, List<OrderImportReader.Row>> byDate = batch.parallelStream()
+                    .filter(row -> {
+                        String error = prepareImportRow(row, products, taxes);
+                        if (error != null) errors.add(new ImportResult.RowError(row.lineNumber, error));
+                        return error == null;
+                    })
+                    .collect(Collectors.groupingByConcurrent(row -> row.date));
+
+            //dates are locked independently in the DAO, so they can be written in parallel
+            imported += byDate.entrySet().parallelStream()
+                    .mapToLong(e -> saveImportedRows(e.getKey(), e.getValue(), errors))
+                    .sum();
+            dates.addAll(byDate.keySet());
+        }
+
+        List<ImportResult.RowError> sorted = new ArrayList<>(errors);
+        sorted.sort(Comparator.comparingInt(ImportResult.RowError::getLineNumber));
+        return new ImportResult(imported, dates.size(), sorted, System.nanoTime() - start);
+    }
+
+    @Override
+    public RevenueReport getRevenueReport(LocalDate from, LocalDate to) throws FlooringException {
+        if (to.isBefore(from)) throw new FlooringException("Report end " + to + " is before its start " + from);
+        return new RevenueReport(from, to, orderDao.getDailyRevenue(from, to));
+    }
+
+    /**
+     * Re-prices every order dated today or later against one snapshot of the product and tax
+     * files. Dates are handled in parallel on the common fork join pool; each one is read,
+     * priced and, if anything changed, written once while its lock is held, so an edit made
+     * at the same time is never lost. Orders whose product or state is gone are left alone.
+     * Runs one at a time, a second caller waits and then finds nothing left to change.
+     */
+    @Override
+    public synchronized RepricingReport repriceFutureOrders() throws FlooringException {
+        long start = System.nanoTime();
+        Map<String, Product> products = byKey(productDao.getAllProducts(), Product::getProductType);
+        Map<String, Tax> taxes = byKey(taxDao.getAllTaxes(), Tax::getStateAbbreviation);
+        //same rule as addOrder: today still counts as a future date
+        LocalDate today = LocalDate.now();
+        List<LocalDate> dates = orderDao.getOrderDates().stream()
+                .filter(date -> !date.isBefore(today))
+                .collect(Collectors.toList());
+
+        List<RepricedDate> results = dates.parallelStream()
+                .map(date -> repriceDate(date, products, taxes))
+                .collect(Collectors.toList()); // stays in date order
+
+        long scanned = 0;
+        int rewritten = 0;
+        List<RepricingReport.Change> changes = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        for (RepricedDate result : results) {
+            scanned += result.scanned;
+            if (!result.changes.isEmpty()) rewritten++;
+            changes.addAll(result.changes);
+            skipped.addAll(result.skipped);
+        }
+
+        RepricingReport report = new RepricingReport(repricingReportFile, dates.size(), rewritten,
+                scanned, changes, skipped, System.nanoTime() - start);
+        try {
+            report.write();
+        } catch (IOException e) {
+            throw new FlooringException("Orders were repriced but the report could not be written: " + repricingReportFile, e);
+        }
+        return report;
+    }
+
+    private RepricedDate repriceDate(LocalDate date, Map<String, Product> products, Map<String, Tax> taxes) {
+        RepricedDate result = new RepricedDate();
+        try {
+            //the DAO hands us copies, so pricing one in place is safe even if it is not kept
+            orderDao.updateOrders(date, order -> {
+                result.scanned++;
+                Product product = products.get(order.getProductType().toLowerCase());
+                Tax tax = taxes.get(order.getState().toLowerCase());
+                if (product == null || tax == null) {
+                    result.skipped.add(date + " #" + order.getOrderNumber() + ": " + (product == null
+                            ? "unknown product " + order.getProductType() : "unknown state " + order.getState()));
+                    return null;
+                }
+                BigDecimal[] before = prices(order);
+                calculateOrderCosts(order, product, tax);
+                BigDecimal[] after = prices(order);
+                if (samePrices(before, after)) return null;
+
+                result.changes.add(new RepricingReport.Change(date, order.getOrderNumber(), order.getCustomerName(), before, after));
+                return order;
+            });
+        } catch (FlooringException e) {
+            //nothing was written for this date, the other dates carry on
+            result.changes.clear();
+            result.skipped.add(date + ": " + e.getMessage());
+        }
+        return result;
+    }
+
+    //in RepricingReport.FIELDS order
+    private static BigDecimal[] prices(Order order) {
+        return new BigDecimal[]{order.getTaxRate(), order.getCostPerSquareFoot(), order.getLaborCostPerSquareFoot(),
+                order.getMaterialCost(), order.getLaborCost(), order.getTax(), order.getTotal()};
+    }
+
+    //compareTo, not equals: 4.45 and 4.450 are the same rate and not worth a rewrite
+    private static boolean samePrices(BigDecimal[] before, BigDecimal[] after) {
+        for (int i = 0; i < before.length; i++) {
+            if (!RepricingReport.sameValue(before[i], after[i])) return false;
+        }
+        return true;
+    }
+
+    //what one date contributed to a repricing run, only touched by the thread pricing that date
+    private static final class RepricedDate {
+        private long scanned;
+        private final List<RepricingReport.Change> changes = new ArrayList<>();
+        private final List<String> skipped = new ArrayList<>();
+    }
+
+    //validates and prices one import row, returning the reason it was rejected (or null)
+    private String prepareImportRow(OrderImportReader.Row row, Map<String, Product> products, Map<String, Tax> taxes) {
+        if (row.error != null) return row.error;
+        try {
+            Product product = products.get(row.order.getProductType().toLowerCase());
+            Tax tax = taxes.get(row.order.getState().toLowerCase());
+            validateOrder(row.order, product, tax);
+            calculateOrderCosts(row.order, product, tax);
+            return null;
+        } catch (FlooringException e) {
+            return e.getMessage();
+        }
+    }
+
+    //reference data keyed the same way the DAOs look it up (lowercase)
+    private static <T> Map<String, T> byKey(List<T> values, Function<T, String> key) {
+        Map<String, T> map = new HashMap<>();
+        for (T value : values) map.put(key.apply(value).toLowerCase(), value);
+        return map;
+    }
+
+    private long saveImportedRows(LocalDate date, List<OrderImportReader.Row> rows, Queue<ImportResult.RowError> errors) {
+        //keeping file order within a date
+        rows.sort(Comparator.comparingInt(row -> row.lineNumber));
+        List<Order> orders = new ArrayList<>(rows.size());
+        for (OrderImportReader.Row row : rows) orders.add(row.order);
+        try {
+            orderDao.addOrders(date, orders);
+            return orders.size();
+        } catch (FlooringException e) {
+            for (OrderImportReader.Row row : rows) {
+                errors.add(new ImportResult.RowError(row.lineNumber, "Could not save order: " + e.getMessage()));
+            }
+            return 0;
+        }
+    }
+
 
     @Override
     public List<Product> getAllProducts() throws FlooringException {
@@ -80,6 +305,8 @@ public class FlooringServiceImpl implements FlooringService {
         return taxDao.getAllTaxes();
     }
 
+    private static final BigDecimal MIN_AREA = new BigDecimal("100");
+
     private static final Set<Character> ALLOWED_CHARS = Set.of(
             ' ', '.', ',', '-', '\'',
             'A','B','C','D','E','F','G','H','I','J','K','L','M','N','O','P','Q','R','S','T','U','V','W','X','Y','Z',
@@ -90,6 +317,11 @@ public class FlooringServiceImpl implements FlooringService {
     private void validateOrder(Order order) throws FlooringException {
         if (order == null)
             throw new FlooringException("Order cannot be null.");
+        validateOrder(order, productDao.getProduct(order.getProductType()), taxDao.getTax(order.getState()));
+    }
+
+    //same checks against a product and tax the caller already looked up
+    private void validateOrder(Order order, Product product, Tax tax) throws FlooringException {
 
         String name = order.getCustomerName();
         if (name == null || name.trim().isEmpty())
@@ -100,12 +332,10 @@ public class FlooringServiceImpl implements FlooringService {
         }
 
         // Product validation
-        Product product = productDao.getProduct(order.getProductType());
         if (product == null)
             throw new FlooringException("Invalid product type: " + order.getProductType());
 
         // State validation
-        Tax tax = taxDao.getTax(order.getState());
         if (tax == null)
             throw new FlooringException("Invalid state abbreviation: " + order.getState());
 
@@ -113,7 +343,7 @@ public class FlooringServiceImpl implements FlooringService {
         BigDecimal area = order.getArea();
         if (area == null)
             throw new FlooringException("Area is required.");
-        if (area.compareTo(new BigDecimal("100")) < 0)
+        if (area.compareTo(MIN_AREA) < 0)
             throw new FlooringException("Area must be at least 100 sq ft.");
     }
 
@@ -121,28 +351,12 @@ public class FlooringServiceImpl implements FlooringService {
 
 
     public void calculateOrderCosts(Order order) throws FlooringException {
-        Product product = productDao.getProduct(order.getProductType());
-        Tax tax = taxDao.getTax(order.getState());
+        calculateOrderCosts(order, productDao.getProduct(order.getProductType()), taxDao.getTax(order.getState()));
+    }
 
-        BigDecimal area = order.getArea();
-        BigDecimal costPerSqFt = product.getCostPerSquareFoot();
-        BigDecimal laborCostPerSqFt = product.getLaborCostPerSquareFoot();
-
-        BigDecimal materialCost = area.multiply(costPerSqFt);
-        BigDecimal laborCost = area.multiply(laborCostPerSqFt);
-        BigDecimal subtotal = materialCost.add(laborCost);
-        BigDecimal taxAmount = subtotal
-                .multiply(tax.getTaxRate().divide(new BigDecimal("100")))
-                .setScale(2, RoundingMode.HALF_UP);
-        BigDecimal total = subtotal.add(taxAmount).setScale(2, RoundingMode.HALF_UP);
-
-        order.setTaxRate(tax.getTaxRate());
-        order.setCostPerSquareFoot(costPerSqFt);
-        order.setLaborCostPerSquareFoot(laborCostPerSqFt);
-        order.setMaterialCost(materialCost);
-        order.setLaborCost(laborCost);
-        order.setTax(taxAmount);
-        order.setTotal(total);
+    private void calculateOrderCosts(Order order, Product product, Tax tax) {
+        //scaled long arithmetic with a BigDecimal fallback, same results as the plain BigDecimal formula
+        OrderPricing.price(order, product, tax);
     }
 
     @Override
@@ -0,0 +1,17 @@
+package org.example.service;
+
+/**
+ * Formats accepted by the bulk order import.
+ * CSV needs a header row naming the OrderDate, CustomerName, State, ProductType and Area columns,
+ * NDJSON is one flat JSON object per line with orderDate, customerName, state, productType and area.
+ */
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    //picking the format from a file name, CSV unless it looks like JSON lines
+    public static ImportFormat fromFileName(String fileName) {
+        String lower = fileName.toLowerCase();
+        return lower.endsWith(".ndjson") || lower.endsWith(".jsonl") || lower.endsWith(".json") ? NDJSON : CSV;
+    }
+}
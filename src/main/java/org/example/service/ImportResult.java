@@ -0,0 +1,50 @@
+package org.example.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many orders were saved and why the other rows were rejected.
+ */
+public class ImportResult {
+
+    public static class RowError {
+        private final int lineNumber;
+        private final String message;
+
+        public RowError(int lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        public int getLineNumber() { return lineNumber; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + message;
+        }
+    }
+
+    private final long imported;
+    private final int dates;
+    private final List<RowError> errors;
+    private final long elapsedNanos;
+
+    public ImportResult(long imported, int dates, List<RowError> errors, long elapsedNanos) {
+        this.imported = imported;
+        this.dates = dates;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getImported() { return imported; }
+    public int getDates() { return dates; }
+    public List<RowError> getErrors() { return errors; }
+    public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+    @Override
+    public String toString() {
+        return String.format("Imported %d orders into %d dates in %d ms, %d rows rejected",
+                imported, dates, getElapsedMillis(), errors.size());
+    }
+}
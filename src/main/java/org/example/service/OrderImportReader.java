@@ -0,0 +1,163 @@
+package org.example.service;
+
+import org.example.dao.FlooringException;
+import org.example.model.Order;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads import rows in batches, turning each line into an unpriced order and its date.
+ * A line that cannot be read becomes a row with an error instead of failing the import.
+ */
+final class OrderImportReader {
+
+    private static final DateTimeFormatter EXPORT_DATE_FORMAT = DateTimeFormatter.ofPattern("MM-dd-yyyy");
+    private static final String[] CSV_COLUMNS = {"orderdate", "customername", "state", "producttype", "area"};
+
+    static final class Row {
+        final int lineNumber;
+        final LocalDate date;
+        final Order order;
+        final String error;
+
+        private Row(int lineNumber, LocalDate date, Order order, String error) {
+            this.lineNumber = lineNumber;
+            this.date = date;
+            this.order = order;
+            this.error = error;
+        }
+    }
+
+    private final BufferedReader in;
+    private final ImportFormat format;
+    private int lineNumber;
+    //CSV column positions by lowercase header name
+    private Map<String, Integer> columns;
+
+    OrderImportReader(Reader in, ImportFormat format) {
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 1 << 16);
+        this.format = format;
+    }
+
+    /**
+     * @return up to max rows, an empty list once the input is exhausted
+     */
+    List<Row> nextBatch(int max) throws FlooringException {
+        List<Row> rows = new ArrayList<>(Math.min(max, 4096));
+        try {
+            if (format == ImportFormat.CSV && columns == null) readHeader();
+            String line;
+            while (rows.size() < max && (line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                rows.add(parse(line));
+            }
+        } catch (IOException e) {
+            throw new FlooringException("Could not read import data.", e);
+        }
+        return rows;
+    }
+
+    private void readHeader() throws IOException, FlooringException {
+        String header = in.readLine();
+        lineNumber++;
+        if (header == null) {
+            columns = Map.of();
+            return;
+        }
+        columns = new HashMap<>();
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) columns.put(names.get(i).trim().toLowerCase(), i);
+        for (String required : CSV_COLUMNS) {
+            if (!columns.containsKey(required)) throw new FlooringException("Import header is missing column " + required);
+        }
+    }
+
+    private Row parse(String line) {
+        try {
+            Map<String, String> fields = new HashMap<>();
+            if (format == ImportFormat.CSV) {
+                List<String> values = splitCsv(line);
+                for (String column : CSV_COLUMNS) {
+                    int index = columns.get(column);
+                    fields.put(column, index < values.size() ? values.get(index) : null);
+                }
+            } else {
+                for (Map.Entry<String, String> e : FlatJson.parseObject(line).entrySet()) {
+                    fields.put(e.getKey().toLowerCase(), e.getValue());
+                }
+            }
+
+            LocalDate date = parseDate(required(fields, "orderdate"));
+            Order order = new Order();
+            order.setCustomerName(required(fields, "customername").trim());
+            order.setState(required(fields, "state").trim().toUpperCase());
+            order.setProductType(required(fields, "producttype").trim());
+            order.setArea(new BigDecimal(required(fields, "area").trim()));
+            return new Row(lineNumber, date, order, null);
+        } catch (FlooringException e) {
+            return new Row(lineNumber, null, null, e.getMessage());
+        } catch (NumberFormatException e) {
+            return new Row(lineNumber, null, null, "Area is not a number.");
+        }
+    }
+
+    private static String required(Map<String, String> fields, String name) throws FlooringException {
+        String value = fields.get(name);
+        if (value == null || value.isBlank()) throw new FlooringException("Missing " + name + ".");
+        return value;
+    }
+
+    //accepting the prompt format (2025-06-01) and the export format (06-01-2025)
+    private static LocalDate parseDate(String text) throws FlooringException {
+        String trimmed = text.trim();
+        try {
+            return LocalDate.parse(trimmed);
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDate.parse(trimmed, EXPORT_DATE_FORMAT);
+            } catch (DateTimeParseException e2) {
+                throw new FlooringException("Invalid order date: " + trimmed);
+            }
+        }
+    }
+
+    //splits one CSV line, double quotes allow commas inside a value ("" is a literal quote)
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
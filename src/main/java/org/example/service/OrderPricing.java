@@ -0,0 +1,136 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.Product;
+import org.example.model.Tax;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Order cost calculation. The usual path works on scaled longs (the unscaled values and
+ * scales of the BigDecimal inputs) and only creates the four BigDecimals it stores on the
+ * order. Results are identical to the BigDecimal formula, same unscaled value and same
+ * scale, including HALF_UP rounding of tax and total. Any input that could overflow a long
+ * (huge values, many decimals, negative scales) goes through the BigDecimal formula instead.
+ */
+final class OrderPricing {
+
+    //10^0 .. 10^18, every power of ten a long can hold
+    private static final long[] POW10 = new long[19];
+    private static final int MAX_DIGITS = 18;
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    private static final BigDecimal ONE_HUNDRED = new BigDecimal("100");
+
+    private OrderPricing() {
+    }
+
+    static void price(Order order, Product product, Tax tax) {
+        if (!priceFixedPoint(order, product, tax)) {
+            priceBigDecimal(order, product, tax);
+        }
+    }
+
+    /**
+     * Prices the order with long arithmetic.
+     *
+     * @return false if some step could overflow, the order is left untouched then
+     */
+    static boolean priceFixedPoint(Order order, Product product, Tax tax) {
+        BigDecimal area = order.getArea();
+        BigDecimal costPerSqFt = product.getCostPerSquareFoot();
+        BigDecimal laborCostPerSqFt = product.getLaborCostPerSquareFoot();
+        BigDecimal taxRate = tax.getTaxRate();
+        if (!fits(area) || !fits(costPerSqFt) || !fits(laborCostPerSqFt) || !fits(taxRate)) return false;
+
+        try {
+            //material and labor keep the scale BigDecimal.multiply gives them: the sum of the scales
+            int materialScale = area.scale() + costPerSqFt.scale();
+            int laborScale = area.scale() + laborCostPerSqFt.scale();
+            long material = Math.multiplyExact(unscaled(area), unscaled(costPerSqFt));
+            long labor = Math.multiplyExact(unscaled(area), unscaled(laborCostPerSqFt));
+
+            int subtotalScale = Math.max(materialScale, laborScale);
+            if (subtotalScale > MAX_DIGITS) return false;
+            long subtotal = Math.addExact(
+                    Math.multiplyExact(material, POW10[subtotalScale - materialScale]),
+                    Math.multiplyExact(labor, POW10[subtotalScale - laborScale]));
+
+            //subtotal * rate / 100 in cents: the product has scale subtotalScale + rateScale + 2 as a fraction
+            int taxShift = subtotalScale + taxRate.scale();
+            if (taxShift > MAX_DIGITS) return false;
+            //split as (whole + part) * rate so the multiply stays small, the whole part needs no rounding
+            long rate = unscaled(taxRate);
+            long whole = subtotal / POW10[taxShift];
+            long part = subtotal % POW10[taxShift];
+            long taxCents = Math.addExact(Math.multiplyExact(whole, rate),
+                    divideHalfUp(Math.multiplyExact(part, rate), POW10[taxShift]));
+
+            long totalCents;
+            if (subtotalScale <= 2) {
+                totalCents = Math.addExact(Math.multiplyExact(subtotal, POW10[2 - subtotalScale]), taxCents);
+            } else {
+                long shift = POW10[subtotalScale - 2];
+                totalCents = divideHalfUp(Math.addExact(subtotal, Math.multiplyExact(taxCents, shift)), shift);
+            }
+
+            order.setTaxRate(taxRate);
+            order.setCostPerSquareFoot(costPerSqFt);
+            order.setLaborCostPerSquareFoot(laborCostPerSqFt);
+            order.setMaterialCost(BigDecimal.valueOf(material, materialScale));
+            order.setLaborCost(BigDecimal.valueOf(labor, laborScale));
+            order.setTax(BigDecimal.valueOf(taxCents, 2));
+            order.setTotal(BigDecimal.valueOf(totalCents, 2));
+            return true;
+        } catch (ArithmeticException e) {
+            return false; // overflow, the caller falls back to BigDecimal
+        }
+    }
+
+    /**
+     * The original formula, used for values the long path cannot hold.
+     */
+    static void priceBigDecimal(Order order, Product product, Tax tax) {
+        BigDecimal area = order.getArea();
+        BigDecimal costPerSqFt = product.getCostPerSquareFoot();
+        BigDecimal laborCostPerSqFt = product.getLaborCostPerSquareFoot();
+
+        BigDecimal materialCost = area.multiply(costPerSqFt);
+        BigDecimal laborCost = area.multiply(laborCostPerSqFt);
+        BigDecimal subtotal = materialCost.add(laborCost);
+        BigDecimal taxAmount = subtotal
+                .multiply(tax.getTaxRate().divide(ONE_HUNDRED))
+                .setScale(2, RoundingMode.HALF_UP);
+        BigDecimal total = subtotal.add(taxAmount).setScale(2, RoundingMode.HALF_UP);
+
+        order.setTaxRate(tax.getTaxRate());
+        order.setCostPerSquareFoot(costPerSqFt);
+        order.setLaborCostPerSquareFoot(laborCostPerSqFt);
+        order.setMaterialCost(materialCost);
+        order.setLaborCost(laborCost);
+        order.setTax(taxAmount);
+        order.setTotal(total);
+    }
+
+    //non negative scale and an unscaled value of at most 18 digits
+    private static boolean fits(BigDecimal value) {
+        return value.scale() >= 0 && value.scale() <= MAX_DIGITS && value.precision() <= MAX_DIGITS;
+    }
+
+    private static long unscaled(BigDecimal value) {
+        return value.scale() == 0 ? value.longValue() : value.unscaledValue().longValue();
+    }
+
+    //HALF_UP: ties go away from zero, like RoundingMode.HALF_UP
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= divisor - remainder) quotient += Long.signum(dividend);
+        return quotient;
+    }
+}
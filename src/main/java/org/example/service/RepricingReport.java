@@ -0,0 +1,114 @@
+package org.example.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Outcome of a repricing run: every order whose stored prices no longer matched the
+ * reference files, with the old and new values, and the orders that could not be priced.
+ */
+public class RepricingReport {
+
+    public static class Change {
+        private final LocalDate date;
+        private final int orderNumber;
+        private final String customerName;
+        private final BigDecimal[] before;
+        private final BigDecimal[] after;
+
+        Change(LocalDate date, int orderNumber, String customerName, BigDecimal[] before, BigDecimal[] after) {
+            this.date = date;
+            this.orderNumber = orderNumber;
+            this.customerName = customerName;
+            this.before = before;
+            this.after = after;
+        }
+
+        public LocalDate getDate() { return date; }
+        public int getOrderNumber() { return orderNumber; }
+        public String getCustomerName() { return customerName; }
+        public BigDecimal getOldTotal() { return before[FIELDS.length - 1]; }
+        public BigDecimal getNewTotal() { return after[FIELDS.length - 1]; }
+
+        //one diff line, only the fields that changed
+        @Override
+        public String toString() {
+            StringBuilder line = new StringBuilder();
+            line.append(date).append(" #").append(orderNumber).append(' ').append(customerName).append(':');
+            String separator = " ";
+            for (int i = 0; i < FIELDS.length; i++) {
+                if (sameValue(before[i], after[i])) continue;
+                line.append(separator).append(FIELDS[i]).append(' ').append(before[i]).append(" -> ").append(after[i]);
+                separator = ", ";
+            }
+            return line.toString();
+        }
+    }
+
+    //the priced fields of an order in file order, Total last
+    static final String[] FIELDS = {"TaxRate", "CostPerSquareFoot", "LaborCostPerSquareFoot",
+            "MaterialCost", "LaborCost", "Tax", "Total"};
+
+    private final Path file;
+    private final int datesScanned;
+    private final int datesRewritten;
+    private final long ordersScanned;
+    private final List<Change> changes;
+    private final List<String> skipped;
+    private final long elapsedNanos;
+
+    public RepricingReport(Path file, int datesScanned, int datesRewritten, long ordersScanned, List<Change> changes,
+                           List<String> skipped, long elapsedNanos) {
+        this.file = file;
+        this.datesScanned = datesScanned;
+        this.datesRewritten = datesRewritten;
+        this.ordersScanned = ordersScanned;
+        this.changes = changes;
+        this.skipped = skipped;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Path getFile() { return file; }
+    public int getDatesScanned() { return datesScanned; }
+    public int getDatesRewritten() { return datesRewritten; }
+    public long getOrdersScanned() { return ordersScanned; }
+    //sorted by date, then by position in the date file
+    public List<Change> getChanges() { return changes; }
+    //orders that were left alone, e.g. their product no longer exists
+    public List<String> getSkipped() { return skipped; }
+    public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+    /**
+     * Writes the summary, one line per changed order and one per skipped order to the report file.
+     */
+    public void write() throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(toString());
+            out.newLine();
+            for (Change change : changes) {
+                out.write(change.toString());
+                out.newLine();
+            }
+            for (String reason : skipped) {
+                out.write("SKIPPED " + reason);
+                out.newLine();
+            }
+        }
+    }
+
+    static boolean sameValue(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Repriced %d of %d orders, rewrote %d of %d dates in %d ms, %d skipped, details in %s",
+                changes.size(), ordersScanned, datesRewritten, datesScanned, getElapsedMillis(), skipped.size(), file);
+    }
+}
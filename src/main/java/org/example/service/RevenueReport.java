@@ -0,0 +1,68 @@
+package org.example.service;
+
+import org.example.dao.DailyRevenue;
+import org.example.dao.Revenue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Revenue over a date range, summed from the stored daily rollups: overall, per month,
+ * per state and per product.
+ */
+public class RevenueReport {
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final List<DailyRevenue> days;
+    private final Revenue total;
+    private final Map<YearMonth, Revenue> byMonth = new TreeMap<>();
+    private final Map<String, Revenue> byState = new TreeMap<>();
+    private final Map<String, Revenue> byProduct = new TreeMap<>();
+
+    public RevenueReport(LocalDate from, LocalDate to, List<DailyRevenue> days) {
+        this.from = from;
+        this.to = to;
+        this.days = days;
+        Revenue sum = Revenue.ZERO;
+        for (DailyRevenue day : days) {
+            Revenue dayTotal = day.getTotal();
+            sum = sum.plus(dayTotal);
+            byMonth.merge(YearMonth.from(day.getDate()), dayTotal, Revenue::plus);
+            day.getByState().forEach((state, revenue) -> byState.merge(state, revenue, Revenue::plus));
+            day.getByProduct().forEach((product, revenue) -> byProduct.merge(product, revenue, Revenue::plus));
+        }
+        this.total = sum;
+    }
+
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    //one entry per date with orders, oldest first
+    public List<DailyRevenue> getDays() { return days; }
+    public Revenue getTotal() { return total; }
+    public Map<YearMonth, Revenue> getByMonth() { return byMonth; }
+    public Map<String, Revenue> getByState() { return byState; }
+    public Map<String, Revenue> getByProduct() { return byProduct; }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Revenue %s to %s, %d order dates%n", from, to, days.size()));
+        out.append(String.format("%-12s %8s %14s %14s %12s %14s%n", "", "Orders", "Material", "Labor", "Tax", "Total"));
+        for (Map.Entry<YearMonth, Revenue> month : byMonth.entrySet()) appendRow(out, month.getKey().toString(), month.getValue());
+        appendRow(out, "All", total);
+        out.append(String.format("%nBy state%n"));
+        for (Map.Entry<String, Revenue> state : byState.entrySet()) appendRow(out, state.getKey(), state.getValue());
+        out.append(String.format("%nBy product%n"));
+        for (Map.Entry<String, Revenue> product : byProduct.entrySet()) appendRow(out, product.getKey(), product.getValue());
+        return out.toString();
+    }
+
+    private static void appendRow(StringBuilder out, String label, Revenue revenue) {
+        out.append(String.format("%-12s %8d %14s %14s %12s %14s%n", label, revenue.getOrders(), revenue.getMaterialCost(),
+                revenue.getLaborCost(), revenue.getTax(), revenue.getTotal()));
+    }
+}
@@ -4,7 +4,6 @@ import org.example.dao.FlooringException;
 import org.example.model.Order;
 import org.example.model.Product;
 import org.example.model.Tax;
-import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -12,7 +11,6 @@ import java.util.List;
 import java.util.Scanner;
 import java.util.Set;
 
-@Component
 public class FlooringView {
 
     private final Scanner scanner = new Scanner(System.in);
@@ -27,12 +25,16 @@ public class FlooringView {
                 System.out.println("3. Edit an Order");
                 System.out.println("4. Remove an Order");
                 System.out.println("5. Export All Data");
-                System.out.println("6. Quit");
+                System.out.println("6. Reprice Future Orders");
+                System.out.println("7. Revenue Report");
+                System.out.println("8. Find Orders by Customer");
+                System.out.println("9. Diagnostics");
+                System.out.println("10. Quit");
                 System.out.println("* * * * * * * * * * * * * * * *");
                 System.out.print("Choose an option: ");
                 int choice = Integer.parseInt(scanner.nextLine().trim());
-                if (choice >= 1 && choice <= 6) return choice;
-                System.out.println("Please enter a number between 1 and 6.");
+                if (choice >= 1 && choice <= 10) return choice;
+                System.out.println("Please enter a number between 1 and 10.");
             } catch (NumberFormatException e) {
                 System.out.println("Invalid input. Try again.");
             }
@@ -241,6 +243,12 @@ public class FlooringView {
         }
     }
 
+    //free text for the customer search, the service decides whether it is usable
+    public String promptSearchText(String message) {
+        System.out.print(message);
+        return scanner.nextLine().trim();
+    }
+
     //confirmation check for editing and adding order after displaying summary
     public String promptConfirmation(String message) {
         while (true) {
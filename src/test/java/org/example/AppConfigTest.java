@@ -0,0 +1,51 @@
+package org.example;
+
+import org.example.controller.FlooringCommandLine;
+import org.example.controller.FlooringController;
+import org.example.controller.FlooringHttpServer;
+import org.example.dao.OrderDao;
+import org.example.metrics.MetricsRegistry;
+import org.example.service.FlooringService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AppConfigTest {
+
+    @Test
+    void testExplicitBeansWireTheApplication(@TempDir Path dir) {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                    "orders.folder", dir.resolve("Orders").toString(),
+                    "metrics.dump.intervalSeconds", "0")));
+            context.register(AppConfig.class);
+            context.refresh();
+
+            //the front ends are only built when asked for
+            assertFalse(context.getBeanFactory().containsSingleton("flooringController"));
+            assertFalse(context.getBeanFactory().containsSingleton("flooringHttpServer"));
+            assertFalse(context.getBeanFactory().containsSingleton("flooringCommandLine"));
+            assertNotNull(context.getBean(FlooringController.class));
+            assertNotNull(context.getBean(FlooringHttpServer.class));
+
+            //still instrumented without the component scan
+            assertEquals("InstrumentedFlooringService", context.getBean(FlooringService.class).getClass().getSimpleName());
+            assertEquals("InstrumentedOrderDao", context.getBean(OrderDao.class).getClass().getSimpleName());
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8);
+            assertEquals(FlooringCommandLine.OK, context.getBean(FlooringCommandLine.class).run(new String[]{"products"}, out));
+            assertTrue(output.toString(StandardCharsets.UTF_8).contains("\"productType\":\"Tile\""));
+            assertTrue(context.getBean(MetricsRegistry.class).timer("service.getAllProducts").getCount() > 0);
+        }
+    }
+}
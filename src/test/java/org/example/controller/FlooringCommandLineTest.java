@@ -0,0 +1,101 @@
+package org.example.controller;
+
+import org.example.dao.OrderDaoFileImpl;
+import org.example.dao.ProductDaoFileImpl;
+import org.example.dao.StorageSettings;
+import org.example.dao.TaxDaoFileImpl;
+import org.example.metrics.MetricsRegistry;
+import org.example.service.FlooringServiceImpl;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlooringCommandLineTest {
+
+    private final LocalDate date = LocalDate.now().plusDays(10);
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8);
+    private OrderDaoFileImpl dao;
+    private FlooringCommandLine cli;
+
+    @BeforeEach
+    void setup(@TempDir Path dir) {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.resolve("Orders").toString());
+        dao = new OrderDaoFileImpl(settings);
+        cli = new FlooringCommandLine(new FlooringServiceImpl(dao, new ProductDaoFileImpl(), new TaxDaoFileImpl()), new MetricsRegistry());
+    }
+
+    @AfterEach
+    void close() {
+        dao.close();
+    }
+
+    @Test
+    void testScriptRunsCommandsAndStopsAtFirstFailure() throws Exception {
+        String script = String.join("\n",
+                "# comments and blank lines are skipped",
+                "",
+                "add --date " + date + " --name \"Tony Soprano\" --state TX --product Tile --area 150",
+                "add --date " + date + " --name \"Paulie Walnuts\" --state CA --product Wood --area 200",
+                "edit --number 2 --area 250",
+                "list --date " + date,
+                "remove --number 42",
+                "products");
+
+        assertEquals(FlooringCommandLine.FAILED, cli.runScript(new StringReader(script), out));
+        List<String> lines = lines();
+        assertEquals(5, lines.size(), "One JSON line per command, nothing after the failure");
+        assertTrue(lines.get(0).startsWith("{\"command\":\"add\",\"ok\":true,\"micros\":"));
+        assertTrue(lines.get(0).contains("\"customerName\":\"Tony Soprano\""));
+        assertTrue(lines.get(2).contains("\"area\":250"));
+        assertEquals(2, lines.get(3).split("\"orderNumber\"").length - 1);
+        assertTrue(lines.get(4).startsWith("{\"command\":\"remove\",\"ok\":false,"));
+        assertTrue(lines.get(4).endsWith("\"error\":\"Order #42 not found\"}"));
+    }
+
+    @Test
+    void testSingleCommandsAndImportFile(@TempDir Path dir) throws Exception {
+        Path csv = dir.resolve("orders.csv");
+        Files.writeString(csv, "OrderDate,CustomerName,State,ProductType,Area\n"
+                + date + ",Silvio Dante,TX,Tile,120\n"
+                + date + ",Bad Row,XX,Tile,120\n");
+
+        assertEquals(FlooringCommandLine.OK, cli.run(new String[]{"add", "--file", csv.toString()}, out));
+        assertTrue(lines().get(0).contains("\"imported\":1"));
+        assertTrue(lines().get(0).contains("\"line\":3"));
+
+        assertEquals(FlooringCommandLine.OK, cli.run(new String[]{"list", "--customer", "silvio"}, out));
+        assertTrue(lines().get(1).contains("Silvio Dante"));
+        assertEquals(FlooringCommandLine.OK, cli.run(new String[]{"revenue", "--from", date.toString(), "--to", date.toString()}, out));
+        assertTrue(lines().get(2).contains("\"orders\":1"));
+
+        assertEquals(FlooringCommandLine.USAGE, cli.run(new String[]{"list", "--day", "2030-01-01"}, out));
+        assertEquals(FlooringCommandLine.USAGE, cli.run(new String[]{"dance"}, out));
+        assertEquals(FlooringCommandLine.FAILED, cli.run(new String[]{"list", "--date", "tomorrow"}, out));
+        assertEquals(FlooringCommandLine.USAGE, cli.run(new String[]{"script", "--file", "-", "--file"}, out));
+        assertEquals(7, lines().size());
+    }
+
+    @Test
+    void testSplitKeepsQuotedWords() {
+        assertEquals(List.of("add", "--name", "Tony Soprano", "--area", "150"),
+                FlooringCommandLine.split("  add --name \"Tony Soprano\"   --area 150 "));
+        assertEquals(List.of("list", "--customer", ""), FlooringCommandLine.split("list --customer \"\""));
+        assertThrows(IllegalArgumentException.class, () -> FlooringCommandLine.split("add --name \"Tony"));
+    }
+
+    private List<String> lines() {
+        return output.toString(StandardCharsets.UTF_8).lines().collect(java.util.stream.Collectors.toList());
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.controller;
+
+import org.example.dao.OrderDaoFileImpl;
+import org.example.dao.ProductDaoFileImpl;
+import org.example.dao.StorageSettings;
+import org.example.dao.TaxDaoFileImpl;
+import org.example.metrics.MetricsRegistry;
+import org.example.model.Order;
+import org.example.service.FlatJson;
+import org.example.service.FlooringService;
+import org.example.service.FlooringServiceImpl;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlooringHttpServerTest {
+
+    private final LocalDate date = LocalDate.now().plusDays(30);
+    private final HttpClient client = HttpClient.newHttpClient();
+    private OrderDaoFileImpl dao;
+    private FlooringService service;
+    private FlooringHttpServer server;
+    private String base;
+
+    private Path ordersFolder;
+
+    @BeforeEach
+    void start(@TempDir Path dir) throws Exception {
+        ordersFolder = dir.resolve("Orders");
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(ordersFolder.toString());
+        dao = new OrderDaoFileImpl(settings);
+        service = new FlooringServiceImpl(dao, new ProductDaoFileImpl(), new TaxDaoFileImpl());
+        server = new FlooringHttpServer(service, new MetricsRegistry());
+        server.start(0);
+        base = "http://localhost:" + server.getPort();
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+        dao.close();
+    }
+
+    @Test
+    void testConcurrentClientsAddAndReadOrders() throws Exception {
+        int clients = 8;
+        int ordersPerClient = 25;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<List<Integer>>> results = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            results.add(pool.submit(() -> {
+                List<Integer> numbers = new ArrayList<>();
+                for (int i = 0; i < ordersPerClient; i++) {
+                    //two dates, so adds race on the same date file as well as on different ones
+                    LocalDate day = date.plusDays(i % 2);
+                    HttpResponse<String> added = send("POST", "/orders", "{\"orderDate\":\"" + day + "\",\"customerName\":\"Client "
+                            + client + " Order " + i + "\",\"state\":\"TX\",\"productType\":\"Tile\",\"area\":\"150\"}");
+                    assertEquals(201, added.statusCode(), added.body());
+                    numbers.add(Integer.parseInt(field(added.body(), "orderNumber")));
+                    assertEquals(200, send("GET", "/orders?date=" + day, null).statusCode());
+                }
+                return numbers;
+            }));
+        }
+        Set<Integer> numbers = new HashSet<>();
+        for (Future<List<Integer>> result : results) numbers.addAll(result.get());
+        pool.shutdown();
+
+        assertEquals(clients * ordersPerClient, numbers.size(), "Every order got its own number");
+        assertEquals(clients * ordersPerClient, service.getOrdersBetween(date, date.plusDays(1)).size());
+        HttpResponse<String> range = send("GET", "/orders?from=" + date + "&to=" + date.plusDays(1), null);
+        assertEquals(200, range.statusCode());
+        assertEquals(clients * ordersPerClient, range.body().split("\"orderNumber\"").length - 1);
+        assertTrue(send("GET", "/orders?customer=client+3", null).body().contains("Client 3 Order 24"));
+        assertTrue(send("GET", "/metrics", null).statusCode() == 200);
+    }
+
+    @Test
+    void testEditRemoveAndErrors() throws Exception {
+        Order order = new Order();
+        order.setCustomerName("Tony Soprano");
+        order.setState("TX");
+        order.setProductType("Tile");
+        order.setArea(new java.math.BigDecimal("200"));
+        int number = service.addOrder(date, order).getOrderNumber();
+
+        HttpResponse<String> edited = send("PUT", "/orders/" + number, "{\"customerName\":\"Carmela Soprano\"}");
+        assertEquals(200, edited.statusCode(), edited.body());
+        assertEquals("Carmela Soprano", field(edited.body(), "customerName"));
+        assertEquals("Tile", field(edited.body(), "productType"), "Fields not given keep their value");
+        assertEquals(date.toString(), field(send("GET", "/orders/" + number, null).body(), "orderDate"));
+
+        assertEquals(400, send("POST", "/orders", "{\"orderDate\":\"" + date + "\",\"customerName\":\"!!\",\"state\":\"TX\","
+                + "\"productType\":\"Tile\",\"area\":\"150\"}").statusCode());
+        assertEquals(400, send("GET", "/orders?date=not-a-date", null).statusCode());
+        assertEquals(400, send("POST", "/orders", "{nope").statusCode());
+        assertEquals(405, send("PATCH", "/orders", null).statusCode());
+        assertEquals(404, send("GET", "/nothing", null).statusCode());
+
+        assertEquals(200, send("DELETE", "/orders/" + number, null).statusCode());
+        HttpResponse<String> gone = send("GET", "/orders/" + number, null);
+        assertEquals(404, gone.statusCode());
+        assertTrue(gone.body().contains("\"error\""));
+    }
+
+    @Test
+    void testStorageFailuresAreServerErrors() throws Exception {
+        assertTrue(server.getAddress().getAddress().isLoopbackAddress(), "Only loopback unless told otherwise");
+
+        //the folder is gone and a plain file sits in its place, so no date file can be written
+        try (Stream<Path> files = Files.walk(ordersFolder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+        Files.writeString(ordersFolder, "not a folder");
+        HttpResponse<String> failed = send("POST", "/orders", "{\"orderDate\":\"" + date + "\",\"customerName\":\"Tony Soprano\","
+                + "\"state\":\"TX\",\"productType\":\"Tile\",\"area\":\"150\"}");
+        assertEquals(500, failed.statusCode(), failed.body());
+        assertTrue(failed.body().contains("\"error\""));
+        assertEquals(400, send("POST", "/orders", "{\"orderDate\":\"" + date + "\",\"customerName\":\"!!\",\"state\":\"TX\","
+                + "\"productType\":\"Tile\",\"area\":\"150\"}").statusCode(), "Validation still comes first");
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String field(String json, String name) {
+        return FlatJson.parseObject(json).get(name);
+    }
+}
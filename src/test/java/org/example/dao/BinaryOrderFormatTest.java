@@ -0,0 +1,120 @@
+package org.example.dao;
+
+import org.example.model.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryOrderFormatTest {
+
+    @Test
+    void testRoundTripIsLossless(@TempDir Path dir) throws Exception {
+        List<Order> orders = new ArrayList<>();
+        orders.add(order(7, "Acme, Inc.", "TX", "4.45", "Carpet", "100.00", "454.36"));
+        orders.add(order(3, "Renée Müller", "CA", "25.00", "Tile", "200", "1.5E+3"));
+        orders.add(order(12, "Big Spender", "KY", "6.00", "Wood", "12345678901234567890123.45", "-0.01"));
+        Path file = dir.resolve("Orders_01012030.ord");
+
+        Map<Integer, Long> offsets = new BinaryOrderFormat(-1).write(file, orders);
+        List<Order> read = new BinaryOrderFormat(-1).read(file);
+
+        assertEquals(3, read.size());
+        for (int i = 0; i < orders.size(); i++) {
+            assertEquals(OrderDaoFileImpl.marshallOrder(orders.get(i)), OrderDaoFileImpl.marshallOrder(read.get(i)));
+            assertEquals(orders.get(i).getArea().scale(), read.get(i).getArea().scale(), "Scale must be kept");
+        }
+        assertEquals(List.of(7, 3, 12), new ArrayList<>(offsets.keySet()));
+        assertEquals(offsets.keySet(), new BinaryOrderFormat(-1).scanOffsets(file).keySet());
+        //the mapped read decodes the same bytes
+        assertEquals(OrderDaoFileImpl.marshallOrder(read.get(1)),
+                OrderDaoFileImpl.marshallOrder(new BinaryOrderFormat(0).read(file).get(1)));
+    }
+
+    @Test
+    void testEmptySegment(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("Orders_01012030.ord");
+        new BinaryOrderFormat(-1).write(file, List.of());
+
+        assertTrue(new BinaryOrderFormat(-1).read(file).isEmpty());
+        assertTrue(new BinaryOrderFormat(-1).scanOffsets(file).isEmpty());
+    }
+
+    @Test
+    void testMuchSmallerThanText(@TempDir Path dir) throws Exception {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 1; i <= 1_000; i++) {
+            orders.add(order(i, "Customer " + i, i % 2 == 0 ? "TX" : "WA", "4.45", i % 3 == 0 ? "Carpet" : "Laminate",
+                    (100 + i) + ".00", (400 + i) + ".36"));
+        }
+        Path text = dir.resolve("Orders_01012030.txt");
+        Path binary = dir.resolve("Orders_01012030.ord");
+        new TextOrderFormat(-1).write(text, orders);
+        new BinaryOrderFormat(-1).write(binary, orders);
+
+        assertTrue(Files.size(binary) * 2 < Files.size(text),
+                "Binary " + Files.size(binary) + " bytes vs text " + Files.size(text));
+    }
+
+    @Test
+    void testCorruptSegmentIsRejected(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("Orders_01012030.ord");
+        new BinaryOrderFormat(-1).write(file, List.of(order(1, "A", "TX", "4.45", "Tile", "1.00", "2.00")));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(IOException.class, () -> new BinaryOrderFormat(-1).read(file));
+
+        Files.writeString(file, OrderDaoFileImpl.HEADER);
+        assertThrows(IOException.class, () -> new BinaryOrderFormat(-1).read(file), "A text file is not a segment");
+    }
+
+    @Test
+    void testCorruptLengthsAndCodesAreRejected(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("Orders_01012030.ord");
+        new BinaryOrderFormat(-1).write(file, List.of(order(1, "A", "TX", "4.45", "Tile", "1.00", "2.00")));
+        byte[] bytes = Files.readAllBytes(file);
+        //header, the order number column (length and one varint), then the name column's length
+        int nameLength = 14 + 4 + 1 + 4;
+        int stateCode = nameLength + 2 + 4 + 1 + 1 + 2;
+        assertEquals(1, bytes[nameLength]);
+        assertEquals(0, bytes[stateCode]);
+
+        //one byte too long would read the first byte of the next column, far too long runs off the file
+        for (byte length : new byte[]{2, 0x7F}) {
+            byte[] corrupt = bytes.clone();
+            corrupt[nameLength] = length;
+            Files.write(file, corrupt);
+            assertThrows(IOException.class, () -> new BinaryOrderFormat(-1).read(file), "Name length " + length);
+        }
+        byte[] corrupt = bytes.clone();
+        corrupt[stateCode] = 1;
+        Files.write(file, corrupt);
+        assertThrows(IOException.class, () -> new BinaryOrderFormat(-1).read(file), "A code past the dictionary");
+    }
+
+    private static Order order(int number, String name, String state, String taxRate, String product, String area, String total) {
+        Order order = new Order();
+        order.setOrderNumber(number);
+        order.setCustomerName(name);
+        order.setState(state);
+        order.setTaxRate(new BigDecimal(taxRate));
+        order.setProductType(product);
+        order.setArea(new BigDecimal(area));
+        order.setCostPerSquareFoot(new BigDecimal("2.25"));
+        order.setLaborCostPerSquareFoot(new BigDecimal("2.10"));
+        order.setMaterialCost(new BigDecimal("225.00"));
+        order.setLaborCost(new BigDecimal("210.00"));
+        order.setTax(new BigDecimal("19.36"));
+        order.setTotal(new BigDecimal(total));
+        return order;
+    }
+}
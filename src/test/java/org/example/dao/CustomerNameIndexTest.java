@@ -0,0 +1,64 @@
+package org.example.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomerNameIndexTest {
+
+    private final LocalDate date = LocalDate.of(2030, 5, 1);
+
+    @Test
+    void testWordsFollowNameRules() {
+        assertEquals(List.of("o", "neil", "jr"), CustomerNameIndex.words("O Neil, Jr."));
+        assertEquals(List.of("oneil", "smith"), CustomerNameIndex.words("O'Neil-Smith"));
+        assertEquals(List.of("acme", "inc", "2"), CustomerNameIndex.words("  ACME inc. #2 acme"));
+        assertTrue(CustomerNameIndex.words(" .,-' ").isEmpty());
+    }
+
+    @Test
+    void testPrefixSearchAndUpdates() {
+        CustomerNameIndex index = new CustomerNameIndex();
+        index.put(1, date, "Tony Soprano");
+        index.put(2, date, "Carmela Soprano");
+        index.put(3, date.plusDays(1), "Anthony Soprano Jr.");
+        index.put(4, date, "Sophia Sop");
+
+        assertEquals(List.of(1, 2, 3), numbers(index.search("soprano", 10)));
+        assertEquals(List.of(1), numbers(index.search("sop TONY", 10)));
+        assertEquals(List.of(4), numbers(index.search("sop soph", 10)), "Every word of the query has to match");
+        assertEquals(4, index.search("so", 10).size(), "An order matching on two words comes back once");
+        assertEquals(2, index.search("so", 2).size());
+        assertTrue(index.search("...", 10).isEmpty());
+
+        index.put(1, date, "Tony Soprano"); // same again is a no-op
+        index.put(2, date, "Carmela DeAngelis");
+        index.remove(3);
+        index.remove(42);
+        assertEquals(List.of(1), numbers(index.search("soprano", 10)));
+        assertEquals(List.of(2), numbers(index.search("deang", 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testPostingsStaySortedThroughOutOfOrderAddsAndRemovals() {
+        CustomerNameIndex index = new CustomerNameIndex();
+        //the startup scan adds dates in parallel, so numbers of one word arrive in any order
+        for (int number : new int[]{50, 10, 40, 20, 30, 60}) index.put(number, date, "Tony Soprano");
+        index.remove(40);
+        index.remove(10);
+        index.remove(60);
+        index.put(5, date, "Tony Soprano");
+        assertEquals(List.of(5, 20, 30, 50), numbers(index.search("tony", 10)));
+    }
+
+    private static List<Integer> numbers(List<CustomerNameIndex.Entry> entries) {
+        List<Integer> numbers = new ArrayList<>();
+        for (CustomerNameIndex.Entry e : entries) numbers.add(e.orderNumber);
+        return numbers;
+    }
+}
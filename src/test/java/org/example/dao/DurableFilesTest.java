@@ -0,0 +1,91 @@
+package org.example.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DurableFilesTest {
+
+    @Test
+    void testFailedWriteLeavesTheOldFile(@TempDir Path dir) throws Exception {
+        Path target = dir.resolve("Orders_01152030.txt");
+        try (DurableFiles files = new DurableFiles(dir, true, FsyncPolicy.BATCH, 1000)) {
+            assertEquals(3, (int) files.replace(target, file -> {
+                Files.writeString(file, "day one");
+                return 3;
+            }));
+            assertThrows(IOException.class, () -> files.replace(target, file -> {
+                Files.writeString(file, "half a d");
+                throw new IOException("disk full");
+            }));
+            assertEquals("day one", Files.readString(target));
+            assertFalse(Files.exists(dir.resolve("Orders_01152030.txt.tmp")), "The temp file is cleaned up");
+            //the temp file and the folder
+            assertTrue(files.stats().contains("fsyncs=2"), files.stats());
+        }
+    }
+
+    @Test
+    void testRecoverDeletesOrphanedTempFiles(@TempDir Path dir) throws Exception {
+        Files.writeString(dir.resolve("Orders_01152030.txt"), "complete day");
+        Files.writeString(dir.resolve("Orders_01152030.txt.tmp"), "cut off mid wr");
+        Files.writeString(dir.resolve("notes.tmp"), "not ours");
+
+        DurableFiles files = new DurableFiles(dir, true, FsyncPolicy.NONE, 1000);
+        assertEquals(List.of(dir.resolve("Orders_01152030.txt.tmp")), files.recover());
+        assertEquals("complete day", Files.readString(dir.resolve("Orders_01152030.txt")));
+        assertTrue(Files.exists(dir.resolve("notes.tmp")));
+        assertTrue(files.stats().contains("recoveredTempFiles=1"), files.stats());
+    }
+
+    @Test
+    void testIntervalPolicySyncsLaterAndInPlaceModeRewrites(@TempDir Path dir) throws Exception {
+        Path target = dir.resolve("Orders_01152030.txt");
+        Path journal = dir.resolve("Orders_01152030.journal");
+        try (DurableFiles files = new DurableFiles(dir, false, FsyncPolicy.INTERVAL, 60_000)) {
+            files.replace(target, file -> {
+                Files.writeString(file, "in place");
+                return null;
+            });
+            try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                files.appended(journal, channel, true);
+            }
+            assertEquals("in place", Files.readString(target));
+            assertTrue(files.stats().contains("fsyncs=0"), "Nothing is forced on the write itself");
+
+            files.sync();
+            //both files and the folder
+            assertTrue(files.stats().contains("fsyncs=3"), files.stats());
+            files.sync();
+            assertTrue(files.stats().contains("fsyncs=3"), "Nothing new to sync");
+        }
+    }
+
+    @Test
+    void testIntervalPolicyForcesTheTempFileBeforeTheRename(@TempDir Path dir) throws Exception {
+        Path target = dir.resolve("Orders_01152030.txt");
+        try (DurableFiles files = new DurableFiles(dir, true, FsyncPolicy.INTERVAL, 60_000)) {
+            files.replace(target, file -> {
+                assertTrue(files.stats().contains("fsyncs=0"), files.stats());
+                Files.writeString(file, "renamed");
+                return null;
+            });
+            assertEquals("renamed", Files.readString(target));
+            assertTrue(files.stats().contains("fsyncs=1"), "The temp file is forced before it replaces the day");
+
+            files.sync();
+            //only the folder, the data went to disk before the rename
+            assertTrue(files.stats().contains("fsyncs=2"), files.stats());
+            files.sync();
+            assertTrue(files.stats().contains("fsyncs=2"), "Nothing new to sync");
+        }
+    }
+}
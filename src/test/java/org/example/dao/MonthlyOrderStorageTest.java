@@ -0,0 +1,110 @@
+package org.example.dao;
+
+import org.example.model.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.example.dao.TestOrders.sampleOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonthlyOrderStorageTest {
+
+    private final LocalDate first = LocalDate.of(2030, 3, 1);
+    private final LocalDate fifteenth = LocalDate.of(2030, 3, 15);
+
+    @Test
+    void testDaysShareOneSegmentAndKeepTheirOwnStamps(@TempDir Path dir) throws Exception {
+        IoStats ioStats = new IoStats();
+        try (DurableFiles files = new DurableFiles(dir, true, FsyncPolicy.NONE, 1000)) {
+            MonthlyOrderStorage storage = new MonthlyOrderStorage(dir, new TextOrderFormat(-1), files, ioStats);
+            Map<Integer, Long> offsets = storage.write(fifteenth, List.of(sampleOrder(1, "Tony Soprano"), sampleOrder(2, "Paulie Walnuts")));
+            storage.write(first, List.of(sampleOrder(3, "Silvio Dante")));
+            FileStamp fifteenthStamp = storage.stamp(fifteenth);
+            storage.write(first, List.of(sampleOrder(3, "Silvio Dante"), sampleOrder(4, "Carmela Soprano")));
+
+            assertEquals(List.of(dir.resolve("Orders_203003.seg")), List.of(storage.fileOf(first)));
+            assertTrue(Files.exists(storage.fileOf(fifteenth)));
+            assertEquals(fifteenthStamp, storage.stamp(fifteenth), "Writing another day leaves this one's stamp alone");
+            assertEquals(FileStamp.MISSING, storage.stamp(first.plusDays(1)));
+            assertEquals(List.of(first, fifteenth), storage.dates());
+
+            assertEquals(List.of("Silvio Dante", "Carmela Soprano"), names(storage.read(first)));
+            assertEquals("Paulie Walnuts", storage.readAt(fifteenth, offsets.get(2)).getCustomerName(),
+                    "Positions stay valid when other days move around them");
+            assertEquals(offsets, storage.scanOffsets(fifteenth));
+            assertTrue(storage.read(fifteenth.plusMonths(1)).isEmpty());
+
+            long reads = ioStats.getReads();
+            Map<LocalDate, OrderStorage.StoredDay> month = storage.readAround(fifteenth);
+            assertEquals(reads + 1, ioStats.getReads(), "A whole month is one read");
+            assertEquals(List.of(first, fifteenth), new ArrayList<>(month.keySet()));
+            assertEquals(fifteenthStamp, month.get(fifteenth).stamp);
+            assertEquals(List.of("Tony Soprano", "Paulie Walnuts"), names(month.get(fifteenth).orders));
+
+            storage.delete(first);
+            assertEquals(List.of(fifteenth), storage.dates());
+            assertEquals(fifteenthStamp, storage.stamp(fifteenth));
+            storage.delete(fifteenth);
+            assertFalse(Files.exists(storage.fileOf(fifteenth)), "The last day takes the segment with it");
+        }
+    }
+
+    @Test
+    void testCorruptDayAndWrongFormatAreRefused(@TempDir Path dir) throws Exception {
+        try (DurableFiles files = new DurableFiles(dir, true, FsyncPolicy.NONE, 1000)) {
+            MonthlyOrderStorage text = new MonthlyOrderStorage(dir, new TextOrderFormat(-1), files, new IoStats());
+            text.write(fifteenth, List.of(sampleOrder(1, "Tony Soprano")));
+
+            MonthlyOrderStorage binary = new MonthlyOrderStorage(dir, new BinaryOrderFormat(-1), files, new IoStats());
+            IOException wrongFormat = assertThrows(IOException.class, () -> binary.read(fifteenth));
+            assertTrue(wrongFormat.getMessage().contains("holds text orders"), wrongFormat.getMessage());
+
+            Path segment = text.fileOf(fifteenth);
+            byte[] bytes = Files.readAllBytes(segment);
+            bytes[bytes.length - 3] ^= 1;
+            Files.write(segment, bytes);
+            assertThrows(IOException.class, () -> text.read(fifteenth));
+            assertThrows(IOException.class, () -> text.readAround(first));
+        }
+    }
+
+    @Test
+    void testConcurrentWritesToOneMonthAreAllKept(@TempDir Path dir) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try (DurableFiles files = new DurableFiles(dir, true, FsyncPolicy.NONE, 1000)) {
+            MonthlyOrderStorage storage = new MonthlyOrderStorage(dir, new BinaryOrderFormat(-1), files, new IoStats());
+            List<Future<?>> writes = new ArrayList<>();
+            for (int day = 1; day <= 31; day++) {
+                LocalDate date = first.withDayOfMonth(day);
+                int number = day;
+                writes.add(pool.submit(() -> storage.write(date, List.of(sampleOrder(number, "Customer " + number)))));
+            }
+            for (Future<?> write : writes) write.get();
+
+            assertEquals(YearMonth.of(2030, 3).lengthOfMonth(), storage.dates().size());
+            for (int day = 1; day <= 31; day++) {
+                assertEquals(List.of("Customer " + day), names(storage.read(first.withDayOfMonth(day))));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<String> names(List<Order> orders) {
+        List<String> names = new ArrayList<>();
+        for (Order o : orders) names.add(o.getCustomerName());
+        return names;
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderArchiveTest {
+
+    private final LocalDate first = LocalDate.of(2030, 3, 1);
+    private final LocalDate second = LocalDate.of(2030, 7, 15);
+
+    @Test
+    void testArchivedDaysReadBackAndStayInflatedInTheBlockCache(@TempDir Path dir) throws Exception {
+        byte[] firstDay = day("1,Tony Soprano");
+        byte[] secondDay = day("2,Paulie Walnuts");
+        try (DurableFiles files = new DurableFiles(dir, true, FsyncPolicy.NONE, 1000);
+             OrderArchive archive = new OrderArchive(dir, ".txt", files, new IoStats(), 1024 * 1024)) {
+            archive.add(2030, Map.of(first, firstDay));
+            //the hot copies are deleted next, so the archive and the folder are forced even without fsync
+            assertTrue(files.stats().contains("fsyncs=2"), files.stats());
+            archive.add(2030, Map.of(second, secondDay));
+
+            assertEquals(List.of(first, second), archive.dates(), "Adding to a year keeps what it held");
+            assertArrayEquals(secondDay, bytes(archive.read(second)));
+            assertArrayEquals(secondDay, bytes(archive.read(second)));
+            assertTrue(archive.stats().contains("archives=1 days=2"), archive.stats());
+            assertTrue(archive.stats().contains("blockHits=1"), archive.stats());
+            assertNull(archive.read(second.plusDays(1)));
+
+            CRC32 crc = new CRC32();
+            crc.update(firstDay);
+            assertEquals(FileStamp.of(crc.getValue(), firstDay.length), archive.stamp(first));
+            assertEquals(FileStamp.MISSING, archive.stamp(first.plusYears(1)));
+
+            //readable without the application, named like the date files they replace
+            try (ZipFile zip = new ZipFile(dir.resolve("Orders_2030.zip").toFile())) {
+                List<String> names = new ArrayList<>();
+                for (ZipEntry entry : Collections.list(zip.entries())) names.add(entry.getName());
+                assertEquals(List.of("Orders_03012030.txt", "Orders_07152030.txt"), names);
+            }
+
+            try (OrderArchive binary = new OrderArchive(dir, ".ord", files, new IoStats(), 0)) {
+                assertTrue(binary.dates().isEmpty(), "Days of the other format are not ours");
+            }
+        }
+    }
+
+    @Test
+    void testBlockCacheStaysWithinItsBound(@TempDir Path dir) throws Exception {
+        byte[] firstDay = day("1,Tony Soprano");
+        try (DurableFiles files = new DurableFiles(dir, true, FsyncPolicy.NONE, 1000);
+             OrderArchive archive = new OrderArchive(dir, ".txt", files, new IoStats(), firstDay.length + 10)) {
+            archive.add(2030, Map.of(first, firstDay, second, day("2,Paulie Walnuts")));
+            archive.read(first);
+            archive.read(second);
+            archive.read(first);
+            assertTrue(archive.stats().contains("blockHits=0 blockMisses=3"), archive.stats());
+            assertArrayEquals(firstDay, bytes(archive.read(first)));
+            assertTrue(archive.stats().contains("blockHits=1"), archive.stats());
+        }
+    }
+
+    @Test
+    void testAddingDaysCopiesTheArchivedOnesWithoutInflating(@TempDir Path dir) throws Exception {
+        byte[] firstDay = day("1,Tony Soprano");
+        byte[] secondDay = day("2,Paulie Walnuts");
+        byte[] edited = day("2,Silvio Dante");
+        IoStats stats = new IoStats();
+        try (DurableFiles files = new DurableFiles(dir, false, FsyncPolicy.NONE, 1000);
+             OrderArchive archive = new OrderArchive(dir, ".txt", files, stats, 0)) {
+            archive.add(2030, Map.of(first, firstDay, second, secondDay));
+            ZipEntry before = entry(dir, "Orders_03012030.txt");
+            archive.add(2030, Map.of(second, edited, first.plusDays(1), day("3,Carmela Soprano")));
+            archive.add(2030, Map.of(first.plusDays(2), day("4,Bobby Baccalieri")));
+            assertEquals(0, stats.getReads(), "Archived days are copied as they are, never inflated");
+
+            ZipEntry after = entry(dir, "Orders_03012030.txt");
+            assertEquals(before.getCrc(), after.getCrc());
+            assertEquals(before.getCompressedSize(), after.getCompressedSize());
+            assertEquals(List.of(first, first.plusDays(1), first.plusDays(2), second), archive.dates());
+            assertArrayEquals(firstDay, bytes(archive.read(first)));
+            assertArrayEquals(edited, bytes(archive.read(second)), "A day added again replaces its archived copy");
+
+            //streamed from the local headers too, as unzip tools do
+            List<String> names = new ArrayList<>();
+            try (ZipInputStream in = new ZipInputStream(Files.newInputStream(dir.resolve("Orders_2030.zip")))) {
+                for (ZipEntry entry; (entry = in.getNextEntry()) != null; ) {
+                    names.add(entry.getName());
+                    in.readAllBytes();
+                }
+            }
+            assertEquals(4, names.size(), names.toString());
+            assertFalse(Files.exists(dir.resolve("Orders_2030.zip.tmp")), "Written aside and renamed even with atomic writes off");
+        }
+    }
+
+    private static ZipEntry entry(Path dir, String name) throws Exception {
+        try (ZipFile zip = new ZipFile(dir.resolve("Orders_2030.zip").toFile())) {
+            return zip.getEntry(name);
+        }
+    }
+
+    private static byte[] day(String row) {
+        return (OrderDaoFileImpl.HEADER + "\n" + row + ",TX,4.45,Tile,100,3.50,4.15,350.00,415.00,34.04,799.04\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -2,11 +2,28 @@ package org.example.dao;
 
 import org.example.model.Order;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
 import java.io.File;
 import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static org.example.dao.TestOrders.sampleOrder;
 import static org.junit.jupiter.api.Assertions.*;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -14,16 +31,19 @@ public class OrderDaoFileImplTest {
 
     private OrderDaoFileImpl dao;
     private final LocalDate testDate = LocalDate.of(2025, 11, 29);
-    private final String testFile = "Orders/Orders_11292025.txt";
+    private final String testFolder = "target/test-orders";
+    private final String testFile = testFolder + "/Orders_11292025.txt";
 
     @BeforeAll
     void setupDir() {
-        new File("Orders").mkdirs();
+        new File(testFolder).mkdirs();
     }
 
     @BeforeEach
     void setup() {
-        dao = new OrderDaoFileImpl();
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(testFolder);
+        dao = new OrderDaoFileImpl(settings);
         new File(testFile).delete(); // ensure clean state before each test
     }
 
@@ -97,4 +117,609 @@ public class OrderDaoFileImplTest {
         assertNotNull(removed, "Removed order should not be null");
         assertEquals("Christopher Moltisanti", removed.getCustomerName());
     }
+
+    @Test
+    void testJournalModeAppendsAndCompacts(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setJournalEnabled(true);
+        settings.setJournalCompactionThreshold(1000); // only compact when asked
+        OrderDaoFileImpl journaled = new OrderDaoFileImpl(settings);
+
+        Order first = journaled.addOrder(testDate, sampleOrder("Tony Soprano"));
+        Order second = journaled.addOrder(testDate, sampleOrder("Paulie Walnuts"));
+        second.setCustomerName("Silvio Dante");
+        journaled.editOrder(testDate, second);
+        journaled.removeOrder(testDate, first.getOrderNumber());
+
+        Path dateFile = dir.resolve("Orders_11292025.txt");
+        Path journalFile = dir.resolve("Orders_11292025.journal");
+        assertFalse(Files.exists(dateFile), "Mutations should only append to the journal");
+        assertEquals(4, Files.readAllLines(journalFile).size());
+
+        List<Order> replayed = journaled.getOrdersByDate(testDate);
+        assertEquals(1, replayed.size());
+        assertEquals("Silvio Dante", replayed.get(0).getCustomerName());
+
+        journaled.compactJournals();
+        assertFalse(Files.exists(journalFile), "Compaction should remove the journal");
+        assertEquals(2, Files.readAllLines(dateFile).size(), "Header plus the one remaining order");
+
+        journaled.close();
+        OrderDaoFileImpl reopened = new OrderDaoFileImpl(settings);
+        assertEquals("Silvio Dante", reopened.getOrder(testDate, second.getOrderNumber()).getCustomerName());
+        reopened.close();
+    }
+
+    @Test
+    void testTornJournalTailIsDroppedOnStartup(@TempDir Path dir) throws Exception {
+        for (String tail : new String[]{"A,2,Paulie Wal", "A,", "A,12", "E,1,Tony Soprano,OH"}) {
+            StorageSettings settings = new StorageSettings();
+            Path folder = Files.createDirectories(dir.resolve("tail-" + tail.length()));
+            settings.setOrdersFolder(folder.toString());
+            settings.setJournalEnabled(true);
+            settings.setJournalCompactionThreshold(1000);
+
+            //what a crash in the middle of the second append leaves behind
+            Path journalFile = folder.resolve("Orders_11292025.journal");
+            Order tony = sampleOrder(1, "Tony Soprano");
+            Files.writeString(journalFile, "A," + OrderDaoFileImpl.marshallOrder(tony) + "\n" + tail);
+
+            OrderDaoFileImpl journaled = new OrderDaoFileImpl(settings);
+            assertTrue(Files.readString(journalFile).endsWith("\n"), "The torn record is cut off: " + tail);
+            assertEquals(List.of("Tony Soprano"), names(journaled.getOrdersByDate(testDate)));
+            Order paulie = journaled.addOrder(testDate, sampleOrder("Paulie Walnuts"));
+            assertEquals(List.of("Tony Soprano", "Paulie Walnuts"), names(journaled.getOrdersByDate(testDate)));
+            journaled.compactJournals();
+            assertFalse(Files.exists(journalFile));
+            journaled.close();
+
+            OrderDaoFileImpl reopened = new OrderDaoFileImpl(settings);
+            assertEquals(List.of(1, paulie.getOrderNumber()), numbers(reopened.getOrdersByDate(testDate)));
+            assertEquals("Paulie Walnuts", reopened.getOrder(paulie.getOrderNumber()).getCustomerName());
+            reopened.close();
+        }
+    }
+
+    @Test
+    void testJournaledDatesStayResidentUntilCompacted(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setJournalEnabled(true);
+        settings.setJournalCompactionThreshold(1000);
+        settings.setCacheMaxDates(0);
+        OrderDaoFileImpl journaled = new OrderDaoFileImpl(settings);
+
+        Order tony = sampleOrder("Tony Soprano");
+        journaled.addOrder(testDate, tony);
+        long misses = journaled.getCacheStats().getMisses();
+        for (int i = 0; i < 5; i++) journaled.addOrder(testDate, sampleOrder("Customer " + i));
+        Order edit = journaled.getOrder(testDate, tony.getOrderNumber());
+        edit.setCustomerName("Silvio Dante");
+        journaled.editOrder(testDate, edit);
+        assertEquals(misses, journaled.getCacheStats().getMisses(), "Mutations of a journaled date never re-read it");
+
+        //what the caller does with its objects afterwards is not stored
+        tony.setCustomerName("Changed By Caller");
+        edit.setCustomerName("Changed By Caller");
+        assertEquals("Silvio Dante", journaled.getOrder(testDate, tony.getOrderNumber()).getCustomerName());
+
+        journaled.compactJournals();
+        assertEquals(0, journaled.getCacheStats().getEntries(), "Compacted, the disabled cache lets the date go");
+        assertEquals(6, journaled.getOrdersByDate(testDate).size());
+        journaled.close();
+    }
+
+    @Test
+    void testCacheServesRepeatReadsAndDetectsExternalChanges(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setCacheMaxDates(1);
+        OrderDaoFileImpl cached = new OrderDaoFileImpl(settings);
+
+        cached.addOrder(testDate, sampleOrder("Tony Soprano"));
+        cached.getOrdersByDate(testDate);
+        cached.getOrdersByDate(testDate).get(0).setCustomerName("Changed By Caller");
+        assertEquals("Tony Soprano", cached.getOrder(testDate, 1).getCustomerName(),
+                "Callers must not be able to change cached orders");
+        assertEquals(3, cached.getCacheStats().getHits(), "Write-through should make every read a hit");
+
+        //someone edits the file by hand
+        Path dateFile = dir.resolve("Orders_11292025.txt");
+        List<String> lines = Files.readAllLines(dateFile);
+        lines.add(lines.get(1).replaceFirst("^1,Tony Soprano", "2,Carmela Soprano"));
+        Files.write(dateFile, lines);
+        assertEquals(2, cached.getOrdersByDate(testDate).size(), "External change should invalidate the entry");
+        assertEquals(1, cached.getCacheStats().getInvalidations());
+
+        cached.getOrdersByDate(testDate.plusDays(1));
+        assertEquals(1, cached.getCacheStats().getEvictions(), "Only one date fits in the cache");
+        assertEquals(1, cached.getCacheStats().getEntries());
+    }
+
+    @Test
+    void testConcurrentAddsGetUniqueNumbersAndAreAllPersisted(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        OrderDaoFileImpl shared = new OrderDaoFileImpl(settings);
+        LocalDate otherDate = testDate.plusDays(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Order>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            LocalDate date = i % 2 == 0 ? testDate : otherDate;
+            String name = "Customer " + i;
+            futures.add(pool.submit(() -> shared.addOrder(date, sampleOrder(name))));
+        }
+        for (Future<Order> f : futures) f.get();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        //reading through a fresh DAO so we check the files, not the cache
+        OrderDaoFileImpl reader = new OrderDaoFileImpl(settings);
+        for (LocalDate date : List.of(testDate, otherDate)) {
+            List<Order> orders = reader.getOrdersByDate(date);
+            assertEquals(20, orders.size(), "No add should be lost for " + date);
+            Set<Integer> numbers = orders.stream().map(Order::getOrderNumber).collect(Collectors.toSet());
+            assertEquals(20, numbers.size(), "Order numbers should be unique for " + date);
+        }
+    }
+
+    @Test
+    void testReadsDuringInPlaceRewritesSeeWholeVersions(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        //the worst case: files truncated and rewritten in place, and every read goes to disk
+        settings.setAtomicWrites(false);
+        settings.setCacheMaxDates(0);
+        OrderDaoFileImpl shared = new OrderDaoFileImpl(settings);
+        AtomicBoolean done = new AtomicBoolean();
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            readers.add(pool.submit(() -> {
+                int reads = 0;
+                int lastSize = 0;
+                while (!done.get() || reads == 0) {
+                    //a version is every add up to some point (numbers 1..n), never a cut off file
+                    List<Integer> seen = numbers(shared.getOrdersByDate(testDate));
+                    assertTrue(seen.size() >= lastSize, "A newer read went back to an older version");
+                    assertEquals(IntStream.rangeClosed(1, seen.size()).boxed().collect(Collectors.toList()), seen);
+                    long counted = shared.getDailyRevenue(testDate, testDate).stream()
+                            .mapToLong(day -> day.getTotal().getOrders()).sum();
+                    assertTrue(counted >= seen.size(), "The report counted an older version than the read before it");
+                    lastSize = seen.size();
+                    reads++;
+                }
+                return reads;
+            }));
+        }
+        try {
+            for (int i = 0; i < 150; i++) shared.addOrder(testDate, sampleOrder("Customer " + i));
+        } finally {
+            done.set(true);
+        }
+        for (Future<Integer> reader : readers) assertTrue(reader.get() > 0);
+        pool.shutdown();
+        assertEquals(150, shared.getOrdersByDate(testDate).size());
+        shared.close();
+    }
+
+    @Test
+    void testGetOrderByNumberAlone(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        OrderDaoFileImpl indexed = new OrderDaoFileImpl(settings);
+        LocalDate otherDate = testDate.plusDays(7);
+
+        Order first = indexed.addOrder(testDate, sampleOrder("Tony Soprano"));
+        Order second = indexed.addOrder(testDate, sampleOrder("Paulie Walnuts"));
+        Order third = indexed.addOrder(otherDate, sampleOrder("Silvio Dante"));
+        assertNotEquals(first.getOrderNumber(), third.getOrderNumber(), "Numbers should be unique across dates");
+
+        //making the first line longer moves the second order's offset
+        first.setCustomerName("Anthony John Soprano Senior");
+        indexed.editOrder(testDate, first);
+        indexed.removeOrder(otherDate, third.getOrderNumber());
+
+        Order found = indexed.getOrder(second.getOrderNumber());
+        assertEquals("Paulie Walnuts", found.getCustomerName());
+        assertEquals(testDate, found.getOrderDate());
+        assertNull(indexed.getOrder(third.getOrderNumber()), "Removed orders should not be found");
+        indexed.close();
+
+        //index reloaded from disk
+        OrderDaoFileImpl reloaded = new OrderDaoFileImpl(settings);
+        assertEquals("Anthony John Soprano Senior", reloaded.getOrder(first.getOrderNumber()).getCustomerName());
+        reloaded.close();
+
+        //index rebuilt from the date files
+        Files.delete(dir.resolve("orders.idx"));
+        OrderDaoFileImpl rebuilt = new OrderDaoFileImpl(settings);
+        assertEquals("Paulie Walnuts", rebuilt.getOrder(second.getOrderNumber()).getCustomerName());
+        Order next = rebuilt.addOrder(otherDate, sampleOrder("Bobby Bacala"));
+        assertEquals(second.getOrderNumber() + 1, next.getOrderNumber(), "Sequence should continue after the highest number");
+        rebuilt.close();
+    }
+
+    @Test
+    void testStaleIndexIsRepairedOnStartup(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        OrderDaoFileImpl orders = new OrderDaoFileImpl(settings);
+        orders.addOrder(testDate, sampleOrder("Alice Adams"));
+        Order bob = orders.addOrder(testDate, sampleOrder("Bob Brown"));
+        orders.close();
+
+        //a crash after the date write, before the index append: the last entry and stamp never made it
+        Path indexFile = dir.resolve("orders.idx");
+        List<String> lines = new ArrayList<>(Files.readAllLines(indexFile));
+        lines.removeIf(line -> line.startsWith(bob.getOrderNumber() + ","));
+        lines.remove(lines.size() - 1);
+        Files.write(indexFile, lines);
+
+        OrderDaoFileImpl restarted = new OrderDaoFileImpl(settings);
+        Order carol = restarted.addOrder(testDate.plusDays(1), sampleOrder("Carol Clark"));
+        assertEquals(bob.getOrderNumber() + 1, carol.getOrderNumber(), "A number already in a date file is never handed out again");
+        assertEquals("Bob Brown", restarted.getOrder(bob.getOrderNumber()).getCustomerName());
+        restarted.close();
+
+        //a date file dropped in by hand
+        Files.writeString(dir.resolve("Orders_01012026.txt"), OrderDaoFileImpl.HEADER + "\n"
+                + "40,Dana Davis,TX,4.45,Tile,100,3.50,4.15,350.00,415.00,34.04,799.04\n");
+        OrderDaoFileImpl copied = new OrderDaoFileImpl(settings);
+        assertEquals("Dana Davis", copied.getOrder(40).getCustomerName());
+        assertEquals(41, copied.addOrder(testDate, sampleOrder("Eve Evans")).getOrderNumber());
+        copied.close();
+    }
+
+    @Test
+    void testMappedAndStreamReadsAgree(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setCacheMaxDates(0);
+        settings.setMmapThresholdBytes(-1);
+        OrderDaoFileImpl streamed = new OrderDaoFileImpl(settings);
+        List<Order> batch = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) batch.add(sampleOrder(i % 100 == 0 ? "Renée Müller " + i : "Customer " + i));
+        streamed.addOrders(testDate, batch);
+
+        settings.setMmapThresholdBytes(0); // every file is mapped
+        OrderDaoFileImpl mapped = new OrderDaoFileImpl(settings);
+        List<Order> expected = streamed.getOrdersByDate(testDate);
+        List<Order> actual = mapped.getOrdersByDate(testDate);
+
+        assertEquals(2_000, actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getOrderNumber(), actual.get(i).getOrderNumber());
+            assertEquals(expected.get(i).getCustomerName(), actual.get(i).getCustomerName());
+            assertEquals(expected.get(i).getTotal(), actual.get(i).getTotal());
+        }
+        assertTrue(mapped.getOrdersByDate(testDate.plusDays(1)).isEmpty());
+        //line offsets count UTF-8 bytes, so seeks past the non-ASCII names land on the right line
+        assertEquals("Customer 1999", mapped.getOrder(expected.get(1_999).getOrderNumber()).getCustomerName());
+        streamed.close();
+        mapped.close();
+    }
+
+    @Test
+    void testBinaryFormatSupportsAllOperations(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setStorageFormat(StorageFormat.BINARY);
+        OrderDaoFileImpl binary = new OrderDaoFileImpl(settings);
+
+        Order first = binary.addOrder(testDate, sampleOrder("Tony Soprano"));
+        Order second = binary.addOrder(testDate, sampleOrder("Paulie Walnuts"));
+        first.setCustomerName("Anthony Soprano");
+        binary.editOrder(testDate, first);
+        binary.removeOrder(testDate, second.getOrderNumber());
+        binary.close();
+
+        assertTrue(Files.exists(dir.resolve("Orders_11292025.ord")));
+        assertFalse(Files.exists(dir.resolve("Orders_11292025.txt")));
+        OrderDaoFileImpl reopened = new OrderDaoFileImpl(settings);
+        List<Order> orders = reopened.getOrdersByDate(testDate);
+        assertEquals(1, orders.size());
+        assertEquals("Anthony Soprano", orders.get(0).getCustomerName());
+        assertEquals("Anthony Soprano", reopened.getOrder(first.getOrderNumber()).getCustomerName());
+        assertEquals(List.of(testDate), reopened.getOrderDates());
+        reopened.close();
+    }
+
+    @Test
+    void testMonthlyLayoutSupportsAllOperationsAndReadsAMonthAtOnce(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setStorageLayout(StorageLayout.MONTHLY);
+        OrderDaoFileImpl monthly = new OrderDaoFileImpl(settings);
+
+        Order first = monthly.addOrder(testDate, sampleOrder("Tony Soprano"));
+        Order second = monthly.addOrder(testDate, sampleOrder("Paulie Walnuts"));
+        monthly.addOrder(testDate.minusDays(1), sampleOrder("Silvio Dante"));
+        monthly.addOrder(testDate.minusDays(2), sampleOrder("Carmela Soprano"));
+        monthly.addOrder(testDate.plusDays(2), sampleOrder("Bobby Baccalieri"));
+        first.setCustomerName("Anthony Soprano");
+        monthly.editOrder(testDate, first);
+        monthly.removeOrder(testDate, second.getOrderNumber());
+        assertEquals("Silvio Dante", monthly.getOrder(3).getCustomerName());
+        monthly.close();
+
+        assertEquals(List.of("Orders_202511.seg", "Orders_202512.seg"),
+                fileNames(dir, "Orders_*").stream().sorted().collect(Collectors.toList()));
+        Files.delete(dir.resolve("orders.idx"));
+        OrderDaoFileImpl reopened = new OrderDaoFileImpl(settings);
+        //waits for the startup scan of every date, so the counts below are only ours
+        assertTrue(reopened.findOrdersByCustomer("livia", 10).isEmpty());
+        long reads = reopened.getIoStats().getReads();
+        assertEquals(List.of("Anthony Soprano"), names(reopened.getOrdersByDate(testDate)));
+        assertEquals(List.of("Silvio Dante"), names(reopened.getOrdersByDate(testDate.minusDays(1))));
+        assertEquals(List.of("Carmela Soprano"), names(reopened.getOrdersByDate(testDate.minusDays(2))));
+        assertEquals(reads + 1, reopened.getIoStats().getReads(), "The other days came with the first read of the month");
+        assertEquals("Bobby Baccalieri", reopened.getOrder(5).getCustomerName(), "Index rebuilt from the segments");
+        assertEquals(List.of(testDate.minusDays(2), testDate.minusDays(1), testDate, testDate.plusDays(2)), reopened.getOrderDates());
+        assertRevenueMatchesOrders(reopened, testDate.minusDays(30), testDate.plusDays(30));
+
+        //writing one day does not invalidate the cached days next to it
+        reopened.addOrder(testDate.minusDays(1), sampleOrder("Christopher Moltisanti"));
+        long hits = reopened.getCacheStats().getHits();
+        reopened.getOrdersByDate(testDate.minusDays(2));
+        assertEquals(hits + 1, reopened.getCacheStats().getHits());
+        assertEquals(0, reopened.getCacheStats().getInvalidations());
+        reopened.close();
+    }
+
+    @Test
+    void testPastDatesAreArchivedAndReadTransparently(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setArchiveAfterDays(30);
+        OrderDaoFileImpl orders = new OrderDaoFileImpl(settings);
+        LocalDate lastYear = LocalDate.now().minusDays(400);
+        LocalDate lastMonth = LocalDate.now().minusDays(45);
+        LocalDate today = LocalDate.now();
+        Order old = orders.addOrder(lastYear, sampleOrder("Tony Soprano"));
+        orders.addOrder(lastMonth, sampleOrder("Paulie Walnuts"));
+        orders.addOrder(today, sampleOrder("Silvio Dante"));
+        assertRevenueMatchesOrders(orders, lastYear, today);
+
+        assertEquals(2, orders.archivePastDates());
+        assertEquals(1, fileNames(dir, "Orders_*.txt").size(), "Only today's file is left");
+        assertEquals(0, orders.archivePastDates());
+        assertEquals(List.of(lastYear, lastMonth, today), orders.getOrderDates());
+        assertEquals(List.of("Tony Soprano"), names(orders.getOrdersByDate(lastYear)));
+        assertEquals("Tony Soprano", orders.getOrder(old.getOrderNumber()).getCustomerName());
+        assertEquals(lastMonth, orders.findOrdersByCustomer("paulie", 10).get(0).getOrderDate());
+        assertRevenueMatchesOrders(orders, lastYear, today);
+
+        //an archived date is still writable, the change shadows the archive until the next run
+        old.setCustomerName("Anthony Soprano");
+        orders.editOrder(lastYear, old);
+        assertEquals(2, fileNames(dir, "Orders_*.txt").size());
+        assertEquals(List.of("Anthony Soprano"), names(orders.getOrdersByDate(lastYear)));
+        assertEquals(1, orders.archivePastDates());
+        assertEquals(List.of("Anthony Soprano"), names(orders.getOrdersByDate(lastYear)));
+        orders.close();
+
+        Files.delete(dir.resolve("orders.idx"));
+        OrderDaoFileImpl reopened = new OrderDaoFileImpl(settings);
+        assertEquals("Anthony Soprano", reopened.getOrder(old.getOrderNumber()).getCustomerName(), "Index rebuilt from the archives");
+        assertEquals(3, reopened.getOrderDates().size());
+        assertRevenueMatchesOrders(reopened, lastYear, today);
+        assertTrue(reopened.getArchiveStats().contains("days=2"), reopened.getArchiveStats());
+        reopened.close();
+    }
+
+    @Test
+    void testUpdateOrdersWritesOnceAndKeepsNumbers(@TempDir Path dir) throws Exception {
+        for (boolean journalEnabled : new boolean[]{false, true}) {
+            StorageSettings settings = new StorageSettings();
+            settings.setOrdersFolder(dir.resolve("journal-" + journalEnabled).toString());
+            settings.setJournalEnabled(journalEnabled);
+            settings.setJournalCompactionThreshold(1000);
+            OrderDaoFileImpl updating = new OrderDaoFileImpl(settings);
+            Order first = updating.addOrder(testDate, sampleOrder("Tony Soprano"));
+            Order second = updating.addOrder(testDate, sampleOrder("Paulie Walnuts"));
+            long writesBefore = updating.getIoStats().getWrites();
+
+            List<Order> changed = updating.updateOrders(testDate, order -> {
+                if (order.getOrderNumber() != second.getOrderNumber()) return null;
+                order.setCustomerName("Paulie Gualtieri");
+                order.setOrderNumber(999); // ignored
+                return order;
+            });
+
+            assertEquals(1, changed.size());
+            assertEquals(writesBefore + 1, updating.getIoStats().getWrites(), "One write for the whole date");
+            assertEquals("Paulie Gualtieri", updating.getOrder(testDate, second.getOrderNumber()).getCustomerName());
+            assertEquals("Tony Soprano", updating.getOrder(first.getOrderNumber()).getCustomerName());
+            assertNull(updating.getOrder(testDate, 999));
+            assertTrue(updating.updateOrders(testDate, order -> null).isEmpty());
+            assertEquals(writesBefore + 1, updating.getIoStats().getWrites(), "Nothing changed, nothing written");
+            updating.close();
+
+            OrderDaoFileImpl reopened = new OrderDaoFileImpl(settings);
+            assertEquals("Paulie Gualtieri", reopened.getOrder(second.getOrderNumber()).getCustomerName());
+            reopened.close();
+        }
+    }
+
+    @Test
+    void testRevenueFollowsMutationsAndRebuilds(@TempDir Path dir) throws Exception {
+        for (boolean journalEnabled : new boolean[]{false, true}) {
+            StorageSettings settings = new StorageSettings();
+            Path folder = dir.resolve("journal-" + journalEnabled);
+            settings.setOrdersFolder(folder.toString());
+            settings.setJournalEnabled(journalEnabled);
+            settings.setJournalCompactionThreshold(1000);
+            OrderDaoFileImpl orders = new OrderDaoFileImpl(settings);
+            LocalDate nextDay = testDate.plusDays(1);
+
+            Order first = orders.addOrder(testDate, sampleOrder("Tony Soprano"));
+            orders.addOrders(testDate, List.of(sampleOrder("Paulie Walnuts"), sampleOrder("Silvio Dante")));
+            Order other = orders.addOrder(nextDay, sampleOrder("Bobby Baccalieri"));
+            first.setState("CA");
+            first.setTotal(new BigDecimal("1000.00"));
+            orders.editOrder(testDate, first);
+            orders.removeOrder(nextDay, other.getOrderNumber());
+            orders.updateOrders(testDate, order -> {
+                order.setTax(order.getTax().add(BigDecimal.ONE));
+                return order;
+            });
+
+            assertRevenueMatchesOrders(orders, testDate, nextDay);
+            DailyRevenue day = orders.getDailyRevenue(testDate, testDate).get(0);
+            assertEquals(new BigDecimal("1000.00"), day.getByState().get("CA").getTotal());
+            assertEquals(2, day.getByState().get("TX").getOrders());
+            if (journalEnabled) {
+                orders.compactJournals();
+                assertRevenueMatchesOrders(orders, testDate, nextDay);
+            }
+            orders.close();
+
+            //a missing store is recounted from the date files
+            Files.delete(folder.resolve("orders.agg"));
+            OrderDaoFileImpl reopened = new OrderDaoFileImpl(settings);
+            assertRevenueMatchesOrders(reopened, testDate, nextDay);
+            assertTrue(Files.exists(folder.resolve("orders.agg")));
+
+            //so is a date file changed by hand
+            Order byHand = sampleOrder("Furio Giunta");
+            byHand.setOrderNumber(500);
+            Files.writeString(folder.resolve("Orders_11292025.txt"), OrderDaoFileImpl.marshallOrder(byHand) + System.lineSeparator(),
+                    java.nio.file.StandardOpenOption.APPEND);
+            assertEquals(4, reopened.getDailyRevenue(testDate, testDate).get(0).getTotal().getOrders());
+            assertTrue(reopened.getDailyRevenue(testDate.minusYears(1), testDate.minusDays(1)).isEmpty());
+            reopened.close();
+        }
+    }
+
+    @Test
+    void testCustomerSearchFollowsMutationsAndStartup(@TempDir Path dir) throws Exception {
+        for (boolean journalEnabled : new boolean[]{false, true}) {
+            StorageSettings settings = new StorageSettings();
+            settings.setOrdersFolder(dir.resolve("journal-" + journalEnabled).toString());
+            settings.setJournalEnabled(journalEnabled);
+            settings.setJournalCompactionThreshold(1000);
+            OrderDaoFileImpl orders = new OrderDaoFileImpl(settings);
+
+            Order tony = orders.addOrder(testDate.plusDays(1), sampleOrder("Tony Soprano"));
+            Order carmela = orders.addOrder(testDate, sampleOrder("Carmela Soprano"));
+            Order paulie = orders.addOrder(testDate, sampleOrder("Paulie Walnuts"));
+
+            assertEquals(List.of(carmela.getOrderNumber(), tony.getOrderNumber()), numbers(orders.findOrdersByCustomer("sop", 10)));
+            assertEquals(testDate, orders.findOrdersByCustomer("SOPRANO car", 10).get(0).getOrderDate());
+            assertEquals(1, orders.findOrdersByCustomer("soprano", 1).size());
+            assertTrue(orders.findOrdersByCustomer("prano", 10).isEmpty(), "Only word starts match");
+
+            paulie.setCustomerName("Paulie Gualtieri");
+            orders.editOrder(testDate, paulie);
+            orders.removeOrder(testDate.plusDays(1), tony.getOrderNumber());
+            assertTrue(orders.findOrdersByCustomer("walnuts", 10).isEmpty());
+            assertEquals(List.of(paulie.getOrderNumber()), numbers(orders.findOrdersByCustomer("gualt", 10)));
+            assertEquals(List.of(carmela.getOrderNumber()), numbers(orders.findOrdersByCustomer("sop", 10)));
+            orders.close();
+
+            //a new instance indexes what is on disk
+            OrderDaoFileImpl reopened = new OrderDaoFileImpl(settings);
+            assertEquals(List.of(carmela.getOrderNumber()), numbers(reopened.findOrdersByCustomer("sopr", 10)));
+            assertEquals(List.of(paulie.getOrderNumber()), numbers(reopened.findOrdersByCustomer("paulie g", 10)));
+            reopened.close();
+        }
+    }
+
+    @Test
+    void testAsyncMutationsAreBatchedAndFailIndependently(@TempDir Path dir) throws Exception {
+        for (boolean journal : new boolean[]{false, true}) {
+            StorageSettings settings = new StorageSettings();
+            settings.setOrdersFolder(dir.resolve("journal-" + journal).toString());
+            settings.setJournalEnabled(journal);
+            settings.setWriterThreads(1);
+            OrderDaoFileImpl orders = new OrderDaoFileImpl(settings);
+            Order kept = orders.addOrder(testDate, sampleOrder("Tony Soprano"));
+            Order gone = orders.addOrder(testDate, sampleOrder("Big Pussy"));
+
+            List<CompletableFuture<Order>> adds = new ArrayList<>();
+            for (int i = 0; i < 50; i++) adds.add(orders.addOrderAsync(testDate, sampleOrder("Customer " + i)));
+            Order edit = new Order(kept);
+            edit.setProductType("Wood");
+            edit.setTotal(new BigDecimal("1000.00"));
+            CompletableFuture<Order> edited = orders.editOrderAsync(testDate, edit);
+            CompletableFuture<Order> removed = orders.removeOrderAsync(testDate, gone.getOrderNumber());
+            CompletableFuture<Order> missing = orders.removeOrderAsync(testDate, 9999);
+            //the newest add is edited and then removed again, possibly in the same batch
+            Order last = adds.get(49).join();
+            Order lastEdit = new Order(last);
+            lastEdit.setState("CA");
+            orders.editOrderAsync(testDate, lastEdit).join();
+            orders.removeOrderAsync(testDate, last.getOrderNumber()).join();
+
+            for (CompletableFuture<Order> add : adds) assertNotNull(add.join().getOrderNumber());
+            assertEquals("Wood", edited.join().getProductType());
+            assertEquals(gone.getOrderNumber(), removed.join().getOrderNumber());
+            CompletionException e = assertThrows(CompletionException.class, missing::join);
+            assertTrue(e.getCause() instanceof FlooringException);
+            assertThrows(FlooringException.class, () -> orders.removeOrder(testDate, 9999), "Synchronous calls throw as before");
+            assertTrue(orders.getIoStats().getWrites() <= 56, orders.getIoStats().toString());
+
+            orders.close();
+            OrderDaoFileImpl reopened = new OrderDaoFileImpl(settings);
+            List<Order> stored = reopened.getOrdersByDate(testDate);
+            assertEquals(50, stored.size(), "Tony, 49 adds; Big Pussy and the last add are gone");
+            assertEquals("Wood", reopened.getOrder(kept.getOrderNumber()).getProductType());
+            assertNull(reopened.getOrder(last.getOrderNumber()));
+            assertEquals(List.of(), reopened.findOrdersByCustomer("big pussy", 10));
+            assertRevenueMatchesOrders(reopened, testDate, testDate);
+            reopened.close();
+        }
+    }
+
+    @Test
+    void testStartupRemovesTempFilesOfUnfinishedWrites(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        OrderDaoFileImpl orders = new OrderDaoFileImpl(settings);
+        Order tony = orders.addOrder(testDate, sampleOrder("Tony Soprano"));
+        orders.close();
+        assertEquals(List.of("Orders_11292025.txt"), fileNames(dir, "Orders_*"), "Writes leave no temp files behind");
+
+        //what a crash during the next write of the day leaves behind
+        Path temp = dir.resolve("Orders_11292025.txt.tmp");
+        Files.writeString(temp, OrderDaoFileImpl.HEADER + "\n" + tony.getOrderNumber() + ",Tony Sopr");
+        OrderDaoFileImpl reopened = new OrderDaoFileImpl(settings);
+        assertFalse(Files.exists(temp));
+        assertEquals(List.of(tony.getOrderNumber()), numbers(reopened.getOrdersByDate(testDate)));
+        assertTrue(reopened.getDurabilityStats().contains("recoveredTempFiles=1"), reopened.getDurabilityStats());
+        reopened.close();
+    }
+
+    private static List<String> fileNames(Path dir, String glob) throws Exception {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, glob)) {
+            for (Path file : files) names.add(file.getFileName().toString());
+        }
+        return names;
+    }
+
+    private static List<String> names(List<Order> orders) {
+        List<String> names = new ArrayList<>();
+        for (Order o : orders) names.add(o.getCustomerName());
+        return names;
+    }
+
+    private static List<Integer> numbers(List<Order> orders) {
+        List<Integer> numbers = new ArrayList<>();
+        for (Order o : orders) numbers.add(o.getOrderNumber());
+        return numbers;
+    }
+
+    private static void assertRevenueMatchesOrders(OrderDaoFileImpl orders, LocalDate from, LocalDate to) {
+        List<DailyRevenue> days = orders.getDailyRevenue(from, to);
+        assertEquals(orders.getOrderDates().size(), days.size());
+        for (DailyRevenue day : days) {
+            DailyRevenue recount = DailyRevenue.of(day.getDate(), orders.getOrdersByDate(day.getDate()));
+            assertEquals(recount.getCells(), day.getCells(), "Rollup for " + day.getDate());
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package org.example.dao;
+
+import org.example.model.Order;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.example.dao.TestOrders.sampleOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderExporterTest {
+
+    @Test
+    void testExportWritesAllDatesInOrder(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.resolve("Orders").toString());
+        OrderDaoFileImpl dao = new OrderDaoFileImpl(settings);
+
+        //adding out of date order on purpose
+        for (int day = 20; day >= 1; day--) {
+            dao.addOrder(LocalDate.of(2030, 1, day), sampleOrder("Customer " + day));
+        }
+
+        Path target = dir.resolve("Backup/DataExport.txt");
+        ExportSummary summary = new OrderExporter(dao, new ForkJoinPool(3)).export(target);
+
+        assertEquals(20, summary.getRows());
+        assertEquals(20, summary.getDates());
+        List<String> lines = Files.readAllLines(target);
+        assertEquals(21, lines.size(), "Header plus one row per order");
+        assertTrue(lines.get(0).endsWith(",Total,OrderDate"));
+        assertTrue(lines.get(1).startsWith("20,Customer 1,") && lines.get(1).endsWith(",01-01-2030"));
+        assertTrue(lines.get(20).startsWith("1,Customer 20,") && lines.get(20).endsWith(",01-20-2030"));
+        assertFalse(Files.exists(dir.resolve("Backup/DataExport.txt.tmp")));
+    }
+
+    @Test
+    void testExportWithNoOrdersWritesHeaderOnly(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.resolve("Orders").toString());
+
+        Path target = dir.resolve("DataExport.txt");
+        ExportSummary summary = new OrderExporter(new OrderDaoFileImpl(settings)).export(target);
+
+        assertEquals(0, summary.getRows());
+        assertEquals(1, Files.readAllLines(target).size());
+    }
+}
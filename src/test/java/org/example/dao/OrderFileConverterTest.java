@@ -0,0 +1,97 @@
+package org.example.dao;
+
+import org.example.model.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.example.dao.TestOrders.sampleOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderFileConverterTest {
+
+    private final LocalDate date = LocalDate.of(2030, 3, 15);
+
+    @Test
+    void testTextToBinaryAndBackIsByteForByte(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        OrderDaoFileImpl textDao = new OrderDaoFileImpl(settings);
+        textDao.addOrder(date, sampleOrder("Tony Soprano", "200"));
+        textDao.addOrder(date, sampleOrder("Paulie Walnuts", "150.50"));
+        textDao.addOrder(date.plusDays(1), sampleOrder("Silvio Dante", "75.00"));
+        textDao.close();
+        Path textFile = dir.resolve("Orders_03152030.txt");
+        byte[] original = Files.readAllBytes(textFile);
+
+        OrderFileConverter converter = new OrderFileConverter(dir);
+        assertEquals(2, converter.convert(StorageFormat.TEXT, StorageFormat.BINARY));
+        assertFalse(Files.exists(textFile));
+        assertTrue(Files.exists(dir.resolve("Orders_03152030.ord")));
+        assertFalse(Files.exists(dir.resolve("orders.idx")), "Index positions are stale after a conversion");
+
+        settings.setStorageFormat(StorageFormat.BINARY);
+        OrderDaoFileImpl binaryDao = new OrderDaoFileImpl(settings);
+        List<Order> orders = binaryDao.getOrdersByDate(date);
+        assertEquals(2, orders.size());
+        assertEquals(new BigDecimal("150.50"), orders.get(1).getArea());
+        assertEquals("Silvio Dante", binaryDao.getOrder(3).getCustomerName(), "Index rebuilt from the segments");
+        binaryDao.close();
+
+        assertEquals(2, converter.convert(StorageFormat.BINARY, StorageFormat.TEXT));
+        assertArrayEquals(original, Files.readAllBytes(textFile));
+    }
+
+    @Test
+    void testExistingTargetIsNotOverwritten(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        OrderDaoFileImpl textDao = new OrderDaoFileImpl(settings);
+        textDao.addOrder(date, sampleOrder("Tony Soprano", "200"));
+        textDao.close();
+        Files.writeString(dir.resolve("Orders_03152030.ord"), "keep me");
+
+        assertThrows(FlooringException.class,
+                () -> new OrderFileConverter(dir).convert(StorageFormat.TEXT, StorageFormat.BINARY));
+        assertTrue(Files.exists(dir.resolve("Orders_03152030.txt")));
+        assertEquals("keep me", Files.readString(dir.resolve("Orders_03152030.ord")));
+    }
+
+    @Test
+    void testArchivedFolderIsNotConverted(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setArchiveAfterDays(0);
+        OrderDaoFileImpl textDao = new OrderDaoFileImpl(settings);
+        textDao.addOrder(date, sampleOrder("Tony Soprano", "200"));
+        textDao.addOrder(LocalDate.now().minusDays(1), sampleOrder("Paulie Walnuts", "150.50"));
+        assertEquals(1, textDao.archivePastDates());
+        textDao.close();
+
+        assertThrows(FlooringException.class,
+                () -> new OrderFileConverter(dir).convert(StorageFormat.TEXT, StorageFormat.BINARY));
+        assertTrue(Files.exists(dir.resolve("Orders_03152030.txt")));
+    }
+
+    @Test
+    void testMonthlyFolderIsNotConverted(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        settings.setStorageLayout(StorageLayout.MONTHLY);
+        OrderDaoFileImpl monthlyDao = new OrderDaoFileImpl(settings);
+        monthlyDao.addOrder(date, sampleOrder("Tony Soprano", "200"));
+        monthlyDao.close();
+        Path segment = dir.resolve("Orders_203003.seg");
+        byte[] before = Files.readAllBytes(segment);
+
+        FlooringException e = assertThrows(FlooringException.class,
+                () -> new OrderFileConverter(dir).convert(StorageFormat.TEXT, StorageFormat.BINARY));
+        assertTrue(e.getMessage().contains("OrderLayoutMigrator"), e.getMessage());
+        assertArrayEquals(before, Files.readAllBytes(segment));
+    }
+}
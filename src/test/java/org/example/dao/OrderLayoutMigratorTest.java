@@ -0,0 +1,68 @@
+package org.example.dao;
+
+import org.example.model.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.example.dao.TestOrders.sampleOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderLayoutMigratorTest {
+
+    private final LocalDate date = LocalDate.of(2030, 3, 15);
+
+    @Test
+    void testDailyToMonthlyAndBackIsByteForByte(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        OrderDaoFileImpl dailyDao = new OrderDaoFileImpl(settings);
+        dailyDao.addOrder(date, sampleOrder("Tony Soprano", "200"));
+        dailyDao.addOrder(date, sampleOrder("Paulie Walnuts", "150.50"));
+        dailyDao.addOrder(date.plusDays(1), sampleOrder("Silvio Dante", "75.00"));
+        dailyDao.addOrder(date.plusMonths(1), sampleOrder("Carmela Soprano", "60"));
+        dailyDao.close();
+        Path dayFile = dir.resolve("Orders_03152030.txt");
+        byte[] original = Files.readAllBytes(dayFile);
+
+        OrderLayoutMigrator migrator = new OrderLayoutMigrator(dir, StorageFormat.TEXT);
+        assertEquals(3, migrator.migrate(StorageLayout.DAILY, StorageLayout.MONTHLY));
+        assertFalse(Files.exists(dayFile));
+        assertTrue(Files.exists(dir.resolve("Orders_203003.seg")));
+        assertTrue(Files.exists(dir.resolve("Orders_203004.seg")));
+        assertFalse(Files.exists(dir.resolve("orders.idx")), "Index positions are stale after a migration");
+
+        settings.setStorageLayout(StorageLayout.MONTHLY);
+        OrderDaoFileImpl monthlyDao = new OrderDaoFileImpl(settings);
+        List<Order> orders = monthlyDao.getOrdersByDate(date);
+        assertEquals(2, orders.size());
+        assertEquals(new BigDecimal("150.50"), orders.get(1).getArea());
+        assertEquals("Silvio Dante", monthlyDao.getOrder(3).getCustomerName(), "Index rebuilt from the segments");
+        assertEquals(List.of(date, date.plusDays(1), date.plusMonths(1)), monthlyDao.getOrderDates());
+        monthlyDao.close();
+
+        assertEquals(3, migrator.migrate(StorageLayout.MONTHLY, StorageLayout.DAILY));
+        assertArrayEquals(original, Files.readAllBytes(dayFile));
+        assertFalse(Files.exists(dir.resolve("Orders_203003.seg")));
+    }
+
+    @Test
+    void testPendingJournalsStopTheMigration(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        OrderDaoFileImpl dailyDao = new OrderDaoFileImpl(settings);
+        dailyDao.addOrder(date, sampleOrder("Tony Soprano", "200"));
+        dailyDao.close();
+        Files.writeString(dir.resolve("Orders_03152030.journal"), "R,1\n");
+
+        assertThrows(FlooringException.class,
+                () -> new OrderLayoutMigrator(dir, StorageFormat.TEXT).migrate(StorageLayout.DAILY, StorageLayout.MONTHLY));
+        assertTrue(Files.exists(dir.resolve("Orders_03152030.txt")));
+        assertFalse(Files.exists(dir.resolve("Orders_203003.seg")));
+    }
+}
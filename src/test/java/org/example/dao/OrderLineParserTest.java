@@ -0,0 +1,206 @@
+package org.example.dao;
+
+import org.example.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderLineParserTest {
+
+    private static final String[] STATES = {"TX", "WA", "KY", "CA"};
+    private static final String[] PRODUCTS = {"Carpet", "Laminate", "Tile", "Wood"};
+
+    @Test
+    void testRandomLinesMatchSplitParser() {
+        Random random = new Random(42);
+        OrderLineParser parser = new OrderLineParser();
+        for (int i = 0; i < 20_000; i++) {
+            String line = OrderDaoFileImpl.marshallOrder(randomOrder(random));
+            assertSameOrder(legacyUnmarshall(line), parser.parseLine(line), line);
+        }
+    }
+
+    @Test
+    void testDecimalEdgeCasesMatchSplitParser() {
+        String[] decimals = {"0", "0.00", "-1.50", "+2.5", "1E+3", "1.25E-2", "123456789012345678901234567890.123456789", ".5", "7."};
+        OrderLineParser parser = new OrderLineParser();
+        for (String d : decimals) {
+            String line = "1,Ada Lovelace,WA," + d + ",Wood," + d + ",5.15,4.75," + d + ",1.00," + d + "," + d;
+            Order expected = legacyUnmarshall(line);
+            Order actual = parser.parseLine(line);
+            assertSameOrder(expected, actual, line);
+            //same value and same scale, not just compareTo
+            assertEquals(expected.getTaxRate().scale(), actual.getTaxRate().scale());
+        }
+    }
+
+    @Test
+    void testParseAllMatchesLineByLine() throws Exception {
+        Random random = new Random(7);
+        StringBuilder file = new StringBuilder(OrderDaoFileImpl.HEADER).append("\n");
+        List<String> lines = new ArrayList<>();
+        //enough rows to cross several read buffer boundaries
+        for (int i = 0; i < 5_000; i++) {
+            String line = OrderDaoFileImpl.marshallOrder(randomOrder(random));
+            lines.add(line);
+            file.append(line).append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+
+        List<Order> parsed = new OrderLineParser().parseAll(new StringReader(file.toString()));
+
+        assertEquals(lines.size(), parsed.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertSameOrder(legacyUnmarshall(lines.get(i)), parsed.get(i), lines.get(i));
+        }
+    }
+
+    @Test
+    void testParseAllWithSmallReads() throws Exception {
+        String line1 = "1,Ada Lovelace,WA,9.25,Wood,100.00,5.15,4.75,515.00,475.00,91.31,1081.31";
+        String line2 = "2,Doctor Who,CA,25.00,Tile,249.00,3.50,4.15,871.50,1033.35,476.21,2381.06";
+        String file = OrderDaoFileImpl.HEADER + "\r\n" + line1 + "\r\n\r\n" + line2; // blank line, no final new line
+
+        //a reader that hands out 3 chars at a time, so lines are always split across reads
+        Reader trickle = new StringReader(file) {
+            @Override
+            public int read(char[] buf, int off, int len) throws java.io.IOException {
+                return super.read(buf, off, Math.min(len, 3));
+            }
+        };
+        List<Order> parsed = new OrderLineParser().parseAll(trickle);
+
+        assertEquals(2, parsed.size());
+        assertSameOrder(legacyUnmarshall(line1), parsed.get(0), line1);
+        assertSameOrder(legacyUnmarshall(line2), parsed.get(1), line2);
+    }
+
+    @Test
+    void testByteBufferMatchesReader() throws Exception {
+        Random random = new Random(11);
+        StringBuilder file = new StringBuilder(OrderDaoFileImpl.HEADER).append("\r\n");
+        for (int i = 0; i < 2_000; i++) {
+            file.append(OrderDaoFileImpl.marshallOrder(randomOrder(random))).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        file.append("\n"); // trailing blank line
+        String text = file.toString();
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+
+        List<Order> fromReader = new OrderLineParser().parseAll(new StringReader(text));
+        List<Order> fromBytes = new OrderLineParser().parseAll(bytes, StandardCharsets.UTF_8);
+
+        assertEquals(2_000, fromBytes.size());
+        for (int i = 0; i < fromReader.size(); i++) {
+            Order expected = fromReader.get(i);
+            assertSameOrder(expected, fromBytes.get(i), expected.getCustomerName());
+        }
+    }
+
+    @Test
+    void testHeaderOnlyAndEmptyInput() throws Exception {
+        assertTrue(new OrderLineParser().parseAll(new StringReader("")).isEmpty());
+        assertTrue(new OrderLineParser().parseAll(new StringReader(OrderDaoFileImpl.HEADER + "\n")).isEmpty());
+    }
+
+    @Test
+    void testCommaInCustomerName() {
+        Order order = new OrderLineParser().parseLine("3,Acme, Inc.,TX,4.45,Carpet,100.00,2.25,2.10,225.00,210.00,19.36,454.36");
+
+        assertEquals(3, order.getOrderNumber());
+        assertEquals("Acme, Inc.", order.getCustomerName());
+        assertEquals("TX", order.getState());
+        assertEquals(new BigDecimal("454.36"), order.getTotal());
+    }
+
+    @Test
+    void testRepeatedStatesAndProductsShareStrings() {
+        OrderLineParser parser = new OrderLineParser();
+        Order a = parser.parseLine("1,A,TX,4.45,Carpet,1,1,1,1,1,1,1");
+        Order b = parser.parseLine("2,B,TX,4.45,Carpet,1,1,1,1,1,1,1");
+
+        assertSame(a.getState(), b.getState());
+        assertSame(a.getProductType(), b.getProductType());
+    }
+
+    @Test
+    void testMalformedLinesAreRejected() {
+        OrderLineParser parser = new OrderLineParser();
+        assertThrows(FlooringException.class, () -> parser.parseLine("1,Only,a,few,fields"));
+        assertThrows(FlooringException.class, () -> parser.parseLine("x,A,TX,4.45,Carpet,1,1,1,1,1,1,1"));
+        assertThrows(FlooringException.class, () -> parser.parseLine("1,A,TX,4.45,Carpet,1,1,1,1,1,1,abc"));
+        assertThrows(FlooringException.class, () -> parser.parseLine("99999999999,A,TX,4.45,Carpet,1,1,1,1,1,1,1"));
+    }
+
+    //the String.split based parser this one replaced, kept as the reference behaviour
+    private static Order legacyUnmarshall(String line) {
+        String[] tokens = line.split(",");
+        Order order = new Order();
+        order.setOrderNumber(Integer.parseInt(tokens[0]));
+        order.setCustomerName(tokens[1]);
+        order.setState(tokens[2]);
+        order.setTaxRate(new BigDecimal(tokens[3]));
+        order.setProductType(tokens[4]);
+        order.setArea(new BigDecimal(tokens[5]));
+        order.setCostPerSquareFoot(new BigDecimal(tokens[6]));
+        order.setLaborCostPerSquareFoot(new BigDecimal(tokens[7]));
+        order.setMaterialCost(new BigDecimal(tokens[8]));
+        order.setLaborCost(new BigDecimal(tokens[9]));
+        order.setTax(new BigDecimal(tokens[10]));
+        order.setTotal(new BigDecimal(tokens[11]));
+        return order;
+    }
+
+    private static Order randomOrder(Random random) {
+        Order order = new Order();
+        order.setOrderNumber(random.nextInt(Integer.MAX_VALUE));
+        order.setCustomerName(randomName(random));
+        order.setState(STATES[random.nextInt(STATES.length)]);
+        order.setTaxRate(randomDecimal(random));
+        order.setProductType(PRODUCTS[random.nextInt(PRODUCTS.length)]);
+        order.setArea(randomDecimal(random));
+        order.setCostPerSquareFoot(randomDecimal(random));
+        order.setLaborCostPerSquareFoot(randomDecimal(random));
+        order.setMaterialCost(randomDecimal(random));
+        order.setLaborCost(randomDecimal(random));
+        order.setTax(randomDecimal(random));
+        order.setTotal(randomDecimal(random));
+        return order;
+    }
+
+    //no commas, the split parser cannot read those
+    private static String randomName(Random random) {
+        String alphabet = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ .'-éü";
+        int length = 1 + random.nextInt(30);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return sb.toString();
+    }
+
+    private static BigDecimal randomDecimal(Random random) {
+        long unscaled = random.nextInt(4) == 0 ? random.nextLong() : random.nextInt(10_000_000);
+        return BigDecimal.valueOf(unscaled, random.nextInt(6) - 1);
+    }
+
+    private static void assertSameOrder(Order expected, Order actual, String line) {
+        assertEquals(expected.getOrderNumber(), actual.getOrderNumber(), line);
+        assertEquals(expected.getCustomerName(), actual.getCustomerName(), line);
+        assertEquals(expected.getState(), actual.getState(), line);
+        assertEquals(expected.getTaxRate(), actual.getTaxRate(), line);
+        assertEquals(expected.getProductType(), actual.getProductType(), line);
+        assertEquals(expected.getArea(), actual.getArea(), line);
+        assertEquals(expected.getCostPerSquareFoot(), actual.getCostPerSquareFoot(), line);
+        assertEquals(expected.getLaborCostPerSquareFoot(), actual.getLaborCostPerSquareFoot(), line);
+        assertEquals(expected.getMaterialCost(), actual.getMaterialCost(), line);
+        assertEquals(expected.getLaborCost(), actual.getLaborCost(), line);
+        assertEquals(expected.getTax(), actual.getTax(), line);
+        assertEquals(expected.getTotal(), actual.getTotal(), line);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.dao;
+
+import org.example.model.Order;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.example.dao.TestOrders.sampleOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderRangeLoaderTest {
+
+    @Test
+    void testLoadsExistingDatesInOrder(@TempDir Path dir) throws Exception {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        OrderDaoFileImpl dao = new OrderDaoFileImpl(settings);
+
+        //every third day of january, added newest first, plus one date outside the range
+        for (int day = 28; day >= 1; day -= 3) {
+            dao.addOrder(LocalDate.of(2030, 1, day), sampleOrder("Customer " + day + "a"));
+            dao.addOrder(LocalDate.of(2030, 1, day), sampleOrder("Customer " + day + "b"));
+        }
+        dao.addOrder(LocalDate.of(2030, 2, 1), sampleOrder("Outside"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            OrderRangeLoader loader = new OrderRangeLoader(dao, pool, 2);
+            List<Order> orders = loader.load(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 31));
+
+            assertEquals(20, orders.size());
+            assertEquals("Customer 1a", orders.get(0).getCustomerName());
+            assertEquals("Customer 1b", orders.get(1).getCustomerName());
+            assertEquals("Customer 28b", orders.get(19).getCustomerName());
+            for (int i = 1; i < orders.size(); i++) {
+                assertFalse(orders.get(i).getOrderDate().isBefore(orders.get(i - 1).getOrderDate()), "Dates out of order at " + i);
+            }
+
+            try (Stream<Order> stream = loader.stream(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 31))) {
+                assertEquals(names(orders), stream.map(Order::getCustomerName).collect(Collectors.toList()));
+            }
+
+            //both ends are included, an early exit cancels the rest
+            List<Order> edges = loader.load(LocalDate.of(2030, 1, 4), LocalDate.of(2030, 1, 7));
+            assertEquals(List.of("Customer 4a", "Customer 4b", "Customer 7a", "Customer 7b"), names(edges));
+            try (Stream<Order> stream = loader.stream(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 2, 28))) {
+                assertEquals("Customer 7a", stream.skip(4).findFirst().orElseThrow().getCustomerName());
+            }
+
+            assertTrue(loader.load(LocalDate.of(2030, 1, 2), LocalDate.of(2030, 1, 3)).isEmpty());
+            assertThrows(FlooringException.class, () -> loader.load(LocalDate.of(2030, 1, 31), LocalDate.of(2030, 1, 1)));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static List<String> names(List<Order> orders) {
+        return orders.stream().map(Order::getCustomerName).collect(Collectors.toList());
+    }
+}
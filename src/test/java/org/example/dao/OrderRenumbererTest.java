@@ -0,0 +1,48 @@
+package org.example.dao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderRenumbererTest {
+
+    private final LocalDate first = LocalDate.of(2013, 6, 1);
+    private final LocalDate second = LocalDate.of(2013, 6, 2);
+
+    @Test
+    void testNumbersRepeatedAcrossDatesAreRefusedThenRenumbered(@TempDir Path dir) throws Exception {
+        //numbered per date, as the DAO used to
+        Files.writeString(dir.resolve("Orders_06012013.txt"), day("1,Ada Smith", "2,Tony Soprano"));
+        Files.writeString(dir.resolve("Orders_06022013.txt"), day("1,Bob Smith"));
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+
+        FlooringException refused = assertThrows(FlooringException.class, () -> new OrderDaoFileImpl(settings));
+        assertTrue(refused.getMessage().contains("#1 (2013-06-01 and later)"), refused.getMessage());
+        assertTrue(refused.getMessage().contains("OrderRenumberer"), refused.getMessage());
+
+        OrderRenumberer renumberer = new OrderRenumberer(dir, StorageFormat.TEXT, StorageLayout.DAILY);
+        assertEquals(List.of("06/02/2013 #1 -> #3"), renumberer.renumber());
+        assertTrue(renumberer.renumber().isEmpty(), "A second run finds nothing to do");
+
+        try (OrderDaoFileImpl orders = new OrderDaoFileImpl(settings)) {
+            assertEquals(first, orders.getOrder(1).getOrderDate());
+            assertEquals("Bob Smith", orders.getOrder(3).getCustomerName());
+            assertEquals(second, orders.getOrder(3).getOrderDate());
+            assertEquals(2, orders.findOrdersByCustomer("smith", 10).size());
+            assertEquals(4, orders.addOrder(first, orders.getOrder(2)).getOrderNumber());
+        }
+    }
+
+    private static String day(String... rows) {
+        StringBuilder day = new StringBuilder(OrderDaoFileImpl.HEADER).append('\n');
+        for (String row : rows) day.append(row).append(",TX,4.45,Tile,100,3.50,4.15,350.00,415.00,34.04,799.04\n");
+        return day.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.dao;
+
+import org.example.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderVersionsTest {
+
+    private final LocalDate date = LocalDate.of(2030, 3, 15);
+
+    @Test
+    void testWritePinsTheVersionItStartedFrom() {
+        OrderVersions versions = new OrderVersions();
+        assertEquals(0, versions.current(date));
+        assertNull(versions.pinned(date));
+
+        List<Order> published = List.of(new Order());
+        long next = versions.beginWrite(date, published);
+        assertTrue(OrderVersions.isWriting(versions.current(date)));
+        assertSame(published, versions.pinned(date), "Readers keep the version the write started from");
+        assertNull(versions.pinned(date.plusDays(1)), "Other dates are not held up");
+
+        versions.endWrite(date);
+        assertEquals(next, versions.current(date), "The new version is published under the number beginWrite gave");
+        assertFalse(OrderVersions.isWriting(next));
+        assertNull(versions.pinned(date));
+        assertEquals(next + 2, versions.beginWrite(date, published));
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.dao;
+
+import org.example.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderWriterTest {
+
+    private final LocalDate date = LocalDate.of(2030, 1, 15);
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final List<Order> written = new ArrayList<>();
+
+    @Test
+    void testQueuedMutationsAreWrittenAsOneBatch() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (OrderWriter writer = new OrderWriter(recording(firstBatchStarted, release), 1, 100, 100)) {
+            CompletableFuture<Order> first = writer.submit(date, add("first"));
+            assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+
+            //queued while the first batch is being written
+            List<CompletableFuture<Order>> rest = new ArrayList<>();
+            for (int i = 0; i < 10; i++) rest.add(writer.submit(date, add("order " + i)));
+            CompletableFuture<Order> missing = writer.submit(date, (orders, changes) -> {
+                throw new FlooringException("Order #42 not found for " + date);
+            });
+            assertFalse(rest.get(0).isDone(), "Nothing is complete before it is written");
+            release.countDown();
+
+            assertEquals("first", first.join().getCustomerName());
+            for (CompletableFuture<Order> f : rest) assertNotNull(f.join());
+            CompletionException e = assertThrows(CompletionException.class, missing::join);
+            assertTrue(e.getCause() instanceof FlooringException);
+            assertEquals(List.of(1, 10), batchSizes, "The failed mutation is left out, the others share one write");
+            assertEquals(11, written.size());
+            assertTrue(writer.stats().startsWith("batches=2 mutations=12"), writer.stats());
+        }
+    }
+
+    @Test
+    void testBatchSizeIsCappedAndCloseWritesWhatIsQueued() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OrderWriter writer = new OrderWriter(recording(firstBatchStarted, release), 1, 100, 4);
+        List<CompletableFuture<Order>> results = new ArrayList<>();
+        results.add(writer.submit(date, add("first")));
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 9; i++) results.add(writer.submit(date.plusDays(i % 2), add("order " + i)));
+        release.countDown();
+        writer.close();
+
+        for (CompletableFuture<Order> f : results) assertTrue(f.isDone() && !f.isCompletedExceptionally());
+        //batches of at most 4, split by date: 1, then [4 over two dates], [4 over two dates], [1]
+        assertEquals(List.of(1, 2, 2, 2, 2, 1), batchSizes);
+        assertThrows(FlooringException.class, () -> writer.submit(date, add("late")));
+    }
+
+    //applies and "writes" a batch the way the DAO does, the first batch waits for release
+    private OrderWriter.BatchWriter recording(CountDownLatch firstBatchStarted, CountDownLatch release) {
+        return (date, requests) -> {
+            if (firstBatchStarted.getCount() > 0) {
+                firstBatchStarted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            List<Order> orders = new ArrayList<>();
+            OrderChanges changes = new OrderChanges();
+            List<OrderWriter.Request<?>> applied = new ArrayList<>();
+            for (OrderWriter.Request<?> request : requests) {
+                if (request.apply(orders, changes)) applied.add(request);
+            }
+            batchSizes.add(applied.size());
+            written.addAll(orders);
+            for (OrderWriter.Request<?> request : applied) request.complete();
+        };
+    }
+
+    private static OrderWriter.Mutation<Order> add(String name) {
+        return (orders, changes) -> {
+            Order order = new Order();
+            order.setCustomerName(name);
+            orders.add(order);
+            changes.add(order);
+            return order;
+        };
+    }
+}
@@ -2,7 +2,11 @@ package org.example.dao;
 
 import org.example.model.Product;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,4 +47,39 @@ public class ProductDaoFileImplTest {
         Product invalid = dao.getProduct("Marble");
         assertNull(invalid, "Nonexistent product should return null");
     }
+
+    @Test
+    void testReloadsOnlyWhenFileChanges(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("Products.txt");
+        Files.writeString(file, "ProductType,CostPerSquareFoot,LaborCostPerSquareFoot\nWood,5.15,4.75\n");
+        ProductDaoFileImpl fileDao = new ProductDaoFileImpl(file.toString(), 0);
+
+        fileDao.getProduct("wood").setCostPerSquareFoot(BigDecimal.ONE);
+        assertEquals(new BigDecimal("5.15"), fileDao.getProduct("Wood").getCostPerSquareFoot(),
+                "Callers get copies, the snapshot stays as it was");
+        assertEquals(1, fileDao.getIoStats().getReads(), "Unchanged file should be served from the same snapshot");
+
+        Files.writeString(file, "ProductType,CostPerSquareFoot,LaborCostPerSquareFoot\nWood,6.25,4.75\nStone,9.00,7.00\n");
+        assertEquals(new BigDecimal("6.25"), fileDao.getProduct("Wood").getCostPerSquareFoot(), "Changed file should be reloaded");
+        assertNotNull(fileDao.getProduct("Stone"));
+        assertEquals(2, fileDao.getAllProducts().size());
+    }
+
+    @Test
+    void testStampIsOnlyCheckedOncePerInterval(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("Products.txt");
+        Files.writeString(file, "ProductType,CostPerSquareFoot,LaborCostPerSquareFoot\nWood,5.15,4.75\n");
+        ProductDao fileDao = new ProductDaoFileImpl(file.toString(), 60_000);
+        fileDao.getProduct("Wood");
+
+        Files.writeString(file, "ProductType,CostPerSquareFoot,LaborCostPerSquareFoot\nWood,6.25,4.75\n");
+        assertEquals(new BigDecimal("5.15"), fileDao.getProduct("Wood").getCostPerSquareFoot(),
+                "Within the interval lookups do not look at the file");
+    }
+
+    @Test
+    void testMissingFileThrowsException(@TempDir Path dir) {
+        ProductDao missing = new ProductDaoFileImpl(dir.resolve("nope.txt").toString());
+        assertThrows(FlooringException.class, () -> missing.getProduct("Wood"));
+    }
 }
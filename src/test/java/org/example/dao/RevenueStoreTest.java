@@ -0,0 +1,78 @@
+package org.example.dao;
+
+import org.example.model.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RevenueStoreTest {
+
+    private final LocalDate date = LocalDate.of(2030, 5, 1);
+
+    @Test
+    void testDeltasMatchRecount() {
+        Random random = new Random(3);
+        List<Order> orders = new ArrayList<>();
+        DailyRevenue running = DailyRevenue.of(date, List.of());
+        for (int i = 0; i < 2_000; i++) {
+            if (!orders.isEmpty() && random.nextInt(3) == 0) {
+                Order removed = orders.remove(random.nextInt(orders.size()));
+                running = running.with(List.of(removed), List.of());
+            } else if (!orders.isEmpty() && random.nextBoolean()) {
+                int at = random.nextInt(orders.size());
+                Order edited = order(random);
+                running = running.with(List.of(orders.set(at, edited)), List.of(edited));
+            } else {
+                Order added = order(random);
+                orders.add(added);
+                running = running.with(List.of(), List.of(added));
+            }
+        }
+        DailyRevenue recount = DailyRevenue.of(date, orders);
+        assertEquals(recount.getCells(), running.getCells());
+        assertEquals(orders.size(), running.getTotal().getOrders());
+        assertEquals(recount.getByState(), running.getByState());
+    }
+
+    @Test
+    void testLogRoundTripAndStaleStamps(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("orders.agg");
+        FileStamp stamp = FileStamp.of(1_000L, 2_000L);
+        DailyRevenue day = DailyRevenue.of(date, List.of(order(new Random(1)), order(new Random(2))));
+
+        RevenueStore store = new RevenueStore(file);
+        store.load(); // no file yet, nothing to replay
+        store.put(DailyRevenue.of(date, List.of()), FileStamp.MISSING, FileStamp.MISSING);
+        store.put(day, stamp, FileStamp.MISSING);
+        store.close();
+        Files.writeString(file, "05022030,1,2,-1,-1,TX,Tile,1,bro", java.nio.file.StandardOpenOption.APPEND);
+
+        RevenueStore reloaded = new RevenueStore(file);
+        reloaded.load();
+        assertEquals(day.getCells(), reloaded.get(date, stamp, FileStamp.MISSING).getCells(), "Last line for a date wins");
+        assertNull(reloaded.get(date, FileStamp.of(1_001L, 2_000L), FileStamp.MISSING), "Changed file, stale day");
+        assertNull(reloaded.get(date.plusDays(1), stamp, FileStamp.MISSING), "Torn line is ignored");
+        reloaded.close();
+    }
+
+    private Order order(Random random) {
+        Order order = new Order();
+        order.setOrderNumber(random.nextInt(1000));
+        order.setState(random.nextBoolean() ? "TX" : "CA");
+        order.setProductType(random.nextBoolean() ? "Tile" : "Wood");
+        order.setMaterialCost(BigDecimal.valueOf(random.nextInt(100_000), 2));
+        order.setLaborCost(BigDecimal.valueOf(random.nextInt(100_000), 4));
+        order.setTax(BigDecimal.valueOf(random.nextInt(10_000), 2));
+        order.setTotal(BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+        return order;
+    }
+}
@@ -2,6 +2,11 @@ package org.example.dao;
 
 import org.example.model.Tax;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,4 +44,19 @@ public class TaxDaoFileImplTest {
         Tax invalid = dao.getTax("NJ");
         assertNull(invalid, "New Jersey shouldn't exist in the dataset");
     }
+
+    @Test
+    void testReloadsOnlyWhenFileChanges(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("Taxes.txt");
+        Files.writeString(file, "State,StateName,TaxRate\nTX,Texas,4.45\n");
+        TaxDaoFileImpl fileDao = new TaxDaoFileImpl(file.toString(), 0);
+
+        fileDao.getTax("tx").setTaxRate(BigDecimal.ONE);
+        assertEquals(new BigDecimal("4.45"), fileDao.getTax("TX").getTaxRate(), "Callers get copies, the snapshot stays as it was");
+        assertEquals(1, fileDao.getIoStats().getReads(), "Unchanged file should be served from the same snapshot");
+
+        Files.writeString(file, "State,StateName,TaxRate\nTX,Texas,5.50\nWA,Washington,9.25\n");
+        assertEquals(new BigDecimal("5.50"), fileDao.getTax("TX").getTaxRate(), "Changed file should be reloaded");
+        assertEquals(2, fileDao.getAllTaxes().size());
+    }
 }
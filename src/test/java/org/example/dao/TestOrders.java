@@ -0,0 +1,44 @@
+package org.example.dao;
+
+import org.example.model.Order;
+
+import java.math.BigDecimal;
+
+/**
+ * The order the DAO tests add and write: 100 sq ft of Tile in TX, priced, without a number or date.
+ */
+final class TestOrders {
+
+    private TestOrders() {
+    }
+
+    static Order sampleOrder(String name) {
+        Order order = new Order();
+        order.setCustomerName(name);
+        order.setState("TX");
+        order.setTaxRate(new BigDecimal("4.45"));
+        order.setProductType("Tile");
+        order.setArea(new BigDecimal("100"));
+        order.setCostPerSquareFoot(new BigDecimal("3.50"));
+        order.setLaborCostPerSquareFoot(new BigDecimal("4.15"));
+        order.setMaterialCost(new BigDecimal("350.00"));
+        order.setLaborCost(new BigDecimal("415.00"));
+        order.setTax(new BigDecimal("34.04"));
+        order.setTotal(new BigDecimal("799.04"));
+        return order;
+    }
+
+    //only the area differs, the costs are left as they are
+    static Order sampleOrder(String name, String area) {
+        Order order = sampleOrder(name);
+        order.setArea(new BigDecimal(area));
+        return order;
+    }
+
+    //for the storage tests that write below the DAO, where nothing hands out numbers
+    static Order sampleOrder(int number, String name) {
+        Order order = sampleOrder(name);
+        order.setOrderNumber(number);
+        return order;
+    }
+}
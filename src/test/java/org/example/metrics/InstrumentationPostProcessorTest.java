@@ -0,0 +1,86 @@
+package org.example.metrics;
+
+import org.example.dao.*;
+import org.example.model.Order;
+import org.example.service.FlooringService;
+import org.example.service.FlooringServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentationPostProcessorTest {
+
+    @Test
+    void testServiceAndDaosAreTimed(@TempDir Path dir) throws Exception {
+        try (GenericApplicationContext context = context(dir, true)) {
+            FlooringService service = context.getBean(FlooringService.class);
+            assertTrue(service instanceof InstrumentedFlooringService);
+            assertTrue(context.getBean(OrderDao.class) instanceof InstrumentedOrderDao);
+
+            LocalDate date = LocalDate.now().plusDays(5);
+            service.addOrder(date, order("Tony Soprano", "Tile"));
+            service.getOrdersByDate(date);
+            assertThrows(FlooringException.class, () -> service.addOrder(date, order("Paulie Walnuts", "Marble")));
+
+            MetricsRegistry metrics = context.getBean(MetricsRegistry.class);
+            assertEquals(2, metrics.timer("service.addOrder").getCount(), "Failed calls are timed too");
+            assertEquals(1, metrics.counter("service.errors").sum());
+            assertEquals(1, metrics.timer("service.getOrdersByDate").getCount());
+            //the service's own DAO calls go through the instrumented DAOs
+            assertEquals(1, metrics.timer("orderDao.addOrder").getCount());
+            assertTrue(metrics.timer("productDao.getProduct").getCount() > 0);
+
+            String report = metrics.report();
+            assertTrue(report.contains("service.addOrder"), report);
+            assertTrue(report.contains("orders.cache"), report);
+            assertTrue(report.contains("orders.io"), report);
+            assertFalse(report.contains("service.exportAllData"), "Unused operations are left out");
+
+            Path file = dir.resolve("metrics/flooring-metrics.txt");
+            new MetricsDump(metrics, file, 0).dump();
+            assertTrue(Files.readString(file).contains("orderDao.addOrder"));
+        }
+    }
+
+    @Test
+    void testDisabled(@TempDir Path dir) {
+        try (GenericApplicationContext context = context(dir, false)) {
+            assertTrue(context.getBean(FlooringService.class) instanceof FlooringServiceImpl);
+            assertTrue(context.getBean(OrderDao.class) instanceof OrderDaoFileImpl);
+        }
+    }
+
+    private static GenericApplicationContext context(Path dir, boolean enabled) {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("test", Map.of("metrics.enabled", String.valueOf(enabled))));
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        context.registerBean(MetricsRegistry.class);
+        context.registerBean(InstrumentationPostProcessor.class);
+        context.registerBean(OrderDaoFileImpl.class, () -> new OrderDaoFileImpl(settings));
+        context.registerBean(ProductDaoFileImpl.class, () -> new ProductDaoFileImpl());
+        context.registerBean(TaxDaoFileImpl.class, () -> new TaxDaoFileImpl());
+        context.registerBean(FlooringServiceImpl.class);
+        context.refresh();
+        return context;
+    }
+
+    private static Order order(String name, String product) {
+        Order order = new Order();
+        order.setCustomerName(name);
+        order.setState("TX");
+        order.setProductType(product);
+        order.setArea(new BigDecimal("150"));
+        return order;
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void testBucketsCoverEveryValueWithinThreePercent() {
+        Random random = new Random(7);
+        for (int i = 0; i < 1_000_000; i++) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(bucket >= 0 && bucket < LatencyHistogram.BUCKETS, "Bucket out of range for " + value);
+            long highest = LatencyHistogram.highestValueIn(bucket);
+            assertTrue(highest >= value, value + " is above its bucket " + highest);
+            assertTrue(highest - value <= value / 32, value + " reported as " + highest);
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+        for (long v = 0; v < 32; v++) assertEquals(v, LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(v)));
+    }
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().percentile(99));
+
+        for (long v = 1; v <= 100_000; v++) histogram.record(v * 1_000);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(100_000, snapshot.getCount());
+        assertEquals(100_000_000, snapshot.getMax());
+        assertEquals(50_000_500, snapshot.getMean(), 1.0);
+        assertEquals(50_000_000, snapshot.percentile(50), 50_000_000 / 32.0);
+        assertEquals(99_000_000, snapshot.percentile(99), 99_000_000 / 32.0);
+        assertEquals(100_000_000, snapshot.percentile(100), "Never above the max");
+        assertEquals(1_000, snapshot.percentile(0), 1_000 / 32.0);
+    }
+
+    @Test
+    void testConcurrentRecordsAreNotLost() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Future<?>[] tasks = new Future<?>[4];
+        for (int t = 0; t < tasks.length; t++) {
+            tasks[t] = pool.submit(() -> {
+                for (int i = 0; i < 100_000; i++) histogram.record(i % 5_000);
+            });
+        }
+        for (Future<?> task : tasks) task.get();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(400_000, histogram.getCount());
+        assertEquals(400_000, histogram.snapshot().getCount());
+        assertEquals(4_999, histogram.snapshot().getMax());
+    }
+}
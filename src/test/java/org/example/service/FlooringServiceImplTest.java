@@ -5,8 +5,12 @@ import org.example.model.Order;
 import org.example.model.Product;
 import org.example.model.Tax;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.StringReader;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -99,4 +103,147 @@ public class FlooringServiceImplTest {
                         service.addOrder(LocalDate.now().plusDays(1), order),
                 "Area below 100 sq ft should throw exception");
     }
+
+    @Test
+    void testBulkImportCsvReportsBadRowsWithoutAborting(@TempDir Path dir) throws FlooringException {
+        FlooringService importService = serviceWithOrdersIn(dir);
+        String csv = "OrderDate,CustomerName,State,ProductType,Area\n"
+                + "2013-06-01,Ada Lovelace,CA,Tile,249.00\n"
+                + "06-02-2013,\"Doctor Who\",WA,Wood,243\n"
+                + "2013-06-02,Albert Einstein,KY,Carpet,217\n"
+                + "2013-06-02,Marie Curie,ZZ,Carpet,217\n"
+                + "not a date,Nikola Tesla,TX,Tile,150\n"
+                + "2013-06-03,Grace Hopper,TX,Tile,50\n";
+
+        ImportResult result = importService.importOrders(new StringReader(csv), ImportFormat.CSV);
+
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getDates());
+        assertEquals(List.of(5, 6, 7), result.getErrors().stream().map(ImportResult.RowError::getLineNumber).toList());
+
+        List<Order> june2 = importService.getOrdersByDate(LocalDate.of(2013, 6, 2));
+        assertEquals(2, june2.size());
+        assertEquals("Doctor Who", june2.get(0).getCustomerName(), "Rows keep their file order within a date");
+        assertEquals(0, new BigDecimal("2628.23").compareTo(june2.get(0).getTotal()), "Imported orders should be priced");
+    }
+
+    @Test
+    void testBulkImportNdjson(@TempDir Path dir) throws FlooringException {
+        FlooringService importService = serviceWithOrdersIn(dir);
+        String ndjson = "{\"orderDate\":\"2030-01-01\",\"customerName\":\"Ada Lovelace\",\"state\":\"CA\",\"productType\":\"Tile\",\"area\":249.00}\n"
+                + "{\"orderDate\":\"2030-01-01\",\"customerName\":\"Doctor Who\",\"state\":\"WA\",\"productType\":\"Wood\",\"area\":\"243\"}\n"
+                + "{\"orderDate\":\"2030-01-01\",\"customerName\":\"Broken\"\n";
+
+        ImportResult result = importService.importOrders(new StringReader(ndjson), ImportFormat.NDJSON);
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(2, importService.getOrdersByDate(LocalDate.of(2030, 1, 1)).size());
+    }
+
+    @Test
+    void testRepricingFollowsRateChanges(@TempDir Path dir) throws Exception {
+        Path products = dir.resolve("Products.txt");
+        Path taxes = dir.resolve("Taxes.txt");
+        Files.writeString(products, "ProductType,CostPerSquareFoot,LaborCostPerSquareFoot\nTile,3.50,4.15\nWood,5.15,4.75\n");
+        Files.writeString(taxes, "State,StateName,TaxRate\nTX,Texas,4.45\nCA,Calfornia,25.00\n");
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.resolve("Orders").toString());
+        Files.createDirectories(dir.resolve("Orders"));
+        OrderDaoFileImpl orderDao = new OrderDaoFileImpl(settings);
+        //rate edits are picked up by the very next lookup
+        FlooringServiceImpl repricing = new FlooringServiceImpl(orderDao, new ProductDaoFileImpl(products.toString(), 0),
+                new TaxDaoFileImpl(taxes.toString(), 0));
+        repricing.setRepricingReportFile(dir.resolve("report.txt"));
+
+        LocalDate future = LocalDate.now().plusDays(10);
+        LocalDate past = LocalDate.now().minusDays(10);
+        Order texas = repricing.addOrder(future, newOrder("Tony Soprano", "TX", "Tile"));
+        Order california = repricing.addOrder(future, newOrder("Paulie Walnuts", "CA", "Tile"));
+        Order wood = repricing.addOrder(future.plusDays(1), newOrder("Silvio Dante", "TX", "Wood"));
+        Order old = newOrder("Bobby Baccalieri", "TX", "Tile");
+        repricing.calculateCosts(old);
+        orderDao.addOrder(past, old);
+
+        assertEquals(0, repricing.repriceFutureOrders().getChanges().size(), "Nothing changed yet");
+
+        //Texas goes up, Wood is discontinued
+        Files.writeString(taxes, "State,StateName,TaxRate\nTX,Texas,8.25\nCA,Calfornia,25.00\n");
+        Files.writeString(products, "ProductType,CostPerSquareFoot,LaborCostPerSquareFoot\nTile,3.50,4.15\n");
+        RepricingReport report = repricing.repriceFutureOrders();
+
+        assertEquals(2, report.getDatesScanned(), "Past dates are not repriced");
+        assertEquals(3, report.getOrdersScanned());
+        assertEquals(1, report.getDatesRewritten());
+        assertEquals(1, report.getChanges().size());
+        RepricingReport.Change change = report.getChanges().get(0);
+        assertEquals(texas.getOrderNumber(), change.getOrderNumber());
+        assertEquals(texas.getTotal(), change.getOldTotal());
+        assertEquals(List.of(future.plusDays(1) + " #" + wood.getOrderNumber() + ": unknown product Wood"), report.getSkipped());
+
+        Order repriced = repricing.getOrder(future, texas.getOrderNumber());
+        assertEquals(new BigDecimal("8.25"), repriced.getTaxRate());
+        assertEquals(change.getNewTotal(), repriced.getTotal());
+        assertEquals(california.getTotal(), repricing.getOrder(future, california.getOrderNumber()).getTotal());
+        assertEquals(new BigDecimal("4.45"), repricing.getOrder(past, old.getOrderNumber()).getTaxRate());
+
+        List<String> lines = Files.readAllLines(dir.resolve("report.txt"));
+        assertEquals(report.toString(), lines.get(0));
+        assertTrue(lines.get(1).contains("TaxRate 4.45 -> 8.25"), lines.get(1));
+        assertFalse(lines.get(1).contains("CostPerSquareFoot"), "Unchanged fields are left out");
+        assertTrue(lines.get(2).startsWith("SKIPPED"));
+        orderDao.close();
+    }
+
+    @Test
+    void testRevenueReportSumsMonthsStatesAndProducts(@TempDir Path dir) throws FlooringException {
+        FlooringService reporting = serviceWithOrdersIn(dir);
+        LocalDate march = LocalDate.of(2031, 3, 10);
+        LocalDate april = LocalDate.of(2031, 4, 2);
+        Order a = reporting.addOrder(march, newOrder("Tony Soprano", "TX", "Tile"));
+        Order b = reporting.addOrder(march, newOrder("Paulie Walnuts", "CA", "Wood"));
+        Order c = reporting.addOrder(april, newOrder("Silvio Dante", "TX", "Wood"));
+        reporting.addOrder(LocalDate.of(2032, 1, 1), newOrder("Bobby Baccalieri", "TX", "Tile"));
+
+        RevenueReport year = reporting.getRevenueReport(LocalDate.of(2031, 1, 1), LocalDate.of(2031, 12, 31));
+        assertEquals(2, year.getDays().size());
+        assertEquals(3, year.getTotal().getOrders());
+        assertEquals(0, a.getTotal().add(b.getTotal()).add(c.getTotal()).compareTo(year.getTotal().getTotal()));
+        assertEquals(0, a.getTotal().add(b.getTotal()).compareTo(year.getByMonth().get(java.time.YearMonth.of(2031, 3)).getTotal()));
+        assertEquals(2, year.getByState().get("TX").getOrders());
+        assertEquals(0, b.getTax().add(c.getTax()).compareTo(year.getByProduct().get("Wood").getTax()));
+        assertTrue(year.toString().contains("2031-04"));
+
+        RevenueReport april2031 = reporting.getRevenueReport(april.withDayOfMonth(1), april.withDayOfMonth(30));
+        assertEquals(1, april2031.getTotal().getOrders());
+        assertThrows(FlooringException.class, () -> reporting.getRevenueReport(april, march));
+    }
+
+    @Test
+    void testFindOrdersByCustomer(@TempDir Path dir) throws FlooringException {
+        FlooringService searching = serviceWithOrdersIn(dir);
+        Order a = searching.addOrder(LocalDate.of(2031, 3, 10), newOrder("Tony Soprano", "TX", "Tile"));
+        searching.addOrder(LocalDate.of(2031, 3, 10), newOrder("Paulie Walnuts", "CA", "Wood"));
+
+        List<Order> found = searching.findOrdersByCustomer(" tony ");
+        assertEquals(1, found.size());
+        assertEquals(a.getOrderNumber(), found.get(0).getOrderNumber());
+        assertEquals(0, a.getTotal().compareTo(found.get(0).getTotal()));
+        assertThrows(FlooringException.class, () -> searching.findOrdersByCustomer(" - "));
+    }
+
+    private static Order newOrder(String name, String state, String product) {
+        Order order = new Order();
+        order.setCustomerName(name);
+        order.setState(state);
+        order.setProductType(product);
+        order.setArea(new BigDecimal("150"));
+        return order;
+    }
+
+    private FlooringService serviceWithOrdersIn(Path dir) {
+        StorageSettings settings = new StorageSettings();
+        settings.setOrdersFolder(dir.toString());
+        return new FlooringServiceImpl(new OrderDaoFileImpl(settings), new ProductDaoFileImpl(), new TaxDaoFileImpl());
+    }
 }
@@ -0,0 +1,130 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.Product;
+import org.example.model.Tax;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Property style checks: for many random inputs the long engine has to give exactly what
+ * the BigDecimal formula gives, same unscaled value and same scale (BigDecimal.equals).
+ */
+public class OrderPricingTest {
+
+    private static final int TRIES = 200_000;
+
+    @Test
+    void testRealisticInputsMatchBigDecimal() {
+        Random random = new Random(2024);
+        for (int i = 0; i < TRIES; i++) {
+            BigDecimal area = decimal(random, 100, 100_000, random.nextInt(4));
+            BigDecimal cost = decimal(random, 1, 5_000, random.nextInt(4));
+            BigDecimal labor = decimal(random, 1, 5_000, random.nextInt(4));
+            BigDecimal rate = decimal(random, 0, 3_000, random.nextInt(4));
+            assertSamePrice(area, cost, labor, rate, true);
+        }
+    }
+
+    @Test
+    void testWideInputsMatchBigDecimal() {
+        Random random = new Random(99);
+        for (int i = 0; i < TRIES; i++) {
+            BigDecimal area = BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(12));
+            BigDecimal cost = BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(12));
+            BigDecimal labor = BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(12));
+            BigDecimal rate = BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(12));
+            //whichever path is taken, the result must not change
+            assertSamePrice(area, cost, labor, rate, false);
+        }
+    }
+
+    @Test
+    void testHalfwayCasesRoundUp() {
+        //subtotal 100.00, rate 0.5% -> tax 0.50 exactly; rate 0.005% -> 0.005 -> 0.01
+        assertSamePrice(new BigDecimal("100"), new BigDecimal("0.50"), new BigDecimal("0.50"), new BigDecimal("0.005"), true);
+        //subtotal 0.125 -> total rounds to 0.13
+        assertSamePrice(new BigDecimal("0.125"), new BigDecimal("1"), new BigDecimal("0"), new BigDecimal("0"), true);
+        //negative ties round away from zero
+        assertSamePrice(new BigDecimal("-0.125"), new BigDecimal("1"), new BigDecimal("0"), new BigDecimal("0"), true);
+        assertSamePrice(new BigDecimal("-100"), new BigDecimal("0.50"), new BigDecimal("0.50"), new BigDecimal("0.005"), true);
+
+        Order order = price("249.00", "3.50", "4.15", "25.00");
+        assertEquals(new BigDecimal("871.5000"), order.getMaterialCost());
+        assertEquals(new BigDecimal("476.21"), order.getTax());
+        assertEquals(new BigDecimal("2381.06"), order.getTotal());
+    }
+
+    @Test
+    void testOverflowFallsBackToBigDecimal() {
+        BigDecimal huge = new BigDecimal("9223372036854775.807");
+        BigDecimal twentyDigits = new BigDecimal(BigInteger.TEN.pow(20), 2);
+        BigDecimal negativeScale = new BigDecimal("1E+3");
+
+        assertFalse(OrderPricing.priceFixedPoint(order(huge), product(huge, huge), tax(new BigDecimal("6.25"))));
+        assertFalse(OrderPricing.priceFixedPoint(order(twentyDigits), product(BigDecimal.ONE, BigDecimal.ONE), tax(BigDecimal.ONE)));
+        assertFalse(OrderPricing.priceFixedPoint(order(negativeScale), product(BigDecimal.ONE, BigDecimal.ONE), tax(BigDecimal.ONE)));
+
+        assertSamePrice(huge, huge, huge, new BigDecimal("6.25"), false);
+        assertSamePrice(twentyDigits, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE, false);
+        assertSamePrice(negativeScale, new BigDecimal("2.25"), new BigDecimal("2.10"), new BigDecimal("4.45"), false);
+    }
+
+    private static void assertSamePrice(BigDecimal area, BigDecimal cost, BigDecimal labor, BigDecimal rate, boolean expectLongPath) {
+        Order expected = order(area);
+        OrderPricing.priceBigDecimal(expected, product(cost, labor), tax(rate));
+
+        Order actual = order(area);
+        boolean longPath = OrderPricing.priceFixedPoint(actual, product(cost, labor), tax(rate));
+        if (expectLongPath) assertTrue(longPath, "Long path should handle " + area + " " + cost + " " + labor + " " + rate);
+        if (!longPath) {
+            assertNull(actual.getTotal(), "A declined order must be left untouched");
+            OrderPricing.price(actual, product(cost, labor), tax(rate));
+        }
+
+        String inputs = "area=" + area + " cost=" + cost + " labor=" + labor + " rate=" + rate;
+        assertEquals(expected.getMaterialCost(), actual.getMaterialCost(), inputs);
+        assertEquals(expected.getLaborCost(), actual.getLaborCost(), inputs);
+        assertEquals(expected.getTax(), actual.getTax(), inputs);
+        assertEquals(expected.getTotal(), actual.getTotal(), inputs);
+        assertEquals(expected.getTaxRate(), actual.getTaxRate(), inputs);
+    }
+
+    private static Order price(String area, String cost, String labor, String rate) {
+        Order order = order(new BigDecimal(area));
+        OrderPricing.price(order, product(new BigDecimal(cost), new BigDecimal(labor)), tax(new BigDecimal(rate)));
+        return order;
+    }
+
+    private static BigDecimal decimal(Random random, int min, int max, int scale) {
+        long whole = min + random.nextInt(max - min + 1);
+        long fraction = scale == 0 ? 0 : random.nextInt((int) Math.pow(10, scale));
+        return BigDecimal.valueOf(whole * (long) Math.pow(10, scale) + fraction, scale);
+    }
+
+    private static Order order(BigDecimal area) {
+        Order order = new Order();
+        order.setArea(area);
+        return order;
+    }
+
+    private static Product product(BigDecimal cost, BigDecimal labor) {
+        Product product = new Product();
+        product.setProductType("Tile");
+        product.setCostPerSquareFoot(cost);
+        product.setLaborCostPerSquareFoot(labor);
+        return product;
+    }
+
+    private static Tax tax(BigDecimal rate) {
+        Tax tax = new Tax();
+        tax.setStateAbbreviation("TX");
+        tax.setTaxRate(rate);
+        return tax;
+    }
+}